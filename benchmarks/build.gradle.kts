@@ -0,0 +1,56 @@
+plugins {
+    `java-library`
+    // JMH support, run with ./gradlew :benchmarks:jmh
+    id("me.champeau.jmh") version("0.7.2")
+}
+
+// Configure Java compilation settings
+java {
+    toolchain {
+        // Set Java version to 17
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+dependencies {
+    // The fixtures bring the common module and the SDK, which a gateway would otherwise provide
+    implementation(projects.fixtures)
+    jmh(projects.fixtures)
+}
+
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    benchmarkMode.set(listOf("thrpt"))
+    // Reports allocation rate alongside throughput
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+
+    // Narrow the run with -PjmhIncludes=<regex>, e.g. -PjmhIncludes=StrategyBenchmarks
+    findProperty("jmhIncludes")?.let { includes.set(listOf(it.toString())) }
+}
+
+// Runs the export and import scenarios against the in-memory tag manager and fails on regressions, e.g.
+// ./gradlew :benchmarks:perfRegression -PperfSizes=10000,100000 -PperfModes=singleFile
+// Pass -PupdateBaseline to replace perf-baseline.json with the results instead.
+tasks.register<JavaExec>("perfRegression") {
+    group = "verification"
+    description = "Compares export and import performance with the committed baseline"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("dev.bwdesigngroup.ignition.tag_cicd.benchmarks.PerformanceRegressionSuite")
+    // Larger providers, such as 1M tags with -PperfSizes, hold the whole provider in memory several times over
+    maxHeapSize = findProperty("perfHeap")?.toString() ?: "8g"
+
+    val suiteArgs = mutableListOf(
+        "--baseline=${file("perf-baseline.json")}",
+        "--results=${layout.buildDirectory.file("perf/results.json").get().asFile}"
+    )
+    findProperty("perfSizes")?.let { suiteArgs.add("--sizes=$it") }
+    findProperty("perfModes")?.let { suiteArgs.add("--modes=$it") }
+    findProperty("perfRuns")?.let { suiteArgs.add("--runs=$it") }
+    if (hasProperty("updateBaseline")) {
+        suiteArgs.add("--updateBaseline")
+    }
+    args = suiteArgs
+}
@@ -0,0 +1,86 @@
+package dev.bwdesigngroup.ignition.tag_cicd.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategy;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategyFactory;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.InMemoryTagManager;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.SyntheticTagTreeGenerator;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Benchmarks for each export mode's write path, and for its import, which
+ * reads the source the way a gateway import does, into the fixtures'
+ * in-memory tag manager.
+ */
+@State(Scope.Benchmark)
+public class StrategyBenchmarks {
+    private static final String PROVIDER = "bench";
+
+    @Param({ "singleFile", "individualFiles", "structuredByType" })
+    public String exportMode;
+
+    @Param({ "1000", "10000" })
+    public int tagCount;
+
+    @Param({ "3" })
+    public int depth;
+
+    @Param({ "4" })
+    public int fanOut;
+
+    @Param({ "20" })
+    public int udtTypes;
+
+    private TagExportImportStrategy strategy;
+    private JsonObject tree;
+    private Path writeDirectory;
+    private Path readDirectory;
+    private InMemoryTagManager tagManager;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        strategy = TagExportImportStrategyFactory.getInstance().getStrategy(exportMode);
+        tree = new SyntheticTagTreeGenerator().setSeed(42).setTagCount(tagCount).setDepth(depth).setFanOut(fanOut)
+                .setUdtTypes(udtTypes).generate();
+        writeDirectory = Files.createTempDirectory("tag-cicd-bench-write");
+        readDirectory = Files.createTempDirectory("tag-cicd-bench-read");
+        strategy.writeTagsToDisk(tree, target(readDirectory), false, false);
+        tagManager = new InMemoryTagManager().addProvider(PROVIDER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtilities.deleteDirectory(writeDirectory.toFile());
+        FileUtilities.deleteDirectory(readDirectory.toFile());
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        strategy.writeTagsToDisk(tree, target(writeDirectory), true, false);
+    }
+
+    @Benchmark
+    public JsonObject importFromSource() throws IOException {
+        return TagImportUtilities.importTagsFromSource(tagManager.getTagManager(), PROVIDER, "",
+                target(readDirectory), "o", exportMode);
+    }
+
+    private String target(Path directory) {
+        return ExportMode.SINGLE_FILE.getCode().equals(exportMode) ? directory.resolve("tags.json").toString()
+                : directory + "/";
+    }
+}
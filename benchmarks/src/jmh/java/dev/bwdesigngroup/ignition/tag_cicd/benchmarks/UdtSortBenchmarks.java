@@ -0,0 +1,54 @@
+package dev.bwdesigngroup.ignition.tag_cicd.benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.SyntheticTagTreeGenerator;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Benchmarks for ordering UDT definitions by their dependencies.
+ */
+@State(Scope.Benchmark)
+public class UdtSortBenchmarks {
+    @Param({ "50", "500" })
+    public int udtTypes;
+
+    @Param({ "1000" })
+    public int tagCount;
+
+    @Param({ "3" })
+    public int inheritanceDepth;
+
+    @Param({ "3" })
+    public int nestingDepth;
+
+    private JsonObject tree;
+    private JsonArray definitions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tree = new SyntheticTagTreeGenerator().setSeed(42).setTagCount(tagCount).setDepth(2)
+                .setUdtTypes(udtTypes).setInheritanceDepth(inheritanceDepth).setNestingDepth(nestingDepth).generate();
+        definitions = TagImportUtilities.findTypesFolder(tree).getAsJsonArray("tags");
+    }
+
+    @Benchmark
+    public List<JsonObject> sortUdtTypesByDependencies() {
+        return TagConfigUtilities.sortUdtTypesByDependencies(definitions);
+    }
+
+    @Benchmark
+    public JsonObject sortTagsAndUdtTypes() {
+        return TagConfigUtilities.sortTagsAndUdtTypes(tree);
+    }
+}
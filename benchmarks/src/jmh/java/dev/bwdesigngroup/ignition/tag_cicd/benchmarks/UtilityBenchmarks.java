@@ -0,0 +1,82 @@
+package dev.bwdesigngroup.ignition.tag_cicd.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategyFactory;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.SyntheticTagTreeGenerator;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Benchmarks for the JSON and file utilities shared by every export mode.
+ */
+@State(Scope.Benchmark)
+public class UtilityBenchmarks {
+    @Param({ "1000", "10000" })
+    public int tagCount;
+
+    @Param({ "3" })
+    public int depth;
+
+    @Param({ "4" })
+    public int fanOut;
+
+    @Param({ "20" })
+    public int udtTypes;
+
+    private JsonObject tree;
+    private Path outputFile;
+    private Path individualFilesDirectory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        tree = new SyntheticTagTreeGenerator().setSeed(42).setTagCount(tagCount).setDepth(depth).setFanOut(fanOut)
+                .setUdtTypes(udtTypes).generate();
+        outputFile = Files.createTempFile("tag-cicd-bench", ".json");
+        individualFilesDirectory = Files.createTempDirectory("tag-cicd-bench");
+        TagExportImportStrategyFactory.getInstance().getStrategy(ExportMode.INDIVIDUAL_FILES.getCode())
+                .writeTagsToDisk(tree, individualFilesDirectory + "/", false, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outputFile);
+        FileUtilities.deleteDirectory(individualFilesDirectory.toFile());
+    }
+
+    @Benchmark
+    public JsonElement sortJsonElementRecursively() {
+        return FileUtilities.sortJsonElementRecursively(tree);
+    }
+
+    @Benchmark
+    public void saveJsonToFile() throws IOException {
+        // Unchanged content is not rewritten, so start from an empty file each time
+        Files.deleteIfExists(outputFile);
+        FileUtilities.saveJsonToFile(tree, outputFile.toString());
+    }
+
+    @Benchmark
+    public JsonObject removeUdtDefinitions() {
+        return TagExportUtilities.removeUdtDefinitions(tree);
+    }
+
+    @Benchmark
+    public JsonObject readTagsFromDirectory() throws IOException {
+        return TagImportUtilities.readTagsFromDirectory(individualFilesDirectory.toString(), "");
+    }
+}
@@ -0,0 +1,346 @@
+package dev.bwdesigngroup.ignition.tag_cicd.benchmarks;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.InMemoryTagManager;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.SyntheticTagTreeGenerator;
+import com.inductiveautomation.ignition.common.gson.GsonBuilder;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+
+/**
+ * Runs the standard export and import scenarios against the in-memory tag
+ * manager and compares them with a stored baseline.
+ *
+ * Each scenario exports or imports a synthetic provider of a given size in
+ * one export mode, and records its wall time, peak heap, the bytes it wrote and
+ * the calls it made to the tag manager. A metric regresses when it exceeds its
+ * baseline by more than both the relative threshold and the absolute minimum
+ * for that metric, set in the baseline file. A baseline may leave out metrics,
+ * such as the timings of a machine other than the one running the suite, and
+ * those are not compared. Any regression, or any scenario missing from the
+ * baseline, makes the suite exit with status 1.
+ *
+ * Run through {@code ./gradlew :benchmarks:perfRegression}, see the
+ * benchmarks readme for the options.
+ */
+public class PerformanceRegressionSuite {
+    private static final String PROVIDER = "default";
+    private static final long SEED = 20240101L;
+    private static final String[] METRICS = { "wallTimeMillis", "peakHeapBytes", "bytesWritten", "tagCalls" };
+
+    private final List<Integer> sizes = new ArrayList<>(List.of(10_000, 100_000));
+    private final List<ExportMode> modes = new ArrayList<>(Arrays.asList(ExportMode.values()));
+    private int runs = 3;
+    private Path baselinePath = Paths.get("perf-baseline.json");
+    private Path resultsPath = Paths.get("build/perf/results.json");
+    private boolean updateBaseline;
+
+    public static void main(String[] args) throws IOException {
+        PerformanceRegressionSuite suite = new PerformanceRegressionSuite();
+        suite.parseArguments(args);
+        System.exit(suite.run() ? 0 : 1);
+    }
+
+    private void parseArguments(String[] args) {
+        for (String arg : args) {
+            if ("--updateBaseline".equals(arg)) {
+                updateBaseline = true;
+                continue;
+            }
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+
+            switch (name) {
+                case "sizes":
+                    sizes.clear();
+                    for (String size : value.split(",")) {
+                        sizes.add(Integer.parseInt(size.trim()));
+                    }
+                    break;
+                case "modes":
+                    modes.clear();
+                    for (String mode : value.split(",")) {
+                        modes.add(ExportMode.fromCode(mode.trim()));
+                    }
+                    break;
+                case "runs":
+                    runs = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "baseline":
+                    baselinePath = Paths.get(value);
+                    break;
+                case "results":
+                    resultsPath = Paths.get(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+    }
+
+    /**
+     * Runs every scenario, writes the results, and compares them with the
+     * baseline or replaces the baseline with them.
+     *
+     * @return false if any metric regressed
+     */
+    private boolean run() throws IOException {
+        JsonObject baseline = readBaseline();
+        Map<String, Map<String, Long>> results = new LinkedHashMap<>();
+        Path workDirectory = Files.createTempDirectory("tag-cicd-perf");
+
+        try {
+            // Warm up the JIT on the smallest provider so the first measured scenario is not penalized
+            JsonObject warmupTags = generate(Collections.min(sizes));
+            for (ExportMode mode : modes) {
+                runExport(warmupTags, mode, target(workDirectory, mode));
+                runImport(mode, target(workDirectory, mode));
+            }
+
+            for (int size : sizes) {
+                JsonObject tagsJson = generate(size);
+                for (ExportMode mode : modes) {
+                    String target = target(workDirectory, mode);
+                    List<Map<String, Long>> exports = new ArrayList<>();
+                    List<Map<String, Long>> imports = new ArrayList<>();
+                    for (int run = 0; run < runs; run++) {
+                        exports.add(runExport(tagsJson, mode, target));
+                        imports.add(runImport(mode, target));
+                    }
+                    record(results, "export/" + mode.getCode() + "/" + size, exports);
+                    record(results, "import/" + mode.getCode() + "/" + size, imports);
+                }
+            }
+        } finally {
+            FileUtilities.deleteDirectory(workDirectory.toFile());
+        }
+
+        JsonObject resultsJson = toJson(results);
+        writeJson(resultsPath, resultsJson);
+        System.out.println("Wrote results to " + resultsPath.toAbsolutePath());
+
+        if (updateBaseline) {
+            baseline.add("scenarios", resultsJson);
+            writeJson(baselinePath, baseline);
+            System.out.println("Updated baseline " + baselinePath.toAbsolutePath());
+            return true;
+        }
+        return compare(baseline, results);
+    }
+
+    private JsonObject generate(int size) {
+        return new SyntheticTagTreeGenerator()
+                .setSeed(SEED)
+                .setTagCount(size)
+                .setDepth(4)
+                .setFanOut(6)
+                .setUdtTypes(Math.max(20, size / 1000))
+                .generate();
+    }
+
+    /**
+     * Exports a provider to disk from a freshly loaded in-memory tag manager.
+     */
+    private Map<String, Long> runExport(JsonObject tagsJson, ExportMode mode, String target) throws IOException {
+        InMemoryTagManager tagManager = new InMemoryTagManager().loadTags(PROVIDER, tagsJson);
+        Measurement measurement = Measurement.start();
+        TagExportUtilities.exportTagsToDisk(tagManager.getTagManager(), PROVIDER, "", true, false, target,
+                mode.getCode(), true, false);
+        return measurement.stop(sizeOnDisk(Paths.get(target)),
+                tagManager.getCallCount(InMemoryTagManager.Operation.READ));
+    }
+
+    /**
+     * Imports a provider from disk into an empty in-memory tag manager.
+     */
+    private Map<String, Long> runImport(ExportMode mode, String source) throws IOException {
+        InMemoryTagManager tagManager = new InMemoryTagManager().addProvider(PROVIDER);
+        Measurement measurement = Measurement.start();
+        TagImportUtilities.importTagsFromSource(tagManager.getTagManager(), PROVIDER, "", source, "o",
+                mode.getCode());
+        return measurement.stop(0, tagManager.getCallCount(InMemoryTagManager.Operation.IMPORT));
+    }
+
+    private static String target(Path workDirectory, ExportMode mode) {
+        Path target = workDirectory.resolve(mode.getCode());
+        return mode == ExportMode.SINGLE_FILE ? target.resolve("tags.json").toString() : target.toString();
+    }
+
+    private static long sizeOnDisk(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    /**
+     * Records the median of each metric across the runs of a scenario.
+     */
+    private static void record(Map<String, Map<String, Long>> results, String scenario,
+            List<Map<String, Long>> runs) {
+        Map<String, Long> medians = new LinkedHashMap<>();
+        for (String metric : METRICS) {
+            List<Long> values = new ArrayList<>();
+            for (Map<String, Long> run : runs) {
+                values.add(run.get(metric));
+            }
+            Collections.sort(values);
+            medians.put(metric, values.get(values.size() / 2));
+        }
+        results.put(scenario, medians);
+        System.out.printf("%-40s %10d ms %10d MB heap %12d bytes %8d calls%n", scenario,
+                medians.get("wallTimeMillis"), medians.get("peakHeapBytes") / (1024 * 1024),
+                medians.get("bytesWritten"), medians.get("tagCalls"));
+    }
+
+    /**
+     * Compares results with the baseline and prints each regression, and each
+     * scenario the baseline has no entry for.
+     *
+     * @return false if any metric regressed or any scenario is missing
+     */
+    private static boolean compare(JsonObject baseline, Map<String, Map<String, Long>> results) {
+        JsonObject scenarios = baseline.has("scenarios") ? baseline.getAsJsonObject("scenarios") : new JsonObject();
+        JsonObject thresholds = baseline.getAsJsonObject("thresholds");
+        JsonObject minimumDeltas = baseline.getAsJsonObject("minimumDeltas");
+
+        int regressions = 0;
+        int missing = 0;
+        for (Map.Entry<String, Map<String, Long>> result : results.entrySet()) {
+            if (!scenarios.has(result.getKey())) {
+                missing++;
+                System.out.println("MISSING " + result.getKey() + " has no baseline");
+                continue;
+            }
+
+            JsonObject expected = scenarios.getAsJsonObject(result.getKey());
+            for (String metric : METRICS) {
+                if (!expected.has(metric) || !thresholds.has(metric)) {
+                    continue;
+                }
+                long baselineValue = expected.get(metric).getAsLong();
+                long actual = result.getValue().get(metric);
+                long allowed = Math.max((long) (baselineValue * (1 + thresholds.get(metric).getAsDouble())),
+                        baselineValue + (minimumDeltas != null && minimumDeltas.has(metric)
+                                ? minimumDeltas.get(metric).getAsLong()
+                                : 0));
+                if (actual > allowed) {
+                    regressions++;
+                    System.out.printf("REGRESSION %s %s: %d, baseline %d, allowed %d%n", result.getKey(), metric,
+                            actual, baselineValue, allowed);
+                }
+            }
+        }
+
+        if (missing > 0) {
+            System.out.println(missing + " scenarios have no baseline, run with -PupdateBaseline to record them");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " metrics regressed past their thresholds");
+        }
+        if (missing > 0 || regressions > 0) {
+            return false;
+        }
+        System.out.println("No regressions against " + results.size() + " baseline scenarios");
+        return true;
+    }
+
+    private JsonObject readBaseline() throws IOException {
+        if (!Files.exists(baselinePath)) {
+            throw new IOException("Baseline file not found: " + baselinePath.toAbsolutePath());
+        }
+        String content = new String(Files.readAllBytes(baselinePath), StandardCharsets.UTF_8);
+        JsonObject baseline = new JsonParser().parse(content).getAsJsonObject();
+        if (!baseline.has("thresholds")) {
+            throw new IOException("Baseline file has no thresholds: " + baselinePath.toAbsolutePath());
+        }
+        return baseline;
+    }
+
+    private static JsonObject toJson(Map<String, Map<String, Long>> results) {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, Map<String, Long>> result : results.entrySet()) {
+            JsonObject metrics = new JsonObject();
+            for (Map.Entry<String, Long> metric : result.getValue().entrySet()) {
+                metrics.addProperty(metric.getKey(), metric.getValue());
+            }
+            json.add(result.getKey(), metrics);
+        }
+        return json;
+    }
+
+    private static void writeJson(Path path, JsonObject json) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        String content = new GsonBuilder().setPrettyPrinting().create().toJson(json) + "\n";
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Measures the wall time and peak heap of one scenario run.
+     *
+     * Peak heap is the sum of the peak usage of each heap memory pool since
+     * the run started. Pools can peak at different moments, so this slightly
+     * overstates the true peak, but consistently so between runs.
+     */
+    private static final class Measurement {
+        private final long startNanos;
+
+        private Measurement(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        static Measurement start() {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                }
+            }
+            return new Measurement(System.nanoTime());
+        }
+
+        Map<String, Long> stop(long bytesWritten, long tagCalls) {
+            long wallTimeMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            long peakHeapBytes = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peakHeapBytes += pool.getPeakUsage().getUsed();
+                }
+            }
+
+            Map<String, Long> metrics = new LinkedHashMap<>();
+            metrics.put("wallTimeMillis", wallTimeMillis);
+            metrics.put("peakHeapBytes", peakHeapBytes);
+            metrics.put("bytesWritten", bytesWritten);
+            metrics.put("tagCalls", tagCalls);
+            return metrics;
+        }
+    }
+}
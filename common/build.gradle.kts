@@ -12,4 +12,14 @@ java {
 dependencies {
     compileOnly(libs.ignition.common)
     compileOnly(libs.ignition.gateway.api)
+
+    // The fixtures bring the SDK at runtime, which a gateway would otherwise provide
+    testImplementation(projects.fixtures)
+    testImplementation(platform(libs.junit.bom))
+    testImplementation(libs.junit.jupiter)
+    testRuntimeOnly(libs.junit.platform.launcher)
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
\ No newline at end of file
@@ -8,6 +8,10 @@ public interface TagCICDRPC {
         String importTags(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
                         String exportMode);
 
+        String exportTagsBatch(String operationsJson, boolean deleteExisting);
+
+        String importTagsBatch(String operationsJson);
+
         String exportTagsFromConfig();
 
         String importTagsFromConfig();
@@ -4,4 +4,80 @@ public class TagCICDConstants {
     public static final String MODULE_ID = "tag-cicd";
     public static final String DESIGNER_NOTIFICATION_ID = "tag-cicd-designer";
     public static final String CONFIG_FILE_PATH = "data/modules/tag-cicd/export-config.json";
-}
\ No newline at end of file
+    public static final String FINGERPRINT_FILE_PATH = "data/modules/tag-cicd/source-fingerprints.json";
+    public static final String HISTORY_DIRECTORY_PATH = "data/modules/tag-cicd/history";
+
+    // Startup import settings, supplied as JVM system properties (wrapper.java.additional in ignition.conf)
+    public static final String STARTUP_ENTRY_TIMEOUT_PROPERTY = "tagcicd.startup.entryTimeoutSeconds";
+    public static final long DEFAULT_STARTUP_ENTRY_TIMEOUT_SECONDS = 600;
+    public static final String STARTUP_WAIT_FOR_PROVIDERS_PROPERTY = "tagcicd.startup.waitForProviders";
+    public static final String STARTUP_PROVIDER_WAIT_PROPERTY = "tagcicd.startup.providerWaitSeconds";
+    public static final long DEFAULT_STARTUP_PROVIDER_WAIT_SECONDS = 120;
+    public static final String STARTUP_SKIP_UNCHANGED_PROPERTY = "tagcicd.startup.skipUnchanged";
+
+    // Watch mode settings for entries with watchSource enabled
+    public static final String WATCH_DEBOUNCE_PROPERTY = "tagcicd.watch.debounceMillis";
+    public static final long DEFAULT_WATCH_DEBOUNCE_MILLIS = 2000;
+    public static final String WATCH_MAX_DELAY_PROPERTY = "tagcicd.watch.maxDelayMillis";
+    public static final long DEFAULT_WATCH_MAX_DELAY_MILLIS = 30000;
+
+    // Continuous export settings for entries with exportOnChange enabled
+    public static final String EXPORT_DEBOUNCE_PROPERTY = "tagcicd.export.debounceMillis";
+    public static final long DEFAULT_EXPORT_DEBOUNCE_MILLIS = 5000;
+    public static final String EXPORT_MAX_DELAY_PROPERTY = "tagcicd.export.maxDelayMillis";
+    public static final long DEFAULT_EXPORT_MAX_DELAY_MILLIS = 60000;
+
+    // Cache of the JSON of recursive exports made over HTTP
+    public static final String EXPORT_CACHE_MAX_TAGS_PROPERTY = "tagcicd.export.cacheMaxTags";
+    public static final long DEFAULT_EXPORT_CACHE_MAX_TAGS = 1000000;
+
+    // Batch export and import settings
+    public static final String BATCH_MAX_CONCURRENCY_PROPERTY = "tagcicd.batch.maxConcurrency";
+    public static final int DEFAULT_BATCH_MAX_CONCURRENCY = 4;
+
+    // Operation scheduler settings, where each lane's limit is set with tagcicd.scheduler.<lane>.maxConcurrency
+    public static final String SCHEDULER_MAX_CONCURRENCY_PROPERTY = "tagcicd.scheduler.maxConcurrency";
+    public static final int DEFAULT_SCHEDULER_MAX_CONCURRENCY = 8;
+    public static final String SCHEDULER_LANE_CONCURRENCY_PROPERTY = "tagcicd.scheduler.%s.maxConcurrency";
+    public static final int DEFAULT_SCHEDULER_INTERACTIVE_CONCURRENCY = 8;
+    public static final int DEFAULT_SCHEDULER_AUTOMATION_CONCURRENCY = 6;
+    public static final int DEFAULT_SCHEDULER_BACKGROUND_CONCURRENCY = 2;
+    public static final String SCHEDULER_AGING_PROPERTY = "tagcicd.scheduler.agingMillis";
+    public static final long DEFAULT_SCHEDULER_AGING_MILLIS = 30000;
+
+    // Adaptive import settings, where a tags per second ceiling of 0 leaves imports unthrottled
+    public static final String IMPORT_INITIAL_BATCH_SIZE_PROPERTY = "tagcicd.import.initialBatchSize";
+    public static final int DEFAULT_IMPORT_INITIAL_BATCH_SIZE = 10;
+    public static final String IMPORT_MAX_BATCH_SIZE_PROPERTY = "tagcicd.import.maxBatchSize";
+    public static final int DEFAULT_IMPORT_MAX_BATCH_SIZE = 500;
+    public static final String IMPORT_MAX_IN_FLIGHT_PROPERTY = "tagcicd.import.maxInFlight";
+    public static final int DEFAULT_IMPORT_MAX_IN_FLIGHT = 4;
+    public static final String IMPORT_TARGET_LATENCY_PROPERTY = "tagcicd.import.targetLatencyMillis";
+    public static final long DEFAULT_IMPORT_TARGET_LATENCY_MILLIS = 1000;
+    public static final String IMPORT_MAX_BAD_QUALITY_PERCENT_PROPERTY = "tagcicd.import.maxBadQualityPercent";
+    public static final int DEFAULT_IMPORT_MAX_BAD_QUALITY_PERCENT = 10;
+    public static final String IMPORT_MAX_TAGS_PER_SECOND_PROPERTY = "tagcicd.import.maxTagsPerSecond";
+    public static final long DEFAULT_IMPORT_MAX_TAGS_PER_SECOND = 0;
+
+    // Retries of tags whose UDT definition or parent was missing when they were imported
+    public static final String IMPORT_RETRY_ROUNDS_PROPERTY = "tagcicd.import.retryRounds";
+    public static final int DEFAULT_IMPORT_RETRY_ROUNDS = 3;
+    public static final String IMPORT_RETRY_QUALITY_CODES_PROPERTY = "tagcicd.import.retryQualityCodes";
+    public static final String DEFAULT_IMPORT_RETRY_QUALITY_CODES = "Bad_NotFound,Bad_ReferenceNotFound,Error_Configuration";
+
+    // Tag path lock settings, where a negative timeout waits until the lock is free
+    public static final String LOCK_TIMEOUT_PROPERTY = "tagcicd.lock.timeoutMillis";
+    public static final long DEFAULT_LOCK_TIMEOUT_MILLIS = -1;
+
+    // Operation deadlines, where a negative timeout lets operations run until they finish
+    public static final String OPERATION_TIMEOUT_PROPERTY = "tagcicd.operation.timeoutMillis";
+    public static final long DEFAULT_OPERATION_TIMEOUT_MILLIS = -1;
+    public static final String RPC_TIMEOUT_PROPERTY = "tagcicd.rpc.timeoutMillis";
+    public static final long DEFAULT_RPC_TIMEOUT_MILLIS = 30000;
+
+    // Operation history settings
+    public static final String HISTORY_MAX_FILE_BYTES_PROPERTY = "tagcicd.history.maxFileBytes";
+    public static final long DEFAULT_HISTORY_MAX_FILE_BYTES = 10 * 1024 * 1024;
+    public static final String HISTORY_MAX_FILES_PROPERTY = "tagcicd.history.maxFiles";
+    public static final int DEFAULT_HISTORY_MAX_FILES = 10;
+}
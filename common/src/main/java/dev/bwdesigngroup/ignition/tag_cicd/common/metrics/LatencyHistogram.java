@@ -0,0 +1,117 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.metrics;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * A fixed-bucket histogram of call latencies.
+ *
+ * Buckets are bounded above by {@link #BUCKET_BOUNDS_MILLIS}, with a final
+ * bucket for anything slower. Percentiles are estimated as the upper bound of
+ * the bucket they fall in.
+ */
+public class LatencyHistogram {
+    /**
+     * The inclusive upper bound of each bucket, in milliseconds.
+     */
+    public static final double[] BUCKET_BOUNDS_MILLIS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000,
+            10000 };
+
+    private final long[] bucketCounts = new long[BUCKET_BOUNDS_MILLIS.length + 1];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public synchronized void record(long nanos) {
+        double millis = nanos / 1_000_000.0;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MILLIS.length && millis > BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        bucketCounts[bucket]++;
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Adds every recorded latency of another histogram to this one.
+     */
+    public void merge(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherCount;
+        long otherTotalNanos;
+        long otherMaxNanos;
+        synchronized (other) {
+            otherCounts = other.bucketCounts.clone();
+            otherCount = other.count;
+            otherTotalNanos = other.totalNanos;
+            otherMaxNanos = other.maxNanos;
+        }
+
+        synchronized (this) {
+            for (int i = 0; i < bucketCounts.length; i++) {
+                bucketCounts[i] += otherCounts[i];
+            }
+            count += otherCount;
+            totalNanos += otherTotalNanos;
+            maxNanos = Math.max(maxNanos, otherMaxNanos);
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns a copy of the count in each bucket, the last being the bucket
+     * above every bound.
+     */
+    public synchronized long[] getBucketCounts() {
+        return bucketCounts.clone();
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls in, or
+     * the maximum latency for the last bucket.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the estimate in milliseconds, 0 if nothing was recorded
+     */
+    public synchronized double getPercentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS_MILLIS[i], OperationMetrics.toMillis(maxNanos));
+            }
+        }
+        return OperationMetrics.toMillis(maxNanos);
+    }
+
+    public synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", count);
+        json.addProperty("totalMillis", OperationMetrics.toMillis(totalNanos));
+        json.addProperty("meanMillis", count == 0 ? 0 : OperationMetrics.toMillis(totalNanos / count));
+        json.addProperty("maxMillis", OperationMetrics.toMillis(maxNanos));
+        json.addProperty("p50Millis", getPercentileMillis(50));
+        json.addProperty("p95Millis", getPercentileMillis(95));
+        json.addProperty("p99Millis", getPercentileMillis(99));
+
+        JsonObject buckets = new JsonObject();
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            buckets.addProperty("le" + (long) BUCKET_BOUNDS_MILLIS[i], bucketCounts[i]);
+        }
+        buckets.addProperty("leInf", bucketCounts[BUCKET_BOUNDS_MILLIS.length]);
+        json.add("buckets", buckets);
+        return json;
+    }
+}
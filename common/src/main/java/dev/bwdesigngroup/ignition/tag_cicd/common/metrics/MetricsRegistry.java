@@ -0,0 +1,294 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Aggregates the metrics of every completed export and import operation.
+ *
+ * Operations are grouped by their kind, provider and export mode. Each group
+ * keeps totals since the registry was last reset, along with a histogram of
+ * operation durations and one of import call latencies. The most recent
+ * operations are also kept in full, and operations still running are tracked
+ * until they end.
+ */
+public class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class.getName());
+    private static final int RECENT_OPERATIONS = 50;
+
+    private static MetricsRegistry instance;
+
+    private final Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+    private final Deque<JsonObject> recentOperations = new ArrayDeque<>();
+    private final Set<OperationMetrics> inFlight = new LinkedHashSet<>();
+    private final List<Consumer<OperationMetrics>> listeners = new CopyOnWriteArrayList<>();
+    private long resetAt = System.currentTimeMillis();
+
+    private MetricsRegistry() {
+    }
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Tracks an operation that has begun.
+     */
+    synchronized void started(OperationMetrics metrics) {
+        inFlight.add(metrics);
+    }
+
+    /**
+     * Adds a completed operation to the aggregates, then hands it to every
+     * listener on the calling thread.
+     */
+    public void record(OperationMetrics metrics) {
+        synchronized (this) {
+            inFlight.remove(metrics);
+            String key = metrics.getOperation() + "/" + nullToEmpty(metrics.getProvider()) + "/"
+                    + nullToEmpty(metrics.getExportMode());
+            aggregates.computeIfAbsent(key,
+                    k -> new Aggregate(metrics.getOperation(), metrics.getProvider(), metrics.getExportMode()))
+                    .add(metrics);
+
+            JsonObject summary = metrics.toJson();
+            summary.addProperty("completedAt", System.currentTimeMillis());
+            recentOperations.addFirst(summary);
+            while (recentOperations.size() > RECENT_OPERATIONS) {
+                recentOperations.removeLast();
+            }
+        }
+
+        for (Consumer<OperationMetrics> listener : listeners) {
+            try {
+                listener.accept(metrics);
+            } catch (Exception e) {
+                logger.error("Error notifying operation listener: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener to be called with every completed operation.
+     */
+    public void addListener(Consumer<OperationMetrics> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<OperationMetrics> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns a copy of the aggregate of each kind of operation.
+     */
+    public synchronized List<Aggregate> getAggregates() {
+        List<Aggregate> copies = new ArrayList<>();
+        for (Aggregate aggregate : aggregates.values()) {
+            copies.add(aggregate.copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Returns the operations that have begun but not yet ended, oldest first.
+     * Only their identity and start time should be read, since they are
+     * still being updated by the threads running them.
+     */
+    public synchronized List<OperationMetrics> getInFlight() {
+        return new ArrayList<>(inFlight);
+    }
+
+    /**
+     * Clears every aggregate and recent operation. Operations still running
+     * are kept.
+     */
+    public synchronized void reset() {
+        aggregates.clear();
+        recentOperations.clear();
+        resetAt = System.currentTimeMillis();
+    }
+
+    public synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("since", resetAt);
+
+        JsonArray operationsArray = new JsonArray();
+        for (Aggregate aggregate : aggregates.values()) {
+            operationsArray.add(aggregate.toJson());
+        }
+        json.add("operations", operationsArray);
+
+        JsonArray recentArray = new JsonArray();
+        for (JsonObject recent : recentOperations) {
+            recentArray.add(recent.deepCopy());
+        }
+        json.add("recent", recentArray);
+
+        long now = System.currentTimeMillis();
+        JsonArray inFlightArray = new JsonArray();
+        for (OperationMetrics operation : inFlight) {
+            JsonObject operationJson = new JsonObject();
+            operationJson.addProperty("operation", operation.getOperation());
+            if (operation.getProvider() != null) {
+                operationJson.addProperty("provider", operation.getProvider());
+            }
+            if (operation.getExportMode() != null) {
+                operationJson.addProperty("exportMode", operation.getExportMode());
+            }
+            operationJson.addProperty("startedAt", operation.getStartedAt());
+            operationJson.addProperty("elapsedMillis", now - operation.getStartedAt());
+            inFlightArray.add(operationJson);
+        }
+        json.add("inFlight", inFlightArray);
+        return json;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Totals for one kind of operation in one export mode.
+     */
+    public static class Aggregate {
+        private final String operation;
+        private final String provider;
+        private final String exportMode;
+        private final Map<String, long[]> phases = new LinkedHashMap<>();
+        private final Map<String, Long> counters = new LinkedHashMap<>();
+        private final LatencyHistogram durations = new LatencyHistogram();
+        private final LatencyHistogram importLatency = new LatencyHistogram();
+        private long failures;
+
+        Aggregate(String operation, String provider, String exportMode) {
+            this.operation = operation;
+            this.provider = provider;
+            this.exportMode = exportMode;
+        }
+
+        void add(OperationMetrics metrics) {
+            durations.record(metrics.getDurationNanos());
+            importLatency.merge(metrics.getImportLatency());
+            if (metrics.getError() != null) {
+                failures++;
+            }
+            for (Map.Entry<String, long[]> phase : metrics.getPhases().entrySet()) {
+                long[] totals = phases.computeIfAbsent(phase.getKey(), key -> new long[2]);
+                totals[0] += phase.getValue()[0];
+                totals[1] += phase.getValue()[1];
+            }
+            for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+                counters.merge(counter.getKey(), counter.getValue(), Long::sum);
+            }
+        }
+
+        Aggregate copy() {
+            Aggregate copy = new Aggregate(operation, provider, exportMode);
+            copy.durations.merge(durations);
+            copy.importLatency.merge(importLatency);
+            copy.failures = failures;
+            for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+                copy.phases.put(phase.getKey(), phase.getValue().clone());
+            }
+            copy.counters.putAll(counters);
+            return copy;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * Returns the tag provider, or null for operations without one.
+         */
+        public String getProvider() {
+            return provider;
+        }
+
+        /**
+         * Returns the export mode code, or null for operations without one.
+         */
+        public String getExportMode() {
+            return exportMode;
+        }
+
+        public long getCount() {
+            return durations.getCount();
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Returns the total nanoseconds and the number of runs of each phase.
+         */
+        public Map<String, long[]> getPhases() {
+            return phases;
+        }
+
+        public Map<String, Long> getCounters() {
+            return counters;
+        }
+
+        public LatencyHistogram getDurations() {
+            return durations;
+        }
+
+        public LatencyHistogram getImportLatency() {
+            return importLatency;
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("operation", operation);
+            if (provider != null) {
+                json.addProperty("provider", provider);
+            }
+            if (exportMode != null) {
+                json.addProperty("exportMode", exportMode);
+            }
+            json.addProperty("count", getCount());
+            json.addProperty("failures", failures);
+            json.add("durations", durations.toJson());
+
+            JsonObject phasesJson = new JsonObject();
+            for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+                JsonObject phaseJson = new JsonObject();
+                phaseJson.addProperty("totalMillis", OperationMetrics.toMillis(phase.getValue()[0]));
+                phaseJson.addProperty("count", phase.getValue()[1]);
+                phasesJson.add(phase.getKey(), phaseJson);
+            }
+            json.add("phases", phasesJson);
+
+            JsonObject countersJson = new JsonObject();
+            for (Map.Entry<String, Long> counter : counters.entrySet()) {
+                countersJson.addProperty(counter.getKey(), counter.getValue());
+            }
+            json.add("counters", countersJson);
+
+            if (importLatency.getCount() > 0) {
+                json.add("importLatency", importLatency.toJson());
+            }
+            return json;
+        }
+    }
+}
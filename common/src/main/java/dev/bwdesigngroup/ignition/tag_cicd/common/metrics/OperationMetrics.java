@@ -0,0 +1,447 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Timings and sizes for a single export or import operation.
+ *
+ * An operation is bound to the thread that began it, so that utilities deep in
+ * the call tree can report to {@link #current()} without the metrics being
+ * passed through every strategy method. Outside of an operation,
+ * {@link #current()} returns an instance that ignores everything.
+ *
+ * Phase times are exclusive: while a phase runs inside another, only the inner
+ * phase is charged, so the phases add up to no more than the operation's
+ * duration. A phase started inside a phase of the same name is not counted
+ * again, so recursive helpers can time themselves.
+ *
+ * The entry points of the module name themselves with {@link #caller(String)},
+ * so that each operation records whether it came from a route, an RPC call or
+ * a background service.
+ */
+public class OperationMetrics {
+    public static final String PHASE_VALIDATE = "validate";
+    public static final String PHASE_FETCH = "fetch";
+    public static final String PHASE_CONVERT = "convert";
+    public static final String PHASE_SORT = "sort";
+    public static final String PHASE_SORT_UDTS = "sortUdts";
+    public static final String PHASE_CLEANUP = "cleanup";
+    public static final String PHASE_WRITE = "write";
+    public static final String PHASE_READ = "read";
+    public static final String PHASE_DELETE = "delete";
+    public static final String PHASE_IMPORT = "import";
+    public static final String PHASE_LOCK = "lock";
+    public static final String PHASE_QUEUE = "queue";
+
+    public static final String COUNTER_TAGS = "tags";
+    public static final String COUNTER_FOLDERS = "folders";
+    public static final String COUNTER_FILES_WRITTEN = "filesWritten";
+    public static final String COUNTER_FILES_UNCHANGED = "filesUnchanged";
+    public static final String COUNTER_FILES_READ = "filesRead";
+    public static final String COUNTER_BYTES_WRITTEN = "bytesWritten";
+    public static final String COUNTER_BYTES_READ = "bytesRead";
+    public static final String COUNTER_IMPORT_CALLS = "importCalls";
+    public static final String COUNTER_REMOVE_CALLS = "removeCalls";
+    public static final String COUNTER_SOURCES_CHECKED = "sourcesChecked";
+    public static final String COUNTER_SOURCES_CHANGED = "sourcesChanged";
+    public static final String COUNTER_BAD_QUALITY_CODES = "badQualityCodes";
+    public static final String COUNTER_RETRIED_TAGS = "retriedTags";
+    public static final String COUNTER_CACHE_HITS = "cacheHits";
+    public static final String COUNTER_CACHE_MISSES = "cacheMisses";
+
+    public static final String CALLER_ROUTE = "route";
+    public static final String CALLER_RPC = "rpc";
+    public static final String CALLER_STARTUP = "startup";
+    public static final String CALLER_WATCH = "watch";
+    public static final String CALLER_CONTINUOUS_EXPORT = "continuousExport";
+
+    private static final ThreadLocal<OperationMetrics> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<String> CALLER = new ThreadLocal<>();
+    private static final OperationMetrics DISABLED = new OperationMetrics(null, null, null, false);
+    private static final Phase NO_OP_PHASE = () -> {
+    };
+
+    private final String operation;
+    private final String provider;
+    private final String exportMode;
+    private final String caller = CALLER.get();
+    private final boolean enabled;
+    private final long startedAt = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, long[]> phases = new LinkedHashMap<>();
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+    private final Map<String, String> parameters = new LinkedHashMap<>();
+    private final LatencyHistogram importLatency = new LatencyHistogram();
+    private final Deque<ActivePhase> phaseStack = new ArrayDeque<>();
+    private long durationNanos = -1;
+    private int depth;
+    private String error;
+    private MessageDigest resultDigest;
+    private String resultHash;
+
+    private OperationMetrics(String operation, String provider, String exportMode, boolean enabled) {
+        this.operation = operation;
+        this.provider = provider;
+        this.exportMode = exportMode;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Begins an operation on the current thread. An operation begun while
+     * another is running on the thread joins the running one, so that an
+     * operation built from others is reported once.
+     *
+     * Every call must be matched by a call to {@link #end()}, usually in a
+     * finally block.
+     *
+     * @param operation  the kind of operation, such as {@code export}
+     * @param provider   the tag provider, or null if there is none
+     * @param exportMode the export mode code, or null if there is none
+     * @return the operation's metrics
+     */
+    public static OperationMetrics begin(String operation, String provider, String exportMode) {
+        OperationMetrics current = CURRENT.get();
+        if (current == null) {
+            current = new OperationMetrics(operation, provider, exportMode, true);
+            CURRENT.set(current);
+            MetricsRegistry.getInstance().started(current);
+        }
+        current.depth++;
+        return current;
+    }
+
+    /**
+     * Names the caller of every operation begun on the current thread until
+     * the returned scope is closed.
+     *
+     * @param caller the caller, such as {@link #CALLER_ROUTE}
+     * @return the scope, which restores the previous caller when closed
+     */
+    public static Scope caller(String caller) {
+        String previous = CALLER.get();
+        CALLER.set(caller);
+        return () -> {
+            if (previous == null) {
+                CALLER.remove();
+            } else {
+                CALLER.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the operation running on the current thread, or an instance
+     * that ignores everything if there is none.
+     */
+    public static OperationMetrics current() {
+        OperationMetrics current = CURRENT.get();
+        return current == null ? DISABLED : current;
+    }
+
+    /**
+     * Starts timing a phase, which stops when the returned phase is closed.
+     */
+    public Phase phase(String name) {
+        if (!enabled || (!phaseStack.isEmpty() && phaseStack.peek().name.equals(name))) {
+            return NO_OP_PHASE;
+        }
+
+        long now = System.nanoTime();
+        if (!phaseStack.isEmpty()) {
+            phaseStack.peek().pause(now);
+        }
+        ActivePhase phase = new ActivePhase(name, now);
+        phaseStack.push(phase);
+        return phase;
+    }
+
+    /**
+     * Adds to a counter.
+     */
+    public void increment(String counter, long delta) {
+        if (enabled) {
+            counters.merge(counter, delta, Long::sum);
+        }
+    }
+
+    /**
+     * Records one call to the tag manager's import.
+     *
+     * @param nanos the time the call took
+     */
+    public void recordImportCall(long nanos) {
+        if (enabled) {
+            increment(COUNTER_IMPORT_CALLS, 1);
+            importLatency.record(nanos);
+        }
+    }
+
+    /**
+     * Counts the tags and folders in a tag tree. UDT definitions and instances
+     * count as one tag each, without their members.
+     */
+    public void countTags(JsonObject tagsJson) {
+        if (!enabled || tagsJson == null) {
+            return;
+        }
+
+        String tagType = tagsJson.has("tagType") ? tagsJson.get("tagType").getAsString() : null;
+        if ("Folder".equals(tagType)) {
+            increment(COUNTER_FOLDERS, 1);
+        } else if (tagType != null && !"Provider".equals(tagType)) {
+            increment(COUNTER_TAGS, 1);
+            return;
+        }
+
+        if (tagsJson.has("tags") && tagsJson.get("tags").isJsonArray()) {
+            for (JsonElement tag : tagsJson.getAsJsonArray("tags")) {
+                if (tag.isJsonObject()) {
+                    countTags(tag.getAsJsonObject());
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a parameter the operation was called with.
+     */
+    public void setParameter(String name, Object value) {
+        if (enabled && value != null) {
+            parameters.put(name, value.toString());
+        }
+    }
+
+    /**
+     * Adds content to the hash of the operation's result, such as a file it
+     * wrote or the response it returns. The hash is final once the operation
+     * ends.
+     */
+    public void hashResult(String content) {
+        if (!enabled || durationNanos >= 0) {
+            return;
+        }
+        if (resultDigest == null) {
+            try {
+                resultDigest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+        resultDigest.update(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Marks the operation as failed.
+     */
+    public void fail(Throwable throwable) {
+        if (enabled && error == null) {
+            error = throwable.getMessage() == null ? throwable.getClass().getSimpleName() : throwable.getMessage();
+        }
+    }
+
+    /**
+     * Ends one {@link #begin(String, String, String)}. When the outermost one ends, the
+     * operation is detached from the thread and recorded in the
+     * {@link MetricsRegistry}.
+     */
+    public void end() {
+        if (!enabled || --depth > 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        while (!phaseStack.isEmpty()) {
+            phaseStack.peek().stop(now);
+        }
+        durationNanos = now - startNanos;
+        if (resultDigest != null) {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : resultDigest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            resultHash = hex.toString();
+        }
+        CURRENT.remove();
+        MetricsRegistry.getInstance().record(this);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getExportMode() {
+        return exportMode;
+    }
+
+    /**
+     * Returns what began the operation, or null if its caller was not named.
+     */
+    public String getCaller() {
+        return caller;
+    }
+
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 of the operation's result, or null if it
+     * has not ended or recorded no result.
+     */
+    public String getResultHash() {
+        return resultHash;
+    }
+
+    /**
+     * Returns the time the operation began, in milliseconds since the epoch.
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Returns the duration of the operation, or the time so far if it has not
+     * ended.
+     */
+    public long getDurationNanos() {
+        return durationNanos >= 0 ? durationNanos : System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Returns the total nanoseconds and the number of runs of each phase.
+     */
+    public Map<String, long[]> getPhases() {
+        return phases;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public LatencyHistogram getImportLatency() {
+        return importLatency;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("operation", operation);
+        if (provider != null) {
+            json.addProperty("provider", provider);
+        }
+        if (exportMode != null) {
+            json.addProperty("exportMode", exportMode);
+        }
+        if (caller != null) {
+            json.addProperty("caller", caller);
+        }
+        json.addProperty("startedAt", startedAt);
+        json.addProperty("durationMillis", toMillis(getDurationNanos()));
+        if (error != null) {
+            json.addProperty("error", error);
+        }
+        if (!parameters.isEmpty()) {
+            JsonObject parametersJson = new JsonObject();
+            for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+                parametersJson.addProperty(parameter.getKey(), parameter.getValue());
+            }
+            json.add("parameters", parametersJson);
+        }
+        if (resultHash != null) {
+            json.addProperty("resultHash", resultHash);
+        }
+
+        JsonObject phasesJson = new JsonObject();
+        for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+            JsonObject phaseJson = new JsonObject();
+            phaseJson.addProperty("millis", toMillis(phase.getValue()[0]));
+            phaseJson.addProperty("count", phase.getValue()[1]);
+            phasesJson.add(phase.getKey(), phaseJson);
+        }
+        json.add("phases", phasesJson);
+
+        JsonObject countersJson = new JsonObject();
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            countersJson.addProperty(counter.getKey(), counter.getValue());
+        }
+        json.add("counters", countersJson);
+
+        if (importLatency.getCount() > 0) {
+            json.add("importLatency", importLatency.toJson());
+        }
+        return json;
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds, rounded to the microsecond.
+     */
+    static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * A scope that ends when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * A running phase. Closing it stops the timer.
+     */
+    @FunctionalInterface
+    public interface Phase extends Scope {
+    }
+
+    private class ActivePhase implements Phase {
+        private final String name;
+        private long resumedAt;
+        private long elapsed;
+
+        ActivePhase(String name, long startedAt) {
+            this.name = name;
+            this.resumedAt = startedAt;
+        }
+
+        void pause(long now) {
+            elapsed += now - resumedAt;
+        }
+
+        void stop(long now) {
+            pause(now);
+            phaseStack.pop();
+            long[] totals = phases.computeIfAbsent(name, key -> new long[2]);
+            totals[0] += elapsed;
+            totals[1]++;
+            if (!phaseStack.isEmpty()) {
+                phaseStack.peek().resumedAt = now;
+            }
+        }
+
+        @Override
+        public void close() {
+            // Phases closed out of order, or after the operation ended, have already been stopped
+            if (phaseStack.peek() == this) {
+                stop(System.nanoTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the {@link MetricsRegistry} in the Prometheus text exposition
+ * format, so that a Prometheus server can scrape it directly.
+ *
+ * Durations are reported in seconds as histograms with the buckets of
+ * {@link LatencyHistogram}, which lets percentiles be computed server side
+ * with {@code histogram_quantile}. Phase times and counters are reported as
+ * running totals.
+ */
+public class PrometheusFormat {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String PREFIX = "tagcicd_";
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    private PrometheusFormat() {
+    }
+
+    /**
+     * Renders the aggregates and in-flight operations of the registry, along
+     * with the depth of each named queue.
+     *
+     * @param registry    the registry to render
+     * @param queueDepths the number of items waiting in each queue, by name
+     * @return the metrics in the Prometheus text format
+     */
+    public static String format(MetricsRegistry registry, Map<String, Integer> queueDepths) {
+        PrometheusFormat format = new PrometheusFormat();
+        List<MetricsRegistry.Aggregate> aggregates = registry.getAggregates();
+
+        Map<String, Integer> inFlight = new LinkedHashMap<>();
+        for (MetricsRegistry.Aggregate aggregate : aggregates) {
+            inFlight.put(labels(aggregate.getOperation(), aggregate.getProvider(), aggregate.getExportMode()), 0);
+        }
+        for (OperationMetrics operation : registry.getInFlight()) {
+            inFlight.merge(labels(operation.getOperation(), operation.getProvider(), operation.getExportMode()), 1,
+                    Integer::sum);
+        }
+
+        for (MetricsRegistry.Aggregate aggregate : aggregates) {
+            String labels = labels(aggregate.getOperation(), aggregate.getProvider(), aggregate.getExportMode());
+            format.sample("operations_total", "counter", "Operations completed", labels, aggregate.getCount());
+            format.sample("operation_failures_total", "counter", "Operations that failed", labels,
+                    aggregate.getFailures());
+            format.histogram("operation_duration_seconds", "Duration of each operation", labels,
+                    aggregate.getDurations());
+            if (aggregate.getImportLatency().getCount() > 0) {
+                format.histogram("import_call_duration_seconds", "Duration of each call to the tag manager's import",
+                        labels, aggregate.getImportLatency());
+            }
+            for (Map.Entry<String, long[]> phase : aggregate.getPhases().entrySet()) {
+                format.sample("phase_seconds_total", "counter", "Time spent in each phase of an operation",
+                        labels + ",phase=\"" + escape(phase.getKey()) + "\"", phase.getValue()[0] / 1e9);
+            }
+            for (Map.Entry<String, Long> counter : aggregate.getCounters().entrySet()) {
+                String name = toSnakeCase(counter.getKey()) + "_total";
+                format.sample(name, "counter", "Total " + counter.getKey() + " counted by operations", labels,
+                        counter.getValue());
+            }
+        }
+
+        for (Map.Entry<String, Integer> operation : inFlight.entrySet()) {
+            format.sample("operations_in_flight", "gauge", "Operations currently running", operation.getKey(),
+                    operation.getValue());
+        }
+        for (Map.Entry<String, Integer> queue : queueDepths.entrySet()) {
+            format.sample("queue_depth", "gauge", "Items waiting to be processed",
+                    "queue=\"" + escape(queue.getKey()) + "\"", queue.getValue());
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Family> family : format.families.entrySet()) {
+            text.append("# HELP ").append(family.getKey()).append(' ').append(family.getValue().help).append('\n');
+            text.append("# TYPE ").append(family.getKey()).append(' ').append(family.getValue().type).append('\n');
+            text.append(family.getValue().samples);
+        }
+        return text.toString();
+    }
+
+    private void histogram(String name, String help, String labels, LatencyHistogram histogram) {
+        long[] bucketCounts = histogram.getBucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_BOUNDS_MILLIS.length; i++) {
+            cumulative += bucketCounts[i];
+            String le = formatValue(LatencyHistogram.BUCKET_BOUNDS_MILLIS[i] / 1000.0);
+            sample(name, "histogram", help, "_bucket", labels + ",le=\"" + le + "\"", cumulative);
+        }
+        sample(name, "histogram", help, "_bucket", labels + ",le=\"+Inf\"", histogram.getCount());
+        sample(name, "histogram", help, "_sum", labels, histogram.getTotalNanos() / 1e9);
+        sample(name, "histogram", help, "_count", labels, histogram.getCount());
+    }
+
+    private void sample(String name, String type, String help, String labels, double value) {
+        sample(name, type, help, "", labels, value);
+    }
+
+    private void sample(String name, String type, String help, String suffix, String labels, double value) {
+        Family family = families.computeIfAbsent(PREFIX + name, key -> new Family(type, help));
+        family.samples.append(PREFIX).append(name).append(suffix)
+                .append('{').append(labels).append("} ")
+                .append(formatValue(value)).append('\n');
+    }
+
+    private static String labels(String operation, String provider, String exportMode) {
+        return "operation=\"" + escape(operation) + "\",provider=\"" + escape(provider) + "\",mode=\""
+                + escape(exportMode) + "\"";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String toSnakeCase(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    private static String formatValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static class Family {
+        private final String type;
+        private final String help;
+        private final StringBuilder samples = new StringBuilder();
+
+        Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.model;
+
+/**
+ * Enumeration of the ways an import reports the quality codes of the tags it
+ * created and deleted.
+ */
+public enum ResultMode {
+    /**
+     * Report the quality codes of every tag path
+     */
+    FULL("full"),
+
+    /**
+     * Report Good and Bad counts per folder, and the quality codes of only the
+     * tag paths that were not Good
+     */
+    SUMMARY("summary");
+
+    private final String code;
+
+    ResultMode(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Get the ResultMode from a string code.
+     *
+     * @param code the code to look up
+     * @return the corresponding ResultMode, or FULL if not found
+     */
+    public static ResultMode fromCode(String code) {
+        for (ResultMode mode : values()) {
+            if (mode.code.equalsIgnoreCase(code)) {
+                return mode;
+            }
+        }
+        return FULL; // Default to full results for backward compatibility
+    }
+}
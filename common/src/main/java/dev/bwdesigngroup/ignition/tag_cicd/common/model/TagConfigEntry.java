@@ -0,0 +1,129 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.model;
+
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter;
+
+/**
+ * An immutable entry from export-config.json describing one export/import
+ * configuration.
+ */
+public final class TagConfigEntry {
+    private final String provider;
+    private final String baseTagPath;
+    private final String sourcePath;
+    private final String collisionPolicy;
+    private final String exportMode;
+    private final boolean excludeUdtDefinitions;
+    private final boolean watchSource;
+    private final boolean exportOnChange;
+    private final TagPathFilter pathFilter;
+
+    public TagConfigEntry(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
+            String exportMode, boolean excludeUdtDefinitions, boolean watchSource, boolean exportOnChange) {
+        this(provider, baseTagPath, sourcePath, collisionPolicy, exportMode, excludeUdtDefinitions, watchSource,
+                exportOnChange, TagPathFilter.ALL);
+    }
+
+    public TagConfigEntry(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
+            String exportMode, boolean excludeUdtDefinitions, boolean watchSource, boolean exportOnChange,
+            TagPathFilter pathFilter) {
+        this.provider = provider;
+        this.baseTagPath = baseTagPath;
+        this.sourcePath = sourcePath;
+        this.collisionPolicy = collisionPolicy;
+        this.exportMode = exportMode;
+        this.excludeUdtDefinitions = excludeUdtDefinitions;
+        this.watchSource = watchSource;
+        this.exportOnChange = exportOnChange;
+        this.pathFilter = pathFilter;
+    }
+
+    /**
+     * Parses a configuration entry from its JSON form.
+     *
+     * @param json the JSON object for a single entry
+     * @return the parsed entry
+     * @throws IllegalArgumentException if a required property is missing or a
+     *                                  path pattern is invalid
+     */
+    public static TagConfigEntry fromJson(JsonObject json) {
+        return new TagConfigEntry(
+                getRequiredString(json, "provider"),
+                getString(json, "baseTagPath", ""),
+                getRequiredString(json, "sourcePath"),
+                getString(json, "collisionPolicy", "a"),
+                getString(json, "exportMode", ExportMode.INDIVIDUAL_FILES.getCode()),
+                getBoolean(json, "excludeUdtDefinitions", false),
+                getBoolean(json, "watchSource", false),
+                getBoolean(json, "exportOnChange", false),
+                TagPathFilter.of(TagPathFilter.getPatterns(json, "includePaths"),
+                        TagPathFilter.getPatterns(json, "excludePaths")));
+    }
+
+    private static String getRequiredString(JsonObject json, String property) {
+        JsonElement element = json.get(property);
+        if (element == null || element.isJsonNull()) {
+            throw new IllegalArgumentException("Configuration entry is missing required property '" + property + "'");
+        }
+        return element.getAsString();
+    }
+
+    private static String getString(JsonObject json, String property, String defaultValue) {
+        JsonElement element = json.get(property);
+        return element == null || element.isJsonNull() ? defaultValue : element.getAsString();
+    }
+
+    private static boolean getBoolean(JsonObject json, String property, boolean defaultValue) {
+        JsonElement element = json.get(property);
+        return element == null || element.isJsonNull() ? defaultValue : element.getAsBoolean();
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getBaseTagPath() {
+        return baseTagPath;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public String getCollisionPolicy() {
+        return collisionPolicy;
+    }
+
+    public String getExportMode() {
+        return exportMode;
+    }
+
+    public boolean isExcludeUdtDefinitions() {
+        return excludeUdtDefinitions;
+    }
+
+    /**
+     * Whether changes to the source path should be imported as they happen.
+     */
+    public boolean isWatchSource() {
+        return watchSource;
+    }
+
+    /**
+     * Whether tag configuration changes should be exported to the source path
+     * as they happen.
+     */
+    public boolean isExportOnChange() {
+        return exportOnChange;
+    }
+
+    /**
+     * The filter of the tag paths to export and import, from the entry's
+     * includePaths and excludePaths.
+     */
+    public TagPathFilter getPathFilter() {
+        return pathFilter;
+    }
+}
@@ -1,15 +1,19 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ImportResultCollector;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.common.model.values.QualityCode;
-import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
 import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
 import com.inductiveautomation.ignition.common.tags.model.TagPath;
@@ -20,13 +24,14 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Strategy for exporting/importing tags as individual files in a folder
@@ -47,9 +52,6 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
             String filePath,
             boolean deleteExisting,
             boolean excludeUdtDefinitions) throws IOException {
-
-        boolean cleanupPerformed = false;
-
         try {
             logger.info(
                     "Exporting tags as individual files: provider={}, baseTagPath={}, filePath={}, recursive={}, deleteExisting={}",
@@ -77,6 +79,33 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
                 throw new IOException(errorMsg);
             }
 
+            writeTagsToDisk(tagsJson, filePath, deleteExisting, excludeUdtDefinitions);
+        } catch (IllegalArgumentException e) {
+            // These are validation errors - provide clear user-friendly message
+            String userMessage = "Export configuration error: " + e.getMessage();
+            logger.error("Export validation failed: {}", e.getMessage());
+            throw new IOException(userMessage, e);
+
+        } catch (IOException e) {
+            throw e;
+
+        } catch (Exception e) {
+            logger.error("Error exporting tags as individual files: {}", e.getMessage(), e);
+            throw new IOException("Failed to export tags as individual files: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void writeTagsToDisk(
+            JsonObject tagsJson,
+            String filePath,
+            boolean deleteExisting,
+            boolean excludeUdtDefinitions) throws IOException {
+        OperationMetrics.current().countTags(tagsJson);
+
+        boolean cleanupPerformed = false;
+
+        try {
             String directoryPath = ensureDirectoryPath(filePath);
             File directory = new File(directoryPath);
             if (!directory.exists()) {
@@ -95,12 +124,6 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
             saveTagsAsIndividualFiles(tagsJson, directoryPath, excludeUdtDefinitions);
             logger.info("Successfully exported tags as individual files to: {}", directoryPath);
 
-        } catch (IllegalArgumentException e) {
-            // These are validation errors - provide clear user-friendly message
-            String userMessage = "Export configuration error: " + e.getMessage();
-            logger.error("Export validation failed: {}", e.getMessage());
-            throw new IOException(userMessage, e);
-
         } catch (Exception e) {
             logger.error("Error exporting tags as individual files: {}", e.getMessage(), e);
 
@@ -157,10 +180,10 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
             String provider,
             String baseTagPath,
             String sourcePath,
-            String collisionPolicy) throws IOException {
-        JsonObject responseObject = new JsonObject();
-        JsonObject createdTags = new JsonObject();
-        JsonObject deletedTags = new JsonObject();
+            String collisionPolicy,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException {
+        ImportResultCollector results = new ImportResultCollector(resultMode);
 
         logger.info(
                 "Importing tags from directory: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}",
@@ -178,13 +201,9 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
         if (deleteTags) {
             logger.info("Deleting existing tags at {}/{}", provider, baseTagPath);
             try {
-                TagPath tagPath = new BasicTagPath(provider,
-                        baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-                TagConfigurationModel baseTagsConfig = TagConfigUtilities.getTagConfigurationModel(
-                        tagManager, provider, baseTagPath, true, false);
-                List<QualityCode> deletedQualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(
-                        tagManager, provider, tagPath, baseTagsConfig);
-                deletedTags.add(baseTagPath, TagConfigUtilities.convertQualityCodesToArray(deletedQualityCodes));
+                List<QualityCode> deletedQualityCodes = TagImportUtilities.deleteExistingTags(
+                        tagManager, provider, baseTagPath, "", pathFilter);
+                results.addDeleted(baseTagPath, deletedQualityCodes);
             } catch (Exception e) {
                 logger.error("Failed to delete existing tags: {}", e.getMessage(), e);
                 throw new IOException("Failed to delete existing tags: " + e.getMessage(), e);
@@ -192,7 +211,7 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
         }
 
         try {
-            JsonObject tagsJson = TagImportUtilities.readTagsFromDirectory(sourcePath, "");
+            JsonObject tagsJson = TagImportUtilities.readTagsFromDirectory(sourcePath, "", pathFilter);
 
             // Import UDT types first, sorted by dependencies
             JsonObject typesFolder = TagImportUtilities.findTypesFolder(tagsJson);
@@ -200,29 +219,154 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
                 String typesBasePath = baseTagPath.isEmpty() ? "_types_" : baseTagPath + "/_types_";
                 TagPath typesPath = new BasicTagPath(provider, List.of(typesBasePath.split("/")));
 
-                List<JsonObject> sortedUdtTypes = sortUdtTypesByDependencies(typesFolder.getAsJsonArray("tags"));
+                List<JsonObject> sortedUdtTypes = TagConfigUtilities.sortUdtTypesByDependencies(typesFolder.getAsJsonArray("tags"));
 
                 for (JsonObject udtTypeObject : sortedUdtTypes) {
                     String udtName = udtTypeObject.get("name").getAsString();
-                    List<QualityCode> qualityCodes = tagManager
-                            .importTagsAsync(typesPath, TagUtilities.jsonToString(udtTypeObject), "json", policy)
-                            .join();
-                    createdTags.add(typesPath.toString() + "/" + udtName,
-                            TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+                    List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager, typesPath, udtTypeObject,
+                            policy);
+                    results.addCreated(typesPath.getChildPath(udtName).toString(), typesPath, udtTypeObject,
+                            qualityCodes);
                 }
 
                 tagsJson.getAsJsonArray("tags").remove(typesFolder);
             }
 
-            importTagsRecursively(tagManager, provider, baseTagPath, policy, createdTags, tagsJson);
+            importTagsRecursively(tagManager, provider, baseTagPath, policy, results, tagsJson);
+            results.retryCreated(tagManager, policy);
         } catch (Exception e) {
+            OperationDeadline.rethrowIfCancelled(e, results.toJson());
             logger.error("Failed to import tags from directory: {}", e.getMessage(), e);
             throw new IOException("Failed to import tags from directory: " + e.getMessage(), e);
         }
 
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, deletedTags, "deleted_tags");
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, createdTags, "created_tags");
-        return responseObject;
+        return results.toJson();
+    }
+
+    @Override
+    public void exportChangedTags(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String filePath,
+            Collection<String> changedTagPaths,
+            boolean excludeUdtDefinitions) throws IOException {
+        List<String> topmostTagPaths = TagExportUtilities.getTopmostTagPaths(changedTagPaths);
+        if (topmostTagPaths.contains("")) {
+            exportTagsToDisk(tagManager, provider, baseTagPath, true, false, filePath, false, excludeUdtDefinitions);
+            return;
+        }
+
+        String directoryPath = ensureDirectoryPath(filePath);
+        if (!directoryPath.endsWith("/")) {
+            directoryPath += "/";
+        }
+
+        try {
+            for (String changedTagPath : topmostTagPaths) {
+                if (excludeUdtDefinitions && (changedTagPath.equals("_types_") || changedTagPath.startsWith("_types_/"))) {
+                    continue;
+                }
+
+                String tagPath = baseTagPath.isEmpty() ? changedTagPath : baseTagPath + "/" + changedTagPath;
+                TagConfigurationModel tagConfigurationModel = TagConfigUtilities.getTagConfigurationModel(
+                        tagManager, provider, tagPath, true, false);
+                JsonObject tagJson = TagExportUtilities.convertToJsonObject(tagConfigurationModel);
+                String tagType = tagJson.has("tagType") ? tagJson.get("tagType").getAsString() : "Unknown";
+                String targetPath = directoryPath + changedTagPath;
+
+                if ("Unknown".equals(tagType)) {
+                    logger.debug("Removing exported files of deleted tag {}", tagPath);
+                    Files.deleteIfExists(Paths.get(targetPath + ".json"));
+                    FileUtilities.deleteDirectory(new File(targetPath));
+                } else if ("Folder".equals(tagType)) {
+                    new File(targetPath).mkdirs();
+                    saveTagsAsIndividualFiles(tagJson, targetPath + "/", excludeUdtDefinitions);
+                } else {
+                    tagJson = (JsonObject) FileUtilities.sortJsonElementRecursively(tagJson);
+                    FileUtilities.saveJsonToFile(tagJson, targetPath + ".json");
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error exporting changed tags as individual files: {}", e.getMessage(), e);
+            throw new IOException("Failed to export changed tags as individual files: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public JsonObject importChangedFiles(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            List<String> changedFiles,
+            String collisionPolicy,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException {
+        ImportResultCollector results = new ImportResultCollector(resultMode);
+
+        boolean deleteTags = "d".equalsIgnoreCase(collisionPolicy);
+        CollisionPolicy policy = CollisionPolicy.fromString(
+                deleteTags ? "o" : (collisionPolicy.isEmpty() ? "a" : collisionPolicy));
+
+        JsonArray udtTypes = new JsonArray();
+        Map<JsonObject, String> udtTypeFiles = new IdentityHashMap<>();
+        Map<JsonObject, String> tagFiles = new IdentityHashMap<>();
+        List<JsonObject> tagObjects = new ArrayList<>();
+
+        for (String changedFile : changedFiles) {
+            Path file = Paths.get(sourcePath, changedFile);
+            if (!Files.exists(file)) {
+                if (deleteTags) {
+                    removeDeletedTag(tagManager, provider, baseTagPath, changedFile, pathFilter, results);
+                } else {
+                    logger.debug("Ignoring deleted file {} since the collision policy is not 'd'", changedFile);
+                }
+                continue;
+            }
+            if (!changedFile.endsWith(".json") || !Files.isRegularFile(file)) {
+                continue;
+            }
+            if (!pathFilter.matches(changedFile.substring(0, changedFile.length() - ".json".length()))) {
+                logger.debug("Ignoring changed file {} left out by the path filter", changedFile);
+                continue;
+            }
+
+            JsonElement jsonElement = FileUtilities.readJsonFile(file.toFile());
+            if (!jsonElement.isJsonObject()) {
+                logger.warn("Skipping file {} - does not contain a JsonObject", file);
+                continue;
+            }
+
+            JsonObject tagObject = jsonElement.getAsJsonObject();
+            if (changedFile.startsWith("_types_/")) {
+                udtTypes.add(tagObject);
+                udtTypeFiles.put(tagObject, changedFile);
+            } else {
+                tagObjects.add(tagObject);
+                tagFiles.put(tagObject, changedFile);
+            }
+        }
+
+        try {
+            // Import UDT types first so that changed instances can resolve them
+            for (JsonObject udtTypeObject : TagConfigUtilities.sortUdtTypesByDependencies(udtTypes)) {
+                importChangedFile(tagManager, provider, baseTagPath, udtTypeFiles.get(udtTypeObject), udtTypeObject,
+                        policy, results);
+            }
+
+            for (JsonObject tagObject : tagObjects) {
+                importChangedFile(tagManager, provider, baseTagPath, tagFiles.get(tagObject), tagObject, policy,
+                        results);
+            }
+            results.retryCreated(tagManager, policy);
+        } catch (Exception e) {
+            OperationDeadline.rethrowIfCancelled(e, results.toJson());
+            logger.error("Failed to import changed files: {}", e.getMessage(), e);
+            throw new IOException("Failed to import changed files: " + e.getMessage(), e);
+        }
+
+        return results.toJson();
     }
 
     @Override
@@ -274,111 +418,83 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
         }
     }
 
-    private List<JsonObject> sortUdtTypesByDependencies(JsonArray udtTypesArray) {
-        Map<String, JsonObject> udtTypesMap = new HashMap<>();
-        Map<String, Set<String>> dependencies = new HashMap<>();
-        Set<String> allUdtNames = new HashSet<>();
-
-        for (JsonElement element : udtTypesArray) {
-            JsonObject udtType = element.getAsJsonObject();
-            String udtName = udtType.get("name").getAsString();
-            udtTypesMap.put(udtName, udtType);
-            allUdtNames.add(udtName);
-            Set<String> deps = new HashSet<>();
-            findUdtDependencies(udtType, deps);
-            dependencies.put(udtName, deps);
-        }
-
-        List<String> sortedNames = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> tempMarks = new HashSet<>();
-
-        for (String udtName : allUdtNames) {
-            if (!visited.contains(udtName)) {
-                topologicalSortUdts(udtName, dependencies, visited, tempMarks, sortedNames);
-            }
-        }
+    private void importChangedFile(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String changedFile,
+            JsonObject tagObject,
+            CollisionPolicy collisionPolicy,
+            ImportResultCollector results) {
+        TagPath folderPath = new BasicTagPath(provider, getFolderComponents(baseTagPath, changedFile));
+        String tagName = tagObject.get("name").getAsString();
 
-        List<JsonObject> sortedUdts = new ArrayList<>();
-        for (String name : sortedNames) {
-            JsonObject udtObject = udtTypesMap.get(name);
-            if (udtObject != null) {
-                sortedUdts.add(udtObject);
-            }
-        }
+        JsonObject singleTagJson = new JsonObject();
+        singleTagJson.add("tags", new JsonArray());
+        singleTagJson.getAsJsonArray("tags").add(tagObject);
 
-        return sortedUdts;
+        List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager, folderPath, singleTagJson,
+                collisionPolicy);
+        results.addCreated(folderPath.getChildPath(tagName).toString(), folderPath, singleTagJson, qualityCodes);
     }
 
-    private void findUdtDependencies(JsonObject jsonObject, Set<String> dependencies) {
-        if (jsonObject.has("tagType") &&
-                jsonObject.get("tagType").getAsString().equals("UdtInstance") &&
-                jsonObject.has("typeId")) {
-            dependencies.add(jsonObject.get("typeId").getAsString());
-        }
-
-        if (jsonObject.has("tags")) {
-            JsonArray tags = jsonObject.getAsJsonArray("tags");
-            for (JsonElement tagElement : tags) {
-                if (tagElement.isJsonObject()) {
-                    findUdtDependencies(tagElement.getAsJsonObject(), dependencies);
-                }
-            }
-        }
-
-        if (jsonObject.has("parameters")) {
-            JsonElement parametersElement = jsonObject.get("parameters");
-
-            // Handle both JsonArray and JsonObject cases for parameters
-            if (parametersElement.isJsonArray()) {
-                JsonArray parameters = parametersElement.getAsJsonArray();
-                for (JsonElement paramElement : parameters) {
-                    if (paramElement.isJsonObject()) {
-                        JsonObject param = paramElement.getAsJsonObject();
-                        if (param.has("value") && param.get("value").isJsonObject()) {
-                            findUdtDependencies(param.get("value").getAsJsonObject(), dependencies);
-                        }
-                    }
-                }
-            } else if (parametersElement.isJsonObject()) {
-                JsonObject parameters = parametersElement.getAsJsonObject();
-                for (Map.Entry<String, JsonElement> entry : parameters.entrySet()) {
-                    JsonElement paramValue = entry.getValue();
-                    if (paramValue.isJsonObject()) {
-                        findUdtDependencies(paramValue.getAsJsonObject(), dependencies);
-                    }
-                }
-            }
+    private void removeDeletedTag(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String deletedFile,
+            TagPathFilter pathFilter,
+            ImportResultCollector results) throws IOException {
+        // A deleted directory maps to a folder, a deleted file to the tag it held
+        String name = deletedFile.substring(deletedFile.lastIndexOf('/') + 1);
+        boolean isFile = name.endsWith(".json");
+        if (isFile) {
+            name = name.substring(0, name.length() - ".json".length());
+        } else if (name.contains(".")) {
+            return;
         }
-    }
 
-    private void topologicalSortUdts(
-            String udtName,
-            Map<String, Set<String>> dependencies,
-            Set<String> visited,
-            Set<String> tempMarks,
-            List<String> sortedNames) {
-        if (tempMarks.contains(udtName)) {
-            logger.warn("Circular dependency detected in UDT types involving: " + udtName);
+        List<String> pathComponents = getFolderComponents(baseTagPath, deletedFile);
+        pathComponents.add(name);
+        TagPath tagPath = new BasicTagPath(provider, pathComponents);
+
+        String relativePath = isFile ? deletedFile.substring(0, deletedFile.length() - ".json".length())
+                : deletedFile;
+        TagPathFilter.Decision decision = isFile
+                ? (pathFilter.matches(relativePath) ? TagPathFilter.Decision.INCLUDED : TagPathFilter.Decision.EXCLUDED)
+                : pathFilter.getDecision(relativePath);
+        if (decision == TagPathFilter.Decision.EXCLUDED) {
+            logger.debug("Keeping tag {} since the path filter leaves it out", tagPath);
             return;
         }
-
-        if (visited.contains(udtName)) {
+        if (decision == TagPathFilter.Decision.PARTIAL) {
+            // Only the tags the filter keeps are removed from the deleted folder
+            logger.info("Removing the filtered tags of {} since its source {} was deleted", tagPath, deletedFile);
+            try {
+                results.addDeleted(tagPath.toString(), TagImportUtilities.deleteExistingTags(tagManager, provider,
+                        baseTagPath, relativePath, pathFilter));
+            } catch (Exception e) {
+                throw new IOException("Failed to remove the tags of deleted folder " + deletedFile + ": "
+                        + e.getMessage(), e);
+            }
             return;
         }
 
-        tempMarks.add(udtName);
+        logger.info("Removing tag {} since its source {} was deleted", tagPath, deletedFile);
+        List<QualityCode> qualityCodes = TagConfigUtilities.removeTagConfigs(tagManager, provider, List.of(tagPath));
+        results.addDeleted(tagPath.toString(), qualityCodes);
+    }
 
-        Set<String> deps = dependencies.getOrDefault(udtName, Collections.emptySet());
-        for (String dep : deps) {
-            if (dependencies.containsKey(dep)) {
-                topologicalSortUdts(dep, dependencies, visited, tempMarks, sortedNames);
-            }
+    private List<String> getFolderComponents(String baseTagPath, String relativeFile) {
+        List<String> pathComponents = new ArrayList<>();
+        if (!baseTagPath.isEmpty()) {
+            pathComponents.addAll(List.of(baseTagPath.split("/")));
         }
-
-        tempMarks.remove(udtName);
-        visited.add(udtName);
-        sortedNames.add(udtName);
+        int lastSeparator = relativeFile.lastIndexOf('/');
+        if (lastSeparator > 0) {
+            pathComponents.addAll(List.of(relativeFile.substring(0, lastSeparator).split("/")));
+        }
+        return pathComponents;
     }
 
     private void importTagsRecursively(
@@ -386,7 +502,7 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
             String provider,
             String baseTagPath,
             CollisionPolicy collisionPolicy,
-            JsonObject createdTags,
+            ImportResultCollector results,
             JsonObject tagsJson) {
         List<String> pathComponents = new ArrayList<>();
         if (!baseTagPath.isEmpty()) {
@@ -399,30 +515,40 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
             return;
         }
 
+        // Sibling tags are imported in batches, sent before each folder so that tags keep their order
+        List<JsonObject> siblingTags = new ArrayList<>();
         for (JsonElement tagElement : tags) {
             JsonObject tagObject = tagElement.getAsJsonObject();
             String tagType = tagObject.get("tagType").getAsString();
             String tagName = tagObject.get("name").getAsString();
 
             if ("Folder".equals(tagType)) {
+                importSiblingTags(tagManager, basePath, collisionPolicy, results, siblingTags);
                 String folderPath = baseTagPath.isEmpty() ? tagName : baseTagPath + "/" + tagName;
-                importTagsRecursively(tagManager, provider, folderPath, collisionPolicy, createdTags, tagObject);
+                importTagsRecursively(tagManager, provider, folderPath, collisionPolicy, results, tagObject);
             } else {
-                JsonObject singleTagJson = new JsonObject();
-                singleTagJson.add("tags", new JsonArray());
-                singleTagJson.getAsJsonArray("tags").add(tagObject);
-
-                try {
-                    List<QualityCode> qualityCodes = tagManager
-                            .importTagsAsync(basePath, TagUtilities.jsonToString(singleTagJson), "json",
-                                    collisionPolicy)
-                            .join();
-                    createdTags.add(basePath.toString() + "/" + tagName,
-                            TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
-                } catch (Exception e) {
-                    logger.error("Error importing tag {}: {}", tagName, e.getMessage(), e);
-                }
+                siblingTags.add(tagObject);
             }
         }
+        importSiblingTags(tagManager, basePath, collisionPolicy, results, siblingTags);
+    }
+
+    private void importSiblingTags(
+            GatewayTagManager tagManager,
+            TagPath basePath,
+            CollisionPolicy collisionPolicy,
+            ImportResultCollector results,
+            List<JsonObject> siblingTags) {
+        if (siblingTags.isEmpty()) {
+            return;
+        }
+        List<List<QualityCode>> qualityCodes = TagConfigUtilities.importTagBatches(tagManager, basePath, siblingTags,
+                collisionPolicy);
+        for (int i = 0; i < siblingTags.size(); i++) {
+            String tagName = siblingTags.get(i).get("name").getAsString();
+            results.addCreated(basePath.getChildPath(tagName).toString(), basePath, siblingTags.get(i),
+                    qualityCodes.get(i));
+        }
+        siblingTags.clear();
     }
 }
\ No newline at end of file
@@ -1,14 +1,19 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ImportResultCollector;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.common.model.values.QualityCode;
-import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
 import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
 import com.inductiveautomation.ignition.common.tags.model.TagPath;
@@ -20,12 +25,8 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Strategy for exporting/importing tags as a single JSON file.
@@ -54,36 +55,46 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
                     tagManager, provider, baseTagPath, recursive, localPropsOnly);
             JsonObject tagsJson = TagExportUtilities.convertToJsonObject(tagConfigurationModel);
 
-            if (excludeUdtDefinitions) {
-                tagsJson = TagExportUtilities.removeUdtDefinitions(tagsJson);
-            }
+            writeTagsToDisk(tagsJson, filePath, deleteExisting, excludeUdtDefinitions);
+        } catch (Exception e) {
+            logger.error("Error exporting tags to single file: {}", e.getMessage(), e);
+            throw new IOException("Failed to export tags to single file: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void writeTagsToDisk(
+            JsonObject tagsJson,
+            String filePath,
+            boolean deleteExisting,
+            boolean excludeUdtDefinitions) throws IOException {
+        if (excludeUdtDefinitions) {
+            tagsJson = TagExportUtilities.removeUdtDefinitions(tagsJson);
+        }
+        OperationMetrics.current().countTags(tagsJson);
 
-            tagsJson = (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
+        tagsJson = (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
 
-            File file = new File(filePath);
-            File parentDir = file.getParentFile();
+        File file = new File(filePath);
+        File parentDir = file.getParentFile();
 
-            // Handle deleteExisting for single file mode
-            if (deleteExisting && file.exists()) {
-                logger.info("Deleting existing file: {}", file.getAbsolutePath());
-                if (!file.delete()) {
-                    logger.warn("Failed to delete existing file: {}", file.getAbsolutePath());
-                }
+        // Handle deleteExisting for single file mode
+        if (deleteExisting && file.exists()) {
+            logger.info("Deleting existing file: {}", file.getAbsolutePath());
+            if (!file.delete()) {
+                logger.warn("Failed to delete existing file: {}", file.getAbsolutePath());
             }
+        }
 
-            // Create parent directory if it doesn't exist
-            if (parentDir != null && !parentDir.exists()) {
-                if (!parentDir.mkdirs()) {
-                    throw new IOException("Failed to create directory: " + parentDir.getAbsolutePath());
-                }
+        // Create parent directory if it doesn't exist
+        if (parentDir != null && !parentDir.exists()) {
+            if (!parentDir.mkdirs()) {
+                throw new IOException("Failed to create directory: " + parentDir.getAbsolutePath());
             }
-
-            FileUtilities.saveJsonToFile(tagsJson, filePath);
-            logger.info("Successfully exported tags to single file: {}", filePath);
-        } catch (Exception e) {
-            logger.error("Error exporting tags to single file: {}", e.getMessage(), e);
-            throw new IOException("Failed to export tags to single file: " + e.getMessage(), e);
         }
+
+        FileUtilities.saveJsonToFile(tagsJson, filePath);
+        logger.info("Successfully exported tags to single file: {}", filePath);
     }
 
     @Override
@@ -92,10 +103,10 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
             String provider,
             String baseTagPath,
             String sourcePath,
-            String collisionPolicy) throws IOException {
-        JsonObject responseObject = new JsonObject();
-        JsonObject createdTags = new JsonObject();
-        JsonObject deletedTags = new JsonObject();
+            String collisionPolicy,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException {
+        ImportResultCollector results = new ImportResultCollector(resultMode);
 
         logger.info(
                 "Importing tags from single file: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}",
@@ -113,13 +124,9 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
         if (deleteTags) {
             logger.info("Deleting existing tags at {}/{}", provider, baseTagPath);
             try {
-                TagPath tagPath = new BasicTagPath(provider,
-                        baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-                TagConfigurationModel baseTagsConfig = TagConfigUtilities.getTagConfigurationModel(
-                        tagManager, provider, baseTagPath, true, false);
-                List<QualityCode> deletedQualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(
-                        tagManager, provider, tagPath, baseTagsConfig);
-                deletedTags.add(baseTagPath, TagConfigUtilities.convertQualityCodesToArray(deletedQualityCodes));
+                List<QualityCode> deletedQualityCodes = TagImportUtilities.deleteExistingTags(
+                        tagManager, provider, baseTagPath, "", pathFilter);
+                results.addDeleted(baseTagPath, deletedQualityCodes);
             } catch (Exception e) {
                 logger.error("Failed to delete existing tags: {}", e.getMessage(), e);
                 throw new IOException("Failed to delete existing tags: " + e.getMessage(), e);
@@ -127,8 +134,7 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
         }
 
         try {
-            String fileContent = FileUtilities.readFileAsString(sourceFile);
-            JsonObject tagsJson = TagUtilities.stringToJson(fileContent).getAsJsonObject();
+            JsonObject tagsJson = pathFilter.filterTree(FileUtilities.readJsonFile(sourceFile).getAsJsonObject(), "");
 
             JsonArray tagsArray = tagsJson.getAsJsonArray("tags");
             if (tagsArray != null) {
@@ -140,23 +146,21 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
                     JsonArray udtTypesArray = typesFolder.getAsJsonArray("tags");
 
                     if (udtTypesArray != null && udtTypesArray.size() > 0) {
-                        List<JsonObject> sortedUdtTypes = sortUdtTypesByDependencies(udtTypesArray);
+                        List<JsonObject> sortedUdtTypes = TagConfigUtilities.sortUdtTypesByDependencies(udtTypesArray);
 
                         logger.debug("Importing UDTs to {}", typesPath);
                         for (JsonObject udtType : sortedUdtTypes) {
                             JsonObject singleUdtJson = new JsonObject();
                             singleUdtJson.add("tags", new JsonArray());
                             singleUdtJson.getAsJsonArray("tags").add(udtType);
-                            List<QualityCode> qualityCodes = tagManager
-                                    .importTagsAsync(typesPath, TagUtilities.jsonToString(singleUdtJson), "json",
-                                            policy)
-                                    .join();
+                            List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager, typesPath,
+                                    singleUdtJson, policy);
                             String udtName = udtType.get("name").getAsString();
-                            JsonArray qualityArray = TagConfigUtilities.convertQualityCodesToArray(qualityCodes);
-                            createdTags.add(typesPath.toString() + "/" + udtName, qualityArray);
-                            logger.debug("Imported UDT {} with result: {}", udtName, qualityArray);
-                            if (!qualityArray.toString().contains("Good")) {
-                                logger.warn("UDT {} import may have failed: {}", udtName, qualityArray);
+                            results.addCreated(typesPath.getChildPath(udtName).toString(), typesPath, singleUdtJson,
+                                    qualityCodes);
+                            logger.debug("Imported UDT {} with result: {}", udtName, qualityCodes);
+                            if (!qualityCodes.toString().contains("Good")) {
+                                logger.warn("UDT {} import may have failed: {}", udtName, qualityCodes);
                             }
                         }
                     }
@@ -167,25 +171,58 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
 
                 // Step 2: Import remaining tags with folder structure
                 logger.debug("Importing remaining tags from {}", baseTagPath);
-                importTagsRecursively(tagManager, provider, baseTagPath, policy, createdTags, tagsJson);
+                importTagsRecursively(tagManager, provider, baseTagPath, policy, results, tagsJson);
             } else {
                 // Fallback for flat JSON
                 TagPath basePath = new BasicTagPath(provider,
                         baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-                List<QualityCode> qualityCodes = tagManager
-                        .importTagsAsync(basePath, fileContent, "json", policy)
-                        .join();
-                createdTags.add(basePath.toString(), TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+                List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager, basePath, tagsJson, policy);
+                results.addCreated(basePath.toString(), basePath, tagsJson, qualityCodes);
                 logger.debug("Imported flat JSON to {} with result: {}", basePath, qualityCodes);
             }
+            results.retryCreated(tagManager, policy);
         } catch (Exception e) {
+            OperationDeadline.rethrowIfCancelled(e, results.toJson());
             logger.error("Failed to import tags from file: {}", e.getMessage(), e);
             throw new IOException("Failed to import tags from file: " + e.getMessage(), e);
         }
 
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, deletedTags, "deleted_tags");
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, createdTags, "created_tags");
-        return responseObject;
+        return results.toJson();
+    }
+
+    @Override
+    public void exportChangedTags(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String filePath,
+            Collection<String> changedTagPaths,
+            boolean excludeUdtDefinitions) throws IOException {
+        if (changedTagPaths.isEmpty()) {
+            return;
+        }
+
+        // The whole file is rewritten, but left untouched if its content is unchanged
+        exportTagsToDisk(tagManager, provider, baseTagPath, true, false, filePath, false, excludeUdtDefinitions);
+    }
+
+    @Override
+    public JsonObject importChangedFiles(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            List<String> changedFiles,
+            String collisionPolicy,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException {
+        if (changedFiles.isEmpty()) {
+            return new JsonObject();
+        }
+
+        // A single file cannot be partially imported, so any change re-imports the whole file
+        return importTagsFromSource(tagManager, provider, baseTagPath, sourcePath, collisionPolicy, resultMode,
+                pathFilter);
     }
 
     @Override
@@ -207,123 +244,12 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
         return null;
     }
 
-    private List<JsonObject> sortUdtTypesByDependencies(JsonArray udtTypesArray) {
-        Map<String, JsonObject> udtTypesMap = new HashMap<>();
-        Map<String, Set<String>> dependencies = new HashMap<>();
-        Set<String> allUdtNames = new HashSet<>();
-
-        for (JsonElement element : udtTypesArray) {
-            JsonObject udtType = element.getAsJsonObject();
-            String udtName = udtType.get("name").getAsString();
-            udtTypesMap.put(udtName, udtType);
-            allUdtNames.add(udtName);
-            Set<String> deps = new HashSet<>();
-            findUdtDependencies(udtType, deps);
-            dependencies.put(udtName, deps);
-        }
-
-        List<String> sortedNames = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> tempMarks = new HashSet<>();
-
-        for (String udtName : allUdtNames) {
-            if (!visited.contains(udtName)) {
-                topologicalSortUdts(udtName, dependencies, visited, tempMarks, sortedNames);
-            }
-        }
-
-        List<JsonObject> sortedUdts = new ArrayList<>();
-        for (String name : sortedNames) {
-            JsonObject udtObject = udtTypesMap.get(name);
-            if (udtObject != null) {
-                sortedUdts.add(udtObject);
-            }
-        }
-
-        logger.debug("Sorted UDTs: {}", sortedUdts.stream().map(obj -> obj.get("name").getAsString()).toList());
-        return sortedUdts;
-    }
-
-    private void findUdtDependencies(JsonObject jsonObject, Set<String> dependencies) {
-        if (jsonObject.has("tagType") &&
-                "UdtInstance".equals(jsonObject.get("tagType").getAsString()) &&
-                jsonObject.has("typeId")) {
-            String typeId = jsonObject.get("typeId").getAsString();
-            if (!typeId.isEmpty()) {
-                dependencies.add(typeId);
-            }
-        }
-
-        if (jsonObject.has("tags") && jsonObject.get("tags").isJsonArray()) {
-            JsonArray tags = jsonObject.getAsJsonArray("tags");
-            for (JsonElement tagElement : tags) {
-                if (tagElement.isJsonObject()) {
-                    findUdtDependencies(tagElement.getAsJsonObject(), dependencies);
-                }
-            }
-        }
-
-        if (jsonObject.has("parameters")) {
-            JsonElement parametersElement = jsonObject.get("parameters");
-
-            // Handle both JsonArray and JsonObject cases for parameters
-            if (parametersElement.isJsonArray()) {
-                JsonArray parameters = parametersElement.getAsJsonArray();
-                for (JsonElement paramElement : parameters) {
-                    if (paramElement.isJsonObject()) {
-                        JsonObject param = paramElement.getAsJsonObject();
-                        if (param.has("value") && param.get("value").isJsonObject()) {
-                            findUdtDependencies(param.get("value").getAsJsonObject(), dependencies);
-                        }
-                    }
-                }
-            } else if (parametersElement.isJsonObject()) {
-                JsonObject parameters = parametersElement.getAsJsonObject();
-                for (Map.Entry<String, JsonElement> entry : parameters.entrySet()) {
-                    JsonElement paramValue = entry.getValue();
-                    if (paramValue.isJsonObject()) {
-                        findUdtDependencies(paramValue.getAsJsonObject(), dependencies);
-                    }
-                }
-            }
-        }
-    }
-
-    private void topologicalSortUdts(
-            String udtName,
-            Map<String, Set<String>> dependencies,
-            Set<String> visited,
-            Set<String> tempMarks,
-            List<String> sortedNames) {
-        if (tempMarks.contains(udtName)) {
-            logger.warn("Circular dependency detected in UDT types involving: {}", udtName);
-            return;
-        }
-
-        if (visited.contains(udtName)) {
-            return;
-        }
-
-        tempMarks.add(udtName);
-
-        Set<String> deps = dependencies.getOrDefault(udtName, Collections.emptySet());
-        for (String dep : deps) {
-            if (dependencies.containsKey(dep)) {
-                topologicalSortUdts(dep, dependencies, visited, tempMarks, sortedNames);
-            }
-        }
-
-        tempMarks.remove(udtName);
-        visited.add(udtName);
-        sortedNames.add(udtName);
-    }
-
     private void importTagsRecursively(
             GatewayTagManager tagManager,
             String provider,
             String baseTagPath,
             CollisionPolicy collisionPolicy,
-            JsonObject createdTags,
+            ImportResultCollector results,
             JsonObject tagsJson) throws IOException {
         JsonArray tags = tagsJson.getAsJsonArray("tags");
         if (tags == null || tags.size() == 0) {
@@ -336,31 +262,41 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
         }
         TagPath basePath = new BasicTagPath(provider, pathComponents);
 
+        // Sibling tags are imported in batches, sent before each folder so that tags keep their order
+        List<JsonObject> siblingTags = new ArrayList<>();
         for (JsonElement tagElement : tags) {
             JsonObject tagObject = tagElement.getAsJsonObject();
             String tagType = tagObject.get("tagType").getAsString();
             String tagName = tagObject.get("name").getAsString();
 
             if ("Folder".equals(tagType)) {
+                importSiblingTags(tagManager, basePath, collisionPolicy, results, siblingTags);
                 String folderPath = baseTagPath.isEmpty() ? tagName : baseTagPath + "/" + tagName;
-                importTagsRecursively(tagManager, provider, folderPath, collisionPolicy, createdTags, tagObject);
+                importTagsRecursively(tagManager, provider, folderPath, collisionPolicy, results, tagObject);
             } else {
-                JsonObject singleTagJson = new JsonObject();
-                singleTagJson.add("tags", new JsonArray());
-                singleTagJson.getAsJsonArray("tags").add(tagObject);
-
-                try {
-                    List<QualityCode> qualityCodes = tagManager
-                            .importTagsAsync(basePath, TagUtilities.jsonToString(singleTagJson), "json",
-                                    collisionPolicy)
-                            .join();
-                    createdTags.add(basePath.toString() + "/" + tagName,
-                            TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
-                    logger.debug("Imported tag {} to {} with result: {}", tagName, basePath, qualityCodes);
-                } catch (Exception e) {
-                    logger.error("Error importing tag {}: {}", tagName, e.getMessage(), e);
-                }
+                siblingTags.add(tagObject);
             }
         }
+        importSiblingTags(tagManager, basePath, collisionPolicy, results, siblingTags);
+    }
+
+    private void importSiblingTags(
+            GatewayTagManager tagManager,
+            TagPath basePath,
+            CollisionPolicy collisionPolicy,
+            ImportResultCollector results,
+            List<JsonObject> siblingTags) {
+        if (siblingTags.isEmpty()) {
+            return;
+        }
+        List<List<QualityCode>> qualityCodes = TagConfigUtilities.importTagBatches(tagManager, basePath, siblingTags,
+                collisionPolicy);
+        for (int i = 0; i < siblingTags.size(); i++) {
+            String tagName = siblingTags.get(i).get("name").getAsString();
+            results.addCreated(basePath.getChildPath(tagName).toString(), basePath, siblingTags.get(i),
+                    qualityCodes.get(i));
+            logger.debug("Imported tag {} to {} with result: {}", tagName, basePath, qualityCodes.get(i));
+        }
+        siblingTags.clear();
     }
 }
\ No newline at end of file
@@ -1,15 +1,20 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ImportResultCollector;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.common.gson.JsonParser;
 import com.inductiveautomation.ignition.common.model.values.QualityCode;
-import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
 import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
 import com.inductiveautomation.ignition.common.tags.model.TagPath;
@@ -24,7 +29,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -61,40 +70,51 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
             // Convert to JSON
             JsonObject tagsJson = TagExportUtilities.convertToJsonObject(tagConfigurationModel);
 
-            // Ensure directory exists
-            String directoryPath = ensureDirectoryPath(filePath);
-            File directory = new File(directoryPath);
-            if (!directory.exists()) {
-                if (!directory.mkdirs()) {
-                    throw new IOException("Failed to create directory: " + directory.getAbsolutePath());
-                }
-            }
-
-            // Handle deleteExisting for structured files mode
-            if (deleteExisting) {
-                logger.info("Cleaning existing structured files in directory: {}", directoryPath);
-                FileUtilities.cleanStructuredFilesDirectory(directoryPath);
-            }
-
-            // Export tags in structured format
-            exportTagsInStructuredFormat(tagsJson, directoryPath, excludeUdtDefinitions);
-            logger.info("Successfully exported tags in structured format to: {}", directoryPath);
+            writeTagsToDisk(tagsJson, filePath, deleteExisting, excludeUdtDefinitions);
         } catch (Exception e) {
             logger.error("Error exporting tags in structured format: {}", e.getMessage(), e);
             throw new IOException("Failed to export tags in structured format: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public void writeTagsToDisk(
+            JsonObject tagsJson,
+            String filePath,
+            boolean deleteExisting,
+            boolean excludeUdtDefinitions) throws IOException {
+        OperationMetrics.current().countTags(tagsJson);
+
+        // Ensure directory exists
+        String directoryPath = ensureDirectoryPath(filePath);
+        File directory = new File(directoryPath);
+        if (!directory.exists()) {
+            if (!directory.mkdirs()) {
+                throw new IOException("Failed to create directory: " + directory.getAbsolutePath());
+            }
+        }
+
+        // Handle deleteExisting for structured files mode
+        if (deleteExisting) {
+            logger.info("Cleaning existing structured files in directory: {}", directoryPath);
+            FileUtilities.cleanStructuredFilesDirectory(directoryPath);
+        }
+
+        // Export tags in structured format
+        exportTagsInStructuredFormat(tagsJson, directoryPath, excludeUdtDefinitions);
+        logger.info("Successfully exported tags in structured format to: {}", directoryPath);
+    }
+
     @Override
     public JsonObject importTagsFromSource(
             GatewayTagManager tagManager,
             String provider,
             String baseTagPath,
             String sourcePath,
-            String collisionPolicy) throws IOException {
-        JsonObject responseObject = new JsonObject();
-        JsonObject createdTags = new JsonObject();
-        JsonObject deletedTags = new JsonObject();
+            String collisionPolicy,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException {
+        ImportResultCollector results = new ImportResultCollector(resultMode);
 
         logger.info(
                 "Importing tags from structured format: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}",
@@ -113,13 +133,9 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
         if (deleteTags) {
             logger.info("Deleting existing tags at {}/{}", provider, baseTagPath);
             try {
-                TagPath tagPath = new BasicTagPath(provider,
-                        baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-                TagConfigurationModel baseTagsConfig = TagConfigUtilities.getTagConfigurationModel(
-                        tagManager, provider, baseTagPath, true, false);
-                List<QualityCode> deletedQualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(
-                        tagManager, provider, tagPath, baseTagsConfig);
-                deletedTags.add(baseTagPath, TagConfigUtilities.convertQualityCodesToArray(deletedQualityCodes));
+                List<QualityCode> deletedQualityCodes = TagImportUtilities.deleteExistingTags(
+                        tagManager, provider, baseTagPath, "", pathFilter);
+                results.addDeleted(baseTagPath, deletedQualityCodes);
             } catch (Exception e) {
                 logger.error("Failed to delete existing tags: {}", e.getMessage(), e);
                 throw new IOException("Failed to delete existing tags: " + e.getMessage(), e);
@@ -135,29 +151,171 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
 
                 // Import UDT types if they exist
                 File udtTypesFile = new File(typesFolder, UDTS_FILE_NAME);
-                if (udtTypesFile.exists() && udtTypesFile.isFile()) {
-                    String fileContent = new String(Files.readAllBytes(udtTypesFile.toPath()));
-                    JsonObject udtTypesJson = TagUtilities.stringToJson(fileContent).getAsJsonObject();
-
-                    List<QualityCode> qualityCodes = tagManager
-                            .importTagsAsync(typesPath, fileContent, "json", policy)
-                            .join();
-                    createdTags.add(typesPath.toString(),
-                            TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+                if (udtTypesFile.exists() && udtTypesFile.isFile()
+                        && pathFilter.getDecision("_types_") != TagPathFilter.Decision.EXCLUDED) {
+                    JsonObject udtTypesJson = readFolderFile(udtTypesFile, "_types_", pathFilter);
+                    if (udtTypesJson != null) {
+                        List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager, typesPath,
+                                udtTypesJson, policy);
+                        results.addCreated(typesPath.toString(), typesPath, udtTypesJson, qualityCodes);
+                    }
                 }
             }
 
             // Then import all tags recursively
-            importStructuredFiles(tagManager, provider, baseTagPath, sourcePath, policy, createdTags);
+            importStructuredFiles(tagManager, provider, baseTagPath, sourcePath, "", pathFilter, policy, results);
+            results.retryCreated(tagManager, policy);
         } catch (Exception e) {
+            OperationDeadline.rethrowIfCancelled(e, results.toJson());
             logger.error("Failed to import tags from structured format: {}", e.getMessage(), e);
             throw new IOException("Failed to import tags from structured format: " + e.getMessage(), e);
         }
 
-        // Add results to response
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, deletedTags, "deleted_tags");
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, createdTags, "created_tags");
-        return responseObject;
+        return results.toJson();
+    }
+
+    @Override
+    public void exportChangedTags(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String filePath,
+            Collection<String> changedTagPaths,
+            boolean excludeUdtDefinitions) throws IOException {
+        List<String> topmostTagPaths = TagExportUtilities.getTopmostTagPaths(changedTagPaths);
+        if (topmostTagPaths.contains("")) {
+            exportTagsToDisk(tagManager, provider, baseTagPath, true, false, filePath, false, excludeUdtDefinitions);
+            return;
+        }
+
+        String directoryPath = ensureDirectoryPath(filePath);
+        if (directoryPath.endsWith("/")) {
+            directoryPath = directoryPath.substring(0, directoryPath.length() - 1);
+        }
+
+        // Tags are stored in their parent folder's files, so group the changes by parent
+        boolean typesChanged = false;
+        Map<String, List<String>> changedByFolder = new LinkedHashMap<>();
+        for (String changedTagPath : topmostTagPaths) {
+            if (changedTagPath.equals("_types_") || changedTagPath.startsWith("_types_/")) {
+                typesChanged = true;
+                continue;
+            }
+            int lastSeparator = changedTagPath.lastIndexOf('/');
+            String folder = lastSeparator > 0 ? changedTagPath.substring(0, lastSeparator) : "";
+            changedByFolder.computeIfAbsent(folder, key -> new ArrayList<>())
+                    .add(changedTagPath.substring(lastSeparator + 1));
+        }
+
+        try {
+            if (typesChanged && !excludeUdtDefinitions) {
+                exportChangedTypes(tagManager, provider, baseTagPath, directoryPath);
+            }
+
+            for (Map.Entry<String, List<String>> folderChanges : changedByFolder.entrySet()) {
+                String folder = folderChanges.getKey();
+                String folderTagPath = baseTagPath.isEmpty() ? folder
+                        : folder.isEmpty() ? baseTagPath : baseTagPath + "/" + folder;
+                String folderPath = folder.isEmpty() ? directoryPath : directoryPath + "/" + folder;
+
+                JsonObject folderJson = TagExportUtilities.convertToJsonObject(
+                        TagConfigUtilities.getTagConfigurationModel(tagManager, provider, folderTagPath, true, false));
+                if (!folderJson.has("tags")) {
+                    logger.debug("Folder {} no longer exists, its files are removed with it", folderTagPath);
+                    continue;
+                }
+
+                saveFolderFiles(folderJson, folderPath);
+
+                // Changed subfolders may have been added, removed or renamed, so they are rewritten whole
+                for (String changedName : folderChanges.getValue()) {
+                    JsonObject childFolder = findChildFolder(folderJson, changedName);
+                    File childDirectory = new File(folderPath, changedName);
+                    if (childFolder != null) {
+                        childDirectory.mkdirs();
+                        FileUtilities.cleanStructuredFilesDirectory(childDirectory.getPath());
+                        exportTagsInStructuredFormat(childFolder, childDirectory.getPath(), excludeUdtDefinitions);
+                    } else if (childDirectory.isDirectory()) {
+                        FileUtilities.deleteDirectory(childDirectory);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error exporting changed tags in structured format: {}", e.getMessage(), e);
+            throw new IOException("Failed to export changed tags in structured format: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public JsonObject importChangedFiles(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            List<String> changedFiles,
+            String collisionPolicy,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException {
+        ImportResultCollector results = new ImportResultCollector(resultMode);
+
+        boolean deleteTags = "d".equalsIgnoreCase(collisionPolicy);
+        CollisionPolicy policy = CollisionPolicy.fromString(
+                deleteTags ? "o" : (collisionPolicy.isEmpty() ? "a" : collisionPolicy));
+
+        // UDT definitions first, then parent folders before their children
+        List<String> orderedFiles = changedFiles.stream()
+                .filter(file -> file.endsWith("/" + TAGS_FILE_NAME) || file.endsWith("/" + UDTS_FILE_NAME)
+                        || file.equals(TAGS_FILE_NAME) || file.equals(UDTS_FILE_NAME))
+                .sorted(Comparator.comparing((String file) -> !file.startsWith("_types_/"))
+                        .thenComparing(file -> file.split("/").length))
+                .collect(Collectors.toList());
+
+        try {
+            for (String changedFile : orderedFiles) {
+                Path file = Paths.get(sourcePath, changedFile);
+                int lastSeparator = changedFile.lastIndexOf('/');
+                String folder = lastSeparator > 0 ? changedFile.substring(0, lastSeparator) : "";
+
+                // Only the top level _types_ folder holds UDT definitions, as in a full import
+                if (List.of(folder.split("/")).contains("_types_") && !"_types_".equals(folder)) {
+                    continue;
+                }
+                if (!Files.isRegularFile(file)) {
+                    logger.info("Structured file {} was deleted; its tags are left in place", changedFile);
+                    continue;
+                }
+                if (pathFilter.getDecision(folder) == TagPathFilter.Decision.EXCLUDED) {
+                    logger.debug("Ignoring changed file {} left out by the path filter", changedFile);
+                    continue;
+                }
+
+                List<String> pathComponents = new ArrayList<>();
+                if (!baseTagPath.isEmpty()) {
+                    pathComponents.addAll(List.of(baseTagPath.split("/")));
+                }
+                if (!folder.isEmpty()) {
+                    pathComponents.addAll(List.of(folder.split("/")));
+                }
+                TagPath folderPath = new BasicTagPath(provider, pathComponents);
+
+                JsonObject fileJson = readFolderFile(file.toFile(), folder, pathFilter);
+                if (fileJson == null) {
+                    continue;
+                }
+                List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager, folderPath, fileJson,
+                        policy);
+                String resultKey = "_types_".equals(folder) ? folderPath.toString()
+                        : folderPath.toString() + (changedFile.endsWith(TAGS_FILE_NAME) ? "/tags" : "/udts");
+                results.addCreated(resultKey, folderPath, fileJson, qualityCodes);
+            }
+            results.retryCreated(tagManager, policy);
+        } catch (Exception e) {
+            OperationDeadline.rethrowIfCancelled(e, results.toJson());
+            logger.error("Failed to import changed structured files: {}", e.getMessage(), e);
+            throw new IOException("Failed to import changed structured files: " + e.getMessage(), e);
+        }
+
+        return results.toJson();
     }
 
     @Override
@@ -251,13 +409,97 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
         }
     }
 
+    private void exportChangedTypes(GatewayTagManager tagManager, String provider, String baseTagPath,
+            String directoryPath) throws Exception {
+        String typesTagPath = baseTagPath.isEmpty() ? "_types_" : baseTagPath + "/_types_";
+        JsonObject typesJson = TagExportUtilities.convertToJsonObject(
+                TagConfigUtilities.getTagConfigurationModel(tagManager, provider, typesTagPath, true, false));
+        File udtsFile = new File(directoryPath + "/_types_/" + UDTS_FILE_NAME);
+
+        JsonArray udtDefinitions = typesJson.getAsJsonArray("tags");
+        if (udtDefinitions == null || udtDefinitions.size() == 0) {
+            Files.deleteIfExists(udtsFile.toPath());
+            return;
+        }
+
+        JsonObject udtDefinitionsJson = new JsonObject();
+        udtDefinitionsJson.add("tags", udtDefinitions);
+        FileUtilities.saveJsonToFile(udtDefinitionsJson, udtsFile.getPath());
+    }
+
+    /**
+     * Writes the tags.json and udts.json of a single folder, without descending
+     * into its subfolders. A file whose tags are all gone is removed.
+     */
+    private void saveFolderFiles(JsonObject folderJson, String folderPath) throws IOException {
+        JsonArray regularTags = new JsonArray();
+        JsonArray udtInstances = new JsonArray();
+        for (JsonElement tagElement : folderJson.getAsJsonArray("tags")) {
+            JsonObject tagObject = tagElement.getAsJsonObject();
+            String tagType = tagObject.get("tagType").getAsString();
+            if ("UdtInstance".equals(tagType)) {
+                udtInstances.add(tagObject);
+            } else if (!"Folder".equals(tagType)) {
+                regularTags.add(tagObject);
+            }
+        }
+
+        saveOrDeleteFolderFile(regularTags, folderPath + "/" + TAGS_FILE_NAME);
+        saveOrDeleteFolderFile(udtInstances, folderPath + "/" + UDTS_FILE_NAME);
+    }
+
+    private void saveOrDeleteFolderFile(JsonArray tags, String filePath) throws IOException {
+        if (tags.size() == 0) {
+            Files.deleteIfExists(Paths.get(filePath));
+            return;
+        }
+
+        JsonObject tagsJson = new JsonObject();
+        tagsJson.add("tags", tags);
+        FileUtilities.saveJsonToFile(tagsJson, filePath);
+    }
+
+    private JsonObject findChildFolder(JsonObject folderJson, String name) {
+        for (JsonElement tagElement : folderJson.getAsJsonArray("tags")) {
+            JsonObject tagObject = tagElement.getAsJsonObject();
+            if (name.equals(tagObject.get("name").getAsString())
+                    && "Folder".equals(tagObject.get("tagType").getAsString())) {
+                return tagObject;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a tags.json or udts.json file, keeping only the tags a path filter
+     * keeps.
+     *
+     * @return the kept tags, or null if the filter leaves all of them out
+     */
+    private JsonObject readFolderFile(File file, String folder, TagPathFilter pathFilter) throws IOException {
+        JsonObject fileJson = FileUtilities.readJsonFile(file).getAsJsonObject();
+        if (pathFilter.isEmpty()) {
+            return fileJson;
+        }
+        fileJson = pathFilter.filterTree(fileJson, folder);
+        JsonArray tags = fileJson.getAsJsonArray("tags");
+        return tags == null || tags.size() > 0 ? fileJson : null;
+    }
+
     private void importStructuredFiles(
             GatewayTagManager tagManager,
             String provider,
             String baseTagPath,
             String sourcePath,
+            String relativePath,
+            TagPathFilter pathFilter,
             CollisionPolicy policy,
-            JsonObject createdTags) throws IOException {
+            ImportResultCollector results) throws IOException {
+        // Folders the path filter leaves out are not read
+        if (pathFilter.getDecision(relativePath) == TagPathFilter.Decision.EXCLUDED) {
+            return;
+        }
+
         // Create tag path
         List<String> pathComponents = new ArrayList<>();
         if (!baseTagPath.isEmpty()) {
@@ -268,27 +510,23 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
         // Import tags.json if it exists
         File tagsFile = new File(sourcePath, TAGS_FILE_NAME);
         if (tagsFile.exists() && tagsFile.isFile()) {
-            String fileContent = new String(Files.readAllBytes(tagsFile.toPath()));
-            JsonObject tagsJson = TagUtilities.stringToJson(fileContent).getAsJsonObject();
-
-            List<QualityCode> qualityCodes = tagManager
-                    .importTagsAsync(basePath, fileContent, "json", policy)
-                    .join();
-            createdTags.add(basePath.toString() + "/tags",
-                    TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+            JsonObject tagsJson = readFolderFile(tagsFile, relativePath, pathFilter);
+            if (tagsJson != null) {
+                List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager, basePath, tagsJson,
+                        policy);
+                results.addCreated(basePath.toString() + "/tags", basePath, tagsJson, qualityCodes);
+            }
         }
 
         // Import udts.json if it exists
         File udtsFile = new File(sourcePath, UDTS_FILE_NAME);
         if (udtsFile.exists() && udtsFile.isFile()) {
-            String fileContent = new String(Files.readAllBytes(udtsFile.toPath()));
-            JsonObject udtsJson = TagUtilities.stringToJson(fileContent).getAsJsonObject();
-
-            List<QualityCode> qualityCodes = tagManager
-                    .importTagsAsync(basePath, fileContent, "json", policy)
-                    .join();
-            createdTags.add(basePath.toString() + "/udts",
-                    TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+            JsonObject udtsJson = readFolderFile(udtsFile, relativePath, pathFilter);
+            if (udtsJson != null) {
+                List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager, basePath, udtsJson,
+                        policy);
+                results.addCreated(basePath.toString() + "/udts", basePath, udtsJson, qualityCodes);
+            }
         }
 
         // Recursively process subdirectories
@@ -305,7 +543,8 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
                 }
 
                 String childPath = baseTagPath.isEmpty() ? folderName : baseTagPath + "/" + folderName;
-                importStructuredFiles(tagManager, provider, childPath, subdirectory.toString(), policy, createdTags);
+                importStructuredFiles(tagManager, provider, childPath, subdirectory.toString(),
+                        TagPathFilter.join(relativePath, folderName), pathFilter, policy, results);
             }
         }
     }
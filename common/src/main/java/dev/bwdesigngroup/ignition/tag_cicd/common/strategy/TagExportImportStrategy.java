@@ -1,10 +1,14 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Interface for tag export/import strategies.
@@ -37,6 +41,21 @@ public interface TagExportImportStrategy {
             boolean deleteExisting,
             boolean excludeUdtDefinitions) throws IOException;
 
+    /**
+     * Write an already exported tag tree to disk in this strategy's layout.
+     * 
+     * @param tagsJson              The tag tree, as returned by a tag configuration export
+     * @param filePath              The target file or directory path
+     * @param deleteExisting        Whether to delete existing files before writing
+     * @param excludeUdtDefinitions Whether to exclude UDT definitions
+     * @throws IOException If an error occurs while writing
+     */
+    void writeTagsToDisk(
+            JsonObject tagsJson,
+            String filePath,
+            boolean deleteExisting,
+            boolean excludeUdtDefinitions) throws IOException;
+
     /**
      * Import tags from a source file or directory.
      * 
@@ -45,6 +64,10 @@ public interface TagExportImportStrategy {
      * @param baseTagPath     The base tag path to import to
      * @param sourcePath      The source file or directory path
      * @param collisionPolicy The collision policy to use
+     * @param resultMode      How the quality codes of the imported tags are reported
+     * @param pathFilter      The filter of the tag paths to import, relative to baseTagPath.
+     *                        Folders it leaves out are not read, and the 'd' policy
+     *                        only deletes the tags it keeps.
      * @return A JsonObject containing information about the imported tags
      * @throws IOException If an error occurs during import
      */
@@ -53,7 +76,56 @@ public interface TagExportImportStrategy {
             String provider,
             String baseTagPath,
             String sourcePath,
-            String collisionPolicy) throws IOException;
+            String collisionPolicy,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException;
+
+    /**
+     * Re-export only the files that hold the given tags, leaving the rest of an
+     * existing export untouched. Tags that no longer exist have their files
+     * removed.
+     * 
+     * @param tagManager            The GatewayTagManager instance
+     * @param provider              The tag provider name
+     * @param baseTagPath           The base tag path the export was made from
+     * @param filePath              The file path the export was written to
+     * @param changedTagPaths       Paths of the changed tags relative to baseTagPath
+     * @param excludeUdtDefinitions Whether to exclude UDT definitions
+     * @throws IOException If an error occurs during export
+     */
+    void exportChangedTags(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String filePath,
+            Collection<String> changedTagPaths,
+            boolean excludeUdtDefinitions) throws IOException;
+
+    /**
+     * Import only the given files from a source path, mapping each file to the
+     * tag path a full import would use for it.
+     * 
+     * @param tagManager      The GatewayTagManager instance
+     * @param provider        The target tag provider
+     * @param baseTagPath     The base tag path to import to
+     * @param sourcePath      The source file or directory path
+     * @param changedFiles    Paths of the changed files relative to sourcePath, using
+     *                        '/' separators. Paths that no longer exist were deleted.
+     * @param collisionPolicy The collision policy to use
+     * @param resultMode      How the quality codes of the imported tags are reported
+     * @param pathFilter      The filter of the tag paths to import, relative to baseTagPath
+     * @return A JsonObject containing information about the imported tags
+     * @throws IOException If an error occurs during import
+     */
+    JsonObject importChangedFiles(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            List<String> changedFiles,
+            String collisionPolicy,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException;
 
     /**
      * Get the export mode associated with this strategy.
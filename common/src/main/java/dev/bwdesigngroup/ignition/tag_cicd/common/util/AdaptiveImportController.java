@@ -0,0 +1,191 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+
+/**
+ * Sizes the calls that imports make to the tag system to how fast the
+ * gateway is answering them, so that a small provider is not imported one
+ * tag at a time and a gateway under heavy load is not flooded.
+ *
+ * Each import call that finishes within the target latency, with few bad
+ * quality codes, makes the next batch larger by the starting batch size, and
+ * once batches are at their largest lets one more call run at once. A call
+ * that is slower than the target, or that comes back with too many bad
+ * quality codes, halves both. The sizes are shared by every import on the
+ * gateway, since they all load the same tag system. Quality codes meaning a
+ * tag's UDT definition or parent was missing come from the data rather than
+ * the load on the gateway, and do not count as bad.
+ *
+ * An optional ceiling on tags per second holds back the next call until the
+ * tags already sent are within the rate, to protect gateways that are running
+ * production during a deployment.
+ */
+public class AdaptiveImportController {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveImportController.class.getName());
+
+    private static AdaptiveImportController instance;
+
+    private final int initialBatchSize;
+    private final int maxBatchSize;
+    private final int maxInFlight;
+    private final long targetLatencyNanos;
+    private final int maxBadQualityPercent;
+    private final long nanosPerTag;
+    // Names of the quality codes that mean a tag's UDT definition or parent was missing
+    private final Set<String> retryQualityCodes;
+
+    private int batchSize;
+    private int inFlight = 1;
+    // The time at which the tags sent so far are within the tags per second ceiling
+    private long nextCallNanos = System.nanoTime();
+
+    private AdaptiveImportController() {
+        this(Integer.getInteger(TagCICDConstants.IMPORT_INITIAL_BATCH_SIZE_PROPERTY,
+                TagCICDConstants.DEFAULT_IMPORT_INITIAL_BATCH_SIZE),
+                Integer.getInteger(TagCICDConstants.IMPORT_MAX_BATCH_SIZE_PROPERTY,
+                        TagCICDConstants.DEFAULT_IMPORT_MAX_BATCH_SIZE),
+                Integer.getInteger(TagCICDConstants.IMPORT_MAX_IN_FLIGHT_PROPERTY,
+                        TagCICDConstants.DEFAULT_IMPORT_MAX_IN_FLIGHT),
+                Long.getLong(TagCICDConstants.IMPORT_TARGET_LATENCY_PROPERTY,
+                        TagCICDConstants.DEFAULT_IMPORT_TARGET_LATENCY_MILLIS),
+                Integer.getInteger(TagCICDConstants.IMPORT_MAX_BAD_QUALITY_PERCENT_PROPERTY,
+                        TagCICDConstants.DEFAULT_IMPORT_MAX_BAD_QUALITY_PERCENT),
+                Long.getLong(TagCICDConstants.IMPORT_MAX_TAGS_PER_SECOND_PROPERTY,
+                        TagCICDConstants.DEFAULT_IMPORT_MAX_TAGS_PER_SECOND),
+                System.getProperty(TagCICDConstants.IMPORT_RETRY_QUALITY_CODES_PROPERTY,
+                        TagCICDConstants.DEFAULT_IMPORT_RETRY_QUALITY_CODES));
+    }
+
+    /**
+     * Creates a controller with the given settings, in place of the system
+     * properties that the shared instance reads.
+     */
+    AdaptiveImportController(int initialBatchSize, int maxBatchSize, int maxInFlight, long targetLatencyMillis,
+            int maxBadQualityPercent, long maxTagsPerSecond, String retryQualityCodes) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.initialBatchSize = Math.max(1, Math.min(this.maxBatchSize, initialBatchSize));
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, targetLatencyMillis));
+        this.maxBadQualityPercent = maxBadQualityPercent;
+        this.nanosPerTag = maxTagsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxTagsPerSecond : 0;
+        this.retryQualityCodes = new HashSet<>(List.of(retryQualityCodes.split("\\s*,\\s*")));
+        this.batchSize = this.initialBatchSize;
+        logger.info("Imports send up to {} tags per call with up to {} calls at once, aiming for {} ms per call{}",
+                this.maxBatchSize, this.maxInFlight, TimeUnit.NANOSECONDS.toMillis(targetLatencyNanos),
+                maxTagsPerSecond > 0 ? " and at most " + maxTagsPerSecond + " tags per second" : "");
+    }
+
+    public static synchronized AdaptiveImportController getInstance() {
+        if (instance == null) {
+            instance = new AdaptiveImportController();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the number of tags to send in the next import call.
+     */
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the number of import calls an import may have running at once.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Waits until a call of the given number of tags is within the tags per
+     * second ceiling, if one is set. The wait stops early if the operation on
+     * the current thread is cancelled or runs past its deadline.
+     *
+     * @param tagCount the number of tags in the call
+     * @throws CancellationException if the thread is interrupted while waiting,
+     *                               or the operation is to stop
+     */
+    public void acquire(int tagCount) {
+        if (nanosPerTag == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextCallNanos);
+            nextCallNanos = start + nanosPerTag * tagCount;
+            waitNanos = start - now;
+        }
+        long waitUntil = System.nanoTime() + waitNanos;
+        while (waitNanos > 0) {
+            OperationDeadline.check();
+            long pollNanos = TimeUnit.MILLISECONDS.toNanos(OperationDeadline.getPollMillis());
+            try {
+                TimeUnit.NANOSECONDS.sleep(pollNanos > 0 ? Math.min(waitNanos, pollNanos) : waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting to import " + tagCount + " tags");
+            }
+            waitNanos = waitUntil - System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns whether a quality code means that a tag's UDT definition or
+     * parent was missing when it was imported, so that importing it again
+     * later may succeed.
+     */
+    public boolean isMissingDependency(QualityCode qualityCode) {
+        return retryQualityCodes.contains(qualityCode.getName());
+    }
+
+    /**
+     * Adjusts the batch size and the calls at once to the quality codes of a
+     * finished import call, leaving out those of missing dependencies.
+     *
+     * @param tagCount     the number of tags in the call
+     * @param latencyNanos the time from sending the call until it finished
+     * @param qualityCodes the quality codes it returned
+     */
+    public void record(int tagCount, long latencyNanos, List<QualityCode> qualityCodes) {
+        int badQualityCodes = 0;
+        for (QualityCode qualityCode : qualityCodes) {
+            if (qualityCode.isNotGood() && !isMissingDependency(qualityCode)) {
+                badQualityCodes++;
+            }
+        }
+        record(tagCount, latencyNanos, badQualityCodes);
+    }
+
+    /**
+     * Adjusts the batch size and the calls at once to the result of a
+     * finished import call.
+     *
+     * @param tagCount        the number of tags in the call
+     * @param latencyNanos    the time from sending the call until it finished
+     * @param badQualityCodes the number of bad quality codes it returned
+     */
+    public synchronized void record(int tagCount, long latencyNanos, int badQualityCodes) {
+        if (latencyNanos > targetLatencyNanos || badQualityCodes * 100L > (long) maxBadQualityPercent * tagCount) {
+            batchSize = Math.max(1, batchSize / 2);
+            inFlight = Math.max(1, inFlight / 2);
+            logger.debug("Import call of {} tags took {} ms with {} bad quality codes, backing off to {} tags "
+                    + "and {} calls at once", tagCount, TimeUnit.NANOSECONDS.toMillis(latencyNanos), badQualityCodes,
+                    batchSize, inFlight);
+        } else if (batchSize < maxBatchSize) {
+            batchSize = Math.min(maxBatchSize, batchSize + initialBatchSize);
+        } else if (inFlight < maxInFlight) {
+            inFlight++;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonPrimitive;
+import com.inductiveautomation.ignition.common.gson.stream.JsonWriter;
+
+/**
+ * Writes JSON in the canonical order of
+ * {@link FileUtilities#sortJsonElementRecursively(JsonElement)} straight to a
+ * {@link Writer}, without building the sorted copy of the tree or the
+ * serialized string.
+ *
+ * Object keys are written in sorted order. Array elements are ordered by
+ * their serialized form, as the sort does, but each element is compared by
+ * the first {@value #SORT_KEY_LENGTH} characters of that form, and only
+ * serialized in full when two elements share the same prefix. The output is
+ * identical to {@code sortJsonElementRecursively(element).toString()}.
+ */
+public class CanonicalJsonWriter {
+    private static final int SORT_KEY_LENGTH = 256;
+
+    private CanonicalJsonWriter() {
+    }
+
+    /**
+     * Writes an element in canonical order, as compact JSON.
+     *
+     * @param element the element to write
+     * @param writer  the writer to write to, which is flushed but not closed
+     * @throws IOException if the writer fails
+     */
+    public static void write(JsonElement element, Writer writer) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setLenient(true);
+        writeElement(element, jsonWriter, true);
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes an element that is already in canonical order, as compact JSON,
+     * without sorting it again.
+     *
+     * @param element the element to write
+     * @param writer  the writer to write to, which is flushed but not closed
+     * @throws IOException if the writer fails
+     */
+    public static void writeSorted(JsonElement element, Writer writer) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setLenient(true);
+        writeElement(element, jsonWriter, false);
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes an element in canonical order to a JSON writer that is part way
+     * through a document.
+     *
+     * @param element    the element to write
+     * @param jsonWriter the JSON writer to write to, which is not flushed
+     * @throws IOException if the writer fails
+     */
+    static void write(JsonElement element, JsonWriter jsonWriter) throws IOException {
+        writeElement(element, jsonWriter, true);
+    }
+
+    /**
+     * Writes an element that is already in canonical order to a JSON writer
+     * that is part way through a document, without sorting it again.
+     *
+     * @param element    the element to write
+     * @param jsonWriter the JSON writer to write to, which is not flushed
+     * @throws IOException if the writer fails
+     */
+    static void writeSorted(JsonElement element, JsonWriter jsonWriter) throws IOException {
+        writeElement(element, jsonWriter, false);
+    }
+
+    /**
+     * Builds the sorted form of an array from the sorted forms of its
+     * elements, without sorting their contents again. Arrays are ordered by
+     * the serialized form of their elements before sorting, so the original
+     * elements are needed alongside the sorted ones.
+     *
+     * @param originals      the elements before sorting
+     * @param sortedElements the sorted form of each element, in the same order
+     * @return the sorted array
+     */
+    public static JsonArray toSortedArray(List<JsonElement> originals, List<JsonElement> sortedElements) {
+        JsonArray sortedArray = new JsonArray();
+        for (int index : orderElements(originals)) {
+            sortedArray.add(sortedElements.get(index));
+        }
+        return sortedArray;
+    }
+
+    private static void writeElement(JsonElement element, JsonWriter out, boolean sorted) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.nullValue();
+        } else if (element.isJsonObject()) {
+            List<Map.Entry<String, JsonElement>> entries = new ArrayList<>(element.getAsJsonObject().entrySet());
+            if (sorted) {
+                entries.sort(Map.Entry.comparingByKey());
+            }
+            out.beginObject();
+            for (Map.Entry<String, JsonElement> entry : entries) {
+                out.name(entry.getKey());
+                writeElement(entry.getValue(), out, sorted);
+            }
+            out.endObject();
+        } else if (element.isJsonArray()) {
+            out.beginArray();
+            for (JsonElement arrayElement : sorted ? sortArray(element.getAsJsonArray()) : element.getAsJsonArray()) {
+                writeElement(arrayElement, out, sorted);
+            }
+            out.endArray();
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.value(primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                out.value(primitive.getAsNumber());
+            } else {
+                out.value(primitive.getAsString());
+            }
+        }
+    }
+
+    private static List<JsonElement> sortArray(JsonArray array) {
+        List<JsonElement> sortedElements = new ArrayList<>(array.size());
+        for (int index : orderElements(array)) {
+            sortedElements.add(array.get(index));
+        }
+        return sortedElements;
+    }
+
+    /**
+     * Returns the indexes of elements in the order of their serialized form.
+     */
+    static List<Integer> orderElements(Iterable<JsonElement> elements) {
+        List<SortKey> keys = new ArrayList<>();
+        for (JsonElement arrayElement : elements) {
+            keys.add(new SortKey(arrayElement, keys.size()));
+        }
+        // A stable sort, so that equal elements keep their order as in the sort of FileUtilities
+        keys.sort(SortKey::compareTo);
+
+        List<Integer> indexes = new ArrayList<>(keys.size());
+        for (SortKey key : keys) {
+            indexes.add(key.index);
+        }
+        return indexes;
+    }
+
+    /**
+     * The start of an element's serialized form, in its original order.
+     */
+    private static class SortKey implements Comparable<SortKey> {
+        private final JsonElement element;
+        private final int index;
+        private final String prefix;
+        private final boolean truncated;
+
+        SortKey(JsonElement element, int index) {
+            this.element = element;
+            this.index = index;
+            PrefixWriter prefixWriter = new PrefixWriter();
+            try {
+                JsonWriter jsonWriter = new JsonWriter(prefixWriter);
+                jsonWriter.setLenient(true);
+                writeElement(element, jsonWriter, false);
+                jsonWriter.flush();
+            } catch (PrefixFullException e) {
+                // The rest of the element is only needed to break a tie
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            this.prefix = prefixWriter.prefix.toString();
+            this.truncated = prefixWriter.truncated;
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            int comparison = prefix.compareTo(other.prefix);
+            if (comparison != 0 || (!truncated && !other.truncated)) {
+                return comparison;
+            }
+            if (truncated && other.truncated) {
+                return element.toString().compareTo(other.element.toString());
+            }
+            return truncated ? 1 : -1;
+        }
+    }
+
+    /**
+     * Keeps the first characters written to it, and stops the writing once it
+     * has enough of them.
+     */
+    private static class PrefixWriter extends Writer {
+        private final StringBuilder prefix = new StringBuilder();
+        private boolean truncated;
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            int remaining = SORT_KEY_LENGTH - prefix.length();
+            prefix.append(chars, offset, Math.min(length, remaining));
+            if (length > remaining) {
+                truncated = true;
+                throw PrefixFullException.INSTANCE;
+            }
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            int remaining = SORT_KEY_LENGTH - prefix.length();
+            prefix.append(string, offset, offset + Math.min(length, remaining));
+            if (length > remaining) {
+                truncated = true;
+                throw PrefixFullException.INSTANCE;
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class PrefixFullException extends RuntimeException {
+        private static final PrefixFullException INSTANCE = new PrefixFullException();
+
+        private PrefixFullException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -7,10 +7,11 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.util;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -25,6 +26,9 @@ import com.inductiveautomation.ignition.common.gson.GsonBuilder;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.TagUtilities;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 
 /**
  * A utility class for working with files.
@@ -44,13 +48,19 @@ public class FileUtilities {
 	 * @return the sorted JSON element
 	 */
 	public static JsonElement sortJsonElementRecursively(JsonElement element) {
+		try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_SORT)) {
+			return sortElement(element);
+		}
+	}
+
+	private static JsonElement sortElement(JsonElement element) {
 		if (element.isJsonObject()) {
 			JsonObject object = element.getAsJsonObject();
 			JsonObject sortedObject = new JsonObject();
 
 			object.entrySet().stream()
 					.sorted(Map.Entry.comparingByKey())
-					.forEach(entry -> sortedObject.add(entry.getKey(), sortJsonElementRecursively(entry.getValue())));
+					.forEach(entry -> sortedObject.add(entry.getKey(), sortElement(entry.getValue())));
 
 			return sortedObject;
 		} else if (element.isJsonArray()) {
@@ -66,7 +76,7 @@ public class FileUtilities {
 			for (String elementString : elementStrings) {
 				for (JsonElement arrayElement : array) {
 					if (arrayElement.toString().equals(elementString)) {
-						sortedArray.add(sortJsonElementRecursively(arrayElement));
+						sortedArray.add(sortElement(arrayElement));
 						break;
 					}
 				}
@@ -79,7 +89,9 @@ public class FileUtilities {
 	}
 
 	/**
-	 * Saves the given JSON object to the given file path.
+	 * Saves the given JSON object to the given file path. A file that already
+	 * holds the same content is left untouched, so that repeated exports do not
+	 * produce file change events.
 	 * 
 	 * @param json     the JSON object to save
 	 * @param filePath the file path to save the JSON object to
@@ -96,10 +108,21 @@ public class FileUtilities {
 
 		Gson gson = new GsonBuilder().setPrettyPrinting().create();
 		json = (JsonObject) sortJsonElementRecursively(json);
-		String prettyJson = gson.toJson(json);
+		OperationMetrics metrics = OperationMetrics.current();
+		try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_WRITE)) {
+			String prettyJson = gson.toJson(json);
+			metrics.hashResult(prettyJson);
+			byte[] bytes = prettyJson.getBytes(StandardCharsets.UTF_8);
+
+			if (file.isFile() && file.length() == bytes.length
+					&& Arrays.equals(bytes, Files.readAllBytes(file.toPath()))) {
+				metrics.increment(OperationMetrics.COUNTER_FILES_UNCHANGED, 1);
+				return;
+			}
 
-		try (FileWriter fileWriter = new FileWriter(file)) {
-			fileWriter.write(prettyJson);
+			Files.write(file.toPath(), bytes);
+			metrics.increment(OperationMetrics.COUNTER_FILES_WRITTEN, 1);
+			metrics.increment(OperationMetrics.COUNTER_BYTES_WRITTEN, bytes.length);
 		}
 	}
 
@@ -112,16 +135,29 @@ public class FileUtilities {
 	 */
 	public static String readFileAsString(File file) throws IOException {
 		logger.trace("Reading file as string: " + file.getAbsolutePath());
-		StringBuilder stringBuilder = new StringBuilder();
-
-		try (FileReader fileReader = new FileReader(file)) {
-			int character;
-			while ((character = fileReader.read()) != -1) {
-				stringBuilder.append((char) character);
-			}
+		OperationMetrics metrics = OperationMetrics.current();
+		try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_READ)) {
+			byte[] bytes = Files.readAllBytes(file.toPath());
+			metrics.increment(OperationMetrics.COUNTER_FILES_READ, 1);
+			metrics.increment(OperationMetrics.COUNTER_BYTES_READ, bytes.length);
+			return new String(bytes, StandardCharsets.UTF_8);
 		}
+	}
 
-		return stringBuilder.toString();
+	/**
+	 * Reads and parses a JSON file, from the source read cache bound to the
+	 * current thread when there is one.
+	 * 
+	 * @param file the file to read
+	 * @return the parsed JSON, which the caller may modify
+	 * @throws IOException if there is an error reading the file
+	 */
+	public static JsonElement readJsonFile(File file) throws IOException {
+		SourceReadCache cache = SourceReadCache.current();
+		if (cache != null) {
+			return cache.read(file);
+		}
+		return TagUtilities.stringToJson(readFileAsString(file));
 	}
 
 	/**
@@ -150,7 +186,9 @@ public class FileUtilities {
 		File directory = new File(directoryPath);
 		if (directory.exists() && directory.isDirectory()) {
 			logger.info("Cleaning directory: {}", directoryPath);
-			deleteDirectoryContents(directory);
+			try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_CLEANUP)) {
+				deleteDirectoryContents(directory);
+			}
 		}
 	}
 
@@ -170,7 +208,12 @@ public class FileUtilities {
 		}
 
 		logger.info("Cleaning existing files in directory: {}", directoryPath);
+		try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_CLEANUP)) {
+			deleteUnexpectedFiles(directory, jsonToSave);
+		}
+	}
 
+	private static void deleteUnexpectedFiles(File directory, JsonObject jsonToSave) throws IOException {
 		// Get list of expected files and directories based on JSON structure
 		Set<String> expectedItems = collectExpectedItems(jsonToSave, "");
 
@@ -381,7 +424,9 @@ public class FileUtilities {
 		}
 
 		logger.info("Cleaning structured files directory: {}", directoryPath);
-		cleanStructuredFilesRecursively(directory);
+		try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_CLEANUP)) {
+			cleanStructuredFilesRecursively(directory);
+		}
 	}
 
 	/**
@@ -0,0 +1,337 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+/**
+ * Collects the quality codes returned while importing tags, and builds the
+ * {@code created_tags} and {@code deleted_tags} of the import result.
+ *
+ * In {@link ResultMode#FULL} every tag path is listed with its quality codes.
+ * In {@link ResultMode#SUMMARY} only the tag paths with a quality code other
+ * than Good are listed, and the Good and Bad codes are counted per folder
+ * under {@code created_tags_summary} and {@code deleted_tags_summary}, so that
+ * the result stays small however many tags are imported.
+ *
+ * Tags that come back with a quality code meaning something they depend on
+ * was missing, such as a UDT definition or parent folder imported later, are
+ * held back and imported again in batches by {@link #retryCreated}, for a
+ * bounded number of rounds, before their quality codes are recorded.
+ */
+public class ImportResultCollector {
+    private static final Logger logger = LoggerFactory.getLogger(ImportResultCollector.class.getName());
+
+    public static final String CREATED_TAGS = "created_tags";
+    public static final String DELETED_TAGS = "deleted_tags";
+    public static final String SUMMARY_SUFFIX = "_summary";
+
+    private final ResultMode resultMode;
+    private final Results created = new Results();
+    private final Results deleted = new Results();
+    private final List<Retry> retries = new ArrayList<>();
+
+    public ImportResultCollector(ResultMode resultMode) {
+        this.resultMode = resultMode;
+    }
+
+    public ResultMode getResultMode() {
+        return resultMode;
+    }
+
+    /**
+     * Records the quality codes of importing the tags at a path.
+     *
+     * @param tagPath      the path imported to
+     * @param qualityCodes the quality codes returned by the import
+     */
+    public void addCreated(String tagPath, List<QualityCode> qualityCodes) {
+        created.add(tagPath, qualityCodes);
+    }
+
+    /**
+     * Records the quality codes of importing tag JSON below a base path, and
+     * holds back the tags whose quality code means a dependency was missing,
+     * to import them again with {@link #retryCreated}.
+     *
+     * When the import returned one quality code for each tag under
+     * {@code tags}, only the failing tags are held back, each to be recorded
+     * under its own path, and the codes of the others are recorded under the
+     * given path. Otherwise the whole JSON is held back.
+     *
+     * @param tagPath      the path to record the quality codes under
+     * @param basePath     the tag path the JSON was imported below
+     * @param tagsJson     the tag, or the tags under {@code tags}, imported
+     * @param qualityCodes the quality codes returned by the import
+     */
+    public void addCreated(String tagPath, TagPath basePath, JsonObject tagsJson, List<QualityCode> qualityCodes) {
+        if (!isMissingDependency(qualityCodes)) {
+            created.add(tagPath, qualityCodes);
+            return;
+        }
+
+        JsonArray tags = tagsJson.has("name") ? null : tagsJson.getAsJsonArray("tags");
+        if (tags == null || tags.size() <= 1 || tags.size() != qualityCodes.size()) {
+            retries.add(new Retry(tagPath, basePath, tagsJson, qualityCodes));
+            return;
+        }
+
+        List<QualityCode> recorded = new ArrayList<>();
+        for (int i = 0; i < tags.size(); i++) {
+            List<QualityCode> tagQualityCodes = List.of(qualityCodes.get(i));
+            JsonElement tag = tags.get(i);
+            if (isMissingDependency(tagQualityCodes) && tag.isJsonObject() && tag.getAsJsonObject().has("name")) {
+                String tagName = tag.getAsJsonObject().get("name").getAsString();
+                retries.add(new Retry(basePath.getChildPath(tagName).toString(), basePath, tag.getAsJsonObject(),
+                        tagQualityCodes));
+            } else {
+                recorded.add(qualityCodes.get(i));
+            }
+        }
+        if (!recorded.isEmpty()) {
+            created.add(tagPath, recorded);
+        }
+    }
+
+    /**
+     * Imports the tags held back by {@link #addCreated(String, TagPath, JsonObject, List)}
+     * again, in rounds, until none are left, a round imports none of them, or
+     * the number of rounds set by {@code tagcicd.import.retryRounds} is used
+     * up. Single tags below the same path are sent together in batches, and
+     * the tags that succeed are not sent again. The tags still failing are
+     * recorded with their last quality codes.
+     *
+     * @param tagManager      the tag manager to import through
+     * @param collisionPolicy the collision policy to use
+     */
+    public void retryCreated(GatewayTagManager tagManager, CollisionPolicy collisionPolicy) {
+        int maxRounds = Integer.getInteger(TagCICDConstants.IMPORT_RETRY_ROUNDS_PROPERTY,
+                TagCICDConstants.DEFAULT_IMPORT_RETRY_ROUNDS);
+        try {
+            for (int round = 1; round <= maxRounds && !retries.isEmpty(); round++) {
+                int retryCount = retries.size();
+                logger.info("Retrying the import of {} tags with missing dependencies, round {} of {}", retryCount,
+                        round, maxRounds);
+                OperationMetrics.current().increment(OperationMetrics.COUNTER_RETRIED_TAGS, retryCount);
+                retryRound(tagManager, collisionPolicy);
+                if (retries.size() == retryCount) {
+                    break;
+                }
+            }
+        } finally {
+            recordRetries();
+        }
+    }
+
+    /**
+     * Records the quality codes of deleting the tags at a path.
+     *
+     * @param tagPath      the path deleted
+     * @param qualityCodes the quality codes returned by the deletion
+     */
+    public void addDeleted(String tagPath, List<QualityCode> qualityCodes) {
+        deleted.add(tagPath, qualityCodes);
+    }
+
+    /**
+     * Builds the import result, leaving out deleted or created tags if there
+     * were none.
+     *
+     * @return the import result
+     */
+    public JsonObject toJson() {
+        recordRetries();
+        JsonObject responseObject = new JsonObject();
+        deleted.addTo(responseObject, DELETED_TAGS);
+        created.addTo(responseObject, CREATED_TAGS);
+        return responseObject;
+    }
+
+    /**
+     * Counts the quality codes of an import result, from its summary if it
+     * has one, otherwise from its tag paths.
+     *
+     * @param result the import result
+     * @param key    {@link #CREATED_TAGS} or {@link #DELETED_TAGS}
+     * @param good   whether to count the Good quality codes, or the others
+     * @return the number of quality codes counted
+     */
+    public static long countQualityCodes(JsonObject result, String key, boolean good) {
+        JsonObject summary = result.getAsJsonObject(key + SUMMARY_SUFFIX);
+        if (summary != null) {
+            return summary.get(good ? "good" : "bad").getAsLong();
+        }
+
+        long count = 0;
+        JsonObject tags = result.getAsJsonObject(key);
+        if (tags == null) {
+            return count;
+        }
+        for (Map.Entry<String, JsonElement> tagResult : tags.entrySet()) {
+            if (!tagResult.getValue().isJsonArray()) {
+                continue;
+            }
+            for (JsonElement qualityCode : tagResult.getValue().getAsJsonArray()) {
+                if (qualityCode.getAsString().startsWith("Good") == good) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void retryRound(GatewayTagManager tagManager, CollisionPolicy collisionPolicy) {
+        Map<String, List<Retry>> batches = new LinkedHashMap<>();
+        List<Retry> remaining = new ArrayList<>();
+        for (Retry retry : retries) {
+            if (getSingleTag(retry.tagsJson) != null) {
+                batches.computeIfAbsent(retry.basePath.toString(), path -> new ArrayList<>()).add(retry);
+            } else {
+                retry.qualityCodes = TagConfigUtilities.importTags(tagManager, retry.basePath, retry.tagsJson,
+                        collisionPolicy);
+                remaining.add(retry);
+            }
+        }
+
+        for (List<Retry> batch : batches.values()) {
+            List<JsonObject> tags = new ArrayList<>();
+            for (Retry retry : batch) {
+                tags.add(getSingleTag(retry.tagsJson));
+            }
+            List<List<QualityCode>> qualityCodes = TagConfigUtilities.importTagBatches(tagManager,
+                    batch.get(0).basePath, tags, collisionPolicy);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).qualityCodes = qualityCodes.get(i);
+                remaining.add(batch.get(i));
+            }
+        }
+
+        retries.clear();
+        for (Retry retry : remaining) {
+            addCreated(retry.tagPath, retry.basePath, retry.tagsJson, retry.qualityCodes);
+        }
+    }
+
+    private void recordRetries() {
+        for (Retry retry : retries) {
+            created.add(retry.tagPath, retry.qualityCodes);
+        }
+        retries.clear();
+    }
+
+    /**
+     * Returns the tag in tag JSON holding a single tag, either the tag itself
+     * or the only entry of its {@code tags}, or null if it holds several.
+     */
+    private static JsonObject getSingleTag(JsonObject tagsJson) {
+        if (tagsJson.has("name")) {
+            return tagsJson;
+        }
+        JsonArray tags = tagsJson.getAsJsonArray("tags");
+        if (tags != null && tags.size() == 1 && tags.get(0).isJsonObject()) {
+            return tags.get(0).getAsJsonObject();
+        }
+        return null;
+    }
+
+    private static boolean isMissingDependency(List<QualityCode> qualityCodes) {
+        AdaptiveImportController controller = AdaptiveImportController.getInstance();
+        for (QualityCode qualityCode : qualityCodes) {
+            if (controller.isMissingDependency(qualityCode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the folder holding a tag path, such as {@code [default]Folder}
+     * for {@code [default]Folder/Tag}.
+     */
+    private static String getFolder(String tagPath) {
+        int lastSeparator = tagPath.lastIndexOf('/');
+        if (lastSeparator >= 0) {
+            return tagPath.substring(0, lastSeparator);
+        }
+        int providerEnd = tagPath.indexOf(']');
+        return providerEnd >= 0 ? tagPath.substring(0, providerEnd + 1) : "";
+    }
+
+    private static class Retry {
+        private final String tagPath;
+        private final TagPath basePath;
+        private final JsonObject tagsJson;
+        private List<QualityCode> qualityCodes;
+
+        Retry(String tagPath, TagPath basePath, JsonObject tagsJson, List<QualityCode> qualityCodes) {
+            this.tagPath = tagPath;
+            this.basePath = basePath;
+            this.tagsJson = tagsJson;
+            this.qualityCodes = qualityCodes;
+        }
+    }
+
+    private class Results {
+        private final JsonObject tags = new JsonObject();
+        private final Map<String, long[]> folders = new TreeMap<>();
+        private long good;
+        private long bad;
+
+        void add(String tagPath, List<QualityCode> qualityCodes) {
+            long tagPathBad = qualityCodes.stream().filter(QualityCode::isNotGood).count();
+            long tagPathGood = qualityCodes.size() - tagPathBad;
+            if (resultMode == ResultMode.FULL || tagPathBad > 0) {
+                // A path imported more than once, such as a folder imported in batches, keeps every code
+                JsonArray qualityCodesArray = TagConfigUtilities.convertQualityCodesToArray(qualityCodes);
+                if (tags.has(tagPath) && tags.get(tagPath).isJsonArray()) {
+                    tags.getAsJsonArray(tagPath).addAll(qualityCodesArray);
+                } else {
+                    tags.add(tagPath, qualityCodesArray);
+                }
+            }
+            if (resultMode == ResultMode.SUMMARY) {
+                long[] folderCounts = folders.computeIfAbsent(getFolder(tagPath), folder -> new long[2]);
+                folderCounts[0] += tagPathGood;
+                folderCounts[1] += tagPathBad;
+            }
+            good += tagPathGood;
+            bad += tagPathBad;
+        }
+
+        void addTo(JsonObject responseObject, String key) {
+            TagConfigUtilities.addQualityCodesToJsonObject(responseObject, tags, key);
+            if (resultMode != ResultMode.SUMMARY || folders.isEmpty()) {
+                return;
+            }
+
+            JsonObject summary = new JsonObject();
+            summary.addProperty("good", good);
+            summary.addProperty("bad", bad);
+            JsonObject foldersObject = new JsonObject();
+            for (Map.Entry<String, long[]> folder : folders.entrySet()) {
+                JsonObject folderObject = new JsonObject();
+                folderObject.addProperty("good", folder.getValue()[0]);
+                folderObject.addProperty("bad", folder.getValue()[1]);
+                foldersObject.add(folder.getKey(), folderObject);
+            }
+            summary.add("folders", foldersObject);
+            responseObject.add(key + SUMMARY_SUFFIX, summary);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+
+/**
+ * The deadline of an export, import or delete, and the means to cancel it.
+ *
+ * An operation started with a deadline waits for the tag system only until
+ * the deadline passes or the operation is cancelled, then stops making calls
+ * to it and fails with a {@link CancelledException}. An import that stops
+ * this way reports the tags it had imported so far. Operations run on other
+ * threads for the same request, such as the steps of a job, share its
+ * deadline through {@link #bind(OperationDeadline)}.
+ *
+ * Running operations are listed by id so that they can be cancelled from
+ * another request. Threads without a deadline wait as long as the tag system
+ * takes.
+ */
+public class OperationDeadline {
+    // How often a waiting thread checks whether its operation was cancelled
+    private static final long POLL_MILLIS = 100;
+    private static final ThreadLocal<OperationDeadline> CURRENT = new ThreadLocal<>();
+    private static final Map<String, OperationDeadline> RUNNING = new ConcurrentHashMap<>();
+
+    private final String id;
+    private final String caller;
+    private final long startedAt = System.currentTimeMillis();
+    private final long timeoutMillis;
+    // Unused if the operation has no limit
+    private final long deadlineNanos;
+    private volatile String cancelReason;
+
+    private OperationDeadline(String id, String caller, long timeoutMillis) {
+        this.id = id;
+        this.caller = caller;
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis));
+    }
+
+    /**
+     * Starts an operation with a deadline on the current thread, until the
+     * returned scope is closed. An operation started inside another keeps the
+     * id and deadline of the outer one.
+     *
+     * @param id            the id to cancel the operation by, or null for a
+     *                      random one
+     * @param timeoutMillis the most milliseconds the operation may take, or a
+     *                      negative number for no limit
+     * @return the scope, which ends the operation when closed
+     * @throws IllegalArgumentException if an operation with the id is running
+     */
+    public static OperationMetrics.Scope start(String id, long timeoutMillis) {
+        if (CURRENT.get() != null) {
+            return () -> {
+            };
+        }
+        OperationDeadline deadline = new OperationDeadline(id == null ? UUID.randomUUID().toString() : id,
+                OperationMetrics.current().getCaller(), timeoutMillis);
+        if (RUNNING.putIfAbsent(deadline.id, deadline) != null) {
+            throw new IllegalArgumentException("An operation with id '" + deadline.id + "' is already running");
+        }
+        CURRENT.set(deadline);
+        return () -> {
+            CURRENT.remove();
+            RUNNING.remove(deadline.id, deadline);
+        };
+    }
+
+    /**
+     * Runs the current thread under another thread's operation, until the
+     * returned scope is closed.
+     *
+     * @param deadline the operation, or null to leave the thread without one
+     * @return the scope, which restores the previous operation when closed
+     */
+    public static OperationMetrics.Scope bind(OperationDeadline deadline) {
+        if (deadline == null) {
+            return () -> {
+            };
+        }
+        OperationDeadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the operation running on the current thread, or null if there
+     * is none.
+     */
+    public static OperationDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Cancels a running operation. It stops at its next call to the tag
+     * system, or within a moment if it is waiting on one.
+     *
+     * @param id the id of the operation
+     * @return whether an operation with the id was running
+     */
+    public static boolean cancel(String id) {
+        OperationDeadline deadline = RUNNING.get(id);
+        if (deadline == null) {
+            return false;
+        }
+        deadline.cancelReason = "Operation " + id + " was cancelled";
+        return true;
+    }
+
+    /**
+     * Returns the operations running with a deadline, in no particular order.
+     */
+    public static List<OperationDeadline> getRunning() {
+        return new ArrayList<>(RUNNING.values());
+    }
+
+    /**
+     * Fails if the operation on the current thread was cancelled or has run
+     * past its deadline. Called before each call to the tag system.
+     *
+     * @throws CancelledException if the operation is to stop
+     */
+    public static void check() {
+        OperationDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.throwIfDone();
+        }
+    }
+
+    /**
+     * Returns how long to wait at a time for something the operation on the
+     * current thread needs, checking with {@link #check()} in between, or 0
+     * to wait until notified if the thread has no deadline.
+     */
+    public static long getPollMillis() {
+        return CURRENT.get() == null ? 0 : POLL_MILLIS;
+    }
+
+    /**
+     * Waits for a call to the tag system, as {@link CompletableFuture#join()}
+     * does, but only until the operation on the current thread is cancelled
+     * or runs past its deadline.
+     *
+     * @param future the call
+     * @return the result of the call
+     * @throws CancelledException  if the operation is to stop first
+     * @throws CompletionException if the call failed
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        OperationDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return future.join();
+        }
+        while (true) {
+            try {
+                deadline.throwIfDone();
+            } catch (CancelledException e) {
+                future.cancel(true);
+                throw e;
+            }
+            long waitMillis = POLL_MILLIS;
+            if (deadline.timeoutMillis >= 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline.deadlineNanos - System.nanoTime());
+                waitMillis = Math.max(1, Math.min(POLL_MILLIS, remaining));
+            }
+            try {
+                return future.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Check the deadline again
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                throw new CancelledException("Operation " + deadline.id + " was interrupted", false);
+            }
+        }
+    }
+
+    /**
+     * Throws the cancellation that caused a failure, if there is one, so that
+     * it is not reported as an ordinary error.
+     *
+     * @param throwable the failure
+     * @throws CancelledException if the failure was caused by one
+     */
+    public static void rethrowIfCancelled(Throwable throwable) {
+        rethrowIfCancelled(throwable, null);
+    }
+
+    /**
+     * Throws the cancellation that caused a failure, if there is one, along
+     * with the result of the part of the operation that finished.
+     *
+     * @param throwable     the failure
+     * @param partialResult the result so far, kept if the cancellation has
+     *                      none yet
+     * @throws CancelledException if the failure was caused by one
+     */
+    public static void rethrowIfCancelled(Throwable throwable, JsonObject partialResult) {
+        CancelledException cancelled = findCancellation(throwable);
+        if (cancelled != null) {
+            if (cancelled.partialResult == null) {
+                cancelled.partialResult = partialResult;
+            }
+            throw cancelled;
+        }
+    }
+
+    /**
+     * Returns the cancellation that caused a failure, or null if it was not
+     * caused by one.
+     */
+    public static CancelledException findCancellation(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CancelledException) {
+                return (CancelledException) cause;
+            }
+        }
+        return null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isCancelled() {
+        return cancelReason != null;
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", id);
+        if (caller != null) {
+            json.addProperty("caller", caller);
+        }
+        json.addProperty("startedAt", startedAt);
+        if (timeoutMillis >= 0) {
+            json.addProperty("timeoutMillis", timeoutMillis);
+        }
+        json.addProperty("cancelled", isCancelled());
+        return json;
+    }
+
+    private void throwIfDone() {
+        if (cancelReason != null) {
+            throw new CancelledException(cancelReason, false);
+        }
+        if (timeoutMillis >= 0 && System.nanoTime() - deadlineNanos >= 0) {
+            throw new CancelledException("Operation " + id + " did not finish within " + timeoutMillis + " ms",
+                    true);
+        }
+    }
+
+    /**
+     * Thrown when an operation is cancelled or runs past its deadline.
+     */
+    public static class CancelledException extends CancellationException {
+        private final boolean timedOut;
+        private JsonObject partialResult;
+
+        public CancelledException(String message, boolean timedOut) {
+            super(message);
+            this.timedOut = timedOut;
+        }
+
+        /**
+         * Returns whether the operation ran past its deadline, rather than
+         * being cancelled.
+         */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         * Returns the result of the part of the operation that finished, or
+         * null if it has none.
+         */
+        public JsonObject getPartialResult() {
+            return partialResult;
+        }
+    }
+}
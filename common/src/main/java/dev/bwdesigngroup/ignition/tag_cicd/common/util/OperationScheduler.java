@@ -0,0 +1,230 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+
+/**
+ * Decides which exports, imports and deletes may run when more of them are
+ * waiting than the gateway runs at once, so that a Designer user's import is
+ * not held up behind a large export from a CI pipeline.
+ *
+ * Each operation waits in the lane of its caller: interactive for RPC calls
+ * from the Designer, automation for HTTP requests and background for startup
+ * imports, watch mode and continuous export. Each lane has its own limit on
+ * the operations it runs at once, below the limit for all lanes together, so
+ * that lower lanes never take every slot. A free slot goes to the waiting
+ * operation with the highest priority, where a wait of one aging interval
+ * raises an operation by one lane, so that a busy interactive lane cannot
+ * starve the others.
+ *
+ * An operation run inside another on the same thread does not wait again, and
+ * an operation with a deadline stops waiting once it is cancelled or the
+ * deadline passes. Operations take their tag path locks from the
+ * {@link TagPathLockManager} before they are admitted, so that one waiting for
+ * a conflicting operation to finish never holds a slot while it waits.
+ */
+public class OperationScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(OperationScheduler.class.getName());
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private static OperationScheduler instance;
+
+    /**
+     * The lanes, from the highest priority to the lowest.
+     */
+    public enum Lane {
+        INTERACTIVE("interactive", TagCICDConstants.DEFAULT_SCHEDULER_INTERACTIVE_CONCURRENCY),
+        AUTOMATION("automation", TagCICDConstants.DEFAULT_SCHEDULER_AUTOMATION_CONCURRENCY),
+        BACKGROUND("background", TagCICDConstants.DEFAULT_SCHEDULER_BACKGROUND_CONCURRENCY);
+
+        private final String name;
+        private final int defaultConcurrency;
+
+        Lane(String name, int defaultConcurrency) {
+            this.name = name;
+            this.defaultConcurrency = defaultConcurrency;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the lane of an operation's caller, such as
+         * {@link OperationMetrics#CALLER_RPC}. Operations whose caller was not
+         * named run in the automation lane.
+         */
+        public static Lane forCaller(String caller) {
+            if (OperationMetrics.CALLER_RPC.equals(caller)) {
+                return INTERACTIVE;
+            }
+            if (OperationMetrics.CALLER_STARTUP.equals(caller) || OperationMetrics.CALLER_WATCH.equals(caller)
+                    || OperationMetrics.CALLER_CONTINUOUS_EXPORT.equals(caller)) {
+                return BACKGROUND;
+            }
+            return AUTOMATION;
+        }
+    }
+
+    private final int maxConcurrency;
+    private final long agingMillis;
+    private final Map<Lane, Integer> laneConcurrency = new EnumMap<>(Lane.class);
+    private final Map<Lane, Integer> running = new EnumMap<>(Lane.class);
+    private final List<Waiter> waiters = new ArrayList<>();
+    private int runningTotal;
+
+    private OperationScheduler() {
+        this(Integer.getInteger(TagCICDConstants.SCHEDULER_MAX_CONCURRENCY_PROPERTY,
+                TagCICDConstants.DEFAULT_SCHEDULER_MAX_CONCURRENCY),
+                Long.getLong(TagCICDConstants.SCHEDULER_AGING_PROPERTY,
+                        TagCICDConstants.DEFAULT_SCHEDULER_AGING_MILLIS),
+                getLaneConcurrencyProperties());
+    }
+
+    OperationScheduler(int maxConcurrency, long agingMillis, Map<Lane, Integer> laneConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.agingMillis = Math.max(1, agingMillis);
+        for (Lane lane : Lane.values()) {
+            int concurrency = laneConcurrency.getOrDefault(lane, lane.defaultConcurrency);
+            this.laneConcurrency.put(lane, Math.max(1, Math.min(concurrency, this.maxConcurrency)));
+            running.put(lane, 0);
+        }
+        logger.info("Operation scheduler runs at most {} operations at once, with lane limits {}",
+                this.maxConcurrency, this.laneConcurrency);
+    }
+
+    public static synchronized OperationScheduler getInstance() {
+        if (instance == null) {
+            instance = new OperationScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Waits for a slot to run the current operation in, in the lane of its
+     * caller. The time spent waiting is charged to the operation's
+     * {@code queue} phase.
+     *
+     * @return the slot, which is given up when closed
+     * @throws CancellationException if the thread is interrupted while waiting
+     */
+    public OperationMetrics.Scope admit() {
+        return admit(Lane.forCaller(OperationMetrics.current().getCaller()));
+    }
+
+    /**
+     * Waits for a slot to run an operation in the given lane.
+     *
+     * @return the slot, which is given up when closed
+     * @throws CancellationException if the thread is interrupted while
+     *                               waiting, or its operation is cancelled
+     */
+    public OperationMetrics.Scope admit(Lane lane) {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0) {
+            depth[0]++;
+            return () -> depth[0]--;
+        }
+
+        synchronized (this) {
+            Waiter waiter = new Waiter(lane, System.currentTimeMillis() + lane.ordinal() * agingMillis);
+            if (!canRun(waiter)) {
+                waiters.add(waiter);
+                try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_QUEUE)) {
+                    while (!canRun(waiter)) {
+                        OperationDeadline.check();
+                        wait(OperationDeadline.getPollMillis());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting to run in the " + lane.getName()
+                            + " lane");
+                } finally {
+                    waiters.remove(waiter);
+                    notifyAll();
+                }
+            }
+            running.merge(lane, 1, Integer::sum);
+            runningTotal++;
+        }
+        depth[0] = 1;
+
+        return new OperationMetrics.Scope() {
+            private boolean closed;
+
+            @Override
+            public void close() {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                depth[0] = 0;
+                synchronized (OperationScheduler.this) {
+                    running.merge(lane, -1, Integer::sum);
+                    runningTotal--;
+                    OperationScheduler.this.notifyAll();
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the number of operations waiting in a lane.
+     */
+    public synchronized int getQueueDepth(Lane lane) {
+        int depth = 0;
+        for (Waiter waiter : waiters) {
+            if (waiter.lane == lane) {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private static Map<Lane, Integer> getLaneConcurrencyProperties() {
+        Map<Lane, Integer> laneConcurrency = new EnumMap<>(Lane.class);
+        for (Lane lane : Lane.values()) {
+            laneConcurrency.put(lane, Integer.getInteger(
+                    String.format(TagCICDConstants.SCHEDULER_LANE_CONCURRENCY_PROPERTY, lane.getName()),
+                    lane.defaultConcurrency));
+        }
+        return laneConcurrency;
+    }
+
+    private boolean hasRoom(Lane lane) {
+        return runningTotal < maxConcurrency && running.get(lane) < laneConcurrency.get(lane);
+    }
+
+    private boolean canRun(Waiter waiter) {
+        if (!hasRoom(waiter.lane)) {
+            return false;
+        }
+        // Only the waiter with the highest priority among the lanes with room runs next
+        for (Waiter other : waiters) {
+            if (other != waiter && other.priority < waiter.priority && hasRoom(other.lane)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Waiter {
+        private final Lane lane;
+        // The time the waiter arrived, later by one aging interval per lane below the highest
+        private final long priority;
+
+        Waiter(Lane lane, long priority) {
+            this.lane = lane;
+            this.priority = priority;
+        }
+    }
+}
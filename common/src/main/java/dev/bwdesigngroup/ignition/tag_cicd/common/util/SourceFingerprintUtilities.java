@@ -0,0 +1,108 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A utility class for fingerprinting tag source files and directories.
+ *
+ * A fingerprint is a Merkle root: each file hashes to the SHA-256 of its
+ * contents, and each directory hashes to the SHA-256 of its sorted children's
+ * names, kinds and hashes. Two source trees share a fingerprint only if every
+ * file in them is byte-identical.
+ */
+public class SourceFingerprintUtilities {
+    private static final Logger logger = LoggerFactory.getLogger(SourceFingerprintUtilities.class.getName());
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Computes the fingerprint of the given source file or directory.
+     *
+     * @param sourcePath the file or directory to fingerprint
+     * @return the hex encoded fingerprint, or null if the path does not exist
+     * @throws IOException if the source tree cannot be read
+     */
+    public static String computeFingerprint(String sourcePath) throws IOException {
+        Path path = Paths.get(sourcePath);
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        long start = System.currentTimeMillis();
+        String fingerprint = toHex(hashPath(path));
+        logger.debug("Computed fingerprint {} for {} in {} ms", fingerprint, sourcePath,
+                System.currentTimeMillis() - start);
+        return fingerprint;
+    }
+
+    private static byte[] hashPath(Path path) throws IOException {
+        return Files.isDirectory(path) ? hashDirectory(path) : hashFile(path);
+    }
+
+    private static byte[] hashFile(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static byte[] hashDirectory(Path directory) throws IOException {
+        List<Path> children;
+        try (Stream<Path> paths = Files.list(directory)) {
+            children = paths
+                    .filter(child -> !isIgnored(child))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        MessageDigest digest = newDigest();
+        for (Path child : children) {
+            boolean isDirectory = Files.isDirectory(child);
+            digest.update(child.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) (isDirectory ? 'd' : 'f'));
+            digest.update(isDirectory ? hashDirectory(child) : hashFile(child));
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Version control metadata does not affect what gets imported.
+     */
+    private static boolean isIgnored(Path path) {
+        return ".git".equals(path.getFileName().toString());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.tags.TagUtilities;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+
+/**
+ * Shares the parsed JSON of source files between the imports of a job, so
+ * that a source imported more than once in the job is read and parsed once.
+ *
+ * A cache only holds files under the source paths it was created for, and is
+ * used by {@link FileUtilities#readJsonFile} on the threads it is bound to. A
+ * cached file is read again once its size or modification time changes.
+ */
+public class SourceReadCache {
+    private static final ThreadLocal<SourceReadCache> CURRENT = new ThreadLocal<>();
+
+    private final List<Path> sourcePaths = new ArrayList<>();
+    private final Map<Path, CachedFile> files = new ConcurrentHashMap<>();
+
+    /**
+     * @param sourcePaths the files and directories whose files may be cached
+     */
+    public SourceReadCache(Collection<String> sourcePaths) {
+        for (String sourcePath : sourcePaths) {
+            this.sourcePaths.add(new File(sourcePath).getAbsoluteFile().toPath().normalize());
+        }
+    }
+
+    /**
+     * Returns the cache bound to the current thread, or null if there is none.
+     */
+    public static SourceReadCache current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the cache to the current thread until the returned binding is
+     * closed.
+     */
+    public Binding bind() {
+        SourceReadCache previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Reads and parses a JSON file, from the cache if it holds the file as it
+     * is now.
+     *
+     * @return the parsed JSON, which the caller may modify
+     * @throws IOException if the file cannot be read
+     */
+    JsonElement read(File file) throws IOException {
+        Path path = file.getAbsoluteFile().toPath().normalize();
+        if (!isUnderSourcePath(path)) {
+            return TagUtilities.stringToJson(FileUtilities.readFileAsString(file));
+        }
+
+        long length = file.length();
+        long lastModified = file.lastModified();
+        CachedFile cached = files.get(path);
+        if (cached != null && cached.length == length && cached.lastModified == lastModified) {
+            OperationMetrics.current().increment(OperationMetrics.COUNTER_CACHE_HITS, 1);
+            return cached.json.deepCopy();
+        }
+
+        OperationMetrics.current().increment(OperationMetrics.COUNTER_CACHE_MISSES, 1);
+        JsonElement json = TagUtilities.stringToJson(FileUtilities.readFileAsString(file));
+        files.put(path, new CachedFile(length, lastModified, json.deepCopy()));
+        return json;
+    }
+
+    private boolean isUnderSourcePath(Path path) {
+        for (Path sourcePath : sourcePaths) {
+            if (path.startsWith(sourcePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A binding of a cache to a thread, which unbinds it when closed.
+     */
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static class CachedFile {
+        private final long length;
+        private final long lastModified;
+        private final JsonElement json;
+
+        CachedFile(long length, long lastModified, JsonElement json) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.json = json;
+        }
+    }
+}
@@ -8,18 +8,25 @@ package dev.bwdesigngroup.ignition.tag_cicd.common.util;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.TagUtilities;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
 import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
 import com.inductiveautomation.ignition.common.tags.model.TagPath;
 import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
@@ -69,8 +76,12 @@ public class TagConfigUtilities {
 		logger.trace("Requesting tag configuration for provider " + provider + " and tag path " + baseTagPath.toString()
 				+ " with recursive=" + recursive + " and localPropsOnly=" + localPropsOnly);
 
-		TagConfigurationModel tagConfigurationModel = tagManager.getTagProvider(provider)
-				.getTagConfigsAsync(List.of(baseTagPath), recursive, localPropsOnly).join().get(0);
+		TagConfigurationModel tagConfigurationModel;
+		try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_FETCH)) {
+			OperationDeadline.check();
+			tagConfigurationModel = OperationDeadline.await(tagManager.getTagProvider(provider)
+					.getTagConfigsAsync(List.of(baseTagPath), recursive, localPropsOnly)).get(0);
+		}
 
 		logger.trace("Tag configuration model for provider " + provider + " and tag path " + baseTagPath.toString()
 				+ " with recursive=" + recursive + " and localPropsOnly=" + localPropsOnly + " is: "
@@ -112,11 +123,204 @@ public class TagConfigUtilities {
 		}
 
 		logger.info("Deleting tags from provider " + provider + " with paths: " + tagPaths.toString());
-		deleteResults.addAll(tagManager.getTagProvider(provider).removeTagConfigsAsync(tagPaths).join());
+		deleteResults.addAll(removeTagConfigs(tagManager, provider, tagPaths));
 
 		return deleteResults;
 	}
 
+	/**
+	 * Imports tag JSON below a base path through the tag manager, and records
+	 * the call and the tags in it with the current operation's metrics.
+	 *
+	 * @param tagManager      the tag manager to import through
+	 * @param basePath        the tag path to import below
+	 * @param tagsJson        the tags to import
+	 * @param collisionPolicy the collision policy to use
+	 * @return the quality codes returned by the tag manager
+	 */
+	public static List<QualityCode> importTags(GatewayTagManager tagManager, TagPath basePath, JsonObject tagsJson,
+			CollisionPolicy collisionPolicy) {
+		OperationMetrics.current().countTags(tagsJson);
+		AdaptiveImportController.getInstance().acquire(countTagObjects(tagsJson));
+		return importTags(tagManager, basePath, TagUtilities.jsonToString(tagsJson), collisionPolicy);
+	}
+
+	/**
+	 * Imports sibling tags below a base path in batches, sized and run at once
+	 * as the {@link AdaptiveImportController} allows, and records the calls
+	 * and the tags in them with the current operation's metrics.
+	 *
+	 * Each tag is given the quality code the tag manager returned for it. If a
+	 * call does not return one code per tag, each of its tags is given the
+	 * worst code of the call. A call that fails is logged once with the names
+	 * of its tags, which are each given Bad_Failure.
+	 *
+	 * @param tagManager      the tag manager to import through
+	 * @param basePath        the tag path to import below
+	 * @param tags            the tags to import, none of them folders
+	 * @param collisionPolicy the collision policy to use
+	 * @return the quality codes of each tag, in the order of the tags
+	 */
+	public static List<List<QualityCode>> importTagBatches(GatewayTagManager tagManager, TagPath basePath,
+			List<JsonObject> tags, CollisionPolicy collisionPolicy) {
+		AdaptiveImportController controller = AdaptiveImportController.getInstance();
+		OperationMetrics metrics = OperationMetrics.current();
+		List<List<QualityCode>> results = new ArrayList<>(Collections.nCopies(tags.size(), null));
+		Queue<PendingBatch> pending = new ArrayDeque<>();
+		int next = 0;
+
+		try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_IMPORT)) {
+			while (next < tags.size() || !pending.isEmpty()) {
+				// Send batches until as many calls are running as the controller allows
+				while (next < tags.size() && pending.size() < controller.getInFlight()) {
+					OperationDeadline.check();
+					int end = Math.min(tags.size(), next + controller.getBatchSize());
+					JsonObject batchJson = new JsonObject();
+					JsonArray batchTags = new JsonArray();
+					for (JsonObject tag : tags.subList(next, end)) {
+						metrics.countTags(tag);
+						batchTags.add(tag);
+					}
+					batchJson.add("tags", batchTags);
+
+					controller.acquire(end - next);
+					pending.add(new PendingBatch(next, end, System.nanoTime(), tagManager.importTagsAsync(basePath,
+							TagUtilities.jsonToString(batchJson), "json", collisionPolicy)));
+					next = end;
+				}
+
+				PendingBatch batch = pending.remove();
+				int tagCount = batch.end - batch.start;
+				List<QualityCode> qualityCodes;
+				try {
+					qualityCodes = OperationDeadline.await(batch.future);
+				} catch (OperationDeadline.CancelledException e) {
+					// The calls already sent are not waited for
+					pending.forEach(other -> other.future.cancel(true));
+					throw e;
+				} catch (Exception e) {
+					controller.record(tagCount, System.nanoTime() - batch.startNanos, tagCount);
+					List<String> tagNames = new ArrayList<>();
+					for (JsonObject tag : tags.subList(batch.start, batch.end)) {
+						tagNames.add(tag.get("name").getAsString());
+					}
+					logger.error("Error importing {} tags below {} {}: {}", tagCount, basePath, tagNames,
+							e.getMessage(), e);
+					// The tags are reported as failed, so the import does not pass for a success
+					qualityCodes = Collections.nCopies(tagCount, QualityCode.Bad_Failure);
+					countBadQualityCodes(metrics, qualityCodes);
+					setQualityCodes(results, batch, qualityCodes);
+					continue;
+				}
+				long latency = System.nanoTime() - batch.startNanos;
+				metrics.recordImportCall(latency);
+				countBadQualityCodes(metrics, qualityCodes);
+				controller.record(tagCount, latency, qualityCodes);
+				setQualityCodes(results, batch, qualityCodes);
+			}
+		}
+		return results;
+	}
+
+	private static void setQualityCodes(List<List<QualityCode>> results, PendingBatch batch,
+			List<QualityCode> qualityCodes) {
+		int tagCount = batch.end - batch.start;
+		for (int i = batch.start; i < batch.end; i++) {
+			results.set(i, qualityCodes.size() == tagCount
+					? List.of(qualityCodes.get(i - batch.start))
+					: List.of(getWorstQualityCode(qualityCodes)));
+		}
+	}
+
+	/**
+	 * Imports a tag JSON string below a base path through the tag manager, and
+	 * records the call with the current operation's metrics.
+	 *
+	 * @param tagManager      the tag manager to import through
+	 * @param basePath        the tag path to import below
+	 * @param tagsJson        the tags to import, as a JSON string
+	 * @param collisionPolicy the collision policy to use
+	 * @return the quality codes returned by the tag manager
+	 */
+	public static List<QualityCode> importTags(GatewayTagManager tagManager, TagPath basePath, String tagsJson,
+			CollisionPolicy collisionPolicy) {
+		OperationMetrics metrics = OperationMetrics.current();
+		try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_IMPORT)) {
+			OperationDeadline.check();
+			long start = System.nanoTime();
+			List<QualityCode> qualityCodes = OperationDeadline.await(
+					tagManager.importTagsAsync(basePath, tagsJson, "json", collisionPolicy));
+			metrics.recordImportCall(System.nanoTime() - start);
+			countBadQualityCodes(metrics, qualityCodes);
+			return qualityCodes;
+		}
+	}
+
+	/**
+	 * Removes tags through a provider, and records the call with the current
+	 * operation's metrics.
+	 *
+	 * @param tagManager the tag manager
+	 * @param provider   the provider holding the tags
+	 * @param tagPaths   the paths of the tags to remove
+	 * @return the quality codes returned by the provider
+	 */
+	public static List<QualityCode> removeTagConfigs(GatewayTagManager tagManager, String provider,
+			List<TagPath> tagPaths) {
+		OperationMetrics metrics = OperationMetrics.current();
+		try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_DELETE)) {
+			OperationDeadline.check();
+			metrics.increment(OperationMetrics.COUNTER_REMOVE_CALLS, 1);
+			List<QualityCode> qualityCodes = OperationDeadline.await(
+					tagManager.getTagProvider(provider).removeTagConfigsAsync(tagPaths));
+			countBadQualityCodes(metrics, qualityCodes);
+			return qualityCodes;
+		}
+	}
+
+	private static QualityCode getWorstQualityCode(List<QualityCode> qualityCodes) {
+		for (QualityCode qualityCode : qualityCodes) {
+			if (qualityCode.isNotGood()) {
+				return qualityCode;
+			}
+		}
+		return qualityCodes.isEmpty() ? QualityCode.Good : qualityCodes.get(0);
+	}
+
+	private static int countTagObjects(JsonObject tagsJson) {
+		int count = 0;
+		if (tagsJson.has("tags") && tagsJson.get("tags").isJsonArray()) {
+			for (JsonElement tag : tagsJson.getAsJsonArray("tags")) {
+				if (tag.isJsonObject()) {
+					count += 1 + countTagObjects(tag.getAsJsonObject());
+				}
+			}
+		}
+		return count;
+	}
+
+	private static class PendingBatch {
+		private final int start;
+		private final int end;
+		private final long startNanos;
+		private final CompletableFuture<List<QualityCode>> future;
+
+		PendingBatch(int start, int end, long startNanos, CompletableFuture<List<QualityCode>> future) {
+			this.start = start;
+			this.end = end;
+			this.startNanos = startNanos;
+			this.future = future;
+		}
+	}
+
+	private static void countBadQualityCodes(OperationMetrics metrics, List<QualityCode> qualityCodes) {
+		for (QualityCode qualityCode : qualityCodes) {
+			if (qualityCode.isNotGood()) {
+				metrics.increment(OperationMetrics.COUNTER_BAD_QUALITY_CODES, 1);
+			}
+		}
+	}
+
 	/**
 	 * Converts a List of QualityCode objects to a JsonArray of QualityCode strings
 	 *
@@ -328,4 +532,131 @@ public class TagConfigUtilities {
 
         sortedUdtTypes.add(udtType);
     }
+
+	/**
+	 * Orders UDT definitions so that every definition comes after the
+	 * definition it inherits from and the definitions its nested UDT instances
+	 * depend on. Circular dependencies are logged and broken arbitrarily.
+	 *
+	 * @param udtTypesArray the UDT definitions to sort
+	 * @return the definitions in import order
+	 */
+	public static List<JsonObject> sortUdtTypesByDependencies(JsonArray udtTypesArray) {
+		try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_SORT_UDTS)) {
+			return orderUdtTypesByDependencies(udtTypesArray);
+		}
+	}
+
+	private static List<JsonObject> orderUdtTypesByDependencies(JsonArray udtTypesArray) {
+		Map<String, JsonObject> udtTypesMap = new HashMap<>();
+		Map<String, Set<String>> dependencies = new HashMap<>();
+		Set<String> allUdtNames = new HashSet<>();
+
+		for (JsonElement element : udtTypesArray) {
+			JsonObject udtType = element.getAsJsonObject();
+			String udtName = udtType.get("name").getAsString();
+			udtTypesMap.put(udtName, udtType);
+			allUdtNames.add(udtName);
+			Set<String> deps = new HashSet<>();
+			findUdtDependencies(udtType, deps);
+			dependencies.put(udtName, deps);
+		}
+
+		List<String> sortedNames = new ArrayList<>();
+		Set<String> visited = new HashSet<>();
+		Set<String> tempMarks = new HashSet<>();
+
+		for (String udtName : allUdtNames) {
+			if (!visited.contains(udtName)) {
+				topologicalSortUdts(udtName, dependencies, visited, tempMarks, sortedNames);
+			}
+		}
+
+		List<JsonObject> sortedUdts = new ArrayList<>();
+		for (String name : sortedNames) {
+			JsonObject udtObject = udtTypesMap.get(name);
+			if (udtObject != null) {
+				sortedUdts.add(udtObject);
+			}
+		}
+
+		logger.debug("Sorted UDTs: {}", sortedUdts.stream().map(obj -> obj.get("name").getAsString()).toList());
+		return sortedUdts;
+	}
+
+	private static void findUdtDependencies(JsonObject jsonObject, Set<String> dependencies) {
+		// Instances depend on their definition, and definitions on the definition they inherit from
+		if (jsonObject.has("tagType") &&
+				("UdtInstance".equals(jsonObject.get("tagType").getAsString())
+						|| "UdtType".equals(jsonObject.get("tagType").getAsString())) &&
+				jsonObject.has("typeId")) {
+			String typeId = jsonObject.get("typeId").getAsString();
+			if (!typeId.isEmpty()) {
+				dependencies.add(typeId);
+			}
+		}
+
+		if (jsonObject.has("tags") && jsonObject.get("tags").isJsonArray()) {
+			JsonArray tags = jsonObject.getAsJsonArray("tags");
+			for (JsonElement tagElement : tags) {
+				if (tagElement.isJsonObject()) {
+					findUdtDependencies(tagElement.getAsJsonObject(), dependencies);
+				}
+			}
+		}
+
+		if (jsonObject.has("parameters")) {
+			JsonElement parametersElement = jsonObject.get("parameters");
+
+			// Handle both JsonArray and JsonObject cases for parameters
+			if (parametersElement.isJsonArray()) {
+				JsonArray parameters = parametersElement.getAsJsonArray();
+				for (JsonElement paramElement : parameters) {
+					if (paramElement.isJsonObject()) {
+						JsonObject param = paramElement.getAsJsonObject();
+						if (param.has("value") && param.get("value").isJsonObject()) {
+							findUdtDependencies(param.get("value").getAsJsonObject(), dependencies);
+						}
+					}
+				}
+			} else if (parametersElement.isJsonObject()) {
+				JsonObject parameters = parametersElement.getAsJsonObject();
+				for (Map.Entry<String, JsonElement> entry : parameters.entrySet()) {
+					JsonElement paramValue = entry.getValue();
+					if (paramValue.isJsonObject()) {
+						findUdtDependencies(paramValue.getAsJsonObject(), dependencies);
+					}
+				}
+			}
+		}
+	}
+
+	private static void topologicalSortUdts(
+			String udtName,
+			Map<String, Set<String>> dependencies,
+			Set<String> visited,
+			Set<String> tempMarks,
+			List<String> sortedNames) {
+		if (tempMarks.contains(udtName)) {
+			logger.warn("Circular dependency detected in UDT types involving: {}", udtName);
+			return;
+		}
+
+		if (visited.contains(udtName)) {
+			return;
+		}
+
+		tempMarks.add(udtName);
+
+		Set<String> deps = dependencies.getOrDefault(udtName, Collections.emptySet());
+		for (String dep : deps) {
+			if (dependencies.containsKey(dep)) {
+				topologicalSortUdts(dep, dependencies, visited, tempMarks, sortedNames);
+			}
+		}
+
+		tempMarks.remove(udtName);
+		visited.add(udtName);
+		sortedNames.add(udtName);
+	}
 }
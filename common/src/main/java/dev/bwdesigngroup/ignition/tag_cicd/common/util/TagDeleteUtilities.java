@@ -1,5 +1,6 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.util;
 
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.common.model.values.QualityCode;
@@ -44,10 +45,24 @@ public class TagDeleteUtilities {
 
         TagPath tagPath = new BasicTagPath(provider,
                 baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-        TagConfigurationModel configModel = TagConfigUtilities.getTagConfigurationModel(tagManager, provider,
-                baseTagPath, recursive, false);
-        List<QualityCode> qualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(tagManager, provider,
-                tagPath, configModel);
+        List<QualityCode> qualityCodes;
+        OperationMetrics metrics = OperationMetrics.begin("delete", provider, null);
+        metrics.setParameter("tagPath", baseTagPath);
+        metrics.setParameter("recursive", recursive);
+        try (OperationMetrics.Scope lock = TagPathLockManager.getInstance().lockExclusive(provider, baseTagPath);
+                OperationMetrics.Scope slot = OperationScheduler.getInstance().admit()) {
+            TagConfigurationModel configModel = TagConfigUtilities.getTagConfigurationModel(tagManager, provider,
+                    baseTagPath, recursive, false);
+            qualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(tagManager, provider, tagPath,
+                    configModel);
+            metrics.hashResult(TagConfigUtilities.convertQualityCodesToArray(qualityCodes).toString());
+        } catch (RuntimeException e) {
+            metrics.fail(e);
+            OperationDeadline.rethrowIfCancelled(e);
+            throw e;
+        } finally {
+            metrics.end();
+        }
 
         responseObject.add(tagPath.toString(), TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
         return responseObject;
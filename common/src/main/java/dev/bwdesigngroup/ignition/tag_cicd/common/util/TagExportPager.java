@@ -0,0 +1,167 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Splits an export into pages of tags, in depth-first order.
+ *
+ * Each folder is listed on its own, without its children, followed by the
+ * tags below it. UDT definitions and instances are listed whole, with their
+ * members. The tag at the base tag path is listed first, unless it is the
+ * provider itself.
+ *
+ * The cursor of the next page holds the position and path of the last tag
+ * listed. The next page resumes after that path, or at that position if the
+ * tag has since been deleted, so that tags added or removed between pages
+ * shift the pages as little as possible.
+ */
+public class TagExportPager {
+    private final String baseTagPath;
+    private final TagFilter filter;
+    private final int pageSize;
+
+    private int position;
+    private int startPosition;
+    private String cursorPath;
+    private int cursorPosition = -1;
+    private JsonArray pageTags;
+    private int lastPosition;
+    private String lastPath;
+    private boolean hasMore;
+
+    /**
+     * @param baseTagPath the normalized base tag path the export was made from
+     * @param filter      the filter tags must match to be listed
+     * @param pageSize    the most tags listed on a page
+     */
+    public TagExportPager(String baseTagPath, TagFilter filter, int pageSize) {
+        this.baseTagPath = baseTagPath == null ? "" : baseTagPath;
+        this.filter = filter;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Lists a page of tags from an export.
+     *
+     * @param tagsJson the export, in canonical order so that pages are stable
+     * @param cursor   the cursor returned with the previous page, or null for the first page
+     * @return the page, with {@code tags}, {@code count} and, unless it is the last page,
+     *         {@code nextCursor}
+     * @throws IllegalArgumentException if the cursor is not one returned with a page
+     */
+    public JsonObject getPage(JsonObject tagsJson, String cursor) {
+        startPosition = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            decodeCursor(cursor);
+            // Find where the last tag listed is now. If it was deleted, the tag
+            // after it has taken its old position.
+            position = 0;
+            startPosition = cursorPosition;
+            walk(tagsJson, baseTagPath, true, Mode.FIND);
+        }
+
+        position = 0;
+        pageTags = new JsonArray();
+        hasMore = false;
+        walk(tagsJson, baseTagPath, true, Mode.LIST);
+
+        JsonObject page = new JsonObject();
+        page.addProperty("count", pageTags.size());
+        page.add("tags", pageTags);
+        if (hasMore) {
+            page.addProperty("nextCursor", encodeCursor(lastPosition, lastPath));
+        }
+        return page;
+    }
+
+    private enum Mode {
+        FIND, LIST
+    }
+
+    /**
+     * Visits a tag and everything below it, and returns false once the walk
+     * can stop.
+     */
+    private boolean walk(JsonObject tag, String tagPath, boolean isBase, Mode mode) {
+        String tagType = tag.has("tagType") ? tag.get("tagType").getAsString() : null;
+        boolean isProvider = "Provider".equals(tagType) || (isBase && tagType == null);
+        boolean isContainer = isProvider || "Folder".equals(tagType);
+        if (!isProvider && !visit(tag, tagPath, isContainer, mode)) {
+            return false;
+        }
+        if (!isContainer || !tag.has("tags") || !tag.get("tags").isJsonArray()) {
+            return true;
+        }
+
+        for (JsonElement child : tag.getAsJsonArray("tags")) {
+            if (!child.isJsonObject()) {
+                continue;
+            }
+            JsonObject childObject = child.getAsJsonObject();
+            String name = childObject.has("name") ? childObject.get("name").getAsString() : "";
+            String childPath = tagPath.isEmpty() ? name : tagPath + "/" + name;
+            if (!walk(childObject, childPath, false, mode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean visit(JsonObject tag, String tagPath, boolean isContainer, Mode mode) {
+        int current = position++;
+        if (mode == Mode.FIND) {
+            if (tagPath.equals(cursorPath)) {
+                startPosition = current + 1;
+                return false;
+            }
+            return true;
+        }
+
+        if (current < startPosition || !filter.matches(tag)) {
+            return true;
+        }
+        if (pageTags.size() == pageSize) {
+            hasMore = true;
+            return false;
+        }
+
+        JsonObject listed = tag;
+        if (isContainer && tag.has("tags")) {
+            listed = new JsonObject();
+            for (Map.Entry<String, JsonElement> property : tag.entrySet()) {
+                if (!"tags".equals(property.getKey())) {
+                    listed.add(property.getKey(), property.getValue());
+                }
+            }
+        }
+        JsonObject pageTag = new JsonObject();
+        pageTag.addProperty("path", tagPath);
+        pageTag.add("tag", listed);
+        pageTags.add(pageTag);
+        lastPosition = current;
+        lastPath = tagPath;
+        return true;
+    }
+
+    private static String encodeCursor(int position, String tagPath) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((position + ":" + tagPath).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            cursorPosition = Integer.parseInt(decoded.substring(0, separator));
+            cursorPath = decoded.substring(separator + 1);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.util;
 
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
 import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategy;
 import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategyFactory;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.stream.JsonWriter;
 import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
 import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 public class TagExportUtilities {
     private static final Logger logger = LoggerFactory.getLogger(TagExportUtilities.class.getName());
 
     public static JsonObject convertToJsonObject(TagConfigurationModel tagConfigurationModel) throws Exception {
-        return TagUtilities.toJsonObject(tagConfigurationModel);
+        try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_CONVERT)) {
+            return TagUtilities.toJsonObject(tagConfigurationModel);
+        }
     }
 
     public static JsonObject removeUdtDefinitions(JsonObject tagsJson) {
@@ -48,6 +65,36 @@ public class TagExportUtilities {
         return tagsJson;
     }
 
+    /**
+     * Reduces a collection of relative tag paths to those with no ancestor in
+     * the collection, since re-exporting a folder also covers everything below
+     * it. An empty path stands for the base tag path itself.
+     * 
+     * @param tagPaths the relative tag paths, '/' separated
+     * @return the topmost paths, parents first
+     */
+    public static List<String> getTopmostTagPaths(Collection<String> tagPaths) {
+        List<String> sorted = new ArrayList<>(new HashSet<>(tagPaths));
+        sorted.sort(Comparator.comparingInt((String tagPath) -> tagPath.isEmpty() ? 0 : tagPath.split("/").length)
+                .thenComparing(Comparator.naturalOrder()));
+
+        Set<String> kept = new HashSet<>();
+        List<String> topmost = new ArrayList<>();
+        for (String tagPath : sorted) {
+            boolean covered = kept.contains("");
+            int separator = tagPath.indexOf('/');
+            while (!covered && separator > 0) {
+                covered = kept.contains(tagPath.substring(0, separator));
+                separator = tagPath.indexOf('/', separator + 1);
+            }
+            if (!covered) {
+                kept.add(tagPath);
+                topmost.add(tagPath);
+            }
+        }
+        return topmost;
+    }
+
     /**
      * Validates the tag path and export configuration before attempting export.
      * 
@@ -61,7 +108,13 @@ public class TagExportUtilities {
      */
     public static void validateExportConfiguration(GatewayTagManager tagManager, String provider,
             String baseTagPath, boolean recursive, boolean localPropsOnly) throws IOException {
+        try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_VALIDATE)) {
+            validateTagPath(tagManager, provider, baseTagPath, localPropsOnly);
+        }
+    }
 
+    private static void validateTagPath(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean localPropsOnly) throws IOException {
         // Check if provider exists
         if (tagManager.getTagProvider(provider) == null) {
             throw new IllegalArgumentException("Tag provider '" + provider + "' does not exist");
@@ -128,7 +181,7 @@ public class TagExportUtilities {
      * @param tagPath the tag path to normalize
      * @return the normalized tag path
      */
-    private static String normalizeTagPath(String tagPath) {
+    public static String normalizeTagPath(String tagPath) {
         if (tagPath == null || tagPath.isEmpty()) {
             return "";
         }
@@ -159,9 +212,11 @@ public class TagExportUtilities {
      * @param provider    the provider name for better error messages
      * @throws IllegalArgumentException if invalid structure is found
      */
-    private static void validateJsonStructure(JsonObject json, String baseTagPath, String provider) {
+    static void validateJsonStructure(JsonObject json, String baseTagPath, String provider) {
         logger.debug("Validating JSON structure for path: '{}' in provider: '{}'", baseTagPath, provider);
-        logger.debug("JSON structure: {}", json.toString());
+        if (logger.isTraceEnabled()) {
+            logger.trace("JSON structure: {}", json);
+        }
 
         // Special handling for _types_ folder exports
         if (baseTagPath != null && baseTagPath.startsWith("_types_")) {
@@ -295,6 +350,20 @@ public class TagExportUtilities {
 
     public static JsonObject exportTagsToJson(GatewayTagManager tagManager, String provider, String baseTagPath,
             boolean recursive, boolean localPropsOnly) throws Exception {
+        return exportTagsToJson(tagManager, provider, baseTagPath, recursive, localPropsOnly, null);
+    }
+
+    /**
+     * Exports tags as JSON in canonical order.
+     * 
+     * @param subtreeSource supplies the JSON of a recursive export in place of
+     *                      fetching it, or null to always fetch it
+     * @return the sorted JSON, which may be shared with the subtree source and
+     *         must not be modified
+     * @throws Exception if the export fails
+     */
+    public static JsonObject exportTagsToJson(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean recursive, boolean localPropsOnly, TagSubtreeSource subtreeSource) throws Exception {
         if (provider == null) {
             provider = TagConfigUtilities.DEFAULT_PROVIDER;
         }
@@ -308,22 +377,174 @@ public class TagExportUtilities {
         logger.info("Exporting tags from provider " + provider + " at " + baseTagPath + " (recursive=" + recursive +
                 ", localPropsOnly=" + localPropsOnly + ")");
 
-        // Validate configuration before proceeding
-        validateExportConfiguration(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+        OperationMetrics metrics = OperationMetrics.begin("exportJson", provider, null);
+        metrics.setParameter("baseTagPath", baseTagPath);
+        metrics.setParameter("recursive", recursive);
+        metrics.setParameter("localPropsOnly", localPropsOnly);
+        try (OperationMetrics.Scope lock = TagPathLockManager.getInstance().lockShared(provider, baseTagPath);
+                OperationMetrics.Scope slot = OperationScheduler.getInstance().admit()) {
+            // Validate configuration before proceeding
+            validateExportConfiguration(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+
+            if (recursive && subtreeSource != null) {
+                return getSubtreeJson(subtreeSource, tagManager, provider, baseTagPath, localPropsOnly, metrics);
+            }
+            JsonObject tagsJson = fetchTagsJson(tagManager, provider, baseTagPath, recursive, localPropsOnly,
+                    metrics);
+            return (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
+        } catch (Exception e) {
+            metrics.fail(e);
+            OperationDeadline.rethrowIfCancelled(e);
+            throw e;
+        } finally {
+            metrics.end();
+        }
+    }
+
+    /**
+     * Exports tags as JSON to a stream, in the same canonical order as
+     * {@link #exportTagsToJson}, without building the sorted copy of the tags
+     * or the serialized string. A recursive export is fetched and written a
+     * folder at a time, rather than fetched whole before anything is written.
+     * 
+     * @param openStream called once the export configuration has been validated
+     *                   and before the tags are fetched, so that the caller can
+     *                   start its response early. The stream is flushed but not
+     *                   closed.
+     * @throws Exception if the export fails
+     */
+    public static void exportTagsToStream(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean recursive, boolean localPropsOnly, Callable<OutputStream> openStream) throws Exception {
+        exportTagsToStream(tagManager, provider, baseTagPath, recursive, localPropsOnly, null, openStream);
+    }
 
-        TagConfigurationModel tagConfigurationModel = TagConfigUtilities.getTagConfigurationModel(tagManager, provider,
-                baseTagPath, recursive, localPropsOnly);
+    /**
+     * Exports tags as JSON to a stream, taking the folders of a recursive
+     * export that a subtree source already holds from it when one is given.
+     * 
+     * @param subtreeSource supplies the folders it already holds in place of
+     *                      fetching them, or null to always fetch them
+     * @throws Exception if the export fails
+     */
+    public static void exportTagsToStream(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean recursive, boolean localPropsOnly, TagSubtreeSource subtreeSource,
+            Callable<OutputStream> openStream) throws Exception {
+        if (provider == null) {
+            provider = TagConfigUtilities.DEFAULT_PROVIDER;
+        }
+        if (baseTagPath == null) {
+            baseTagPath = "";
+        }
+
+        // Normalize the base tag path
+        baseTagPath = normalizeTagPath(baseTagPath);
+
+        logger.info("Streaming tags from provider " + provider + " at " + baseTagPath + " (recursive=" + recursive +
+                ", localPropsOnly=" + localPropsOnly + ")");
+
+        OperationMetrics metrics = OperationMetrics.begin("exportJson", provider, null);
+        metrics.setParameter("baseTagPath", baseTagPath);
+        metrics.setParameter("recursive", recursive);
+        metrics.setParameter("localPropsOnly", localPropsOnly);
+        metrics.setParameter("stream", true);
+        try (OperationMetrics.Scope lock = TagPathLockManager.getInstance().lockShared(provider, baseTagPath);
+                OperationMetrics.Scope slot = OperationScheduler.getInstance().admit()) {
+            validateExportConfiguration(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+            CountingOutputStream outputStream = new CountingOutputStream(openStream.call());
+
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (!recursive) {
+                JsonObject tagsJson = fetchTagsJson(tagManager, provider, baseTagPath, false, localPropsOnly,
+                        metrics);
+                try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_WRITE)) {
+                    CanonicalJsonWriter.write(tagsJson, writer);
+                }
+            } else {
+                // The fetches of each folder are timed by their own phase, which pauses this one
+                try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_WRITE)) {
+                    JsonWriter jsonWriter = new JsonWriter(writer);
+                    jsonWriter.setLenient(true);
+                    new TagTreeStreamWriter(tagManager, provider, baseTagPath, localPropsOnly, subtreeSource,
+                            metrics, jsonWriter).write();
+                    jsonWriter.flush();
+                }
+            }
+            metrics.increment(OperationMetrics.COUNTER_BYTES_WRITTEN, outputStream.count);
+        } catch (Exception e) {
+            metrics.fail(e);
+            OperationDeadline.rethrowIfCancelled(e);
+            throw e;
+        } finally {
+            metrics.end();
+        }
+    }
+
+    private static JsonObject fetchTagsJson(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean recursive, boolean localPropsOnly, OperationMetrics metrics) throws Exception {
+        TagConfigurationModel tagConfigurationModel = TagConfigUtilities.getTagConfigurationModel(tagManager,
+                provider, baseTagPath, recursive, localPropsOnly);
         JsonObject tagsJson = convertToJsonObject(tagConfigurationModel);
 
         // Final validation of the export result
-        validateJsonStructure(tagsJson, baseTagPath, provider);
+        try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_VALIDATE)) {
+            validateJsonStructure(tagsJson, baseTagPath, provider);
+        }
+        metrics.countTags(tagsJson);
+        return tagsJson;
+    }
 
-        return (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
+    private static JsonObject getSubtreeJson(TagSubtreeSource subtreeSource, GatewayTagManager tagManager,
+            String provider, String baseTagPath, boolean localPropsOnly, OperationMetrics metrics) throws Exception {
+        JsonObject tagsJson = subtreeSource.getSubtree(tagManager, provider, baseTagPath, localPropsOnly);
+        try (OperationMetrics.Phase phase = metrics.phase(OperationMetrics.PHASE_VALIDATE)) {
+            validateJsonStructure(tagsJson, baseTagPath, provider);
+        }
+        metrics.countTags(tagsJson);
+        return tagsJson;
     }
 
-    public static void exportTagsToDisk(GatewayTagManager tagManager, String provider, String baseTagPath,
+    /**
+     * Exports tags to disk using the layout of the export mode.
+     * 
+     * @return the metrics of the export
+     * @throws IOException if the export fails
+     */
+
+    public static JsonObject exportTagsToDisk(GatewayTagManager tagManager, String provider, String baseTagPath,
             boolean recursive, boolean localPropsOnly, String filePath, String exportMode,
             boolean deleteExisting, boolean excludeUdtDefinitions) throws IOException {
+        return exportTagsToDisk(tagManager, provider, baseTagPath, recursive, localPropsOnly, filePath, exportMode,
+                deleteExisting, excludeUdtDefinitions, TagPathFilter.ALL);
+    }
+
+    /**
+     * Exports the tags a path filter keeps to disk, using the layout of the
+     * export mode. Folders the filter leaves out are never fetched.
+     * 
+     * @param pathFilter the filter of the tag paths to export, relative to the base tag path
+     * @return the metrics of the export
+     * @throws IOException if the export fails
+     */
+    public static JsonObject exportTagsToDisk(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean recursive, boolean localPropsOnly, String filePath, String exportMode,
+            boolean deleteExisting, boolean excludeUdtDefinitions, TagPathFilter pathFilter) throws IOException {
+        return exportTagsToDisk(tagManager, provider, baseTagPath, recursive, localPropsOnly, filePath, exportMode,
+                deleteExisting, excludeUdtDefinitions, pathFilter, null);
+    }
+
+    /**
+     * Exports tags to disk, taking the JSON of a recursive export without a
+     * path filter from a subtree source when one is given.
+     * 
+     * @param subtreeSource supplies the JSON of a recursive export in place of
+     *                      fetching it, or null to always fetch it
+     * @return the metrics of the export
+     * @throws IOException if the export fails
+     */
+    public static JsonObject exportTagsToDisk(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean recursive, boolean localPropsOnly, String filePath, String exportMode,
+            boolean deleteExisting, boolean excludeUdtDefinitions, TagPathFilter pathFilter,
+            TagSubtreeSource subtreeSource) throws IOException {
 
         // Normalize the base tag path
         if (baseTagPath == null) {
@@ -331,31 +552,287 @@ public class TagExportUtilities {
         }
         baseTagPath = normalizeTagPath(baseTagPath);
 
-        // Validate configuration before any file operations
-        logger.info("Validating export configuration before proceeding...");
-        validateExportConfiguration(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+        TagExportImportStrategy strategy = TagExportImportStrategyFactory.getInstance().getStrategy(exportMode);
+        OperationMetrics metrics = OperationMetrics.begin("export", provider,
+                strategy.getExportMode().getCode());
+        metrics.setParameter("baseTagPath", baseTagPath);
+        metrics.setParameter("filePath", filePath);
+        metrics.setParameter("recursive", recursive);
+        metrics.setParameter("localPropsOnly", localPropsOnly);
+        metrics.setParameter("deleteExisting", deleteExisting);
+        metrics.setParameter("excludeUdtDefinitions", excludeUdtDefinitions);
+        setPathFilterParameters(metrics, pathFilter);
+        try (OperationMetrics.Scope lock = TagPathLockManager.getInstance().lockShared(provider, baseTagPath);
+                OperationMetrics.Scope slot = OperationScheduler.getInstance().admit()) {
+            // Validate configuration before any file operations
+            logger.info("Validating export configuration before proceeding...");
+            validateExportConfiguration(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+
+            logger.info(
+                    "Starting tag export to disk using {} mode: provider={}, baseTagPath={}, filePath={}, recursive={}, localPropsOnly={}, deleteExisting={}, excludeUdtDefinitions={}",
+                    strategy.getExportMode().getDisplayName(), provider, baseTagPath, filePath, recursive,
+                    localPropsOnly, deleteExisting, excludeUdtDefinitions);
+
+            try {
+                if (pathFilter.isEmpty() && recursive && subtreeSource != null) {
+                    exportSubtreeToDisk(tagManager, strategy, subtreeSource, provider, baseTagPath, localPropsOnly,
+                            filePath, deleteExisting, excludeUdtDefinitions, metrics);
+                } else if (pathFilter.isEmpty()) {
+                    strategy.exportTagsToDisk(tagManager, provider, baseTagPath, recursive, localPropsOnly, filePath,
+                            deleteExisting, excludeUdtDefinitions);
+                } else {
+                    exportFilteredTagsToDisk(tagManager, strategy, provider, baseTagPath, recursive, localPropsOnly,
+                            filePath, deleteExisting, excludeUdtDefinitions, pathFilter);
+                }
+            } catch (Exception e) {
+                // If export fails, provide helpful error message
+                if (e.getMessage().contains("Unknown")) {
+                    throw new IOException(
+                            "Export failed due to Unknown tag type. This often occurs when trying to export " +
+                                    "from a non-existent path or when the path contains no valid tags. " +
+                                    "Please verify the tag path exists and contains the expected tags. " +
+                                    "Original error: " + e.getMessage(),
+                            e);
+                }
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            metrics.fail(e);
+            OperationDeadline.rethrowIfCancelled(e);
+            throw e;
+        } finally {
+            metrics.end();
+        }
+        return metrics.toJson();
+    }
+
+    /**
+     * Re-exports only the files holding the given changed tags, using the
+     * layout of the export mode.
+     * 
+     * @param tagManager            the tag manager
+     * @param provider              the provider name
+     * @param baseTagPath           the base tag path the export was made from
+     * @param filePath              the file path the export was written to
+     * @param exportMode            the export mode code
+     * @param changedTagPaths       paths of the changed tags relative to baseTagPath
+     * @param excludeUdtDefinitions whether to exclude UDT definitions
+     * @return the metrics of the export
+     * @throws IOException if the export fails
+     */
+    public static JsonObject exportChangedTags(GatewayTagManager tagManager, String provider, String baseTagPath,
+            String filePath, String exportMode, Collection<String> changedTagPaths, boolean excludeUdtDefinitions)
+            throws IOException {
+        return exportChangedTags(tagManager, provider, baseTagPath, filePath, exportMode, changedTagPaths,
+                excludeUdtDefinitions, TagPathFilter.ALL);
+    }
+
+    /**
+     * Re-exports only the files holding the given changed tags that a path
+     * filter keeps. Changes the filter leaves out are ignored. If a changed
+     * folder is only partly kept, or its files also hold tags the filter
+     * leaves out, the filtered export is written again whole instead.
+     * 
+     * @param pathFilter the filter the export was made with
+     * @return the metrics of the export
+     * @throws IOException if the export fails
+     */
+    public static JsonObject exportChangedTags(GatewayTagManager tagManager, String provider, String baseTagPath,
+            String filePath, String exportMode, Collection<String> changedTagPaths, boolean excludeUdtDefinitions,
+            TagPathFilter pathFilter) throws IOException {
+        if (baseTagPath == null) {
+            baseTagPath = "";
+        }
+        baseTagPath = normalizeTagPath(baseTagPath);
 
         TagExportImportStrategy strategy = TagExportImportStrategyFactory.getInstance().getStrategy(exportMode);
+        logger.info("Exporting {} changed tags using {} mode: provider={}, baseTagPath={}, filePath={}",
+                changedTagPaths.size(), strategy.getExportMode().getDisplayName(), provider, baseTagPath, filePath);
+
+        OperationMetrics metrics = OperationMetrics.begin("exportChanges", provider,
+                strategy.getExportMode().getCode());
+        metrics.setParameter("baseTagPath", baseTagPath);
+        metrics.setParameter("filePath", filePath);
+        metrics.setParameter("changedTags", changedTagPaths.size());
+        metrics.setParameter("excludeUdtDefinitions", excludeUdtDefinitions);
+        setPathFilterParameters(metrics, pathFilter);
+        try (OperationMetrics.Scope lock = TagPathLockManager.getInstance().lockShared(provider, baseTagPath);
+                OperationMetrics.Scope slot = OperationScheduler.getInstance().admit()) {
+            if (pathFilter.isEmpty()) {
+                strategy.exportChangedTags(tagManager, provider, baseTagPath, filePath, changedTagPaths,
+                        excludeUdtDefinitions);
+            } else {
+                exportChangedFilteredTags(tagManager, strategy, provider, baseTagPath, filePath, changedTagPaths,
+                        excludeUdtDefinitions, pathFilter);
+            }
+        } catch (IOException | RuntimeException e) {
+            metrics.fail(e);
+            OperationDeadline.rethrowIfCancelled(e);
+            throw e;
+        } finally {
+            metrics.end();
+        }
+        return metrics.toJson();
+    }
 
-        logger.info(
-                "Starting tag export to disk using {} mode: provider={}, baseTagPath={}, filePath={}, recursive={}, localPropsOnly={}, deleteExisting={}, excludeUdtDefinitions={}",
-                strategy.getExportMode().getDisplayName(), provider, baseTagPath, filePath, recursive, localPropsOnly,
-                deleteExisting, excludeUdtDefinitions);
+    private static void exportSubtreeToDisk(GatewayTagManager tagManager, TagExportImportStrategy strategy,
+            TagSubtreeSource subtreeSource, String provider, String baseTagPath, boolean localPropsOnly,
+            String filePath, boolean deleteExisting, boolean excludeUdtDefinitions, OperationMetrics metrics)
+            throws IOException {
+        JsonObject tagsJson;
+        try {
+            // The subtree may be shared, so the strategy is given a copy it can modify
+            tagsJson = getSubtreeJson(subtreeSource, tagManager, provider, baseTagPath, localPropsOnly, metrics)
+                    .deepCopy();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to fetch tags: " + e.getMessage(), e);
+        }
+        strategy.writeTagsToDisk(tagsJson, filePath, deleteExisting, excludeUdtDefinitions);
+    }
 
+    private static void exportFilteredTagsToDisk(GatewayTagManager tagManager, TagExportImportStrategy strategy,
+            String provider, String baseTagPath, boolean recursive, boolean localPropsOnly, String filePath,
+            boolean deleteExisting, boolean excludeUdtDefinitions, TagPathFilter pathFilter) throws IOException {
+        JsonObject tagsJson;
         try {
-            strategy.exportTagsToDisk(tagManager, provider, baseTagPath, recursive, localPropsOnly, filePath,
-                    deleteExisting, excludeUdtDefinitions);
+            tagsJson = fetchFilteredTagsJson(tagManager, provider, baseTagPath, recursive, localPropsOnly,
+                    pathFilter);
+        } catch (IOException | RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            // If export fails, provide helpful error message
-            if (e.getMessage().contains("Unknown")) {
-                throw new IOException(
-                        "Export failed due to Unknown tag type. This often occurs when trying to export " +
-                                "from a non-existent path or when the path contains no valid tags. " +
-                                "Please verify the tag path exists and contains the expected tags. " +
-                                "Original error: " + e.getMessage(),
-                        e);
+            throw new IOException("Failed to fetch filtered tags: " + e.getMessage(), e);
+        }
+        try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_VALIDATE)) {
+            validateJsonStructure(tagsJson, baseTagPath, provider);
+        }
+        strategy.writeTagsToDisk(tagsJson, filePath, deleteExisting, excludeUdtDefinitions);
+    }
+
+    private static void exportChangedFilteredTags(GatewayTagManager tagManager, TagExportImportStrategy strategy,
+            String provider, String baseTagPath, String filePath, Collection<String> changedTagPaths,
+            boolean excludeUdtDefinitions, TagPathFilter pathFilter) throws IOException {
+        List<String> keptTagPaths = new ArrayList<>();
+        boolean exportWhole = strategy.getExportMode() == ExportMode.SINGLE_FILE;
+        for (String changedTagPath : getTopmostTagPaths(changedTagPaths)) {
+            if (pathFilter.getDecision(changedTagPath) == TagPathFilter.Decision.EXCLUDED) {
+                continue;
             }
-            throw e;
+            // A changed tag is written along with its siblings, so its whole parent folder has to be kept
+            int lastSeparator = changedTagPath.lastIndexOf('/');
+            String parentPath = lastSeparator > 0 ? changedTagPath.substring(0, lastSeparator) : "";
+            if (changedTagPath.isEmpty() || pathFilter.getDecision(parentPath) != TagPathFilter.Decision.INCLUDED) {
+                exportWhole = true;
+            }
+            keptTagPaths.add(changedTagPath);
+        }
+        if (keptTagPaths.isEmpty()) {
+            logger.debug("Ignoring changed tags left out by the path filter {}", pathFilter);
+            return;
+        }
+
+        if (!exportWhole) {
+            strategy.exportChangedTags(tagManager, provider, baseTagPath, filePath, keptTagPaths,
+                    excludeUdtDefinitions);
+            return;
+        }
+        exportFilteredTagsToDisk(tagManager, strategy, provider, baseTagPath, true, false, filePath, false,
+                excludeUdtDefinitions, pathFilter);
+    }
+
+    /**
+     * Fetches the tags below a base tag path that a path filter keeps. A
+     * folder the filter keeps whole is fetched in one recursive call, and
+     * folders it only keeps part of are fetched a level at a time, so the
+     * folders it leaves out are never fetched or converted.
+     * 
+     * @param tagManager     the tag manager
+     * @param provider       the provider name
+     * @param baseTagPath    the normalized base tag path
+     * @param recursive      whether to fetch the tags below the base tag path's children
+     * @param localPropsOnly whether to fetch only local properties
+     * @param pathFilter     the filter of the tag paths to fetch, relative to the base tag path
+     * @return the filtered tag tree, unsorted
+     * @throws Exception if the tags cannot be fetched
+     */
+    public static JsonObject fetchFilteredTagsJson(GatewayTagManager tagManager, String provider,
+            String baseTagPath, boolean recursive, boolean localPropsOnly, TagPathFilter pathFilter)
+            throws Exception {
+        if (!recursive) {
+            JsonObject tagsJson = convertToJsonObject(TagConfigUtilities.getTagConfigurationModel(tagManager,
+                    provider, baseTagPath, false, localPropsOnly));
+            return pathFilter.filterTree(tagsJson, "");
+        }
+        return fetchFilteredFolder(tagManager, provider, baseTagPath, "", localPropsOnly, pathFilter);
+    }
+
+    /**
+     * Fetches the tags a path filter keeps in one folder below a base tag
+     * path, recursively.
+     * 
+     * @param relativePath the folder path relative to the base tag path, empty for the base tag path
+     * @return the filtered tag tree of the folder, unsorted
+     * @throws Exception if the tags cannot be fetched
+     */
+    public static JsonObject fetchFilteredFolder(GatewayTagManager tagManager, String provider,
+            String baseTagPath, String relativePath, boolean localPropsOnly, TagPathFilter pathFilter)
+            throws Exception {
+        String tagPath = relativePath.isEmpty() ? baseTagPath : TagPathFilter.join(baseTagPath, relativePath);
+        TagPathFilter.Decision decision = pathFilter.getDecision(relativePath);
+        if (decision == TagPathFilter.Decision.INCLUDED) {
+            return convertToJsonObject(TagConfigUtilities.getTagConfigurationModel(tagManager, provider, tagPath,
+                    true, localPropsOnly));
+        }
+
+        JsonObject folderJson = convertToJsonObject(TagConfigUtilities.getTagConfigurationModel(tagManager,
+                provider, tagPath, false, localPropsOnly));
+        if (!folderJson.has("tags") || !folderJson.get("tags").isJsonArray()) {
+            return folderJson;
+        }
+
+        JsonArray keptTags = new JsonArray();
+        if (decision == TagPathFilter.Decision.PARTIAL) {
+            for (JsonElement child : folderJson.getAsJsonArray("tags")) {
+                JsonObject childObject = child.getAsJsonObject();
+                if (!childObject.has("name")) {
+                    keptTags.add(childObject);
+                    continue;
+                }
+                String childPath = TagPathFilter.join(relativePath, childObject.get("name").getAsString());
+                String tagType = childObject.has("tagType") ? childObject.get("tagType").getAsString() : "";
+
+                if ("Folder".equals(tagType)) {
+                    if (pathFilter.getDecision(childPath) == TagPathFilter.Decision.EXCLUDED) {
+                        continue;
+                    }
+                    JsonObject childFolder = fetchFilteredFolder(tagManager, provider, baseTagPath, childPath,
+                            localPropsOnly, pathFilter);
+                    boolean hasTags = childFolder.has("tags") && childFolder.getAsJsonArray("tags").size() > 0;
+                    if (hasTags || pathFilter.matches(childPath)) {
+                        keptTags.add(childFolder);
+                    }
+                } else if (!pathFilter.matches(childPath)) {
+                    continue;
+                } else if ("AtomicTag".equals(tagType)) {
+                    keptTags.add(childObject);
+                } else {
+                    // UDT definitions and instances hold their members, which the fetch of their folder leaves out
+                    keptTags.add(convertToJsonObject(TagConfigUtilities.getTagConfigurationModel(tagManager,
+                            provider, TagPathFilter.join(baseTagPath, childPath), true, localPropsOnly)));
+                }
+            }
+        }
+        folderJson.add("tags", keptTags);
+        return folderJson;
+    }
+
+    static void setPathFilterParameters(OperationMetrics metrics, TagPathFilter pathFilter) {
+        if (!pathFilter.getIncludes().isEmpty()) {
+            metrics.setParameter("includePaths", String.join(",", pathFilter.getIncludes()));
+        }
+        if (!pathFilter.getExcludes().isEmpty()) {
+            metrics.setParameter("excludePaths", String.join(",", pathFilter.getExcludes()));
         }
     }
 
@@ -378,4 +855,27 @@ public class TagExportUtilities {
 
         return "Ensure the base tag path points to a valid folder or tag within your provider.";
     }
-}
\ No newline at end of file
+
+    /**
+     * Counts the bytes written through it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
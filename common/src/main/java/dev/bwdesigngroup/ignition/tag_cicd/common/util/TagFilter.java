@@ -0,0 +1,103 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Selects tags by their type, name and properties. Every criterion that is
+ * given must match, and a filter with none matches every tag.
+ */
+public class TagFilter {
+    private final List<String> tagTypes;
+    private final Pattern namePattern;
+    private final List<String> properties;
+
+    private TagFilter(List<String> tagTypes, Pattern namePattern, List<String> properties) {
+        this.tagTypes = tagTypes;
+        this.namePattern = namePattern;
+        this.properties = properties;
+    }
+
+    /**
+     * Creates a filter from request parameters.
+     *
+     * @param tagTypes   comma separated tag types, such as {@code AtomicTag,UdtInstance}, matched
+     *                   ignoring case, or null for any type
+     * @param nameGlob   a glob the tag name must match ignoring case, where {@code *} matches any
+     *                   characters and {@code ?} one character, or null for any name
+     * @param properties comma separated properties the tag must have, such as {@code alarms},
+     *                   or null for any properties
+     * @return the filter
+     */
+    public static TagFilter of(String tagTypes, String nameGlob, String properties) {
+        List<String> types = split(tagTypes);
+        types.replaceAll(type -> type.toLowerCase(Locale.ROOT));
+        Pattern pattern = nameGlob == null || nameGlob.isEmpty() ? null
+                : Pattern.compile(globToRegex(nameGlob), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        return new TagFilter(types, pattern, split(properties));
+    }
+
+    /**
+     * Checks whether a tag matches the filter.
+     *
+     * @param tag the tag's JSON
+     * @return whether it matches
+     */
+    public boolean matches(JsonObject tag) {
+        if (!tagTypes.isEmpty()) {
+            String tagType = tag.has("tagType") ? tag.get("tagType").getAsString().toLowerCase(Locale.ROOT) : "";
+            if (!tagTypes.contains(tagType)) {
+                return false;
+            }
+        }
+        if (namePattern != null) {
+            String name = tag.has("name") ? tag.get("name").getAsString() : "";
+            if (!namePattern.matcher(name).matches()) {
+                return false;
+            }
+        }
+        for (String property : properties) {
+            if (!tag.has(property)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> split(String values) {
+        List<String> split = new ArrayList<>();
+        if (values == null) {
+            return split;
+        }
+        for (String value : values.split(",")) {
+            if (!value.trim().isEmpty()) {
+                split.add(value.trim());
+            }
+        }
+        return split;
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+}
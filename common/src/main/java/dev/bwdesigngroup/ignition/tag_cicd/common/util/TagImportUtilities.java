@@ -3,9 +3,14 @@ package dev.bwdesigngroup.ignition.tag_cicd.common.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
 import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategy;
 import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategyFactory;
-import com.inductiveautomation.ignition.common.tags.TagUtilities;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
@@ -15,6 +20,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 public class TagImportUtilities {
@@ -27,6 +34,53 @@ public class TagImportUtilities {
             String sourcePath,
             String collisionPolicy,
             String exportMode) throws IOException {
+        return importTagsFromSource(tagManager, provider, baseTagPath, sourcePath, collisionPolicy, exportMode,
+                ResultMode.FULL);
+    }
+
+    /**
+     * Imports tags from a source path.
+     *
+     * @param tagManager      The GatewayTagManager instance.
+     * @param provider        The target tag provider.
+     * @param baseTagPath     The base tag path to import to.
+     * @param sourcePath      The source file or directory path.
+     * @param collisionPolicy The collision policy to use.
+     * @param exportMode      The export mode code the source was written with.
+     * @param resultMode      How the quality codes of the imported tags are reported.
+     * @return A JsonObject containing information about the imported tags, and
+     *         the metrics of the import under {@code metrics}.
+     */
+    public static JsonObject importTagsFromSource(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            String collisionPolicy,
+            String exportMode,
+            ResultMode resultMode) throws IOException {
+        return importTagsFromSource(tagManager, provider, baseTagPath, sourcePath, collisionPolicy, exportMode,
+                resultMode, TagPathFilter.ALL);
+    }
+
+    /**
+     * Imports the tags a path filter keeps from a source path. Folders the
+     * filter leaves out are not read, and the 'd' collision policy only
+     * deletes existing tags the filter keeps.
+     *
+     * @param pathFilter The filter of the tag paths to import, relative to the base tag path.
+     * @return A JsonObject containing information about the imported tags, and
+     *         the metrics of the import under {@code metrics}.
+     */
+    public static JsonObject importTagsFromSource(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            String collisionPolicy,
+            String exportMode,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException {
 
         TagExportImportStrategy strategy = TagExportImportStrategyFactory.getInstance().getStrategy(exportMode);
 
@@ -34,29 +88,226 @@ public class TagImportUtilities {
                 "Starting tag import using {} mode: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}",
                 strategy.getExportMode().getDisplayName(), provider, baseTagPath, sourcePath, collisionPolicy);
 
-        return strategy.importTagsFromSource(tagManager, provider, baseTagPath, sourcePath, collisionPolicy);
+        OperationMetrics metrics = OperationMetrics.begin("import", provider,
+                strategy.getExportMode().getCode());
+        metrics.setParameter("baseTagPath", baseTagPath);
+        metrics.setParameter("sourcePath", sourcePath);
+        metrics.setParameter("collisionPolicy", collisionPolicy);
+        metrics.setParameter("resultMode", resultMode.getCode());
+        TagExportUtilities.setPathFilterParameters(metrics, pathFilter);
+        JsonObject result;
+        try (OperationMetrics.Scope lock = TagPathLockManager.getInstance().lockExclusive(provider, baseTagPath);
+                OperationMetrics.Scope slot = OperationScheduler.getInstance().admit()) {
+            result = strategy.importTagsFromSource(tagManager, provider, baseTagPath, sourcePath, collisionPolicy,
+                    resultMode, pathFilter);
+            metrics.hashResult(result.toString());
+        } catch (IOException | RuntimeException e) {
+            metrics.fail(e);
+            OperationDeadline.rethrowIfCancelled(e);
+            throw e;
+        } finally {
+            metrics.end();
+        }
+        result.add("metrics", metrics.toJson());
+        return result;
+    }
+
+    /**
+     * Imports only the given changed files from a source path, using the folder
+     * mapping of the export mode.
+     *
+     * @param tagManager      The GatewayTagManager instance.
+     * @param provider        The target tag provider.
+     * @param baseTagPath     The base tag path to import to.
+     * @param sourcePath      The source file or directory path.
+     * @param changedFiles    Paths relative to sourcePath that changed; missing paths were deleted.
+     * @param collisionPolicy The collision policy to use.
+     * @param exportMode      The export mode code the source was written with.
+     * @param resultMode      How the quality codes of the imported tags are reported.
+     * @return A JsonObject containing information about the imported tags, and
+     *         the metrics of the import under {@code metrics}.
+     */
+    public static JsonObject importChangedFiles(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            List<String> changedFiles,
+            String collisionPolicy,
+            String exportMode,
+            ResultMode resultMode) throws IOException {
+        return importChangedFiles(tagManager, provider, baseTagPath, sourcePath, changedFiles, collisionPolicy,
+                exportMode, resultMode, TagPathFilter.ALL);
+    }
+
+    /**
+     * Imports only the given changed files from a source path, leaving out the
+     * tags a path filter leaves out.
+     *
+     * @param pathFilter The filter of the tag paths to import, relative to the base tag path.
+     * @return A JsonObject containing information about the imported tags, and
+     *         the metrics of the import under {@code metrics}.
+     */
+    public static JsonObject importChangedFiles(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            List<String> changedFiles,
+            String collisionPolicy,
+            String exportMode,
+            ResultMode resultMode,
+            TagPathFilter pathFilter) throws IOException {
+
+        TagExportImportStrategy strategy = TagExportImportStrategyFactory.getInstance().getStrategy(exportMode);
+
+        logger.info(
+                "Importing {} changed files using {} mode: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}",
+                changedFiles.size(), strategy.getExportMode().getDisplayName(), provider, baseTagPath, sourcePath,
+                collisionPolicy);
+
+        OperationMetrics metrics = OperationMetrics.begin("importChanges", provider,
+                strategy.getExportMode().getCode());
+        metrics.setParameter("baseTagPath", baseTagPath);
+        metrics.setParameter("sourcePath", sourcePath);
+        metrics.setParameter("collisionPolicy", collisionPolicy);
+        metrics.setParameter("changedFiles", changedFiles.size());
+        metrics.setParameter("resultMode", resultMode.getCode());
+        TagExportUtilities.setPathFilterParameters(metrics, pathFilter);
+        JsonObject result;
+        try (OperationMetrics.Scope lock = TagPathLockManager.getInstance().lockExclusive(provider, baseTagPath);
+                OperationMetrics.Scope slot = OperationScheduler.getInstance().admit()) {
+            result = strategy.importChangedFiles(tagManager, provider, baseTagPath, sourcePath, changedFiles,
+                    collisionPolicy, resultMode, pathFilter);
+            metrics.hashResult(result.toString());
+        } catch (IOException | RuntimeException e) {
+            metrics.fail(e);
+            OperationDeadline.rethrowIfCancelled(e);
+            throw e;
+        } finally {
+            metrics.end();
+        }
+        result.add("metrics", metrics.toJson());
+        return result;
+    }
+
+    /**
+     * Deletes the existing tags below a base tag path for the 'd' collision
+     * policy. With a path filter, only the tags the filter keeps are deleted.
+     *
+     * @param tagManager   The GatewayTagManager instance.
+     * @param provider     The tag provider.
+     * @param baseTagPath  The base tag path to delete below.
+     * @param relativePath The folder to delete below, relative to the base tag path, empty for the base tag path.
+     * @param pathFilter   The filter of the tag paths to delete, relative to the base tag path.
+     * @return The quality codes of the deletions.
+     * @throws Exception If the existing tags cannot be fetched.
+     */
+    public static List<QualityCode> deleteExistingTags(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            String relativePath,
+            TagPathFilter pathFilter) throws Exception {
+        String folderPath = relativePath.isEmpty() ? baseTagPath : TagPathFilter.join(baseTagPath, relativePath);
+        List<String> pathComponents = new ArrayList<>();
+        if (!folderPath.isEmpty()) {
+            pathComponents.addAll(List.of(folderPath.split("/")));
+        }
+        TagPath tagPath = new BasicTagPath(provider, pathComponents);
+
+        if (pathFilter.isEmpty()) {
+            TagConfigurationModel tagsConfig = TagConfigUtilities.getTagConfigurationModel(
+                    tagManager, provider, folderPath, true, false);
+            return TagConfigUtilities.deleteTagsInConfigurationModel(tagManager, provider, tagPath, tagsConfig);
+        }
+
+        JsonObject keptTags = TagExportUtilities.fetchFilteredFolder(tagManager, provider, baseTagPath,
+                relativePath, false, pathFilter);
+        List<TagPath> deletedPaths = new ArrayList<>();
+        collectFilteredTagPaths(keptTags, provider, pathComponents, relativePath, pathFilter, deletedPaths);
+        if (deletedPaths.isEmpty()) {
+            return new ArrayList<>();
+        }
+        logger.info("Deleting {} tags kept by the path filter {} from provider {}", deletedPaths.size(), pathFilter,
+                provider);
+        return TagConfigUtilities.removeTagConfigs(tagManager, provider, deletedPaths);
+    }
+
+    /**
+     * Collects the paths to delete from a filtered tag tree. A folder the
+     * filter keeps whole is deleted as one, except the _types_ folder, whose
+     * definitions are deleted but the folder itself kept.
+     */
+    private static void collectFilteredTagPaths(JsonObject folderJson, String provider, List<String> folderComponents,
+            String relativePath, TagPathFilter pathFilter, List<TagPath> tagPaths) {
+        JsonArray tags = folderJson.getAsJsonArray("tags");
+        if (tags == null) {
+            return;
+        }
+        for (JsonElement tag : tags) {
+            JsonObject tagObject = tag.getAsJsonObject();
+            if (!tagObject.has("name")) {
+                continue;
+            }
+            String name = tagObject.get("name").getAsString();
+            String childPath = TagPathFilter.join(relativePath, name);
+            List<String> childComponents = new ArrayList<>(folderComponents);
+            childComponents.add(name);
+
+            boolean isFolder = tagObject.has("tagType") && "Folder".equals(tagObject.get("tagType").getAsString());
+            if (isFolder && (TagConfigUtilities.UDT_TYPES_FOLDER.equals(childPath)
+                    || pathFilter.getDecision(childPath) != TagPathFilter.Decision.INCLUDED)) {
+                collectFilteredTagPaths(tagObject, provider, childComponents, childPath, pathFilter, tagPaths);
+            } else {
+                tagPaths.add(new BasicTagPath(provider, childComponents));
+            }
+        }
     }
 
     public static JsonObject readTagsFromDirectory(String directoryPath, String relativePath) throws IOException {
+        return readTagsFromDirectory(directoryPath, relativePath, TagPathFilter.ALL);
+    }
+
+    /**
+     * Reads the tag files of an individual files export, skipping the files
+     * and directories a path filter leaves out without reading them.
+     *
+     * @param directoryPath The directory to read.
+     * @param relativePath  The path of the directory relative to the export root.
+     * @param pathFilter    The filter of the tag paths to read, relative to the export root.
+     * @return The tags in the directory, with subfolders nested under "tags".
+     * @throws IOException If the directory cannot be listed.
+     */
+    public static JsonObject readTagsFromDirectory(String directoryPath, String relativePath,
+            TagPathFilter pathFilter) throws IOException {
         logger.trace("Reading tags from directory: " + directoryPath + " with relative path: " + relativePath);
         Path path = Paths.get(directoryPath);
         JsonObject folderObject = new JsonObject();
         JsonArray tagsArray = new JsonArray();
 
+        TagPathFilter.Decision decision = pathFilter.getDecision(relativePath);
+        if (decision == TagPathFilter.Decision.EXCLUDED) {
+            folderObject.add("tags", tagsArray);
+            return folderObject;
+        }
+        boolean checkFiles = decision == TagPathFilter.Decision.PARTIAL;
+
         try (Stream<Path> paths = Files.walk(path, 1)) {
             paths.filter(Files::isRegularFile)
                     .filter(file -> file.toString().toLowerCase().endsWith(".json"))
+                    .filter(file -> !checkFiles || pathFilter.matches(TagPathFilter.join(relativePath,
+                            file.getFileName().toString().replaceAll("(?i)\\.json$", ""))))
                     .forEach(file -> {
                         try {
-                            String content = new String(Files.readAllBytes(file));
-
                             // Parse the JSON and validate it's an object
-                            JsonElement jsonElement = TagUtilities.stringToJson(content);
+                            JsonElement jsonElement = FileUtilities.readJsonFile(file.toFile());
 
                             if (jsonElement.isJsonObject()) {
                                 JsonObject tagObject = jsonElement.getAsJsonObject();
                                 tagsArray.add(tagObject);
                             } else {
+                                String content = jsonElement.toString();
                                 logger.warn("Skipping file {} - contains {} instead of JsonObject. Content: {}",
                                         file.toString(),
                                         jsonElement.getClass().getSimpleName(),
@@ -69,16 +320,26 @@ public class TagImportUtilities {
                                     e);
                         }
                     });
+        }
 
-            Files.list(path)
-                    .filter(Files::isDirectory)
+        try (Stream<Path> paths = Files.list(path)) {
+            paths.filter(Files::isDirectory)
                     .filter(subDir -> !subDir.equals(path))
                     .forEach(subDir -> {
                         try {
                             String subDirName = subDir.getFileName().toString();
                             String newRelativePath = relativePath.isEmpty() ? subDirName
                                     : relativePath + "/" + subDirName;
-                            JsonObject subFolder = readTagsFromDirectory(subDir.toString(), newRelativePath);
+                            if (checkFiles && pathFilter.getDecision(newRelativePath)
+                                    == TagPathFilter.Decision.EXCLUDED) {
+                                return;
+                            }
+                            JsonObject subFolder = readTagsFromDirectory(subDir.toString(), newRelativePath,
+                                    pathFilter);
+                            if (checkFiles && subFolder.getAsJsonArray("tags").size() == 0
+                                    && !pathFilter.matches(newRelativePath)) {
+                                return;
+                            }
                             subFolder.addProperty("name", subDirName);
                             subFolder.addProperty("tagType", "Folder");
                             tagsArray.add(subFolder);
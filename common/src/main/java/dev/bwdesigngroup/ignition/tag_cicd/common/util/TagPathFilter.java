@@ -0,0 +1,424 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Narrows an export or import to the tag paths matching a list of include
+ * patterns and none of a list of exclude patterns. Paths are relative to the
+ * base tag path, and a pattern matching a folder matches everything below it.
+ *
+ * Patterns are globs matched one path segment at a time, ignoring case, where
+ * {@code *} and {@code ?} match within a segment and {@code **} matches any
+ * number of segments, such as {@code Sim*} or {@code **}{@code /Diagnostics}.
+ * A pattern starting with {@code regex:} is instead a regular expression
+ * matched against the whole relative path.
+ *
+ * The globs are compiled into a trie of path segments, so that whether
+ * anything below a folder can be included or excluded is known from the
+ * folder's path alone, and excluded folders are skipped without being read.
+ */
+public class TagPathFilter {
+    /**
+     * A filter that keeps every tag path.
+     */
+    public static final TagPathFilter ALL = new TagPathFilter(Collections.emptyList(), Collections.emptyList());
+
+    private static final String REGEX_PREFIX = "regex:";
+
+    /**
+     * How the tags at and below a folder are filtered.
+     */
+    public enum Decision {
+        /** Everything at and below the folder is kept */
+        INCLUDED,
+        /** Everything at and below the folder is left out */
+        EXCLUDED,
+        /** Each path below the folder has to be checked */
+        PARTIAL
+    }
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final Matcher includeMatcher;
+    private final Matcher excludeMatcher;
+
+    private TagPathFilter(List<String> includes, List<String> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+        this.includeMatcher = new Matcher(includes);
+        this.excludeMatcher = new Matcher(excludes);
+    }
+
+    /**
+     * Compiles a filter from include and exclude patterns.
+     *
+     * @param includes the patterns of the paths to keep, or empty to keep every path not excluded
+     * @param excludes the patterns of the paths to leave out
+     * @return the filter
+     * @throws IllegalArgumentException if a regular expression is invalid
+     */
+    public static TagPathFilter of(List<String> includes, List<String> excludes) {
+        List<String> includePatterns = clean(includes);
+        List<String> excludePatterns = clean(excludes);
+        if (includePatterns.isEmpty() && excludePatterns.isEmpty()) {
+            return ALL;
+        }
+        return new TagPathFilter(includePatterns, excludePatterns);
+    }
+
+    /**
+     * Compiles a filter from comma separated include and exclude patterns, as
+     * given in request parameters.
+     *
+     * @param includes comma separated patterns of the paths to keep, or null
+     * @param excludes comma separated patterns of the paths to leave out, or null
+     * @return the filter
+     * @throws IllegalArgumentException if a regular expression is invalid
+     */
+    public static TagPathFilter parse(String includes, String excludes) {
+        return of(split(includes), split(excludes));
+    }
+
+    /**
+     * Reads patterns from a property holding either an array of patterns or
+     * a comma separated string of them.
+     *
+     * @param json     the JSON object holding the property
+     * @param property the property name
+     * @return the patterns, empty if the property is missing
+     */
+    public static List<String> getPatterns(JsonObject json, String property) {
+        JsonElement element = json.get(property);
+        if (element == null || element.isJsonNull()) {
+            return Collections.emptyList();
+        }
+        if (!element.isJsonArray()) {
+            return split(element.getAsString());
+        }
+        List<String> patterns = new ArrayList<>();
+        for (JsonElement pattern : element.getAsJsonArray()) {
+            patterns.add(pattern.getAsString());
+        }
+        return patterns;
+    }
+
+    public boolean isEmpty() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Checks whether a tag is kept.
+     *
+     * @param tagPath the tag path relative to the base tag path
+     * @return whether the tag is kept
+     */
+    public boolean matches(String tagPath) {
+        if (isEmpty()) {
+            return true;
+        }
+        List<String> segments = toSegments(tagPath);
+        return (includes.isEmpty() || includeMatcher.walk(segments).matched)
+                && !excludeMatcher.walk(segments).matched;
+    }
+
+    /**
+     * Decides how the tags at and below a folder are filtered.
+     *
+     * @param folderPath the folder path relative to the base tag path, empty for the base tag path
+     * @return the decision for the folder
+     */
+    public Decision getDecision(String folderPath) {
+        if (isEmpty()) {
+            return Decision.INCLUDED;
+        }
+        List<String> segments = toSegments(folderPath);
+        Walk excluded = excludeMatcher.walk(segments);
+        if (excluded.matched) {
+            return Decision.EXCLUDED;
+        }
+        if (includes.isEmpty() || includeMatcher.walk(segments).matched) {
+            return excluded.continues ? Decision.PARTIAL : Decision.INCLUDED;
+        }
+        return includeMatcher.walk(segments).continues ? Decision.PARTIAL : Decision.EXCLUDED;
+    }
+
+    /**
+     * Copies a tag tree, keeping only the tags the filter keeps. Folders are
+     * kept if they are kept themselves or hold a kept tag.
+     *
+     * @param tagsJson   the tag tree, with folders nested under "tags"
+     * @param folderPath the path of the tree relative to the base tag path, empty for the base tag path
+     * @return the filtered tree, or the tree itself if everything in it is kept
+     */
+    public JsonObject filterTree(JsonObject tagsJson, String folderPath) {
+        Decision decision = getDecision(folderPath);
+        if (decision == Decision.INCLUDED || !tagsJson.has("tags") || !tagsJson.get("tags").isJsonArray()) {
+            return tagsJson;
+        }
+
+        JsonArray kept = new JsonArray();
+        if (decision == Decision.PARTIAL) {
+            for (JsonElement tag : tagsJson.getAsJsonArray("tags")) {
+                JsonElement keptTag = filterChild(tag, folderPath);
+                if (keptTag != null) {
+                    kept.add(keptTag);
+                }
+            }
+        }
+        return withTags(tagsJson, kept);
+    }
+
+    private JsonElement filterChild(JsonElement tag, String folderPath) {
+        if (!tag.isJsonObject() || !tag.getAsJsonObject().has("name")) {
+            return tag;
+        }
+        JsonObject tagObject = tag.getAsJsonObject();
+        String tagPath = join(folderPath, tagObject.get("name").getAsString());
+        boolean isFolder = tagObject.has("tagType") && "Folder".equals(tagObject.get("tagType").getAsString());
+        if (!isFolder) {
+            return matches(tagPath) ? tagObject : null;
+        }
+
+        Decision decision = getDecision(tagPath);
+        if (decision == Decision.EXCLUDED) {
+            return null;
+        }
+        JsonObject filtered = filterTree(tagObject, tagPath);
+        boolean hasTags = filtered.has("tags") && filtered.get("tags").isJsonArray()
+                && filtered.getAsJsonArray("tags").size() > 0;
+        return hasTags || matches(tagPath) ? filtered : null;
+    }
+
+    private static JsonObject withTags(JsonObject tagsJson, JsonArray tags) {
+        JsonObject copy = new JsonObject();
+        for (Map.Entry<String, JsonElement> property : tagsJson.entrySet()) {
+            copy.add(property.getKey(), "tags".equals(property.getKey()) ? tags : property.getValue());
+        }
+        return copy;
+    }
+
+    /**
+     * Joins a relative folder path and a name.
+     */
+    public static String join(String folderPath, String name) {
+        return folderPath == null || folderPath.isEmpty() ? name : folderPath + "/" + name;
+    }
+
+    @Override
+    public String toString() {
+        return "include=" + includes + ", exclude=" + excludes;
+    }
+
+    private static List<String> clean(List<String> patterns) {
+        List<String> cleaned = new ArrayList<>();
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern != null && !pattern.trim().isEmpty()) {
+                    cleaned.add(pattern.trim());
+                }
+            }
+        }
+        return Collections.unmodifiableList(cleaned);
+    }
+
+    private static List<String> split(String patterns) {
+        List<String> split = new ArrayList<>();
+        if (patterns != null) {
+            Collections.addAll(split, patterns.split(","));
+        }
+        return split;
+    }
+
+    private static List<String> toSegments(String path) {
+        List<String> segments = new ArrayList<>();
+        if (path != null) {
+            for (String segment : path.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * The outcome of walking a path through the patterns.
+     */
+    private static class Walk {
+        /** A pattern matches the path or one of its ancestors */
+        private boolean matched;
+        /** A pattern may match a path below it */
+        private boolean continues;
+    }
+
+    /**
+     * The compiled form of one list of patterns.
+     */
+    private static class Matcher {
+        private final TrieNode root = new TrieNode(false);
+        private final List<Pattern> regexes = new ArrayList<>();
+
+        Matcher(List<String> patterns) {
+            for (String pattern : patterns) {
+                if (pattern.startsWith(REGEX_PREFIX)) {
+                    regexes.add(Pattern.compile(pattern.substring(REGEX_PREFIX.length())));
+                } else {
+                    root.add(toSegments(pattern), 0);
+                }
+            }
+        }
+
+        Walk walk(List<String> segments) {
+            Walk walk = new Walk();
+            Set<TrieNode> states = new LinkedHashSet<>();
+            root.enter(states);
+            walk.matched = isTerminal(states) || matchesRegex("");
+
+            StringBuilder path = new StringBuilder();
+            for (String segment : segments) {
+                if (walk.matched) {
+                    break;
+                }
+                Set<TrieNode> next = new LinkedHashSet<>();
+                for (TrieNode state : states) {
+                    state.advance(segment, next);
+                }
+                states = next;
+                path.append(path.length() == 0 ? "" : "/").append(segment);
+                walk.matched = isTerminal(states) || matchesRegex(path.toString());
+            }
+
+            // Regular expressions cannot be ruled out for the paths below
+            walk.continues = !regexes.isEmpty();
+            for (TrieNode state : states) {
+                walk.continues |= state.hasChildren();
+            }
+            return walk;
+        }
+
+        private boolean matchesRegex(String path) {
+            for (Pattern regex : regexes) {
+                if (regex.matcher(path).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isTerminal(Set<TrieNode> states) {
+            for (TrieNode state : states) {
+                if (state.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A node of the trie, reached by matching a pattern's segments up to it.
+     */
+    private static class TrieNode {
+        private final boolean anySegments;
+        private final Map<String, TrieNode> literals = new HashMap<>();
+        private final Map<String, TrieNode> globs = new HashMap<>();
+        private final Map<String, Pattern> globPatterns = new HashMap<>();
+        private TrieNode anySegmentsChild;
+        private boolean terminal;
+
+        TrieNode(boolean anySegments) {
+            this.anySegments = anySegments;
+        }
+
+        void add(List<String> segments, int index) {
+            if (index == segments.size()) {
+                terminal = true;
+                return;
+            }
+            String segment = segments.get(index);
+            TrieNode child;
+            if ("**".equals(segment)) {
+                if (anySegmentsChild == null) {
+                    anySegmentsChild = new TrieNode(true);
+                }
+                child = anySegmentsChild;
+            } else if (segment.contains("*") || segment.contains("?")) {
+                child = globs.computeIfAbsent(segment, key -> new TrieNode(false));
+                globPatterns.computeIfAbsent(segment,
+                        key -> Pattern.compile(globToRegex(key), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+            } else {
+                child = literals.computeIfAbsent(segment.toLowerCase(Locale.ROOT), key -> new TrieNode(false));
+            }
+            child.add(segments, index + 1);
+        }
+
+        /**
+         * Adds this node to a set of states, along with the {@code **} nodes
+         * that match no segments from here.
+         */
+        void enter(Set<TrieNode> states) {
+            if (states.add(this) && anySegmentsChild != null) {
+                anySegmentsChild.enter(states);
+            }
+        }
+
+        void advance(String segment, Set<TrieNode> next) {
+            if (anySegments) {
+                enter(next);
+            }
+            TrieNode literal = literals.get(segment.toLowerCase(Locale.ROOT));
+            if (literal != null) {
+                literal.enter(next);
+            }
+            for (Map.Entry<String, TrieNode> glob : globs.entrySet()) {
+                if (globPatterns.get(glob.getKey()).matcher(segment).matches()) {
+                    glob.getValue().enter(next);
+                }
+            }
+        }
+
+        boolean hasChildren() {
+            return anySegments || anySegmentsChild != null || !literals.isEmpty() || !globs.isEmpty();
+        }
+
+        private static String globToRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder literal = new StringBuilder();
+            for (char c : glob.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            return regex.toString();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+
+/**
+ * Locks the tag paths of a provider for the exports, imports and deletes
+ * that run on them, so that an import cannot change tags while an export of
+ * the same tags is being written.
+ *
+ * Exports take shared locks and imports and deletes take exclusive locks. A
+ * lock covers its tag path and everything below it, so two locks only
+ * conflict if one of their paths contains the other and either is exclusive,
+ * and operations on separate folders still run at the same time. A request
+ * waits behind the conflicting requests that came before it, so a stream of
+ * exports cannot hold off an import forever.
+ *
+ * Locks are kept in stripes by provider, so operations on different providers
+ * rarely contend even for the stripe. Locks are reentrant: a thread never
+ * waits on the locks it already holds.
+ */
+public class TagPathLockManager {
+    private static final int STRIPES = 16;
+    private static final ThreadLocal<Long> TIMEOUT = new ThreadLocal<>();
+
+    private static TagPathLockManager instance;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long defaultTimeoutMillis;
+
+    private TagPathLockManager() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.defaultTimeoutMillis = Long.getLong(TagCICDConstants.LOCK_TIMEOUT_PROPERTY,
+                TagCICDConstants.DEFAULT_LOCK_TIMEOUT_MILLIS);
+    }
+
+    public static synchronized TagPathLockManager getInstance() {
+        if (instance == null) {
+            instance = new TagPathLockManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Sets how long the locks taken on the current thread wait for conflicting
+     * operations, until the returned scope is closed.
+     *
+     * @param timeoutMillis the most milliseconds to wait, 0 to fail straight
+     *                      away, or a negative number to wait until the lock
+     *                      is free
+     * @return the scope, which restores the previous timeout when closed
+     */
+    public static OperationMetrics.Scope timeout(long timeoutMillis) {
+        Long previous = TIMEOUT.get();
+        TIMEOUT.set(timeoutMillis);
+        return () -> {
+            if (previous == null) {
+                TIMEOUT.remove();
+            } else {
+                TIMEOUT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns how long the locks taken on the current thread wait, in
+     * milliseconds, with a negative number meaning no limit.
+     */
+    public long getTimeoutMillis() {
+        Long timeout = TIMEOUT.get();
+        return timeout == null ? defaultTimeoutMillis : timeout;
+    }
+
+    /**
+     * Takes a shared lock on a tag path and everything below it, as for an
+     * export.
+     *
+     * @param provider the tag provider, or null for the default provider
+     * @param tagPath  the tag path, empty for the whole provider
+     * @return the lock, which is released when closed
+     * @throws LockTimeoutException if the lock is not free within the timeout
+     * @throws OperationDeadline.CancelledException if the operation is
+     *                                              cancelled while waiting
+     */
+    public OperationMetrics.Scope lockShared(String provider, String tagPath) {
+        return lock(provider, tagPath, false);
+    }
+
+    /**
+     * Takes an exclusive lock on a tag path and everything below it, as for
+     * an import or delete.
+     *
+     * @param provider the tag provider, or null for the default provider
+     * @param tagPath  the tag path, empty for the whole provider
+     * @return the lock, which is released when closed
+     * @throws LockTimeoutException if the lock is not free within the timeout
+     * @throws OperationDeadline.CancelledException if the operation is
+     *                                              cancelled while waiting
+     */
+    public OperationMetrics.Scope lockExclusive(String provider, String tagPath) {
+        return lock(provider, tagPath, true);
+    }
+
+    private OperationMetrics.Scope lock(String provider, String tagPath, boolean exclusive) {
+        if (provider == null) {
+            provider = TagConfigUtilities.DEFAULT_PROVIDER;
+        }
+        Request request = new Request(provider, TagExportUtilities.normalizeTagPath(tagPath), exclusive,
+                Thread.currentThread());
+        Stripe stripe = stripes[Math.floorMod(request.provider.hashCode(), stripes.length)];
+
+        long timeoutMillis = getTimeoutMillis();
+        synchronized (stripe) {
+            // A thread inside a lock of its own does not queue, since what it waits behind may be waiting on it
+            boolean reentrant = stripe.isHeldBy(request);
+            if (!stripe.canGrant(request, reentrant)) {
+                stripe.waiters.add(request);
+                try (OperationMetrics.Phase phase = OperationMetrics.current().phase(OperationMetrics.PHASE_LOCK)) {
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis));
+                    while (!stripe.canGrant(request, reentrant)) {
+                        OperationDeadline.check();
+                        if (timeoutMillis < 0) {
+                            stripe.wait(OperationDeadline.getPollMillis());
+                            continue;
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw new LockTimeoutException("Tag path " + request + " is locked by another "
+                                    + (exclusive ? "operation" : "import or delete") + " (waited "
+                                    + timeoutMillis + " ms)");
+                        }
+                        long pollMillis = OperationDeadline.getPollMillis();
+                        if (pollMillis > 0) {
+                            remaining = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(pollMillis));
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(stripe, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new LockTimeoutException("Interrupted while waiting for a lock on tag path " + request);
+                } finally {
+                    stripe.waiters.remove(request);
+                    // Requests queued behind this one may now be free to go
+                    stripe.notifyAll();
+                }
+            }
+            stripe.holders.add(request);
+        }
+
+        return () -> {
+            synchronized (stripe) {
+                if (stripe.holders.remove(request)) {
+                    stripe.notifyAll();
+                }
+            }
+        };
+    }
+
+    /**
+     * Thrown when a lock is not free within the timeout.
+     */
+    public static class LockTimeoutException extends RuntimeException {
+        public LockTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Stripe {
+        private final List<Request> holders = new ArrayList<>();
+        private final List<Request> waiters = new ArrayList<>();
+
+        boolean isHeldBy(Request request) {
+            for (Request holder : holders) {
+                if (holder.owner == request.owner && holder.overlaps(request)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean canGrant(Request request, boolean reentrant) {
+            for (Request holder : holders) {
+                if (holder.conflictsWith(request)) {
+                    return false;
+                }
+            }
+            if (!reentrant) {
+                for (Request waiter : waiters) {
+                    if (waiter == request) {
+                        break;
+                    }
+                    if (waiter.conflictsWith(request)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Request {
+        private final String name;
+        // Tag paths are not case sensitive, so they are compared in lower case
+        private final String provider;
+        private final String path;
+        private final boolean exclusive;
+        private final Thread owner;
+
+        Request(String provider, String path, boolean exclusive, Thread owner) {
+            this.name = "[" + provider + "]" + path;
+            this.provider = provider.toLowerCase(Locale.ROOT);
+            this.path = path.toLowerCase(Locale.ROOT);
+            this.exclusive = exclusive;
+            this.owner = owner;
+        }
+
+        boolean overlaps(Request other) {
+            return provider.equals(other.provider) && (contains(path, other.path) || contains(other.path, path));
+        }
+
+        boolean conflictsWith(Request other) {
+            return owner != other.owner && (exclusive || other.exclusive) && overlaps(other);
+        }
+
+        private static boolean contains(String parent, String child) {
+            return parent.isEmpty() || child.equals(parent) || child.startsWith(parent + "/");
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
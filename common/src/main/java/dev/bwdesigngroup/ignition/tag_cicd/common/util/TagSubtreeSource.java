@@ -0,0 +1,38 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+/**
+ * Supplies the JSON of a recursive export, such as from a cache, in place of
+ * fetching the whole subtree from the tag manager.
+ */
+public interface TagSubtreeSource {
+    /**
+     * Returns the JSON of a tag and everything below it, in the canonical
+     * order of {@link FileUtilities#sortJsonElementRecursively}.
+     *
+     * @param tagManager     the tag manager
+     * @param provider       the provider name
+     * @param tagPath        the normalized tag path, empty for the provider root
+     * @param localPropsOnly whether to export only local properties
+     * @return the sorted JSON, which may be shared and must not be modified
+     * @throws Exception if the tags cannot be fetched
+     */
+    JsonObject getSubtree(GatewayTagManager tagManager, String provider, String tagPath, boolean localPropsOnly)
+            throws Exception;
+
+    /**
+     * Returns the JSON of a tag and everything below it if the source already
+     * holds it, without fetching anything.
+     *
+     * @param provider       the provider name
+     * @param tagPath        the normalized tag path, empty for the provider root
+     * @param localPropsOnly whether the export is of only local properties
+     * @return the sorted JSON, which may be shared and must not be modified,
+     *         or null if the source does not hold it
+     */
+    default JsonObject getCachedSubtree(String provider, String tagPath, boolean localPropsOnly) {
+        return null;
+    }
+}
@@ -0,0 +1,214 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.stream.JsonWriter;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+/**
+ * Writes a recursive export a folder at a time, in the canonical order of
+ * {@link FileUtilities#sortJsonElementRecursively(JsonElement)}, fetching
+ * each folder without its subfolders and writing it before fetching the
+ * next. Only the folders on the path being written are held at once, rather
+ * than the whole tree.
+ *
+ * Siblings are ordered by their form in their folder's fetch, which leaves
+ * out the tags of subfolders and UDTs. The tag manager writes a tag's
+ * children after its own properties, so siblings are ordered by those
+ * properties unless two of them only differ in their children. A folder
+ * holding such siblings is fetched whole instead.
+ */
+class TagTreeStreamWriter {
+    private final GatewayTagManager tagManager;
+    private final String provider;
+    private final String baseTagPath;
+    private final boolean localPropsOnly;
+    private final TagSubtreeSource subtreeSource;
+    private final OperationMetrics metrics;
+    private final JsonWriter out;
+
+    /**
+     * @param subtreeSource supplies the folders it already holds in place of
+     *                      fetching them, or null to always fetch them
+     */
+    TagTreeStreamWriter(GatewayTagManager tagManager, String provider, String baseTagPath, boolean localPropsOnly,
+            TagSubtreeSource subtreeSource, OperationMetrics metrics, JsonWriter out) {
+        this.tagManager = tagManager;
+        this.provider = provider;
+        this.baseTagPath = baseTagPath;
+        this.localPropsOnly = localPropsOnly;
+        this.subtreeSource = subtreeSource;
+        this.metrics = metrics;
+        this.out = out;
+    }
+
+    /**
+     * Writes the base tag path and everything below it.
+     *
+     * @throws Exception if the tags cannot be fetched or written
+     */
+    void write() throws Exception {
+        writeFolder(baseTagPath);
+    }
+
+    private void writeFolder(String tagPath) throws Exception {
+        JsonObject held = subtreeSource == null ? null
+                : subtreeSource.getCachedSubtree(provider, tagPath, localPropsOnly);
+        if (held != null) {
+            validate(held, tagPath);
+            metrics.countTags(held);
+            CanonicalJsonWriter.writeSorted(held, out);
+            return;
+        }
+
+        JsonObject folder = fetch(tagPath, false);
+        validate(folder, tagPath);
+        String tagType = getString(folder, "tagType");
+        if (!"Folder".equals(tagType) && !"Provider".equals(tagType)) {
+            // A UDT at the base tag path holds members that its fetch without subfolders leaves out
+            writeWhole(tagPath);
+            return;
+        }
+
+        JsonArray children = getTags(folder);
+        if (children == null) {
+            metrics.countTags(folder);
+            CanonicalJsonWriter.write(folder, out);
+            return;
+        }
+
+        List<JsonElement> listed = new ArrayList<>(children.size());
+        for (JsonElement child : children) {
+            listed.add(isDeferred(child) ? withoutTags(child.getAsJsonObject()) : child);
+        }
+        List<Integer> order = CanonicalJsonWriter.orderElements(listed);
+        if (isOrderedByChildren(children, listed, order)) {
+            writeWhole(tagPath);
+            return;
+        }
+
+        folder.remove("tags");
+        metrics.countTags(folder);
+        List<String> names = new ArrayList<>(folder.keySet());
+        names.add("tags");
+        Collections.sort(names);
+
+        out.beginObject();
+        for (String name : names) {
+            out.name(name);
+            if (!"tags".equals(name)) {
+                CanonicalJsonWriter.write(folder.get(name), out);
+                continue;
+            }
+            out.beginArray();
+            for (int index : order) {
+                writeChild(tagPath, children.get(index));
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private void writeChild(String parentPath, JsonElement child) throws Exception {
+        if (!isDeferred(child)) {
+            if (child.isJsonObject()) {
+                metrics.countTags(child.getAsJsonObject());
+            }
+            CanonicalJsonWriter.write(child, out);
+            return;
+        }
+
+        String childPath = TagPathFilter.join(parentPath, getString(child, "name"));
+        if ("Folder".equals(getString(child, "tagType"))) {
+            writeFolder(childPath);
+        } else {
+            // UDT definitions and instances hold their members, which the fetch of their folder leaves out
+            writeWhole(childPath);
+        }
+    }
+
+    private void writeWhole(String tagPath) throws Exception {
+        JsonObject tree = fetch(tagPath, true);
+        validate(tree, tagPath);
+        metrics.countTags(tree);
+        CanonicalJsonWriter.write(tree, out);
+    }
+
+    /**
+     * Returns whether two neighbouring siblings, one of which has children
+     * left out of its listed form, only differ where those children go.
+     */
+    private static boolean isOrderedByChildren(JsonArray children, List<JsonElement> listed, List<Integer> order) {
+        for (int i = 1; i < order.size(); i++) {
+            boolean previousDeferred = isDeferred(children.get(order.get(i - 1)));
+            boolean deferred = isDeferred(children.get(order.get(i)));
+            if (!previousDeferred && !deferred) {
+                continue;
+            }
+
+            String previous = listed.get(order.get(i - 1)).toString();
+            String current = listed.get(order.get(i)).toString();
+            int common = 0;
+            int length = Math.min(previous.length(), current.length());
+            while (common < length && previous.charAt(common) == current.charAt(common)) {
+                common++;
+            }
+            // The children of a tag are written in place of its closing brace
+            if ((previousDeferred && common >= previous.length() - 1)
+                    || (deferred && common >= current.length() - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void validate(JsonObject json, String tagPath) {
+        // Below the base tag path of a _types_ export, only its own checks apply
+        if (tagPath.equals(baseTagPath) || !baseTagPath.startsWith("_types_")) {
+            TagExportUtilities.validateJsonStructure(json, baseTagPath, provider);
+        }
+    }
+
+    private JsonObject fetch(String tagPath, boolean recursive) throws Exception {
+        return TagExportUtilities.convertToJsonObject(TagConfigUtilities.getTagConfigurationModel(tagManager,
+                provider, tagPath, recursive, localPropsOnly));
+    }
+
+    /**
+     * Returns whether a tag has children its folder's fetch leaves out.
+     */
+    private static boolean isDeferred(JsonElement child) {
+        String tagType = getString(child, "tagType");
+        return getString(child, "name") != null && tagType != null && !"AtomicTag".equals(tagType);
+    }
+
+    private static JsonObject withoutTags(JsonObject tag) {
+        if (!tag.has("tags")) {
+            return tag;
+        }
+        JsonObject copy = new JsonObject();
+        for (String name : tag.keySet()) {
+            if (!"tags".equals(name)) {
+                copy.add(name, tag.get(name));
+            }
+        }
+        return copy;
+    }
+
+    private static JsonArray getTags(JsonObject tagsJson) {
+        return tagsJson.has("tags") && tagsJson.get("tags").isJsonArray() ? tagsJson.getAsJsonArray("tags") : null;
+    }
+
+    private static String getString(JsonElement element, String property) {
+        if (!element.isJsonObject() || !element.getAsJsonObject().has(property)) {
+            return null;
+        }
+        return element.getAsJsonObject().get(property).getAsString();
+    }
+}
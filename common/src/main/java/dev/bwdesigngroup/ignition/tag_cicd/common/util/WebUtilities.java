@@ -9,6 +9,10 @@ package dev.bwdesigngroup.ignition.tag_cicd.common.util;
 import javax.servlet.http.HttpServletResponse;
 
 import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -33,6 +37,93 @@ public class WebUtilities {
         return json;
     }
 
+    /**
+     * Applies the request's lockTimeout parameter, in milliseconds, to the tag
+     * path locks taken on the current thread, leaving the gateway's default in
+     * place if the parameter is not given.
+     *
+     * @param requestContext the request
+     * @return the scope, which restores the previous timeout when closed
+     * @throws IllegalArgumentException if the parameter is not a number
+     */
+    public static OperationMetrics.Scope applyLockTimeout(RequestContext requestContext) {
+        String lockTimeout = requestContext.getParameter("lockTimeout");
+        if (lockTimeout == null || lockTimeout.trim().isEmpty()) {
+            return () -> {
+            };
+        }
+        try {
+            return TagPathLockManager.timeout(Long.parseLong(lockTimeout.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("lockTimeout must be a number of milliseconds: " + lockTimeout);
+        }
+    }
+
+    /**
+     * Starts the request's operation with the deadline in its timeout
+     * parameter, in milliseconds, or the gateway's default if the parameter is
+     * not given. The operation can be cancelled by the id in its operationId
+     * parameter, or by a random id if the parameter is not given.
+     *
+     * @param requestContext the request
+     * @return the scope, which ends the operation when closed
+     * @throws IllegalArgumentException if the timeout is not a number, or an
+     *                                  operation with the id is running
+     */
+    public static OperationMetrics.Scope applyDeadline(RequestContext requestContext) {
+        long timeoutMillis = Long.getLong(TagCICDConstants.OPERATION_TIMEOUT_PROPERTY,
+                TagCICDConstants.DEFAULT_OPERATION_TIMEOUT_MILLIS);
+        String timeout = requestContext.getParameter("timeout");
+        if (timeout != null && !timeout.trim().isEmpty()) {
+            try {
+                timeoutMillis = Long.parseLong(timeout.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("timeout must be a number of milliseconds: " + timeout);
+            }
+        }
+        String operationId = requestContext.getParameter("operationId");
+        if (operationId != null && operationId.trim().isEmpty()) {
+            operationId = null;
+        }
+        return OperationDeadline.start(operationId == null ? null : operationId.trim(), timeoutMillis);
+    }
+
+    /**
+     * Returns a jsonObject to represent an HTTP error of status 503, for an
+     * operation that was cancelled or ran past its deadline, with the result
+     * of the part that finished under {@code partialResult}.
+     *
+     * @param httpServletResponse the HttpServletResponse to set the status code on
+     * @param e the cancellation
+     * @return a jsonObject to represent an HTTP error of status 503
+     */
+    public static JsonObject getCancelledError(HttpServletResponse httpServletResponse,
+            OperationDeadline.CancelledException e) {
+        httpServletResponse.setStatus(503);
+        JsonObject json = new JsonObject();
+        json.addProperty("error", e.getMessage());
+        json.addProperty("timedOut", e.isTimedOut());
+        if (e.getPartialResult() != null) {
+            json.add("partialResult", e.getPartialResult());
+        }
+        return json;
+    }
+
+    /**
+     * Returns a jsonObject to represent an HTTP error of status 409, for a
+     * request that conflicts with an operation already running.
+     *
+     * @param httpServletResponse the HttpServletResponse to set the status code on
+     * @param message the message to include in the error response
+     * @return a jsonObject to represent an HTTP error of status 409
+     */
+    public static JsonObject getConflictError(HttpServletResponse httpServletResponse, String message) {
+        httpServletResponse.setStatus(409);
+        JsonObject json = new JsonObject();
+        json.addProperty("error", message);
+        return json;
+    }
+
     /**
      * Returns a jsonObject to represent an HTTP error of status 500.
      * 
@@ -0,0 +1,117 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+
+public class AdaptiveImportControllerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    @Test
+    public void fastCallsGrowTheBatchAdditivelyAndThenTheCallsAtOnce() {
+        AdaptiveImportController controller = createController(0);
+
+        assertEquals(10, controller.getBatchSize());
+        assertEquals(1, controller.getInFlight());
+        for (int expected = 20; expected <= 40; expected += 10) {
+            controller.record(controller.getBatchSize(), FAST, 0);
+            assertEquals(expected, controller.getBatchSize());
+            assertEquals(1, controller.getInFlight());
+        }
+
+        // Once batches are at their largest, each fast call lets one more call run at once
+        for (int expected = 2; expected <= 4; expected++) {
+            controller.record(controller.getBatchSize(), FAST, 0);
+            assertEquals(40, controller.getBatchSize());
+            assertEquals(expected, controller.getInFlight());
+        }
+        controller.record(controller.getBatchSize(), FAST, 0);
+        assertEquals(4, controller.getInFlight());
+    }
+
+    @Test
+    public void slowCallHalvesTheBatchAndTheCallsAtOnce() {
+        AdaptiveImportController controller = createController(0);
+        for (int i = 0; i < 6; i++) {
+            controller.record(controller.getBatchSize(), FAST, 0);
+        }
+        assertEquals(40, controller.getBatchSize());
+        assertEquals(4, controller.getInFlight());
+
+        controller.record(40, SLOW, 0);
+        assertEquals(20, controller.getBatchSize());
+        assertEquals(2, controller.getInFlight());
+
+        for (int i = 0; i < 10; i++) {
+            controller.record(1, SLOW, 0);
+        }
+        assertEquals(1, controller.getBatchSize());
+        assertEquals(1, controller.getInFlight());
+    }
+
+    @Test
+    public void badQualityCodesOverTheLimitBackOff() {
+        AdaptiveImportController controller = createController(0);
+        controller.record(10, FAST, 0);
+        assertEquals(20, controller.getBatchSize());
+
+        // 2 of 20 is within 10 percent, 3 of 20 is not
+        controller.record(20, FAST, 2);
+        assertEquals(30, controller.getBatchSize());
+        controller.record(20, FAST, 3);
+        assertEquals(15, controller.getBatchSize());
+    }
+
+    @Test
+    public void missingDependenciesDoNotCountAsBad() {
+        AdaptiveImportController controller = createController(0);
+
+        controller.record(10, FAST, Collections.nCopies(10, QualityCode.Bad_NotFound));
+        assertEquals(20, controller.getBatchSize());
+
+        controller.record(10, FAST, Collections.nCopies(10, QualityCode.Bad_Failure));
+        assertEquals(10, controller.getBatchSize());
+    }
+
+    @Test
+    public void rateCeilingHoldsBackCallsUntilTheTagsSentAreWithinIt() {
+        AdaptiveImportController controller = createController(1000);
+
+        long start = System.nanoTime();
+        controller.acquire(100);
+        controller.acquire(100);
+        controller.acquire(100);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // The first call goes at once, and each of the others waits for the 100 tags before it at 1000 per second
+        assertTrue(elapsedMillis >= 190, "Took " + elapsedMillis + " ms");
+        assertTrue(elapsedMillis < 2000, "Took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void noRateCeilingDoesNotWait() {
+        AdaptiveImportController controller = createController(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            controller.acquire(1000);
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+    }
+
+    /**
+     * Starts at 10 tags per call, up to 40 tags and 4 calls at once, aiming
+     * for 100 ms per call with at most 10 percent bad quality codes.
+     */
+    private static AdaptiveImportController createController(long maxTagsPerSecond) {
+        return new AdaptiveImportController(10, 40, 4, 100, 10, maxTagsPerSecond, "Bad_NotFound");
+    }
+}
@@ -0,0 +1,152 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.InMemoryTagManager;
+
+public class ImportResultCollectorTest {
+    private static final String PROVIDER = "Test";
+    private static final TagPath ROOT = new BasicTagPath(PROVIDER);
+    private static final TagPath AREA = ROOT.getChildPath("Area");
+    private static final TagPath TYPES = ROOT.getChildPath("_types_");
+
+    private InMemoryTagManager tagManager;
+
+    @BeforeEach
+    public void setUp() {
+        // Imports refuse UDTs whose definition is missing with Bad_NotFound, as a gateway does
+        tagManager = new InMemoryTagManager().addProvider(PROVIDER).setRequireUdtDefinitions(true);
+    }
+
+    @Test
+    public void retriesInRoundsUntilEveryDependencyIsImported() {
+        ImportResultCollector collector = new ImportResultCollector(ResultMode.FULL);
+        // The instance needs Child, which needs Parent, which is imported last
+        importAndCollect(collector, AREA, udt("Motor", "UdtInstance", "Child"));
+        importAndCollect(collector, TYPES, udt("Child", "UdtType", "Parent"));
+        importAndCollect(collector, TYPES, udt("Parent", "UdtType", null));
+        long imports = tagManager.getCallCount(InMemoryTagManager.Operation.IMPORT);
+
+        collector.retryCreated(tagManager.getTagManager(), CollisionPolicy.Overwrite);
+
+        // Round 1 imports Child but not yet the instance, and round 2 imports the instance
+        assertEquals(3, tagManager.getCallCount(InMemoryTagManager.Operation.IMPORT) - imports);
+        JsonObject created = collector.toJson().getAsJsonObject(ImportResultCollector.CREATED_TAGS);
+        assertEquals(toStrings(QualityCode.Good), getCodes(created, AREA.getChildPath("Motor")));
+        assertEquals(toStrings(QualityCode.Good), getCodes(created, TYPES.getChildPath("Child")));
+        assertEquals(toStrings(QualityCode.Good), getCodes(created, TYPES.getChildPath("Parent")));
+    }
+
+    @Test
+    public void tagsStillFailingAfterTheLastRoundKeepTheirCodes() {
+        ImportResultCollector collector = new ImportResultCollector(ResultMode.FULL);
+        importAndCollect(collector, AREA, udt("Motor", "UdtInstance", "Child"));
+        importAndCollect(collector, TYPES, udt("Child", "UdtType", "Parent"));
+        importAndCollect(collector, TYPES, udt("Parent", "UdtType", null));
+
+        System.setProperty(TagCICDConstants.IMPORT_RETRY_ROUNDS_PROPERTY, "1");
+        try {
+            collector.retryCreated(tagManager.getTagManager(), CollisionPolicy.Overwrite);
+        } finally {
+            System.clearProperty(TagCICDConstants.IMPORT_RETRY_ROUNDS_PROPERTY);
+        }
+
+        JsonObject created = collector.toJson().getAsJsonObject(ImportResultCollector.CREATED_TAGS);
+        assertEquals(toStrings(QualityCode.Bad_NotFound), getCodes(created, AREA.getChildPath("Motor")));
+        assertEquals(toStrings(QualityCode.Good), getCodes(created, TYPES.getChildPath("Child")));
+    }
+
+    @Test
+    public void onlyTheFailingTagsOfAMultiTagImportAreRetried() {
+        ImportResultCollector collector = new ImportResultCollector(ResultMode.FULL);
+        JsonObject tagsJson = new JsonObject();
+        JsonArray tags = new JsonArray();
+        tags.add(atomicTag("Speed"));
+        tags.add(udt("Motor", "UdtInstance", "Motor"));
+        tags.add(atomicTag("Level"));
+        tagsJson.add("tags", tags);
+        importAndCollect(collector, ROOT, tagsJson);
+        TagConfigUtilities.importTags(tagManager.getTagManager(), TYPES, udt("Motor", "UdtType", null),
+                CollisionPolicy.Overwrite);
+        long imports = tagManager.getCallCount(InMemoryTagManager.Operation.IMPORT);
+
+        collector.retryCreated(tagManager.getTagManager(), CollisionPolicy.Overwrite);
+
+        assertEquals(1, tagManager.getCallCount(InMemoryTagManager.Operation.IMPORT) - imports);
+        JsonObject created = collector.toJson().getAsJsonObject(ImportResultCollector.CREATED_TAGS);
+        assertEquals(toStrings(QualityCode.Good, QualityCode.Good), getCodes(created, ROOT));
+        // The retried tag is listed under its own path, which has no separator after the provider
+        assertEquals(toStrings(QualityCode.Good), getCodes(created, ROOT.getChildPath("Motor")));
+        assertFalse(created.has("[" + PROVIDER + "]/Motor"));
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void pathRecordedTwiceKeepsTheCodesOfBoth() {
+        ImportResultCollector collector = new ImportResultCollector(ResultMode.FULL);
+
+        collector.addCreated(AREA.toString(), List.of(QualityCode.Good, QualityCode.Good));
+        collector.addCreated(AREA.toString(), List.of(QualityCode.Bad_Failure));
+
+        JsonObject created = collector.toJson().getAsJsonObject(ImportResultCollector.CREATED_TAGS);
+        assertEquals(toStrings(QualityCode.Good, QualityCode.Good, QualityCode.Bad_Failure), getCodes(created, AREA));
+    }
+
+    private void importAndCollect(ImportResultCollector collector, TagPath basePath, JsonObject tagsJson) {
+        List<QualityCode> qualityCodes = TagConfigUtilities.importTags(tagManager.getTagManager(), basePath,
+                tagsJson, CollisionPolicy.Overwrite);
+        String tagPath = tagsJson.has("name")
+                ? basePath.getChildPath(tagsJson.get("name").getAsString()).toString()
+                : basePath.toString();
+        collector.addCreated(tagPath, basePath, tagsJson, qualityCodes);
+    }
+
+    private static List<String> getCodes(JsonObject created, TagPath tagPath) {
+        List<String> codes = new ArrayList<>();
+        created.getAsJsonArray(tagPath.toString()).forEach(code -> codes.add(code.getAsString()));
+        return codes;
+    }
+
+    private static List<String> toStrings(QualityCode... qualityCodes) {
+        List<String> strings = new ArrayList<>();
+        for (QualityCode qualityCode : qualityCodes) {
+            strings.add(qualityCode.toString());
+        }
+        return strings;
+    }
+
+    private static JsonObject udt(String name, String tagType, String typeId) {
+        JsonObject udt = new JsonObject();
+        udt.addProperty("name", name);
+        udt.addProperty("tagType", tagType);
+        if (typeId != null) {
+            udt.addProperty("typeId", typeId);
+        }
+        udt.add("tags", new JsonArray());
+        return udt;
+    }
+
+    private static JsonObject atomicTag(String name) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("name", name);
+        tag.addProperty("tagType", "AtomicTag");
+        tag.addProperty("valueSource", "memory");
+        return tag;
+    }
+}
@@ -0,0 +1,129 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationScheduler.Lane;
+
+public class OperationSchedulerTest {
+    // Each operation waits on its own thread, since one inside another on the same thread never waits
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Lane> ran = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void fullLaneWaitsWhileOtherLanesRun() throws Exception {
+        OperationScheduler scheduler = createScheduler(3, 1000, 2, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = hold(scheduler, Lane.AUTOMATION, release);
+        waitFor(() -> ran.size() == 1);
+
+        Future<?> second = hold(scheduler, Lane.AUTOMATION, release);
+        waitFor(() -> scheduler.getQueueDepth(Lane.AUTOMATION) == 1);
+        // The automation lane is full, but the other lanes still have room
+        Future<?> interactive = hold(scheduler, Lane.INTERACTIVE, release);
+        Future<?> background = hold(scheduler, Lane.BACKGROUND, release);
+        waitFor(() -> ran.size() == 3);
+        assertEquals(List.of(Lane.INTERACTIVE, Lane.AUTOMATION, Lane.BACKGROUND), sorted(ran));
+        assertEquals(1, scheduler.getQueueDepth(Lane.AUTOMATION));
+
+        release.countDown();
+        for (Future<?> future : List.of(first, second, interactive, background)) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(4, ran.size());
+    }
+
+    @Test
+    public void freeSlotGoesToTheHighestLane() throws Exception {
+        OperationScheduler scheduler = createScheduler(1, 10000, 1, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = hold(scheduler, Lane.AUTOMATION, release);
+        waitFor(() -> ran.size() == 1);
+
+        Future<?> background = hold(scheduler, Lane.BACKGROUND, new CountDownLatch(0));
+        waitFor(() -> scheduler.getQueueDepth(Lane.BACKGROUND) == 1);
+        Future<?> interactive = hold(scheduler, Lane.INTERACTIVE, new CountDownLatch(0));
+        waitFor(() -> scheduler.getQueueDepth(Lane.INTERACTIVE) == 1);
+
+        release.countDown();
+        for (Future<?> future : List.of(holder, background, interactive)) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of(Lane.AUTOMATION, Lane.INTERACTIVE, Lane.BACKGROUND), ran);
+    }
+
+    @Test
+    public void waitingOperationAgesPastLaterOnesOfHigherLanes() throws Exception {
+        OperationScheduler scheduler = createScheduler(1, 100, 1, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = hold(scheduler, Lane.AUTOMATION, release);
+        waitFor(() -> ran.size() == 1);
+
+        Future<?> background = hold(scheduler, Lane.BACKGROUND, new CountDownLatch(0));
+        waitFor(() -> scheduler.getQueueDepth(Lane.BACKGROUND) == 1);
+        // Two aging intervals raise the background operation above an interactive one that arrives later
+        Thread.sleep(300);
+        Future<?> interactive = hold(scheduler, Lane.INTERACTIVE, new CountDownLatch(0));
+        waitFor(() -> scheduler.getQueueDepth(Lane.INTERACTIVE) == 1);
+
+        release.countDown();
+        for (Future<?> future : List.of(holder, background, interactive)) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of(Lane.AUTOMATION, Lane.BACKGROUND, Lane.INTERACTIVE), ran);
+    }
+
+    /**
+     * Runs an operation in a lane on its own thread, holding its slot until
+     * released.
+     */
+    private Future<?> hold(OperationScheduler scheduler, Lane lane, CountDownLatch release) {
+        return executor.submit(() -> {
+            try (OperationMetrics.Scope slot = scheduler.admit(lane)) {
+                ran.add(lane);
+                release.await();
+            }
+            return null;
+        });
+    }
+
+    private static List<Lane> sorted(List<Lane> lanes) {
+        List<Lane> sorted = new ArrayList<>(lanes);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the scheduler");
+            Thread.sleep(5);
+        }
+    }
+
+    private static OperationScheduler createScheduler(int maxConcurrency, long agingMillis, int interactive,
+            int automation, int background) {
+        return new OperationScheduler(maxConcurrency, agingMillis,
+                Map.of(Lane.INTERACTIVE, interactive, Lane.AUTOMATION, automation, Lane.BACKGROUND, background));
+    }
+}
@@ -0,0 +1,61 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.InMemoryTagManager;
+
+public class TagConfigUtilitiesTest {
+    private static final String PROVIDER = "Test";
+
+    @Test
+    public void batchImportGivesEachTagItsQualityCode() {
+        InMemoryTagManager tagManager = new InMemoryTagManager().addProvider(PROVIDER);
+
+        List<List<QualityCode>> qualityCodes = TagConfigUtilities.importTagBatches(tagManager.getTagManager(),
+                new BasicTagPath(PROVIDER), createTags(5), CollisionPolicy.Overwrite);
+
+        assertEquals(5, qualityCodes.size());
+        for (List<QualityCode> tagQualityCodes : qualityCodes) {
+            assertEquals(List.of(QualityCode.Good), tagQualityCodes);
+        }
+        assertEquals(5, tagManager.getTagCount(PROVIDER));
+    }
+
+    @Test
+    public void failedBatchCallGivesItsTagsBadFailure() {
+        InMemoryTagManager tagManager = new InMemoryTagManager().addProvider(PROVIDER)
+                .setFailureMode(InMemoryTagManager.FailureMode.EXCEPTION)
+                .setFailureRate(InMemoryTagManager.Operation.IMPORT, 1.0);
+
+        List<List<QualityCode>> qualityCodes = TagConfigUtilities.importTagBatches(tagManager.getTagManager(),
+                new BasicTagPath(PROVIDER), createTags(5), CollisionPolicy.Overwrite);
+
+        // Without a code, a failed tag would be left out of the result and the import would pass for a success
+        assertEquals(5, qualityCodes.size());
+        for (List<QualityCode> tagQualityCodes : qualityCodes) {
+            assertEquals(List.of(QualityCode.Bad_Failure), tagQualityCodes);
+        }
+    }
+
+    private static List<JsonObject> createTags(int count) {
+        List<JsonObject> tags = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            JsonObject tag = new JsonObject();
+            tag.addProperty("name", "Tag" + i);
+            tag.addProperty("tagType", "AtomicTag");
+            tag.addProperty("valueSource", "memory");
+            tags.add(tag);
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,176 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+public class TagExportPagerTest {
+    private static final TagFilter ANY_TAG = TagFilter.of(null, null, null);
+
+    @Test
+    public void pagesListEveryTagOnceInDepthFirstOrder() {
+        JsonObject tree = createTree();
+        TagExportPager pager = new TagExportPager("", ANY_TAG, 2);
+
+        JsonObject first = pager.getPage(tree, null);
+        JsonObject second = pager.getPage(tree, getCursor(first));
+        JsonObject last = pager.getPage(tree, getCursor(second));
+
+        assertEquals(List.of("A", "A/A1"), getPaths(first));
+        assertEquals(List.of("A/A2", "B"), getPaths(second));
+        assertEquals(List.of("B/B1", "C"), getPaths(last));
+        assertEquals(2, last.get("count").getAsInt());
+        assertFalse(last.has("nextCursor"));
+    }
+
+    @Test
+    public void foldersAreListedWithoutTheirChildren() {
+        JsonObject page = new TagExportPager("", ANY_TAG, 1).getPage(createTree(), null);
+
+        JsonObject folder = page.getAsJsonArray("tags").get(0).getAsJsonObject().getAsJsonObject("tag");
+        assertEquals("A", folder.get("name").getAsString());
+        assertFalse(folder.has("tags"));
+    }
+
+    @Test
+    public void cursorResumesAfterTheLastTagWhenTagsAreAddedBeforeIt() {
+        JsonObject tree = createTree();
+        TagExportPager pager = new TagExportPager("", ANY_TAG, 2);
+        JsonObject first = pager.getPage(tree, null);
+
+        insertTag(getFolder(tree, "A"), 0, atomicTag("A0"));
+        JsonObject second = pager.getPage(tree, getCursor(first));
+
+        assertEquals(List.of("A/A2", "B"), getPaths(second));
+    }
+
+    @Test
+    public void cursorResumesAfterTheLastTagWhenTagsAreAddedAfterIt() {
+        JsonObject tree = createTree();
+        TagExportPager pager = new TagExportPager("", ANY_TAG, 2);
+        JsonObject first = pager.getPage(tree, null);
+
+        insertTag(getFolder(tree, "A"), 1, atomicTag("A1b"));
+        JsonObject second = pager.getPage(tree, getCursor(first));
+
+        assertEquals(List.of("A/A1b", "A/A2"), getPaths(second));
+    }
+
+    @Test
+    public void cursorResumesAtTheOldPositionWhenTheLastTagIsDeleted() {
+        JsonObject tree = createTree();
+        TagExportPager pager = new TagExportPager("", ANY_TAG, 2);
+        JsonObject first = pager.getPage(tree, null);
+
+        getFolder(tree, "A").getAsJsonArray("tags").remove(0);
+        JsonObject second = pager.getPage(tree, getCursor(first));
+
+        assertEquals(List.of("A/A2", "B"), getPaths(second));
+    }
+
+    @Test
+    public void filterOnlyDecidesWhichTagsAreListed() {
+        JsonObject tree = createTree();
+        TagExportPager pager = new TagExportPager("", TagFilter.of("AtomicTag", null, null), 2);
+
+        List<String> paths = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonObject page = pager.getPage(tree, cursor);
+            paths.addAll(getPaths(page));
+            cursor = page.has("nextCursor") ? getCursor(page) : null;
+        } while (cursor != null);
+
+        assertEquals(List.of("A/A1", "A/A2", "B/B1", "C"), paths);
+    }
+
+    @Test
+    public void baseTagPathIsListedFirst() {
+        JsonObject folder = getFolder(createTree(), "B");
+
+        JsonObject page = new TagExportPager("B", ANY_TAG, 10).getPage(folder, null);
+
+        assertEquals(List.of("B", "B/B1"), getPaths(page));
+        assertFalse(page.has("nextCursor"));
+    }
+
+    @Test
+    public void invalidCursorIsRejected() {
+        TagExportPager pager = new TagExportPager("", ANY_TAG, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> pager.getPage(createTree(), "not a cursor"));
+    }
+
+    /**
+     * Builds A/A1, A/A2, B/B1 and C below a provider root.
+     */
+    private static JsonObject createTree() {
+        return folder("", "Provider",
+                folder("A", "Folder", atomicTag("A1"), atomicTag("A2")),
+                folder("B", "Folder", atomicTag("B1")),
+                atomicTag("C"));
+    }
+
+    private static JsonObject folder(String name, String tagType, JsonObject... children) {
+        JsonObject folder = new JsonObject();
+        folder.addProperty("name", name);
+        folder.addProperty("tagType", tagType);
+        JsonArray tags = new JsonArray();
+        for (JsonObject child : children) {
+            tags.add(child);
+        }
+        folder.add("tags", tags);
+        return folder;
+    }
+
+    private static JsonObject atomicTag(String name) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("name", name);
+        tag.addProperty("tagType", "AtomicTag");
+        return tag;
+    }
+
+    private static JsonObject getFolder(JsonObject tree, String name) {
+        for (JsonElement child : tree.getAsJsonArray("tags")) {
+            if (name.equals(child.getAsJsonObject().get("name").getAsString())) {
+                return child.getAsJsonObject();
+            }
+        }
+        throw new IllegalArgumentException("No folder " + name);
+    }
+
+    private static void insertTag(JsonObject folder, int index, JsonObject tag) {
+        JsonArray tags = folder.getAsJsonArray("tags");
+        JsonArray inserted = new JsonArray();
+        for (int i = 0; i <= tags.size(); i++) {
+            if (i == index) {
+                inserted.add(tag);
+            }
+            if (i < tags.size()) {
+                inserted.add(tags.get(i));
+            }
+        }
+        folder.add("tags", inserted);
+    }
+
+    private static String getCursor(JsonObject page) {
+        return page.get("nextCursor").getAsString();
+    }
+
+    private static List<String> getPaths(JsonObject page) {
+        List<String> paths = new ArrayList<>();
+        for (JsonElement tag : page.getAsJsonArray("tags")) {
+            paths.add(tag.getAsJsonObject().get("path").getAsString());
+        }
+        return paths;
+    }
+}
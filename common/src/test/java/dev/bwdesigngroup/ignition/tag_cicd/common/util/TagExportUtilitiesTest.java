@@ -0,0 +1,52 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.InMemoryTagManager;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.SyntheticTagTreeGenerator;
+
+public class TagExportUtilitiesTest {
+    private static final String PROVIDER = "Test";
+
+    @Test
+    public void streamedExportMatchesTheJsonExport() throws Exception {
+        InMemoryTagManager tagManager = createTagManager();
+
+        for (String baseTagPath : new String[] { "", "_types_" }) {
+            String expected = TagExportUtilities.exportTagsToJson(tagManager.getTagManager(), PROVIDER, baseTagPath,
+                    true, false).toString();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            TagExportUtilities.exportTagsToStream(tagManager.getTagManager(), PROVIDER, baseTagPath, true, false,
+                    () -> outputStream);
+
+            assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void filteredFetchMatchesFilteringTheWholeTree() throws Exception {
+        InMemoryTagManager tagManager = createTagManager();
+        TagPathFilter pathFilter = TagPathFilter.parse("Site1/Area1,**/Line2,_types_", "**/Pump*");
+
+        // Arrays are sorted by the form of their elements before sorting, so both trees start unsorted
+        JsonObject whole = tagManager.getTags(PROVIDER);
+        JsonObject fetched = TagExportUtilities.fetchFilteredTagsJson(tagManager.getTagManager(), PROVIDER, "", true,
+                false, pathFilter);
+
+        assertEquals(FileUtilities.sortJsonElementRecursively(pathFilter.filterTree(whole, "")),
+                FileUtilities.sortJsonElementRecursively(fetched));
+    }
+
+    private static InMemoryTagManager createTagManager() {
+        JsonObject tags = new SyntheticTagTreeGenerator().setSeed(43).setTagCount(2000).setUdtTypes(5).generate();
+        return new InMemoryTagManager().addProvider(PROVIDER).loadTags(PROVIDER, tags);
+    }
+}
@@ -0,0 +1,192 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter.Decision;
+
+public class TagPathFilterTest {
+
+    @Test
+    public void globMatchesWithinOneSegmentIgnoringCase() {
+        TagPathFilter filter = TagPathFilter.parse("Sim*,Tag?", null);
+
+        assertTrue(filter.matches("Simulator"));
+        assertTrue(filter.matches("SIMULATOR/Ramp/Value"));
+        assertTrue(filter.matches("Tag1"));
+        assertFalse(filter.matches("Tag12"));
+        assertFalse(filter.matches("Area/Simulator"));
+    }
+
+    @Test
+    public void doubleStarMatchesAnyNumberOfSegments() {
+        TagPathFilter filter = TagPathFilter.parse("**/Diagnostics", null);
+
+        assertTrue(filter.matches("Diagnostics"));
+        assertTrue(filter.matches("Area1/Line1/Diagnostics"));
+        assertTrue(filter.matches("Area1/Diagnostics/Uptime"));
+        assertFalse(filter.matches("Area1/DiagnosticsOld"));
+    }
+
+    @Test
+    public void regexMatchesTheWholeRelativePath() {
+        TagPathFilter filter = TagPathFilter.parse("regex:Area[0-9]+/.*Pump", null);
+
+        assertTrue(filter.matches("Area1/Line2/Pump"));
+        assertFalse(filter.matches("AreaX/Pump"));
+        assertFalse(filter.matches("Area1/Line2/PumpSpeed"));
+    }
+
+    @Test
+    public void invalidRegexIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TagPathFilter.parse("regex:Area[", null));
+    }
+
+    @Test
+    public void excludesWinOverIncludes() {
+        TagPathFilter filter = TagPathFilter.parse("Area1", "Area1/Private");
+
+        assertTrue(filter.matches("Area1/Tag"));
+        assertFalse(filter.matches("Area1/Private"));
+        assertFalse(filter.matches("Area1/Private/Secret"));
+        assertFalse(filter.matches("Area2/Tag"));
+    }
+
+    @Test
+    public void emptyPatternsKeepEverything() {
+        TagPathFilter filter = TagPathFilter.parse(" , ", "");
+
+        assertSame(TagPathFilter.ALL, filter);
+        assertEquals(Decision.INCLUDED, filter.getDecision(""));
+    }
+
+    @Test
+    public void decisionFollowsIncludes() {
+        TagPathFilter filter = TagPathFilter.parse("Area1/Line*", null);
+
+        assertEquals(Decision.PARTIAL, filter.getDecision(""));
+        assertEquals(Decision.PARTIAL, filter.getDecision("Area1"));
+        assertEquals(Decision.INCLUDED, filter.getDecision("Area1/Line2"));
+        assertEquals(Decision.INCLUDED, filter.getDecision("Area1/Line2/Motor"));
+        assertEquals(Decision.EXCLUDED, filter.getDecision("Area1/Tank"));
+        assertEquals(Decision.EXCLUDED, filter.getDecision("Area2"));
+    }
+
+    @Test
+    public void decisionFollowsExcludes() {
+        TagPathFilter filter = TagPathFilter.parse(null, "Area1/Private,**/Diagnostics");
+
+        assertEquals(Decision.PARTIAL, filter.getDecision(""));
+        assertEquals(Decision.PARTIAL, filter.getDecision("Area1"));
+        assertEquals(Decision.EXCLUDED, filter.getDecision("Area1/Private"));
+        assertEquals(Decision.EXCLUDED, filter.getDecision("Area2/Diagnostics"));
+        // Any folder may still hold a Diagnostics folder
+        assertEquals(Decision.PARTIAL, filter.getDecision("Area2"));
+    }
+
+    @Test
+    public void decisionCannotRuleOutRegex() {
+        TagPathFilter filter = TagPathFilter.parse("regex:Area1/.*", null);
+
+        assertEquals(Decision.INCLUDED, filter.getDecision("Area1/Line1"));
+        assertEquals(Decision.PARTIAL, filter.getDecision("Area2"));
+    }
+
+    @Test
+    public void filterTreeKeepsMatchingTagsAndTheirFolders() {
+        TagPathFilter filter = TagPathFilter.parse("Area1", "**/Private");
+
+        JsonObject filtered = filter.filterTree(createTree(), "");
+
+        assertEquals(List.of("Area1", "Area1/Line1", "Area1/Line1/Pump"), listPaths(filtered));
+    }
+
+    @Test
+    public void filterTreeDropsFoldersWithoutMatchingTags() {
+        TagPathFilter filter = TagPathFilter.parse("**/Pump", null);
+
+        JsonObject filtered = filter.filterTree(createTree(), "");
+
+        assertEquals(List.of("Area1", "Area1/Line1", "Area1/Line1/Pump"), listPaths(filtered));
+    }
+
+    @Test
+    public void filterTreeKeepsAMatchingEmptyFolder() {
+        TagPathFilter filter = TagPathFilter.parse("Area1/Private", "Area1/Private/*");
+
+        JsonObject filtered = filter.filterTree(createTree(), "");
+
+        assertEquals(List.of("Area1", "Area1/Private"), listPaths(filtered));
+    }
+
+    @Test
+    public void filterTreeLeavesTheTreeUnchanged() {
+        JsonObject tree = createTree();
+        List<String> paths = listPaths(tree);
+
+        assertSame(tree, TagPathFilter.ALL.filterTree(tree, ""));
+        TagPathFilter.parse("Area2", null).filterTree(tree, "");
+        assertEquals(paths, listPaths(tree));
+    }
+
+    /**
+     * Builds Area1/Line1/Pump, Area1/Private/Secret, Area2/Level and TopTag.
+     */
+    private static JsonObject createTree() {
+        return folder("", "Provider",
+                folder("Area1", "Folder",
+                        folder("Line1", "Folder", atomicTag("Pump")),
+                        folder("Private", "Folder", atomicTag("Secret"))),
+                folder("Area2", "Folder", atomicTag("Level")),
+                atomicTag("TopTag"));
+    }
+
+    private static JsonObject folder(String name, String tagType, JsonObject... children) {
+        JsonObject folder = new JsonObject();
+        folder.addProperty("name", name);
+        folder.addProperty("tagType", tagType);
+        JsonArray tags = new JsonArray();
+        for (JsonObject child : children) {
+            tags.add(child);
+        }
+        folder.add("tags", tags);
+        return folder;
+    }
+
+    private static JsonObject atomicTag(String name) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("name", name);
+        tag.addProperty("tagType", "AtomicTag");
+        tag.addProperty("valueSource", "memory");
+        return tag;
+    }
+
+    private static List<String> listPaths(JsonObject tree) {
+        List<String> paths = new ArrayList<>();
+        addPaths(tree, "", paths);
+        return paths;
+    }
+
+    private static void addPaths(JsonObject folder, String folderPath, List<String> paths) {
+        if (!folder.has("tags")) {
+            return;
+        }
+        for (JsonElement child : folder.getAsJsonArray("tags")) {
+            String path = TagPathFilter.join(folderPath, child.getAsJsonObject().get("name").getAsString());
+            paths.add(path);
+            addPaths(child.getAsJsonObject(), path, paths);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+
+public class TagPathLockManagerTest {
+    private final TagPathLockManager locks = TagPathLockManager.getInstance();
+    private ExecutorService executor;
+    private String provider;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        // The lock manager is shared, so each test locks its own provider
+        provider = "LockTest" + System.nanoTime();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void sharedLocksDoNotConflict() throws Exception {
+        try (OperationMetrics.Scope lock = locks.lockShared(provider, "Area1")) {
+            assertTrue(tryLock(provider, "Area1", false));
+            assertTrue(tryLock(provider, "Area1/Line1", false));
+            assertTrue(tryLock(provider, "", false));
+        }
+    }
+
+    @Test
+    public void exclusiveLockConflictsWithAncestorsAndDescendants() throws Exception {
+        try (OperationMetrics.Scope lock = locks.lockShared(provider, "Area1/Line1")) {
+            assertFalse(tryLock(provider, "Area1/Line1", true));
+            assertFalse(tryLock(provider, "Area1", true));
+            assertFalse(tryLock(provider, "", true));
+            assertFalse(tryLock(provider, "Area1/Line1/Motor", true));
+        }
+    }
+
+    @Test
+    public void exclusiveLockConflictsWithSharedLocksBelowIt() throws Exception {
+        try (OperationMetrics.Scope lock = locks.lockExclusive(provider, "Area1")) {
+            assertFalse(tryLock(provider, "Area1/Line1", false));
+            assertFalse(tryLock(provider, "", false));
+        }
+    }
+
+    @Test
+    public void pathsAreComparedIgnoringCase() throws Exception {
+        try (OperationMetrics.Scope lock = locks.lockExclusive(provider, "Area1")) {
+            assertFalse(tryLock(provider.toUpperCase(), "AREA1/line1", false));
+        }
+    }
+
+    @Test
+    public void separatePathsAndProvidersDoNotConflict() throws Exception {
+        try (OperationMetrics.Scope lock = locks.lockExclusive(provider, "Area1")) {
+            assertTrue(tryLock(provider, "Area2", true));
+            // A sibling whose name starts with the locked folder's name
+            assertTrue(tryLock(provider, "Area10", true));
+            assertTrue(tryLock(provider + "Other", "Area1", true));
+        }
+    }
+
+    @Test
+    public void releasedLockCanBeTaken() throws Exception {
+        OperationMetrics.Scope lock = locks.lockExclusive(provider, "Area1");
+        assertFalse(tryLock(provider, "Area1", false));
+
+        lock.close();
+        assertTrue(tryLock(provider, "Area1", false));
+    }
+
+    @Test
+    public void lockIsReentrant() throws Exception {
+        try (OperationMetrics.Scope timeout = TagPathLockManager.timeout(0);
+                OperationMetrics.Scope lock = locks.lockExclusive(provider, "Area1");
+                OperationMetrics.Scope nested = locks.lockShared(provider, "Area1/Line1");
+                OperationMetrics.Scope wider = locks.lockExclusive(provider, "")) {
+            assertFalse(tryLock(provider, "Area2", false));
+        }
+        assertTrue(tryLock(provider, "", true));
+    }
+
+    @Test
+    public void reentrantLockDoesNotQueueBehindWaiters() throws Exception {
+        try (OperationMetrics.Scope lock = locks.lockShared(provider, "Area1")) {
+            Future<Boolean> waiting = lockInBackground(provider, "Area1", true, -1);
+
+            try (OperationMetrics.Scope timeout = TagPathLockManager.timeout(0);
+                    OperationMetrics.Scope nested = locks.lockShared(provider, "Area1/Line1")) {
+                assertFalse(waiting.isDone());
+            }
+            lock.close();
+            assertTrue(waiting.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void waitingLockIsGrantedOnRelease() throws Exception {
+        OperationMetrics.Scope lock = locks.lockExclusive(provider, "Area1");
+        Future<Boolean> waiting = lockInBackground(provider, "Area1/Line1", false, 10_000);
+        assertFalse(waiting.isDone());
+
+        lock.close();
+        assertTrue(waiting.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void laterRequestsQueueBehindAWaitingExclusiveLock() throws Exception {
+        try (OperationMetrics.Scope lock = locks.lockShared(provider, "Area1")) {
+            Future<Boolean> waiting = lockInBackground(provider, "Area1", true, -1);
+
+            // Without the queue, a stream of exports could hold off the import forever
+            assertFalse(tryLock(provider, "Area1", false));
+            assertTrue(tryLock(provider, "Area2", false));
+            lock.close();
+            assertTrue(waiting.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Tries to take a lock on another thread without waiting, and releases
+     * it straight away.
+     */
+    private boolean tryLock(String provider, String tagPath, boolean exclusive) throws Exception {
+        return executor.submit(() -> {
+            try (OperationMetrics.Scope timeout = TagPathLockManager.timeout(0);
+                    OperationMetrics.Scope lock = lock(provider, tagPath, exclusive)) {
+                return true;
+            } catch (TagPathLockManager.LockTimeoutException e) {
+                return false;
+            }
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Takes a lock on another thread, waiting for it, and releases it once
+     * taken. Returns once the thread is waiting for the lock.
+     */
+    private Future<Boolean> lockInBackground(String provider, String tagPath, boolean exclusive,
+            long timeoutMillis) throws InterruptedException {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        Future<Boolean> future = executor.submit(() -> {
+            thread.set(Thread.currentThread());
+            try (OperationMetrics.Scope timeout = TagPathLockManager.timeout(timeoutMillis);
+                    OperationMetrics.Scope lock = lock(provider, tagPath, exclusive)) {
+                return true;
+            }
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.get() == null || (thread.get().getState() != Thread.State.WAITING
+                && thread.get().getState() != Thread.State.TIMED_WAITING)) {
+            if (System.nanoTime() > deadline || future.isDone()) {
+                throw new IllegalStateException("The lock was not waited for");
+            }
+            Thread.sleep(1);
+        }
+        return future;
+    }
+
+    private OperationMetrics.Scope lock(String provider, String tagPath, boolean exclusive) {
+        return exclusive ? locks.lockExclusive(provider, tagPath) : locks.lockShared(provider, tagPath);
+    }
+}
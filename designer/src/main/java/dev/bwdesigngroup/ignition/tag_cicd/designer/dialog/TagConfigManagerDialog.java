@@ -1,6 +1,7 @@
 package dev.bwdesigngroup.ignition.tag_cicd.designer.dialog;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ImportResultCollector;
 import dev.bwdesigngroup.ignition.tag_cicd.designer.model.TagConfigManager;
 import dev.bwdesigngroup.ignition.tag_cicd.designer.util.DialogUtilities;
 import com.inductiveautomation.ignition.client.icons.VectorIcons;
@@ -447,11 +448,16 @@ public class TagConfigManagerDialog extends JDialog {
 
                     if (resultObj.get("success").getAsBoolean()) {
                         JsonObject details = resultObj.getAsJsonObject("details");
-                        int created = details.has("created_tags") ? details.getAsJsonObject("created_tags").size() : 0;
-                        int deleted = details.has("deleted_tags") ? details.getAsJsonObject("deleted_tags").size() : 0;
-
-                        statusLabel.setText(String.format("Tags imported successfully: Created: %d, Deleted: %d",
-                                created, deleted));
+                        long created = ImportResultCollector.countQualityCodes(details,
+                                ImportResultCollector.CREATED_TAGS, true);
+                        long failed = ImportResultCollector.countQualityCodes(details,
+                                ImportResultCollector.CREATED_TAGS, false);
+                        long deleted = ImportResultCollector.countQualityCodes(details,
+                                ImportResultCollector.DELETED_TAGS, true);
+
+                        statusLabel.setText(String.format(
+                                "Tags imported successfully: Created: %d, Failed: %d, Deleted: %d",
+                                created, failed, deleted));
                     } else {
                         String error = resultObj.get("error").getAsString();
                         statusLabel.setText("Import failed: " + error);
@@ -2,6 +2,7 @@ package dev.bwdesigngroup.ignition.tag_cicd.designer.dialog;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.TagCICDRPC;
 import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ImportResultCollector;
 import com.inductiveautomation.ignition.client.gateway_interface.ModuleRPCFactory;
 import com.inductiveautomation.ignition.common.gson.Gson;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
@@ -372,11 +373,14 @@ public class TagConfigOperationDialog extends JDialog {
                         JsonObject importResult = gson.fromJson(result, JsonObject.class);
                         if (importResult.get("success").getAsBoolean()) {
                             JsonObject details = importResult.getAsJsonObject("details");
-                            int created = details.has("created_tags") ? details.getAsJsonObject("created_tags").size()
-                                    : 0;
-                            int deleted = details.has("deleted_tags") ? details.getAsJsonObject("deleted_tags").size()
-                                    : 0;
-                            importResults.addProperty(filePath, "Created: " + created + ", Deleted: " + deleted);
+                            long created = ImportResultCollector.countQualityCodes(details,
+                                    ImportResultCollector.CREATED_TAGS, true);
+                            long failed = ImportResultCollector.countQualityCodes(details,
+                                    ImportResultCollector.CREATED_TAGS, false);
+                            long deleted = ImportResultCollector.countQualityCodes(details,
+                                    ImportResultCollector.DELETED_TAGS, true);
+                            importResults.addProperty(filePath,
+                                    "Created: " + created + ", Failed: " + failed + ", Deleted: " + deleted);
                         } else {
                             importResults.addProperty(filePath, "Failed: " + importResult.get("error").getAsString());
                         }
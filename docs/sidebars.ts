@@ -37,6 +37,17 @@ const sidebars: SidebarsConfig = {
         'tag-export/export-modes',
       ],
     },
+    {
+      type: 'category',
+      label: 'Gateway',
+      items: [
+        'gateway/startup-import',
+        'gateway/watch-mode',
+        'gateway/continuous-export',
+        'gateway/metrics',
+        'gateway/history',
+      ],
+    },
   ],
 };
 
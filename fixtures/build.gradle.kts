@@ -0,0 +1,27 @@
+plugins {
+    `java-library`
+}
+
+java {
+    toolchain {
+        // Set Java version to 17
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+dependencies {
+    api(projects.common)
+
+    // The fixtures stand in for a gateway, so the SDK is needed at runtime rather than provided by one
+    api(libs.ignition.common)
+    api(libs.ignition.gateway.api)
+}
+
+// Writes a synthetic provider to disk, e.g.
+// ./gradlew :fixtures:generateTags --args="--output=/tmp/tags --mode=structuredByType --tags=100000"
+tasks.register<JavaExec>("generateTags") {
+    group = "verification"
+    description = "Writes a synthetic tag provider to disk in any export mode"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("dev.bwdesigngroup.ignition.tag_cicd.fixtures.SyntheticTagTreeGenerator")
+}
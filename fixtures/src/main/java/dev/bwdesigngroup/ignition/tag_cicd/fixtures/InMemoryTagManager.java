@@ -0,0 +1,471 @@
+package dev.bwdesigngroup.ignition.tag_cicd.fixtures;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.TagUtilities;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.model.TagProvider;
+import com.inductiveautomation.ignition.common.tags.model.event.TagStructureEvent;
+import com.inductiveautomation.ignition.common.tags.model.event.TagStructureListener;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+/**
+ * An in-memory stand-in for the gateway tag manager, so that the export and
+ * import strategies can be exercised and profiled without a running gateway.
+ *
+ * {@link #getTagManager()} returns a {@link GatewayTagManager} that supports
+ * {@code getTagProvider}, {@code getTagProviders}, {@code importTagsAsync}
+ * and adding and removing tag structure listeners, and whose providers support {@code getName}, {@code getTagConfigsAsync},
+ * {@code importTagsAsync} and {@code removeTagConfigsAsync}. Any other method
+ * throws {@link UnsupportedOperationException}.
+ *
+ * Imports and removals tell the structure listeners of each folder they
+ * change which tags were added, removed and changed, once the call is done.
+ * Imports can be made to refuse UDTs whose definition is missing, as a
+ * gateway does, with {@link #setRequireUdtDefinitions(boolean)}.
+ *
+ * Every asynchronous call can be delayed by a random latency and made to fail
+ * at a configurable rate. Both are drawn from a seeded random, so a run can be
+ * repeated exactly when calls are made from a single thread.
+ */
+public class InMemoryTagManager {
+    /**
+     * The tag operations that latency and failures apply to.
+     */
+    public enum Operation {
+        READ,
+        IMPORT,
+        REMOVE
+    }
+
+    /**
+     * How an injected failure surfaces to the caller.
+     */
+    public enum FailureMode {
+        /**
+         * The call changes nothing and completes with a {@code Bad_Failure}
+         * quality code for each tag, or an {@code Unknown} model for each read.
+         */
+        BAD_QUALITY,
+        /** The call completes exceptionally, as it does when the gateway rejects a request. */
+        EXCEPTION
+    }
+
+    private final Map<String, InMemoryTagProvider> providers = new ConcurrentHashMap<>();
+    private final Map<String, List<TagStructureListener>> structureListeners = new ConcurrentHashMap<>();
+    private final Map<Operation, Double> failureRates = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> callCounts = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> failureCounts = new EnumMap<>(Operation.class);
+    private final Random random;
+    private final GatewayTagManager tagManager;
+
+    private volatile long minLatencyMillis;
+    private volatile long maxLatencyMillis;
+    private volatile FailureMode failureMode = FailureMode.BAD_QUALITY;
+    private volatile boolean requireUdtDefinitions;
+
+    public InMemoryTagManager() {
+        this(0L);
+    }
+
+    /**
+     * @param seed the seed for latency and failure injection
+     */
+    public InMemoryTagManager(long seed) {
+        this.random = new Random(seed);
+        for (Operation operation : Operation.values()) {
+            failureRates.put(operation, 0.0);
+            callCounts.put(operation, new AtomicLong());
+            failureCounts.put(operation, new AtomicLong());
+        }
+        this.tagManager = proxy(GatewayTagManager.class, new TagManagerHandler());
+    }
+
+    /**
+     * Returns the tag manager to pass to the export and import utilities.
+     */
+    public GatewayTagManager getTagManager() {
+        return tagManager;
+    }
+
+    /**
+     * Adds an empty provider, if there is not already one with the name.
+     *
+     * @return this tag manager
+     */
+    public InMemoryTagManager addProvider(String providerName) {
+        providers.computeIfAbsent(providerName, InMemoryTagProvider::new);
+        return this;
+    }
+
+    /**
+     * Imports tag JSON into a provider immediately, without latency or
+     * failures, overwriting any existing tags. The provider is added if needed.
+     *
+     * @param providerName the provider
+     * @param tagsJson     the tags, in the shape of a tag export
+     * @return this tag manager
+     */
+    public InMemoryTagManager loadTags(String providerName, JsonObject tagsJson) {
+        addProvider(providerName);
+        TagStructureChanges changes = new TagStructureChanges();
+        providers.get(providerName).importTags(rootPath(providerName), tagsJson, CollisionPolicy.Overwrite, false,
+                changes);
+        notifyStructureListeners(changes);
+        return this;
+    }
+
+    /**
+     * Returns a copy of every tag in a provider, in the shape of a provider
+     * root export, or null if there is no such provider.
+     */
+    public JsonObject getTags(String providerName) {
+        InMemoryTagProvider provider = providers.get(providerName);
+        return provider == null ? null : provider.toJson();
+    }
+
+    /**
+     * Returns the number of tags in a provider, including folders.
+     */
+    public int getTagCount(String providerName) {
+        InMemoryTagProvider provider = providers.get(providerName);
+        return provider == null ? 0 : provider.size();
+    }
+
+    /**
+     * Returns the number of tag structure listeners added and not yet removed.
+     */
+    public int getStructureListenerCount() {
+        int count = 0;
+        for (List<TagStructureListener> listeners : structureListeners.values()) {
+            count += listeners.size();
+        }
+        return count;
+    }
+
+    /**
+     * Removes every tag from every provider, and resets the call counts.
+     */
+    public void reset() {
+        for (InMemoryTagProvider provider : providers.values()) {
+            provider.clear();
+        }
+        for (Operation operation : Operation.values()) {
+            callCounts.get(operation).set(0);
+            failureCounts.get(operation).set(0);
+        }
+    }
+
+    /**
+     * Delays every asynchronous call by a uniformly random latency.
+     *
+     * @param minMillis the shortest delay
+     * @param maxMillis the longest delay
+     * @return this tag manager
+     */
+    public InMemoryTagManager setLatency(long minMillis, long maxMillis) {
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("Latency must satisfy 0 <= min <= max");
+        }
+        this.minLatencyMillis = minMillis;
+        this.maxLatencyMillis = maxMillis;
+        return this;
+    }
+
+    /**
+     * Makes a fraction of the calls of one operation fail.
+     *
+     * @param operation the operation
+     * @param rate      the probability of a call failing, from 0 to 1
+     * @return this tag manager
+     */
+    public InMemoryTagManager setFailureRate(Operation operation, double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Failure rate must be between 0 and 1");
+        }
+        synchronized (failureRates) {
+            failureRates.put(operation, rate);
+        }
+        return this;
+    }
+
+    /**
+     * Makes a fraction of the calls of every operation fail.
+     *
+     * @return this tag manager
+     */
+    public InMemoryTagManager setFailureRate(double rate) {
+        for (Operation operation : Operation.values()) {
+            setFailureRate(operation, rate);
+        }
+        return this;
+    }
+
+    public InMemoryTagManager setFailureMode(FailureMode failureMode) {
+        this.failureMode = failureMode;
+        return this;
+    }
+
+    /**
+     * Makes imports refuse each UDT instance or definition whose
+     * {@code typeId} names no definition under {@code _types_} with
+     * {@code Bad_NotFound}, so that imports that depend on their order can be
+     * exercised. Only the tags at the top of each import are checked.
+     *
+     * @return this tag manager
+     */
+    public InMemoryTagManager setRequireUdtDefinitions(boolean requireUdtDefinitions) {
+        this.requireUdtDefinitions = requireUdtDefinitions;
+        return this;
+    }
+
+    /**
+     * Returns the number of calls made for an operation, including failed ones.
+     */
+    public long getCallCount(Operation operation) {
+        return callCounts.get(operation).get();
+    }
+
+    /**
+     * Returns the number of injected failures for an operation.
+     */
+    public long getFailureCount(Operation operation) {
+        return failureCounts.get(operation).get();
+    }
+
+    /**
+     * Runs an operation with the configured latency and failure injection.
+     *
+     * @param operation the operation being run
+     * @param failure   produces the result of a failed call
+     * @param call      runs the operation
+     */
+    private <T> CompletableFuture<List<T>> submit(Operation operation, Supplier<List<T>> failure,
+            Supplier<List<T>> call) {
+        callCounts.get(operation).incrementAndGet();
+
+        boolean fail;
+        long latency;
+        synchronized (random) {
+            double rate;
+            synchronized (failureRates) {
+                rate = failureRates.get(operation);
+            }
+            fail = rate > 0 && random.nextDouble() < rate;
+            latency = minLatencyMillis + (maxLatencyMillis > minLatencyMillis
+                    ? (long) (random.nextDouble() * (maxLatencyMillis - minLatencyMillis + 1))
+                    : 0);
+        }
+
+        Executor executor = latency > 0
+                ? CompletableFuture.delayedExecutor(latency, TimeUnit.MILLISECONDS)
+                : Runnable::run;
+
+        if (fail) {
+            failureCounts.get(operation).incrementAndGet();
+            if (failureMode == FailureMode.EXCEPTION) {
+                CompletableFuture<List<T>> future = new CompletableFuture<>();
+                executor.execute(() -> future.completeExceptionally(
+                        new IllegalStateException("Injected " + operation + " failure")));
+                return future;
+            }
+            return CompletableFuture.supplyAsync(failure, executor);
+        }
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    private InMemoryTagProvider getProvider(String providerName) {
+        return providerName == null ? null : providers.get(providerName);
+    }
+
+    private CompletableFuture<List<QualityCode>> importTags(InMemoryTagProvider provider, TagPath basePath,
+            String json, String format, CollisionPolicy policy) {
+        if (!"json".equalsIgnoreCase(format)) {
+            throw new UnsupportedOperationException("Only json imports are supported, not " + format);
+        }
+
+        // Parse up front so that malformed JSON fails the call, as it does on a gateway
+        JsonObject tagsJson = TagUtilities.stringToJson(json).getAsJsonObject();
+        int tagCount = InMemoryTagProvider.topLevelTags(tagsJson).size();
+        return submit(Operation.IMPORT, () -> Collections.nCopies(tagCount, QualityCode.Bad_Failure),
+                () -> {
+                    TagStructureChanges changes = new TagStructureChanges();
+                    List<QualityCode> qualityCodes = provider.importTags(basePath, tagsJson, policy,
+                            requireUdtDefinitions, changes);
+                    notifyStructureListeners(changes);
+                    return qualityCodes;
+                });
+    }
+
+    private void notifyStructureListeners(TagStructureChanges changes) {
+        for (TagStructureEvent event : changes.getEvents()) {
+            List<TagStructureListener> listeners = structureListeners.get(
+                    TagStructureChanges.getKey(event.getParentPath()));
+            if (listeners == null) {
+                continue;
+            }
+            for (TagStructureListener listener : listeners) {
+                listener.tagStructureChanged(event);
+            }
+        }
+    }
+
+    private static TagPath rootPath(String providerName) {
+        return new BasicTagPath(providerName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InMemoryTagManager.class.getClassLoader(), new Class<?>[] { type },
+                handler);
+    }
+
+    /**
+     * Answers the methods every proxy shares, or returns null.
+     */
+    private static Object handleObjectMethod(Object proxy, Method method, Object[] args, String description) {
+        switch (method.getName()) {
+            case "toString":
+                return description;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                return null;
+        }
+    }
+
+    private static UnsupportedOperationException unsupported(Method method) {
+        return new UnsupportedOperationException(
+                method.getDeclaringClass().getSimpleName() + "." + method.getName() + " is not supported in memory");
+    }
+
+    private class TagManagerHandler implements InvocationHandler {
+        private final Map<String, TagProvider> providerProxies = new ConcurrentHashMap<>();
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getDeclaringClass() == Object.class) {
+                return handleObjectMethod(proxy, method, args, "InMemoryTagManager");
+            }
+
+            switch (method.getName()) {
+                case "getTagProvider": {
+                    InMemoryTagProvider provider = getProvider((String) args[0]);
+                    return provider == null ? null : providerProxy(provider);
+                }
+                case "getTagProviders": {
+                    List<TagProvider> result = new ArrayList<>();
+                    for (InMemoryTagProvider provider : providers.values()) {
+                        result.add(providerProxy(provider));
+                    }
+                    return result;
+                }
+                case "importTagsAsync": {
+                    TagPath basePath = (TagPath) args[0];
+                    InMemoryTagProvider provider = getProvider(basePath.getSource());
+                    if (provider == null) {
+                        return CompletableFuture.failedFuture(
+                                new IllegalArgumentException("Tag provider '" + basePath.getSource()
+                                        + "' does not exist"));
+                    }
+                    return importTags(provider, basePath, (String) args[1], (String) args[2],
+                            (CollisionPolicy) args[3]);
+                }
+                case "addTagStructureListener":
+                    structureListeners.computeIfAbsent(TagStructureChanges.getKey((TagPath) args[0]),
+                            key -> new CopyOnWriteArrayList<>()).add((TagStructureListener) args[1]);
+                    return null;
+                case "removeTagStructureListener": {
+                    List<TagStructureListener> listeners = structureListeners.get(
+                            TagStructureChanges.getKey((TagPath) args[0]));
+                    if (listeners != null) {
+                        listeners.remove(args[1]);
+                    }
+                    return null;
+                }
+                default:
+                    throw unsupported(method);
+            }
+        }
+
+        private TagProvider providerProxy(InMemoryTagProvider provider) {
+            return providerProxies.computeIfAbsent(provider.getName(),
+                    name -> proxy(TagProvider.class, new TagProviderHandler(provider)));
+        }
+    }
+
+    private class TagProviderHandler implements InvocationHandler {
+        private final InMemoryTagProvider provider;
+
+        TagProviderHandler(InMemoryTagProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getDeclaringClass() == Object.class) {
+                return handleObjectMethod(proxy, method, args, "InMemoryTagProvider[" + provider.getName() + "]");
+            }
+
+            switch (method.getName()) {
+                case "getName":
+                    return provider.getName();
+                case "getTagConfigsAsync": {
+                    List<TagPath> tagPaths = (List<TagPath>) args[0];
+                    boolean recursive = (Boolean) args[1];
+                    return submit(Operation.READ, () -> {
+                        List<TagConfigurationModel> models = new ArrayList<>();
+                        for (TagPath tagPath : tagPaths) {
+                            models.add(TagModelConverter.unknown(tagPath));
+                        }
+                        return models;
+                    }, () -> {
+                        List<TagConfigurationModel> models = new ArrayList<>();
+                        for (TagPath tagPath : tagPaths) {
+                            models.add(provider.getTagConfig(tagPath, recursive));
+                        }
+                        return models;
+                    });
+                }
+                case "importTagsAsync":
+                    return importTags(provider, (TagPath) args[0], (String) args[1], (String) args[2],
+                            (CollisionPolicy) args[3]);
+                case "removeTagConfigsAsync": {
+                    List<TagPath> tagPaths = (List<TagPath>) args[0];
+                    return submit(Operation.REMOVE, () -> Collections.nCopies(tagPaths.size(), QualityCode.Bad_Failure),
+                            () -> {
+                                TagStructureChanges changes = new TagStructureChanges();
+                                List<QualityCode> qualityCodes = provider.removeTags(tagPaths, changes);
+                                notifyStructureListeners(changes);
+                                return qualityCodes;
+                            });
+                }
+                default:
+                    throw unsupported(method);
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package dev.bwdesigngroup.ignition.tag_cicd.fixtures;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+
+/**
+ * The tags of one in-memory provider, held as a tree of tag JSON.
+ *
+ * Tag names are matched case-insensitively, as they are in Ignition. UDT
+ * inheritance is not resolved: a tag reads back exactly the properties it was
+ * imported with, so local and inherited property reads are the same.
+ */
+class InMemoryTagProvider {
+    private final String name;
+    private final Node root = new Node("", "Provider", new JsonObject());
+
+    InMemoryTagProvider(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Reads the configuration of a tag. A missing tag reads back with the
+     * {@code Unknown} tag type, as it does on a gateway.
+     *
+     * @param tagPath   the tag path
+     * @param recursive whether to include every level below the tag, rather
+     *                  than only its direct children
+     */
+    synchronized TagConfigurationModel getTagConfig(TagPath tagPath, boolean recursive) {
+        Node node = find(tagPath);
+        if (node == null) {
+            return TagModelConverter.unknown(tagPath);
+        }
+        return TagModelConverter.toModel(tagPath, node.toJson(recursive ? Integer.MAX_VALUE : 1));
+    }
+
+    /**
+     * Imports tag JSON below a base path, creating any missing folders along
+     * the way.
+     *
+     * Existing folders are always merged into, and the collision policy
+     * decides what happens to other existing tags: {@code Abort} leaves them
+     * and reports {@code Bad_Failure}, {@code Ignore} leaves them,
+     * {@code Overwrite} replaces them and {@code MergeOverwrite} merges the
+     * imported properties and children into them.
+     *
+     * @param requireDefinitions whether to refuse top-level UDTs whose
+     *                           definition is missing with {@code Bad_NotFound}
+     * @param changes            collects the tags added and changed
+     * @return one quality code for each top-level tag in the JSON
+     */
+    synchronized List<QualityCode> importTags(TagPath basePath, JsonObject tagsJson, CollisionPolicy policy,
+            boolean requireDefinitions, TagStructureChanges changes) {
+        Node parent = root;
+        TagPath parentPath = new BasicTagPath(basePath.getSource());
+        for (int i = 0; i < basePath.getPathLength(); i++) {
+            String component = basePath.getPathComponent(i);
+            parentPath = parentPath.getChildPath(component);
+            Node child = parent.getChild(component);
+            if (child == null) {
+                child = new Node(component, "Folder", new JsonObject());
+                parent.putChild(child);
+                changes.added(parentPath);
+            }
+            parent = child;
+        }
+
+        List<QualityCode> qualityCodes = new ArrayList<>();
+        for (JsonObject tag : topLevelTags(tagsJson)) {
+            if (requireDefinitions && !hasDefinition(tag)) {
+                qualityCodes.add(QualityCode.Bad_NotFound);
+                continue;
+            }
+            qualityCodes.add(importTag(parent, parentPath, tag, policy, changes) ? QualityCode.Good
+                    : QualityCode.Bad_Failure);
+        }
+        return qualityCodes;
+    }
+
+    /**
+     * Removes tags, along with everything below them.
+     *
+     * @param changes collects the tags removed
+     * @return a quality code for each path, {@code Bad_NotFound} if there was no tag
+     */
+    synchronized List<QualityCode> removeTags(List<TagPath> tagPaths, TagStructureChanges changes) {
+        List<QualityCode> qualityCodes = new ArrayList<>();
+        for (TagPath tagPath : tagPaths) {
+            Node parent = tagPath.getPathLength() == 0 ? null : find(tagPath.getParentPath());
+            boolean removed = parent != null && parent.removeChild(tagPath.getItemName()) != null;
+            if (removed) {
+                changes.removed(tagPath);
+            }
+            qualityCodes.add(removed ? QualityCode.Good : QualityCode.Bad_NotFound);
+        }
+        return qualityCodes;
+    }
+
+    /**
+     * Returns a copy of every tag in the provider, in the shape of a provider
+     * root export.
+     */
+    synchronized JsonObject toJson() {
+        return root.toJson(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of tags in the provider, including folders.
+     */
+    synchronized int size() {
+        return root.countDescendants();
+    }
+
+    synchronized void clear() {
+        root.children.clear();
+    }
+
+    /**
+     * Returns whether the definition a tag's {@code typeId} names exists, or
+     * the tag names none.
+     */
+    private boolean hasDefinition(JsonObject tagJson) {
+        if (!tagJson.has("typeId") || tagJson.get("typeId").getAsString().isEmpty()) {
+            return true;
+        }
+        Node node = root.getChild("_types_");
+        for (String component : tagJson.get("typeId").getAsString().split("/")) {
+            node = node != null ? node.getChild(component) : null;
+        }
+        return node != null;
+    }
+
+    private Node find(TagPath tagPath) {
+        Node node = root;
+        for (int i = 0; i < tagPath.getPathLength() && node != null; i++) {
+            node = node.getChild(tagPath.getPathComponent(i));
+        }
+        return node;
+    }
+
+    /**
+     * A single tag is imported as itself; an object without a tag type, or a
+     * provider root export, has its child tags imported.
+     */
+    static List<JsonObject> topLevelTags(JsonObject tagsJson) {
+        List<JsonObject> tags = new ArrayList<>();
+        boolean isTag = tagsJson.has("tagType") && !"Provider".equals(tagsJson.get("tagType").getAsString());
+        if (isTag) {
+            tags.add(tagsJson);
+        } else if (tagsJson.has("tags")) {
+            for (JsonElement tag : tagsJson.getAsJsonArray("tags")) {
+                tags.add(tag.getAsJsonObject());
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Imports one tag into a parent node.
+     *
+     * @return false if the tag, or any tag below it, collided under the
+     *         {@code Abort} policy
+     */
+    private static boolean importTag(Node parent, TagPath parentPath, JsonObject tagJson, CollisionPolicy policy,
+            TagStructureChanges changes) {
+        Node imported = Node.fromJson(tagJson);
+        TagPath tagPath = parentPath.getChildPath(imported.name);
+        Node existing = parent.getChild(imported.name);
+        if (existing == null) {
+            parent.putChild(imported);
+            changes.added(tagPath);
+            return true;
+        }
+
+        boolean isFolder = "Folder".equals(existing.tagType) && "Folder".equals(imported.tagType);
+        if (!isFolder) {
+            switch (policy) {
+                case Abort:
+                    return false;
+                case Ignore:
+                    return true;
+                case Overwrite:
+                    parent.putChild(imported);
+                    changes.changed(tagPath);
+                    return true;
+                default:
+                    changes.changed(tagPath);
+                    break;
+            }
+        }
+
+        // Merge the properties and children of folders, and of any tag under MergeOverwrite
+        existing.tagType = imported.tagType;
+        for (Map.Entry<String, JsonElement> property : imported.properties.entrySet()) {
+            existing.properties.add(property.getKey(), property.getValue());
+        }
+
+        boolean success = true;
+        if (tagJson.has("tags")) {
+            for (JsonElement child : tagJson.getAsJsonArray("tags")) {
+                success &= importTag(existing, tagPath, child.getAsJsonObject(), policy, changes);
+            }
+        }
+        return success;
+    }
+
+    /**
+     * A tag and its children.
+     */
+    private static class Node {
+        private final String name;
+        private String tagType;
+        private final JsonObject properties;
+        private final Map<String, Node> children = new LinkedHashMap<>();
+
+        Node(String name, String tagType, JsonObject properties) {
+            this.name = name;
+            this.tagType = tagType;
+            this.properties = properties;
+        }
+
+        static Node fromJson(JsonObject tagJson) {
+            JsonObject properties = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : tagJson.entrySet()) {
+                if (!"name".equals(entry.getKey()) && !"tagType".equals(entry.getKey())
+                        && !"tags".equals(entry.getKey())) {
+                    properties.add(entry.getKey(), entry.getValue().deepCopy());
+                }
+            }
+
+            String tagType = tagJson.has("tagType") ? tagJson.get("tagType").getAsString() : "AtomicTag";
+            Node node = new Node(tagJson.get("name").getAsString(), tagType, properties);
+            if (tagJson.has("tags")) {
+                for (JsonElement child : tagJson.getAsJsonArray("tags")) {
+                    node.putChild(fromJson(child.getAsJsonObject()));
+                }
+            }
+            return node;
+        }
+
+        Node getChild(String childName) {
+            return children.get(childName.toLowerCase(Locale.ROOT));
+        }
+
+        void putChild(Node child) {
+            children.put(child.name.toLowerCase(Locale.ROOT), child);
+        }
+
+        Node removeChild(String childName) {
+            return children.remove(childName.toLowerCase(Locale.ROOT));
+        }
+
+        int countDescendants() {
+            int count = children.size();
+            for (Node child : children.values()) {
+                count += child.countDescendants();
+            }
+            return count;
+        }
+
+        /**
+         * Returns a copy of the tag as JSON, down to the given number of levels
+         * below it.
+         */
+        JsonObject toJson(int depth) {
+            JsonObject json = new JsonObject();
+            json.addProperty("name", name);
+            json.addProperty("tagType", tagType);
+            for (Map.Entry<String, JsonElement> property : properties.entrySet()) {
+                json.add(property.getKey(), property.getValue().deepCopy());
+            }
+
+            if (depth > 0 && !children.isEmpty()) {
+                JsonArray tags = new JsonArray();
+                for (Node child : children.values()) {
+                    tags.add(child.toJson(depth - 1));
+                }
+                json.add("tags", tags);
+            }
+            return json;
+        }
+    }
+}
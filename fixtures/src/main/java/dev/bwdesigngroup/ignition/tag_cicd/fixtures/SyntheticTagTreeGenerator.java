@@ -0,0 +1,593 @@
+package dev.bwdesigngroup.ignition.tag_cicd.fixtures;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategyFactory;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+/**
+ * Generates reproducible tag providers in Ignition's tag JSON shape, for scale
+ * and regression testing.
+ *
+ * A provider has a {@code _types_} folder holding a library of UDT definitions,
+ * followed by a tree of folders {@code depth} levels deep with {@code fanOut}
+ * subfolders each, whose bottom level holds the tags. Tags are drawn from a
+ * weighted mix of {@link TagKind}s. UDT definitions may inherit from another
+ * definition and may nest instances of other definitions, up to configurable
+ * chain lengths; definitions are listed in shuffled order, so importers must
+ * order them by their dependencies.
+ *
+ * The same settings and seed always produce the same provider. Run the class
+ * directly, or through {@code ./gradlew :fixtures:generateTags}, to write a
+ * provider to disk; see {@link #main(String[])} for the options.
+ */
+public class SyntheticTagTreeGenerator {
+    /**
+     * The kinds of tag placed in the folder tree.
+     */
+    public enum TagKind {
+        MEMORY,
+        OPC,
+        EXPRESSION,
+        REFERENCE,
+        QUERY,
+        UDT_INSTANCE
+    }
+
+    private static final String[] DATA_TYPES = { "Int4", "Float8", "Boolean", "String" };
+    private static final String[] FOLDER_PREFIXES = { "Site", "Area", "Line", "Cell", "Unit" };
+    private static final String[] EQUIPMENT_NAMES = { "Motor", "Pump", "Valve", "Tank", "Conveyor", "Mixer",
+            "Compressor", "Fan", "Heater", "Sensor", "Filler", "Capper", "Boiler", "Chiller", "Press" };
+    private static final String[] MEMBER_NAMES = { "Speed", "Current", "Temperature", "Pressure", "Level",
+            "Flow", "Running", "Faulted", "Setpoint", "Mode", "Runtime", "Starts", "Position", "Vibration" };
+
+    private final Map<TagKind, Double> mix = new EnumMap<>(TagKind.class);
+    private long seed = 0;
+    private int tagCount = 1000;
+    private int depth = 3;
+    private int fanOut = 4;
+    private int udtTypes = 20;
+    private int inheritanceDepth = 2;
+    private int nestingDepth = 2;
+    private double alarmRatio = 0.05;
+    private double historyRatio = 0.2;
+    private double overrideRatio = 0.1;
+
+    public SyntheticTagTreeGenerator() {
+        mix.put(TagKind.MEMORY, 0.3);
+        mix.put(TagKind.OPC, 0.35);
+        mix.put(TagKind.EXPRESSION, 0.1);
+        mix.put(TagKind.REFERENCE, 0.05);
+        mix.put(TagKind.QUERY, 0.05);
+        mix.put(TagKind.UDT_INSTANCE, 0.15);
+    }
+
+    public SyntheticTagTreeGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the number of tags in the folder tree, counting each UDT instance as
+     * one tag and leaving out folders and UDT definitions.
+     */
+    public SyntheticTagTreeGenerator setTagCount(int tagCount) {
+        this.tagCount = requireAtLeast("tagCount", tagCount, 0);
+        return this;
+    }
+
+    /**
+     * Sets the number of folder levels above the tags. With a depth of 0 the
+     * tags sit at the provider root.
+     */
+    public SyntheticTagTreeGenerator setDepth(int depth) {
+        this.depth = requireAtLeast("depth", depth, 0);
+        return this;
+    }
+
+    /**
+     * Sets the number of subfolders in each folder above the bottom level.
+     */
+    public SyntheticTagTreeGenerator setFanOut(int fanOut) {
+        this.fanOut = requireAtLeast("fanOut", fanOut, 1);
+        return this;
+    }
+
+    /**
+     * Sets the number of UDT definitions. With none, UDT instances are left out
+     * of the mix.
+     */
+    public SyntheticTagTreeGenerator setUdtTypes(int udtTypes) {
+        this.udtTypes = requireAtLeast("udtTypes", udtTypes, 0);
+        return this;
+    }
+
+    /**
+     * Sets the longest chain of UDT definitions inheriting from one another,
+     * 0 for no inheritance.
+     */
+    public SyntheticTagTreeGenerator setInheritanceDepth(int inheritanceDepth) {
+        this.inheritanceDepth = requireAtLeast("inheritanceDepth", inheritanceDepth, 0);
+        return this;
+    }
+
+    /**
+     * Sets the deepest nesting of UDT instances inside UDT definitions, 0 for
+     * no nested instances.
+     */
+    public SyntheticTagTreeGenerator setNestingDepth(int nestingDepth) {
+        this.nestingDepth = requireAtLeast("nestingDepth", nestingDepth, 0);
+        return this;
+    }
+
+    /**
+     * Sets the relative weight of a kind of tag in the mix. Weights need not
+     * add up to 1.
+     */
+    public SyntheticTagTreeGenerator setMix(TagKind kind, double weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight of " + kind + " must not be negative");
+        }
+        mix.put(kind, weight);
+        return this;
+    }
+
+    /**
+     * Sets the fraction of atomic tags with an alarm.
+     */
+    public SyntheticTagTreeGenerator setAlarmRatio(double alarmRatio) {
+        this.alarmRatio = requireRatio("alarmRatio", alarmRatio);
+        return this;
+    }
+
+    /**
+     * Sets the fraction of atomic tags with history enabled.
+     */
+    public SyntheticTagTreeGenerator setHistoryRatio(double historyRatio) {
+        this.historyRatio = requireRatio("historyRatio", historyRatio);
+        return this;
+    }
+
+    /**
+     * Sets the fraction of UDT instances overriding one of their members.
+     */
+    public SyntheticTagTreeGenerator setOverrideRatio(double overrideRatio) {
+        this.overrideRatio = requireRatio("overrideRatio", overrideRatio);
+        return this;
+    }
+
+    /**
+     * Generates the provider.
+     *
+     * @return the provider in the shape of a provider root export, with
+     *         {@code _types_} as its first folder when there are UDT definitions
+     */
+    public JsonObject generate() {
+        Random random = new Random(seed);
+        JsonArray tags = new JsonArray();
+
+        List<UdtDefinition> definitions = generateDefinitions(random);
+        if (!definitions.isEmpty()) {
+            List<UdtDefinition> shuffled = new ArrayList<>(definitions);
+            Collections.shuffle(shuffled, random);
+
+            JsonObject types = folder("_types_");
+            for (UdtDefinition definition : shuffled) {
+                types.getAsJsonArray("tags").add(definition.json);
+            }
+            tags.add(types);
+        }
+
+        long leafFolders = (long) Math.pow(fanOut, depth);
+        int tagsPerLeaf = (int) Math.max(1, (tagCount + leafFolders - 1) / leafFolders);
+        Builder builder = new Builder(random, definitions, tagsPerLeaf);
+        if (depth == 0) {
+            builder.addTags(tags);
+        } else {
+            for (int i = 0; i < fanOut && builder.remaining > 0; i++) {
+                tags.add(builder.buildFolder(folderName(0, i), 1));
+            }
+        }
+
+        JsonObject root = new JsonObject();
+        root.add("tags", tags);
+        return root;
+    }
+
+    /**
+     * Generates the provider and writes it to disk in an export mode, replacing
+     * anything already at the path.
+     *
+     * @param path the file path for single file mode, otherwise the directory path
+     * @param mode the export mode to write
+     * @return the generated provider
+     */
+    public JsonObject writeTo(String path, ExportMode mode) throws IOException {
+        JsonObject tagsJson = generate();
+        TagExportImportStrategyFactory.getInstance().getStrategy(mode).writeTagsToDisk(tagsJson, path, true, false);
+        return tagsJson;
+    }
+
+    /**
+     * Writes a provider to disk. Options are given as {@code --name=value}:
+     * {@code output} (required), {@code mode} (an export mode code, default
+     * {@code individualFiles}), {@code seed}, {@code tags}, {@code depth},
+     * {@code fanOut}, {@code udtTypes}, {@code inheritanceDepth},
+     * {@code nestingDepth}, {@code alarmRatio}, {@code historyRatio},
+     * {@code overrideRatio}, and a weight per tag kind as
+     * {@code mix.<kind>}, e.g. {@code --mix.udt_instance=0.5}.
+     */
+    public static void main(String[] args) throws IOException {
+        SyntheticTagTreeGenerator generator = new SyntheticTagTreeGenerator();
+        String output = null;
+        ExportMode mode = ExportMode.INDIVIDUAL_FILES;
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+
+            if (name.startsWith("mix.")) {
+                generator.setMix(TagKind.valueOf(name.substring(4).toUpperCase()), Double.parseDouble(value));
+                continue;
+            }
+            switch (name) {
+                case "output":
+                    output = value;
+                    break;
+                case "mode":
+                    mode = ExportMode.fromCode(value);
+                    break;
+                case "seed":
+                    generator.setSeed(Long.parseLong(value));
+                    break;
+                case "tags":
+                    generator.setTagCount(Integer.parseInt(value));
+                    break;
+                case "depth":
+                    generator.setDepth(Integer.parseInt(value));
+                    break;
+                case "fanOut":
+                    generator.setFanOut(Integer.parseInt(value));
+                    break;
+                case "udtTypes":
+                    generator.setUdtTypes(Integer.parseInt(value));
+                    break;
+                case "inheritanceDepth":
+                    generator.setInheritanceDepth(Integer.parseInt(value));
+                    break;
+                case "nestingDepth":
+                    generator.setNestingDepth(Integer.parseInt(value));
+                    break;
+                case "alarmRatio":
+                    generator.setAlarmRatio(Double.parseDouble(value));
+                    break;
+                case "historyRatio":
+                    generator.setHistoryRatio(Double.parseDouble(value));
+                    break;
+                case "overrideRatio":
+                    generator.setOverrideRatio(Double.parseDouble(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+
+        if (output == null) {
+            throw new IllegalArgumentException("--output is required");
+        }
+
+        long start = System.currentTimeMillis();
+        generator.writeTo(output, mode);
+        System.out.println("Wrote " + generator.tagCount + " tags and " + generator.udtTypes + " UDT definitions to "
+                + output + " as " + mode.getDisplayName() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Generates the UDT library. Each definition only depends on definitions
+     * generated before it, so the library never has circular dependencies.
+     */
+    private List<UdtDefinition> generateDefinitions(Random random) {
+        List<UdtDefinition> definitions = new ArrayList<>();
+        for (int i = 0; i < udtTypes; i++) {
+            String name = EQUIPMENT_NAMES[i % EQUIPMENT_NAMES.length] + (i / EQUIPMENT_NAMES.length + 1);
+            UdtDefinition definition = new UdtDefinition(name);
+
+            JsonObject parameters = new JsonObject();
+            parameters.add("DeviceName", parameter("String", ""));
+            parameters.add("Index", parameter("Integer", 0));
+            definition.json.add("parameters", parameters);
+
+            // Inherit from an earlier definition whose chain has room to grow
+            if (inheritanceDepth > 0 && i > 0 && random.nextDouble() < 0.3) {
+                UdtDefinition parent = definitions.get(random.nextInt(i));
+                if (parent.inheritanceLevel < inheritanceDepth) {
+                    definition.json.addProperty("typeId", parent.name);
+                    definition.inheritanceLevel = parent.inheritanceLevel + 1;
+                    definition.nestingLevel = parent.nestingLevel;
+                    definition.members.addAll(parent.members);
+                }
+            }
+
+            JsonArray members = definition.json.getAsJsonArray("tags");
+            int memberCount = 3 + random.nextInt(6);
+            for (int m = 0; m < memberCount; m++) {
+                String memberName = MEMBER_NAMES[(i + m) % MEMBER_NAMES.length];
+                if (definition.members.contains(memberName)) {
+                    continue;
+                }
+                JsonObject member = random.nextBoolean()
+                        ? opcTag(memberName, "[{DeviceName}]" + memberName, random)
+                        : memoryTag(memberName, random);
+                members.add(member);
+                definition.members.add(memberName);
+            }
+
+            // Nest instances of earlier definitions that are shallow enough
+            if (nestingDepth > 0 && i > 0 && random.nextDouble() < 0.3) {
+                int nested = 1 + random.nextInt(2);
+                for (int n = 0; n < nested; n++) {
+                    UdtDefinition child = definitions.get(random.nextInt(i));
+                    if (child.nestingLevel >= nestingDepth) {
+                        continue;
+                    }
+                    JsonObject instance = udtInstance(child.name + "_" + n, child.name);
+                    instance.getAsJsonObject("parameters").add("DeviceName", parameter("String", "{DeviceName}"));
+                    members.add(instance);
+                    definition.nestingLevel = Math.max(definition.nestingLevel, child.nestingLevel + 1);
+                }
+            }
+            definitions.add(definition);
+        }
+        return definitions;
+    }
+
+    private static String folderName(int level, int index) {
+        return (level < FOLDER_PREFIXES.length ? FOLDER_PREFIXES[level] : "Folder") + (index + 1);
+    }
+
+    private static int requireAtLeast(String name, int value, int minimum) {
+        if (value < minimum) {
+            throw new IllegalArgumentException(name + " must be at least " + minimum);
+        }
+        return value;
+    }
+
+    private static double requireRatio(String name, double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+        return value;
+    }
+
+    private static JsonObject folder(String name) {
+        JsonObject folder = new JsonObject();
+        folder.addProperty("name", name);
+        folder.addProperty("tagType", "Folder");
+        folder.add("tags", new JsonArray());
+        return folder;
+    }
+
+    private static JsonObject atomicTag(String name, String valueSource, String dataType) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("name", name);
+        tag.addProperty("tagType", "AtomicTag");
+        tag.addProperty("valueSource", valueSource);
+        tag.addProperty("dataType", dataType);
+        return tag;
+    }
+
+    private static JsonObject memoryTag(String name, Random random) {
+        String dataType = DATA_TYPES[random.nextInt(DATA_TYPES.length)];
+        JsonObject tag = atomicTag(name, "memory", dataType);
+        switch (dataType) {
+            case "Int4":
+                tag.addProperty("value", random.nextInt(1000));
+                break;
+            case "Float8":
+                tag.addProperty("value", Math.round(random.nextDouble() * 10000) / 100.0);
+                break;
+            case "Boolean":
+                tag.addProperty("value", random.nextBoolean());
+                break;
+            default:
+                tag.addProperty("value", "Value " + random.nextInt(1000));
+                break;
+        }
+        return tag;
+    }
+
+    private static JsonObject opcTag(String name, String itemPath, Random random) {
+        JsonObject tag = atomicTag(name, "opc", DATA_TYPES[random.nextInt(DATA_TYPES.length)]);
+        tag.addProperty("opcServer", "Ignition OPC UA Server");
+        tag.addProperty("opcItemPath", "ns=1;s=" + itemPath);
+        return tag;
+    }
+
+    private static JsonObject udtInstance(String name, String typeId) {
+        JsonObject instance = new JsonObject();
+        instance.addProperty("name", name);
+        instance.addProperty("tagType", "UdtInstance");
+        instance.addProperty("typeId", typeId);
+        instance.add("parameters", new JsonObject());
+        return instance;
+    }
+
+    private static JsonObject parameter(String dataType, Object value) {
+        JsonObject parameter = new JsonObject();
+        parameter.addProperty("dataType", dataType);
+        if (value instanceof Number) {
+            parameter.addProperty("value", (Number) value);
+        } else {
+            parameter.addProperty("value", String.valueOf(value));
+        }
+        return parameter;
+    }
+
+    /**
+     * A generated UDT definition, with what is needed to keep its
+     * dependencies within the configured chain lengths.
+     */
+    private static class UdtDefinition {
+        private final String name;
+        private final JsonObject json;
+        private final List<String> members = new ArrayList<>();
+        private int inheritanceLevel;
+        private int nestingLevel;
+
+        UdtDefinition(String name) {
+            this.name = name;
+            this.json = new JsonObject();
+            json.addProperty("name", name);
+            json.addProperty("tagType", "UdtType");
+            json.add("tags", new JsonArray());
+        }
+    }
+
+    /**
+     * Builds the folder tree for one call to {@link #generate()}.
+     */
+    private class Builder {
+        private final Random random;
+        private final List<UdtDefinition> definitions;
+        private final int tagsPerLeaf;
+        private final double totalWeight;
+        private int remaining = tagCount;
+        private int deviceIndex;
+
+        Builder(Random random, List<UdtDefinition> definitions, int tagsPerLeaf) {
+            this.random = random;
+            this.definitions = definitions;
+            this.tagsPerLeaf = tagsPerLeaf;
+
+            double weight = 0;
+            for (Map.Entry<TagKind, Double> entry : mix.entrySet()) {
+                if (entry.getKey() != TagKind.UDT_INSTANCE || !definitions.isEmpty()) {
+                    weight += entry.getValue();
+                }
+            }
+            if (weight <= 0) {
+                throw new IllegalStateException("The tag mix has no kinds with a positive weight");
+            }
+            this.totalWeight = weight;
+        }
+
+        JsonObject buildFolder(String name, int level) {
+            JsonObject folder = folder(name);
+            JsonArray tags = folder.getAsJsonArray("tags");
+            if (level >= depth) {
+                addTags(tags);
+                return folder;
+            }
+
+            for (int i = 0; i < fanOut && remaining > 0; i++) {
+                tags.add(buildFolder(folderName(level, i), level + 1));
+            }
+            return folder;
+        }
+
+        void addTags(JsonArray tags) {
+            String previousTag = null;
+            for (int i = 0; i < tagsPerLeaf && remaining > 0; i++, remaining--) {
+                TagKind kind = pickKind();
+                JsonObject tag = buildTag(kind, i, previousTag);
+                if (tag.has("valueSource")) {
+                    previousTag = tag.get("name").getAsString();
+                    addExtras(tag);
+                }
+                tags.add(tag);
+            }
+        }
+
+        private TagKind pickKind() {
+            double pick = random.nextDouble() * totalWeight;
+            TagKind last = TagKind.MEMORY;
+            for (Map.Entry<TagKind, Double> entry : mix.entrySet()) {
+                if (entry.getKey() == TagKind.UDT_INSTANCE && definitions.isEmpty()) {
+                    continue;
+                }
+                last = entry.getKey();
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    return entry.getKey();
+                }
+            }
+            return last;
+        }
+
+        private JsonObject buildTag(TagKind kind, int index, String previousTag) {
+            switch (kind) {
+                case OPC:
+                    return opcTag("Opc" + index, "[Device" + (deviceIndex++ % 50) + "]Channel/Tag" + index, random);
+                case EXPRESSION: {
+                    JsonObject tag = atomicTag("Expr" + index, "expr", "Float8");
+                    tag.addProperty("expression",
+                            previousTag == null ? "now() % 1000" : "{[.]" + previousTag + "} * 2");
+                    return tag;
+                }
+                case REFERENCE: {
+                    JsonObject tag = atomicTag("Ref" + index, "reference", "Int4");
+                    tag.addProperty("sourceTagPath", previousTag == null ? "[System]Gateway/CurrentDateTime"
+                            : "[.]" + previousTag);
+                    return tag;
+                }
+                case QUERY: {
+                    JsonObject tag = atomicTag("Query" + index, "db", "Int4");
+                    tag.addProperty("datasource", "MES");
+                    tag.addProperty("query", "SELECT COUNT(*) FROM production WHERE line = " + index);
+                    return tag;
+                }
+                case UDT_INSTANCE:
+                    return buildInstance(index);
+                default:
+                    return memoryTag("Mem" + index, random);
+            }
+        }
+
+        private JsonObject buildInstance(int index) {
+            UdtDefinition definition = definitions.get(random.nextInt(definitions.size()));
+            JsonObject instance = udtInstance(definition.name + "_" + index, definition.name);
+            JsonObject parameters = instance.getAsJsonObject("parameters");
+            parameters.add("DeviceName", parameter("String", "Device" + (deviceIndex++ % 50)));
+            parameters.add("Index", parameter("Integer", index));
+
+            if (!definition.members.isEmpty() && random.nextDouble() < overrideRatio) {
+                JsonObject override = new JsonObject();
+                override.addProperty("name", definition.members.get(random.nextInt(definition.members.size())));
+                override.addProperty("tagType", "AtomicTag");
+                override.addProperty("documentation", "Overridden on " + instance.get("name").getAsString());
+                JsonArray overrides = new JsonArray();
+                overrides.add(override);
+                instance.add("tags", overrides);
+            }
+            return instance;
+        }
+
+        private void addExtras(JsonObject tag) {
+            if (random.nextDouble() < historyRatio) {
+                tag.addProperty("historyEnabled", true);
+                tag.addProperty("historyProvider", "Historian");
+            }
+            if (random.nextDouble() < alarmRatio) {
+                JsonObject alarm = new JsonObject();
+                alarm.addProperty("name", "High");
+                alarm.addProperty("mode", "AboveValue");
+                alarm.addProperty("setpointA", 90 + random.nextInt(10));
+                alarm.addProperty("priority", "High");
+                JsonArray alarms = new JsonArray();
+                alarms.add(alarm);
+                tag.add("alarms", alarms);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dev.bwdesigngroup.ignition.tag_cicd.fixtures;
+
+import java.util.Map;
+
+import com.inductiveautomation.ignition.common.config.BasicProperty;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonPrimitive;
+import com.inductiveautomation.ignition.common.tags.config.BasicTagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.config.types.TagObjectType;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+
+/**
+ * Builds SDK tag configuration models from tag JSON. This is the only place
+ * the fixtures construct SDK model types, so that the rest of the in-memory
+ * provider works purely on JSON.
+ */
+final class TagModelConverter {
+    private TagModelConverter() {
+    }
+
+    /**
+     * Converts a tag, and any children it has, to a configuration model.
+     *
+     * @param tagPath the path of the tag
+     * @param tagJson the tag JSON, including its name, tag type and children
+     */
+    static TagConfigurationModel toModel(TagPath tagPath, JsonObject tagJson) {
+        BasicTagConfigurationModel model = new BasicTagConfigurationModel(tagPath,
+                toTagObjectType(tagJson.get("tagType").getAsString()));
+
+        for (Map.Entry<String, JsonElement> entry : tagJson.entrySet()) {
+            String key = entry.getKey();
+            if ("name".equals(key) || "tagType".equals(key) || "tags".equals(key)) {
+                continue;
+            }
+            model.set(new BasicProperty<>(key, Object.class), toValue(entry.getValue()));
+        }
+
+        if (tagJson.has("tags")) {
+            for (JsonElement child : tagJson.getAsJsonArray("tags")) {
+                JsonObject childJson = child.getAsJsonObject();
+                model.addChild(toModel(tagPath.getChildPath(childJson.get("name").getAsString()), childJson));
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Returns the model a gateway reports for a path with no tag.
+     */
+    static TagConfigurationModel unknown(TagPath tagPath) {
+        return new BasicTagConfigurationModel(tagPath, TagObjectType.Unknown);
+    }
+
+    private static TagObjectType toTagObjectType(String tagType) {
+        try {
+            return TagObjectType.valueOf(tagType);
+        } catch (IllegalArgumentException e) {
+            return TagObjectType.Unknown;
+        }
+    }
+
+    /**
+     * Unwraps JSON primitives into Java values. Objects and arrays, such as
+     * UDT parameters and alarms, are kept as JSON.
+     */
+    private static Object toValue(JsonElement element) {
+        if (!element.isJsonPrimitive()) {
+            return element.deepCopy();
+        }
+
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isBoolean()) {
+            return primitive.getAsBoolean();
+        }
+        if (primitive.isNumber()) {
+            return primitive.getAsNumber();
+        }
+        return primitive.getAsString();
+    }
+}
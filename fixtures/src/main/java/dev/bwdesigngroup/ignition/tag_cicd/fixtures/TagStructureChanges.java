@@ -0,0 +1,84 @@
+package dev.bwdesigngroup.ignition.tag_cicd.fixtures;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.model.event.TagStructureEvent;
+
+/**
+ * Collects the tags that one call added, removed and changed, grouped by the
+ * folder holding them, so that each folder's structure listeners can be told
+ * once the call is done, as they are on a gateway.
+ */
+class TagStructureChanges {
+    private final Map<String, Event> events = new LinkedHashMap<>();
+
+    void added(TagPath tagPath) {
+        getEvent(tagPath).added.add(tagPath);
+    }
+
+    void removed(TagPath tagPath) {
+        getEvent(tagPath).removed.add(tagPath);
+    }
+
+    void changed(TagPath tagPath) {
+        getEvent(tagPath).changed.add(tagPath);
+    }
+
+    Collection<? extends TagStructureEvent> getEvents() {
+        return events.values();
+    }
+
+    /**
+     * Returns the key that a folder's listeners are kept under, ignoring case
+     * as tag paths do.
+     */
+    static String getKey(TagPath tagPath) {
+        StringBuilder key = new StringBuilder(tagPath.getSource().toLowerCase(Locale.ROOT)).append(':');
+        for (int i = 0; i < tagPath.getPathLength(); i++) {
+            key.append('/').append(tagPath.getPathComponent(i).toLowerCase(Locale.ROOT));
+        }
+        return key.toString();
+    }
+
+    private Event getEvent(TagPath tagPath) {
+        TagPath parentPath = tagPath.getParentPath();
+        return events.computeIfAbsent(getKey(parentPath), key -> new Event(parentPath));
+    }
+
+    private static class Event implements TagStructureEvent {
+        private final TagPath parentPath;
+        private final List<TagPath> added = new ArrayList<>();
+        private final List<TagPath> removed = new ArrayList<>();
+        private final List<TagPath> changed = new ArrayList<>();
+
+        Event(TagPath parentPath) {
+            this.parentPath = parentPath;
+        }
+
+        @Override
+        public TagPath getParentPath() {
+            return parentPath;
+        }
+
+        @Override
+        public List<TagPath> getAddedTags() {
+            return added;
+        }
+
+        @Override
+        public List<TagPath> getRemovedTags() {
+            return removed;
+        }
+
+        @Override
+        public List<TagPath> getChangedTags() {
+            return changed;
+        }
+    }
+}
@@ -18,4 +18,14 @@ dependencies {
     // Runtime dependencies provided by Ignition
     compileOnly(libs.ignition.common)  // Core Ignition classes
     compileOnly(libs.ignition.gateway.api)  // Gateway-specific API
+
+    // The fixtures bring the SDK at runtime, which a gateway would otherwise provide
+    testImplementation(projects.fixtures)
+    testImplementation(platform(libs.junit.bom))
+    testImplementation(libs.junit.jupiter)
+    testRuntimeOnly(libs.junit.platform.launcher)
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
\ No newline at end of file
@@ -1,23 +1,26 @@
 package dev.bwdesigngroup.ignition.tag_cicd.gateway;
 
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.nio.file.Path;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
-import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.BatchOperationService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.ContinuousExportService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.ExportETagCache;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.OperationHistoryService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.SourceFingerprintStore;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.SourceWatchService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.StartupImportService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.TagChangeMonitor;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.TagConfigStore;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.TagSubtreeCache;
 import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagExportRoutes;
 import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagImportRoutes;
 import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagConfigRoutes;
 import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagDeleteRoutes;
-import com.inductiveautomation.ignition.common.gson.Gson;
-import com.inductiveautomation.ignition.common.gson.JsonArray;
-import com.inductiveautomation.ignition.common.gson.JsonElement;
-import com.inductiveautomation.ignition.common.gson.JsonObject;
-import com.inductiveautomation.ignition.common.gson.JsonParser;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagHistoryRoutes;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagJobRoutes;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagMetricsRoutes;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagOperationRoutes;
 import com.inductiveautomation.ignition.common.licensing.LicenseState;
 import com.inductiveautomation.ignition.gateway.clientcomm.ClientReqSession;
 import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
@@ -28,68 +31,94 @@ public class TagCICDGatewayHook extends AbstractGatewayModuleHook {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
     public static GatewayContext context;
+    private TagConfigStore configStore;
+    private StartupImportService startupImportService;
+    private SourceWatchService sourceWatchService;
+    private TagChangeMonitor tagChangeMonitor;
+    private ContinuousExportService continuousExportService;
+    private OperationHistoryService historyService;
+    private ExportETagCache exportETagCache;
+    private TagSubtreeCache tagSubtreeCache;
+    private BatchOperationService batchOperationService;
 
     @Override
     public void setup(GatewayContext context) {
         logger.info("Setting up TagCICDGatewayHook");
         TagCICDGatewayHook.context = context;
+        this.configStore = new TagConfigStore();
+        this.configStore.start();
+        this.startupImportService = new StartupImportService(context, configStore, new SourceFingerprintStore());
+        this.sourceWatchService = new SourceWatchService(context, configStore);
+        this.tagChangeMonitor = new TagChangeMonitor(context.getTagManager());
+        this.continuousExportService = new ContinuousExportService(context, configStore, tagChangeMonitor);
+        this.historyService = new OperationHistoryService();
+        this.exportETagCache = new ExportETagCache(tagChangeMonitor);
+        this.tagSubtreeCache = new TagSubtreeCache(tagChangeMonitor);
+        this.batchOperationService = new BatchOperationService(context);
     }
 
     @Override
     public void startup(LicenseState activationState) {
         logger.info("Starting up TagCICDGatewayHook");
-        performInitialTagImport();
-    }
-
-    private void performInitialTagImport() {
-        Path configPath = Paths.get(TagCICDConstants.CONFIG_FILE_PATH);
-        if (!Files.exists(configPath)) {
-            logger.info(
-                    "No export-config.json found at " + configPath.toAbsolutePath() + ", skipping initial import.");
-            return;
-        }
-
-        try {
-            String configContent = new String(Files.readAllBytes(configPath));
-            JsonArray configArray = new JsonParser().parse(configContent).getAsJsonArray();
-
-            for (JsonElement element : configArray) {
-                JsonObject config = element.getAsJsonObject();
-                String sourcePath = config.get("sourcePath").getAsString();
-                String provider = config.get("provider").getAsString();
-                String baseTagPath = config.get("baseTagPath").getAsString();
-                String collisionPolicy = config.get("collisionPolicy").getAsString();
-                String exportMode = config.get("exportMode").getAsString();
-
-                logger.info("Importing tags from " + sourcePath + " to provider " + provider);
-                JsonObject result = TagImportUtilities.importTagsFromSource(
-                        context.getTagManager(), provider, baseTagPath, sourcePath,
-                        collisionPolicy, exportMode);
-                logger.info("Import result: " + result.toString());
-            }
-        } catch (Exception e) {
-            logger.error("Failed to perform initial tag import from " + configPath.toAbsolutePath(), e);
-        }
+        historyService.start();
+        batchOperationService.start();
+        startupImportService.start();
+        sourceWatchService.start();
+        continuousExportService.start();
     }
 
     @Override
     public void shutdown() {
         logger.info("Shutting down TagCICDGatewayHook");
+        if (continuousExportService != null) {
+            continuousExportService.shutdown();
+        }
+        if (batchOperationService != null) {
+            batchOperationService.shutdown();
+        }
+        if (exportETagCache != null) {
+            exportETagCache.shutdown();
+        }
+        if (tagSubtreeCache != null) {
+            tagSubtreeCache.shutdown();
+        }
+        if (tagChangeMonitor != null) {
+            tagChangeMonitor.shutdown();
+        }
+        if (sourceWatchService != null) {
+            sourceWatchService.shutdown();
+        }
+        if (startupImportService != null) {
+            startupImportService.shutdown();
+        }
+        if (historyService != null) {
+            historyService.shutdown();
+        }
+        if (configStore != null) {
+            configStore.shutdown();
+        }
     }
 
     @Override
     public void mountRouteHandlers(RouteGroup routes) {
         logger.info("Mounting route handlers for TagCICDGatewayHook");
-        new TagExportRoutes(context, routes).mountRoutes();
-        new TagImportRoutes(context, routes).mountRoutes();
+        new TagExportRoutes(context, routes, continuousExportService, exportETagCache,
+                tagSubtreeCache, batchOperationService).mountRoutes();
+        new TagImportRoutes(context, routes, startupImportService, sourceWatchService, batchOperationService)
+                .mountRoutes();
         new TagDeleteRoutes(context, routes).mountRoutes();
-        new TagConfigRoutes(context, routes).mountRoutes();
+        new TagJobRoutes(context, routes, configStore, batchOperationService).mountRoutes();
+        new TagConfigRoutes(context, routes, configStore).mountRoutes();
+        new TagMetricsRoutes(context, routes, startupImportService, sourceWatchService, continuousExportService)
+                .mountRoutes();
+        new TagHistoryRoutes(context, routes, historyService).mountRoutes();
+        new TagOperationRoutes(context, routes).mountRoutes();
     }
 
     @Override
     public Object getRPCHandler(ClientReqSession session, String projectName) {
         logger.debug("Creating RPC Handler for session: " + session.getId() + ", project: " + projectName);
-        return new TagCICDRPCHandler(context);
+        return new TagCICDRPCHandler(context, configStore, batchOperationService);
     }
 
     @Override
@@ -1,30 +1,38 @@
 package dev.bwdesigngroup.ignition.tag_cicd.gateway;
 
-import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
 import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
 import dev.bwdesigngroup.ignition.tag_cicd.common.TagCICDRPC;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.BatchOperationService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.TagConfigStore;
 import com.inductiveautomation.ignition.common.gson.Gson;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
-import com.inductiveautomation.ignition.common.gson.JsonParser;
 import com.inductiveautomation.ignition.gateway.model.GatewayContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 public class TagCICDRPCHandler implements TagCICDRPC {
     private static final Logger logger = LoggerFactory.getLogger(TagCICDRPCHandler.class.getName());
     private final GatewayContext context;
+    private final TagConfigStore configStore;
+    private final BatchOperationService batchOperationService;
     private final Gson gson = new Gson();
+    // The Designer stops waiting for a call after 30 seconds, so the gateway stops working on it then too
+    private final long timeoutMillis = Long.getLong(TagCICDConstants.RPC_TIMEOUT_PROPERTY,
+            TagCICDConstants.DEFAULT_RPC_TIMEOUT_MILLIS);
 
-    public TagCICDRPCHandler(GatewayContext context) {
+    public TagCICDRPCHandler(GatewayContext context, TagConfigStore configStore,
+            BatchOperationService batchOperationService) {
         this.context = context;
+        this.configStore = configStore;
+        this.batchOperationService = batchOperationService;
     }
 
     @Override
@@ -34,13 +42,18 @@ public class TagCICDRPCHandler implements TagCICDRPC {
         try {
             logger.info("RPC exportTags called: provider={}, baseTagPath={}, filePath={}, exportMode={}",
                     provider, baseTagPath, filePath, exportMode);
-            TagExportUtilities.exportTagsToDisk(context.getTagManager(), provider, baseTagPath, recursive,
-                    localPropsOnly, filePath, exportMode, deleteExisting, excludeUdtDefinitions);
+            JsonObject metrics;
+            try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_RPC);
+                    OperationMetrics.Scope deadline = OperationDeadline.start(null, timeoutMillis)) {
+                metrics = TagExportUtilities.exportTagsToDisk(context.getTagManager(), provider, baseTagPath,
+                        recursive, localPropsOnly, filePath, exportMode, deleteExisting, excludeUdtDefinitions);
+            }
             result.addProperty("success", true);
             result.addProperty("filePath", filePath);
             result.addProperty("exportMode", exportMode);
             result.addProperty("details", "Exported tags to " + filePath + " using " +
                     ExportMode.fromCode(exportMode).getDisplayName() + " mode");
+            result.add("metrics", metrics);
         } catch (Exception e) {
             logger.error("Error exporting tags: {}", e.getMessage(), e);
             result.addProperty("success", false);
@@ -56,8 +69,12 @@ public class TagCICDRPCHandler implements TagCICDRPC {
         try {
             logger.info("RPC importTags called: provider={}, baseTagPath={}, sourcePath={}, exportMode={}",
                     provider, baseTagPath, sourcePath, exportMode);
-            JsonObject importResult = TagImportUtilities.importTagsFromSource(context.getTagManager(), provider,
-                    baseTagPath, sourcePath, collisionPolicy, exportMode);
+            JsonObject importResult;
+            try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_RPC);
+                    OperationMetrics.Scope deadline = OperationDeadline.start(null, timeoutMillis)) {
+                importResult = TagImportUtilities.importTagsFromSource(context.getTagManager(), provider,
+                        baseTagPath, sourcePath, collisionPolicy, exportMode, ResultMode.SUMMARY);
+            }
             result.addProperty("success", true);
             result.addProperty("exportMode", exportMode);
             result.add("details", importResult);
@@ -65,26 +82,21 @@ public class TagCICDRPCHandler implements TagCICDRPC {
             logger.error("Error importing tags: {}", e.getMessage(), e);
             result.addProperty("success", false);
             result.addProperty("error", "Failed to import tags: " + e.getMessage());
+            OperationDeadline.CancelledException cancelled = OperationDeadline.findCancellation(e);
+            if (cancelled != null && cancelled.getPartialResult() != null) {
+                result.add("details", cancelled.getPartialResult());
+            }
         }
         return result.toString();
     }
 
     @Override
     public String getTagConfig() {
-        JsonArray result = new JsonArray();
-        Path configPath = Paths.get(TagCICDConstants.CONFIG_FILE_PATH);
-        if (!Files.exists(configPath)) {
-            logger.warn("No export-config.json found at {}", configPath.toAbsolutePath());
-            return result.toString();
-        }
-
-        try {
-            String configContent = new String(Files.readAllBytes(configPath));
-            result = new JsonParser().parse(configContent).getAsJsonArray();
-        } catch (Exception e) {
-            logger.error("Error retrieving tag config: {}", e.getMessage(), e);
+        TagConfigStore.Snapshot snapshot = configStore.getSnapshot();
+        if (!snapshot.exists()) {
+            logger.warn("No export-config.json found at {}", configStore.getConfigPath());
         }
-        return result.toString();
+        return snapshot.getJson();
     }
 
     @Override
@@ -101,42 +113,59 @@ public class TagCICDRPCHandler implements TagCICDRPC {
         return modesArray.toString();
     }
 
+    @Override
+    public String exportTagsBatch(String operationsJson, boolean deleteExisting) {
+        try (OperationMetrics.Scope deadline = OperationDeadline.start(null, timeoutMillis)) {
+            logger.info("RPC exportTagsBatch called: deleteExisting={}", deleteExisting);
+            return batchOperationService.exportTags(BatchOperationService.parseOperations(operationsJson),
+                    deleteExisting, OperationMetrics.CALLER_RPC).toString();
+        } catch (Exception e) {
+            logger.error("Error exporting batch of tags: {}", e.getMessage(), e);
+            return getErrorResult("Failed to export batch of tags: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String importTagsBatch(String operationsJson) {
+        try (OperationMetrics.Scope deadline = OperationDeadline.start(null, timeoutMillis)) {
+            logger.info("RPC importTagsBatch called");
+            return batchOperationService.importTags(BatchOperationService.parseOperations(operationsJson),
+                    ResultMode.SUMMARY, OperationMetrics.CALLER_RPC).toString();
+        } catch (Exception e) {
+            logger.error("Error importing batch of tags: {}", e.getMessage(), e);
+            return getErrorResult("Failed to import batch of tags: " + e.getMessage());
+        }
+    }
+
     @Override
     public String exportTagsFromConfig() {
         JsonObject result = new JsonObject();
-        Path configPath = Paths.get(TagCICDConstants.CONFIG_FILE_PATH);
-        if (!Files.exists(configPath)) {
-            logger.error("No export-config.json found at {}", configPath.toAbsolutePath());
+        TagConfigStore.Snapshot snapshot = configStore.getSnapshot();
+        if (!snapshot.exists()) {
+            logger.error("No export-config.json found at {}", configStore.getConfigPath());
             result.addProperty("success", false);
-            result.addProperty("error", "Config file not found at " + configPath.toAbsolutePath());
+            result.addProperty("error", "Config file not found at " + configStore.getConfigPath());
             return result.toString();
         }
 
-        try {
-            String configContent = new String(Files.readAllBytes(configPath));
-            JsonArray configArray = new JsonParser().parse(configContent).getAsJsonArray();
-            JsonObject exportResults = new JsonObject();
-
-            for (JsonElement element : configArray) {
-                JsonObject config = element.getAsJsonObject();
-                String filePath = config.get("sourcePath").getAsString();
-                String provider = config.get("provider").getAsString();
-                String baseTagPath = config.get("baseTagPath").getAsString();
-                String exportMode = config.get("exportMode").getAsString();
-                boolean excludeUdtDefinitions = config.has("excludeUdtDefinitions")
-                        ? config.get("excludeUdtDefinitions").getAsBoolean()
-                        : false;
+        try (OperationMetrics.Scope deadline = OperationDeadline.start(null, timeoutMillis)) {
+            logger.info("Exporting tags from {} config entries", snapshot.getEntries().size());
+            JsonObject batchResult = batchOperationService.exportTags(snapshot.getEntries(), true,
+                    OperationMetrics.CALLER_RPC);
 
-                logger.info("Exporting tags from config: filePath={}, provider={}, baseTagPath={}, exportMode={}",
-                        filePath, provider, baseTagPath, exportMode);
-
-                TagExportUtilities.exportTagsToDisk(context.getTagManager(), provider, baseTagPath, true, false,
-                        filePath, exportMode, true, excludeUdtDefinitions);
-
-                exportResults.addProperty(filePath, "Exported successfully using " +
-                        ExportMode.fromCode(exportMode).getDisplayName() + " mode");
+            JsonObject exportResults = new JsonObject();
+            for (JsonElement element : batchResult.getAsJsonArray("results")) {
+                JsonObject entryResult = element.getAsJsonObject();
+                String filePath = entryResult.get("sourcePath").getAsString();
+                if (entryResult.get("success").getAsBoolean()) {
+                    exportResults.addProperty(filePath, "Exported successfully using " +
+                            ExportMode.fromCode(entryResult.get("exportMode").getAsString()).getDisplayName()
+                            + " mode");
+                } else {
+                    exportResults.addProperty(filePath, "Failed: " + entryResult.get("error").getAsString());
+                }
             }
-            result.addProperty("success", true);
+            addBatchOutcome(result, batchResult, "Failed to export tags from config: ");
             result.add("details", exportResults);
         } catch (Exception e) {
             logger.error("Error exporting tags from config: {}", e.getMessage(), e);
@@ -149,36 +178,30 @@ public class TagCICDRPCHandler implements TagCICDRPC {
     @Override
     public String importTagsFromConfig() {
         JsonObject result = new JsonObject();
-        Path configPath = Paths.get(TagCICDConstants.CONFIG_FILE_PATH);
-        if (!Files.exists(configPath)) {
-            logger.error("No export-config.json found at {}", configPath.toAbsolutePath());
+        TagConfigStore.Snapshot snapshot = configStore.getSnapshot();
+        if (!snapshot.exists()) {
+            logger.error("No export-config.json found at {}", configStore.getConfigPath());
             result.addProperty("success", false);
-            result.addProperty("error", "Config file not found at " + configPath.toAbsolutePath());
+            result.addProperty("error", "Config file not found at " + configStore.getConfigPath());
             return result.toString();
         }
 
-        try {
-            String configContent = new String(Files.readAllBytes(configPath));
-            JsonArray configArray = new JsonParser().parse(configContent).getAsJsonArray();
-            JsonObject importResults = new JsonObject();
-
-            for (JsonElement element : configArray) {
-                JsonObject config = element.getAsJsonObject();
-                String sourcePath = config.get("sourcePath").getAsString();
-                String provider = config.get("provider").getAsString();
-                String baseTagPath = config.get("baseTagPath").getAsString();
-                String collisionPolicy = config.get("collisionPolicy").getAsString();
-                String exportMode = config.get("exportMode").getAsString();
-
-                logger.info("Importing tags from config: sourcePath={}, provider={}, baseTagPath={}, exportMode={}",
-                        sourcePath, provider, baseTagPath, exportMode);
+        try (OperationMetrics.Scope deadline = OperationDeadline.start(null, timeoutMillis)) {
+            logger.info("Importing tags from {} config entries", snapshot.getEntries().size());
+            JsonObject batchResult = batchOperationService.importTags(snapshot.getEntries(), ResultMode.SUMMARY,
+                    OperationMetrics.CALLER_RPC);
 
-                JsonObject importResult = TagImportUtilities.importTagsFromSource(context.getTagManager(), provider,
-                        baseTagPath, sourcePath, collisionPolicy, exportMode);
-
-                importResults.add(sourcePath, importResult);
+            JsonObject importResults = new JsonObject();
+            for (JsonElement element : batchResult.getAsJsonArray("results")) {
+                JsonObject entryResult = element.getAsJsonObject();
+                String sourcePath = entryResult.get("sourcePath").getAsString();
+                if (entryResult.get("success").getAsBoolean()) {
+                    importResults.add(sourcePath, entryResult.get("details"));
+                } else {
+                    importResults.addProperty(sourcePath, "Failed: " + entryResult.get("error").getAsString());
+                }
             }
-            result.addProperty("success", true);
+            addBatchOutcome(result, batchResult, "Failed to import tags from config: ");
             result.add("details", importResults);
         } catch (Exception e) {
             logger.error("Error importing tags from config: {}", e.getMessage(), e);
@@ -188,6 +211,24 @@ public class TagCICDRPCHandler implements TagCICDRPC {
         return result.toString();
     }
 
+    private static void addBatchOutcome(JsonObject result, JsonObject batchResult, String errorPrefix) {
+        boolean success = batchResult.get("success").getAsBoolean();
+        result.addProperty("success", success);
+        if (!success) {
+            int skipped = batchResult.get("skipped").getAsInt();
+            result.addProperty("error", errorPrefix + batchResult.get("failed").getAsInt() + " of "
+                    + batchResult.getAsJsonArray("results").size() + " entries failed"
+                    + (skipped > 0 ? " and " + skipped + " were skipped" : ""));
+        }
+    }
+
+    private static String getErrorResult(String error) {
+        JsonObject result = new JsonObject();
+        result.addProperty("success", false);
+        result.addProperty("error", error);
+        return result.toString();
+    }
+
     @Override
     public String getTagProviders() {
         JsonArray providersArray = new JsonArray();
@@ -204,16 +245,11 @@ public class TagCICDRPCHandler implements TagCICDRPC {
     @Override
     public String saveTagConfig(String configJson) {
         JsonObject result = new JsonObject();
-        Path configPath = Paths.get(TagCICDConstants.CONFIG_FILE_PATH);
 
         try {
-            // Ensure parent directories exist
-            Files.createDirectories(configPath.getParent());
-
-            // Write the configuration file
-            Files.write(configPath, configJson.getBytes());
+            configStore.save(configJson);
 
-            logger.info("Successfully saved tag configuration to {}", configPath);
+            logger.info("Successfully saved tag configuration to {}", configStore.getConfigPath());
             result.addProperty("success", true);
         } catch (Exception e) {
             logger.error("Error saving tag configuration: {}", e.getMessage(), e);
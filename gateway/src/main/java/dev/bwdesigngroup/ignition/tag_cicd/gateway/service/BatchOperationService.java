@@ -0,0 +1,562 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.SourceReadCache;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDeleteUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathLockManager;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagSubtreeSource;
+
+/**
+ * Runs a batch of exports or imports, each described like an entry of
+ * export-config.json, or a {@link TagJob}, on a bounded pool of worker
+ * threads.
+ *
+ * Operations on different providers run at the same time, so a batch takes
+ * about as long as its slowest provider. Operations on the same provider run
+ * one after another in the order given, so that an import of UDT definitions
+ * still completes before an import of their instances. Once an import fails,
+ * the imports after it on the same provider are skipped, since they may
+ * depend on it.
+ */
+public class BatchOperationService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchOperationService.class.getName());
+    private static final String STEP_SUCCEEDED = "SUCCEEDED";
+    private static final String STEP_FAILED = "FAILED";
+    private static final String STEP_SKIPPED = "SKIPPED";
+
+    private final GatewayContext context;
+    private final int maxConcurrency;
+    private ExecutorService executor;
+
+    public BatchOperationService(GatewayContext context) {
+        this.context = context;
+        this.maxConcurrency = Math.max(1, Integer.getInteger(TagCICDConstants.BATCH_MAX_CONCURRENCY_PROPERTY,
+                TagCICDConstants.DEFAULT_BATCH_MAX_CONCURRENCY));
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "tag-cicd-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void shutdown() {
+        if (executor != null) {
+            // Cancel the lanes still queued, so that no caller waits on them forever
+            for (Runnable queued : executor.shutdownNow()) {
+                if (queued instanceof Future) {
+                    ((Future<?>) queued).cancel(false);
+                }
+            }
+            executor = null;
+        }
+    }
+
+    /**
+     * Parses the operations of a batch from a JSON array in the same form as
+     * export-config.json. {@code filePath} is accepted in place of
+     * {@code sourcePath}, as in the export and import routes.
+     *
+     * @param json the JSON array of operations
+     * @return the operations, in the order given
+     * @throws IllegalArgumentException if the JSON is not an array of valid
+     *                                  operations
+     */
+    public static List<TagConfigEntry> parseOperations(String json) {
+        if (json == null || json.trim().isEmpty()) {
+            throw new IllegalArgumentException("Request body must contain a JSON array of operations");
+        }
+        JsonElement element = new JsonParser().parse(json);
+        if (!element.isJsonArray()) {
+            throw new IllegalArgumentException("Batch operations must be a JSON array");
+        }
+
+        List<TagConfigEntry> operations = new ArrayList<>();
+        for (JsonElement operation : element.getAsJsonArray()) {
+            if (!operation.isJsonObject()) {
+                throw new IllegalArgumentException("Each batch operation must be a JSON object");
+            }
+            JsonObject operationJson = operation.getAsJsonObject();
+            if (!operationJson.has("sourcePath") && operationJson.has("filePath")) {
+                operationJson = operationJson.deepCopy();
+                operationJson.add("sourcePath", operationJson.get("filePath"));
+            }
+            operations.add(TagConfigEntry.fromJson(operationJson));
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one operation");
+        }
+        return operations;
+    }
+
+    /**
+     * Exports every operation recursively to its source path.
+     *
+     * @param operations     the operations to export
+     * @param deleteExisting whether to delete existing files before each
+     *                       export
+     * @param caller         the caller to record in each operation's metrics
+     * @return the aggregated result, with each operation's metrics
+     */
+    public JsonObject exportTags(List<TagConfigEntry> operations, boolean deleteExisting, String caller)
+            throws InterruptedException {
+        return run(operations, caller, false, operation -> TagExportUtilities.exportTagsToDisk(context.getTagManager(),
+                operation.getProvider(), operation.getBaseTagPath(), true, false, operation.getSourcePath(),
+                operation.getExportMode(), deleteExisting, operation.isExcludeUdtDefinitions(),
+                operation.getPathFilter()));
+    }
+
+    /**
+     * Imports every operation from its source path. An import that fails
+     * skips the imports after it on the same provider.
+     *
+     * @param operations the operations to import
+     * @param resultMode how much of each import's result to return
+     * @param caller     the caller to record in each operation's metrics
+     * @return the aggregated result, with each operation's import result
+     */
+    public JsonObject importTags(List<TagConfigEntry> operations, ResultMode resultMode, String caller)
+            throws InterruptedException {
+        return run(operations, caller, true, operation -> TagImportUtilities.importTagsFromSource(
+                context.getTagManager(), operation.getProvider(), operation.getBaseTagPath(),
+                operation.getSourcePath(), operation.getCollisionPolicy(), operation.getExportMode(), resultMode,
+                operation.getPathFilter()));
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            throw new IllegalStateException("Batch operations are not available while the module is stopped");
+        }
+        return executor;
+    }
+
+    /**
+     * Runs the operations, one lane per provider.
+     *
+     * @param skipAfterFailure whether a failed operation skips the operations
+     *                         after it in its lane
+     */
+    JsonObject run(List<TagConfigEntry> operations, String caller, boolean skipAfterFailure, Operation operation)
+            throws InterruptedException {
+        ExecutorService executor = getExecutor();
+        long lockTimeout = TagPathLockManager.getInstance().getTimeoutMillis();
+        OperationDeadline deadline = OperationDeadline.current();
+        long startedAt = System.currentTimeMillis();
+        JsonObject[] results = new JsonObject[operations.size()];
+        Map<String, List<Integer>> lanes = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            lanes.computeIfAbsent(operations.get(i).getProvider().toLowerCase(Locale.ROOT),
+                    provider -> new ArrayList<>()).add(i);
+        }
+        logger.info("Running batch of {} operations on {} providers with at most {} at a time",
+                operations.size(), lanes.size(), maxConcurrency);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Integer> lane : lanes.values()) {
+            futures.add(executor.submit(() -> {
+                TagConfigEntry failed = null;
+                for (int index : lane) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    if (failed != null) {
+                        results[index] = skip(operations.get(index), failed);
+                        continue;
+                    }
+                    results[index] = runOperation(operations.get(index), caller, lockTimeout, deadline,
+                            operation);
+                    if (skipAfterFailure && !results[index].get("success").getAsBoolean()) {
+                        failed = operations.get(index);
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (CancellationException e) {
+                    // Left out of the results below as cancelled
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } catch (ExecutionException e) {
+            // Each operation catches its own failures, so this is unexpected
+            throw new IllegalStateException("Batch operation failed", e.getCause());
+        }
+
+        JsonArray resultsArray = new JsonArray();
+        int succeeded = 0;
+        int skipped = 0;
+        for (int i = 0; i < results.length; i++) {
+            JsonObject result = results[i];
+            if (result == null) {
+                // The lane was cancelled by a shutdown before reaching this operation
+                result = describe(operations.get(i));
+                result.addProperty("success", false);
+                result.addProperty("error", "Cancelled");
+            } else if (result.get("success").getAsBoolean()) {
+                succeeded++;
+            } else if (result.has("skipped")) {
+                skipped++;
+            }
+            resultsArray.add(result);
+        }
+
+        JsonObject response = new JsonObject();
+        response.addProperty("success", succeeded == results.length);
+        response.addProperty("succeeded", succeeded);
+        response.addProperty("failed", results.length - succeeded - skipped);
+        response.addProperty("skipped", skipped);
+        response.addProperty("providers", lanes.size());
+        response.addProperty("maxConcurrency", maxConcurrency);
+        response.addProperty("durationMs", System.currentTimeMillis() - startedAt);
+        response.add("results", resultsArray);
+        return response;
+    }
+
+    /**
+     * Runs the steps of a job on the worker pool, each once the steps it
+     * depends on have succeeded. A step whose dependency failed is skipped.
+     *
+     * The steps share what they read: the providers are checked once for the
+     * whole job, a source imported by more than one step is parsed once, and
+     * recursive exports of the same tags share one fetch until a step changes
+     * the tags of their provider.
+     *
+     * @param job        the job to run
+     * @param resultMode how much of each import's result to return
+     * @param caller     the caller to record in each step's metrics
+     * @return the aggregated result, with the result of each step in the order
+     *         given
+     */
+    public JsonObject runJob(TagJob job, ResultMode resultMode, String caller) throws InterruptedException {
+        ExecutorService executor = getExecutor();
+        job.validateProviders(context.getTagManager());
+        long lockTimeout = TagPathLockManager.getInstance().getTimeoutMillis();
+        OperationDeadline deadline = OperationDeadline.current();
+
+        long startedAt = System.currentTimeMillis();
+        List<TagJob.Step> steps = job.getSteps();
+        SourceReadCache sources = new SourceReadCache(job.getSharedSourcePaths());
+        JobSubtreeSource subtrees = new JobSubtreeSource();
+
+        Map<String, JsonObject> results = new HashMap<>();
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<TagJob.Step>> dependents = new HashMap<>();
+        for (TagJob.Step step : steps) {
+            pending.put(step.getId(), step.getDependsOn().size());
+            for (String dependency : step.getDependsOn()) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(step);
+            }
+        }
+        logger.info("Running job of {} steps with at most {} at a time", steps.size(), maxConcurrency);
+
+        CompletionService<JsonObject> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<JsonObject>, TagJob.Step> running = new HashMap<>();
+        for (TagJob.Step step : steps) {
+            if (step.getDependsOn().isEmpty()) {
+                running.put(completion.submit(
+                        () -> runStep(step, resultMode, caller, lockTimeout, deadline, sources, subtrees)), step);
+            }
+        }
+
+        try {
+            while (!running.isEmpty()) {
+                Future<JsonObject> future = completion.take();
+                TagJob.Step step = running.remove(future);
+                JsonObject result;
+                try {
+                    result = future.get();
+                } catch (CancellationException e) {
+                    result = describe(step);
+                    result.addProperty("state", STEP_FAILED);
+                    result.addProperty("error", "Cancelled");
+                } catch (ExecutionException e) {
+                    // Each step catches its own failures, so this is unexpected
+                    throw new IllegalStateException("Job step failed", e.getCause());
+                }
+                results.put(step.getId(), result);
+
+                boolean succeeded = STEP_SUCCEEDED.equals(result.get("state").getAsString());
+                for (TagJob.Step dependent : dependents.getOrDefault(step.getId(), List.of())) {
+                    if (!succeeded) {
+                        skip(dependent, step.getId(), results, dependents);
+                    } else if (pending.merge(dependent.getId(), -1, Integer::sum) == 0
+                            && !results.containsKey(dependent.getId())) {
+                        running.put(completion.submit(() -> runStep(dependent, resultMode, caller, lockTimeout,
+                                deadline, sources, subtrees)), dependent);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            running.keySet().forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        JsonArray stepsArray = new JsonArray();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put(STEP_SUCCEEDED, 0);
+        counts.put(STEP_FAILED, 0);
+        counts.put(STEP_SKIPPED, 0);
+        for (TagJob.Step step : steps) {
+            JsonObject result = results.get(step.getId());
+            counts.merge(result.get("state").getAsString(), 1, Integer::sum);
+            stepsArray.add(result);
+        }
+
+        JsonObject response = new JsonObject();
+        response.addProperty("success", counts.get(STEP_SUCCEEDED) == steps.size());
+        response.addProperty("succeeded", counts.get(STEP_SUCCEEDED));
+        response.addProperty("failed", counts.get(STEP_FAILED));
+        response.addProperty("skipped", counts.get(STEP_SKIPPED));
+        response.addProperty("maxConcurrency", maxConcurrency);
+        response.addProperty("durationMs", System.currentTimeMillis() - startedAt);
+        response.add("steps", stepsArray);
+        return response;
+    }
+
+    /**
+     * Marks a step and everything that depends on it as skipped.
+     */
+    private static void skip(TagJob.Step step, String failedId, Map<String, JsonObject> results,
+            Map<String, List<TagJob.Step>> dependents) {
+        if (results.containsKey(step.getId())) {
+            return;
+        }
+        JsonObject result = describe(step);
+        result.addProperty("state", STEP_SKIPPED);
+        result.addProperty("error", "Skipped since step '" + failedId + "' did not succeed");
+        results.put(step.getId(), result);
+        for (TagJob.Step dependent : dependents.getOrDefault(step.getId(), List.of())) {
+            skip(dependent, step.getId(), results, dependents);
+        }
+    }
+
+    private JsonObject runStep(TagJob.Step step, ResultMode resultMode, String caller, long lockTimeout,
+            OperationDeadline deadline, SourceReadCache sources, JobSubtreeSource subtrees) {
+        JsonObject result = describe(step);
+        long startedAt = System.currentTimeMillis();
+        GatewayTagManager tagManager = context.getTagManager();
+        TagConfigEntry entry = step.getEntry();
+        try (OperationMetrics.Scope scope = OperationMetrics.caller(caller);
+                OperationMetrics.Scope timeout = TagPathLockManager.timeout(lockTimeout);
+                OperationMetrics.Scope bound = OperationDeadline.bind(deadline);
+                SourceReadCache.Binding binding = sources.bind()) {
+            JsonObject details;
+            switch (step.getOperation()) {
+                case EXPORT:
+                    details = TagExportUtilities.exportTagsToDisk(tagManager, step.getProvider(), step.getTagPath(),
+                            step.isRecursive(), step.isLocalPropsOnly(), entry.getSourcePath(), entry.getExportMode(),
+                            step.isDeleteExisting(), entry.isExcludeUdtDefinitions(), entry.getPathFilter(),
+                            subtrees);
+                    break;
+                case IMPORT:
+                    subtrees.beginChange(step.getProvider());
+                    try {
+                        details = TagImportUtilities.importTagsFromSource(tagManager, step.getProvider(),
+                                step.getTagPath(), entry.getSourcePath(), entry.getCollisionPolicy(),
+                                entry.getExportMode(), resultMode, entry.getPathFilter());
+                    } finally {
+                        subtrees.endChange(step.getProvider());
+                    }
+                    break;
+                default:
+                    subtrees.beginChange(step.getProvider());
+                    try {
+                        details = TagDeleteUtilities.deleteTags(tagManager, step.getProvider(), step.getTagPath(),
+                                step.isRecursive());
+                    } finally {
+                        subtrees.endChange(step.getProvider());
+                    }
+                    break;
+            }
+            result.addProperty("state", STEP_SUCCEEDED);
+            result.add("details", details);
+        } catch (Exception e) {
+            logger.error("Job step '" + step.getId() + "' on provider " + step.getProvider() + " failed", e);
+            result.addProperty("state", STEP_FAILED);
+            result.addProperty("error", e.getMessage());
+            addPartialResult(result, e);
+        }
+        result.addProperty("durationMs", System.currentTimeMillis() - startedAt);
+        return result;
+    }
+
+    private static JsonObject describe(TagJob.Step step) {
+        JsonObject result = new JsonObject();
+        result.addProperty("id", step.getId());
+        result.addProperty("operation", step.getOperation().name().toLowerCase(Locale.ROOT));
+        result.addProperty("provider", step.getProvider());
+        result.addProperty(step.getOperation() == TagJob.Operation.DELETE ? "tagPath" : "baseTagPath",
+                step.getTagPath());
+        if (step.getEntry() != null) {
+            result.addProperty("sourcePath", step.getEntry().getSourcePath());
+            result.addProperty("exportMode", step.getEntry().getExportMode());
+        }
+        return result;
+    }
+
+    private static JsonObject describe(TagConfigEntry entry) {
+        JsonObject result = new JsonObject();
+        result.addProperty("provider", entry.getProvider());
+        result.addProperty("baseTagPath", entry.getBaseTagPath());
+        result.addProperty("sourcePath", entry.getSourcePath());
+        result.addProperty("exportMode", entry.getExportMode());
+        return result;
+    }
+
+    /**
+     * Describes an operation skipped since an operation before it on the same
+     * provider failed.
+     */
+    private static JsonObject skip(TagConfigEntry entry, TagConfigEntry failed) {
+        JsonObject result = describe(entry);
+        result.addProperty("success", false);
+        result.addProperty("skipped", true);
+        result.addProperty("error", "Skipped since the operation for " + failed.getSourcePath() + " on provider "
+                + failed.getProvider() + " failed");
+        return result;
+    }
+
+    private static JsonObject runOperation(TagConfigEntry entry, String caller, long lockTimeout,
+            OperationDeadline deadline, Operation operation) {
+        JsonObject result = describe(entry);
+        long startedAt = System.currentTimeMillis();
+        try (OperationMetrics.Scope scope = OperationMetrics.caller(caller);
+                OperationMetrics.Scope timeout = TagPathLockManager.timeout(lockTimeout);
+                OperationMetrics.Scope bound = OperationDeadline.bind(deadline)) {
+            JsonObject details = operation.run(entry);
+            result.addProperty("success", true);
+            result.add("details", details);
+        } catch (Exception e) {
+            logger.error("Batch operation on provider " + entry.getProvider() + " for " + entry.getSourcePath()
+                    + " failed", e);
+            result.addProperty("success", false);
+            result.addProperty("error", e.getMessage());
+            addPartialResult(result, e);
+        }
+        result.addProperty("durationMs", System.currentTimeMillis() - startedAt);
+        return result;
+    }
+
+    /**
+     * Adds what an import did before it was cancelled, or ran past the
+     * deadline of its request, to its failed result.
+     */
+    private static void addPartialResult(JsonObject result, Exception e) {
+        OperationDeadline.CancelledException cancelled = OperationDeadline.findCancellation(e);
+        if (cancelled != null && cancelled.getPartialResult() != null) {
+            result.add("details", cancelled.getPartialResult());
+        }
+    }
+
+    /**
+     * Shares the JSON of recursive exports between the export steps of a job.
+     * An export is only kept if no step changed the tags of its provider while
+     * it was fetched, and a step that changes them drops every export of the
+     * provider.
+     */
+    private static class JobSubtreeSource implements TagSubtreeSource {
+        private final Map<String, JsonObject> subtrees = new ConcurrentHashMap<>();
+        private final Map<String, long[]> changes = new HashMap<>();
+
+        @Override
+        public JsonObject getSubtree(GatewayTagManager tagManager, String provider, String tagPath,
+                boolean localPropsOnly) throws Exception {
+            String key = provider.toLowerCase(Locale.ROOT) + "|" + localPropsOnly + "|" + tagPath;
+            JsonObject subtree = subtrees.get(key);
+            if (subtree != null) {
+                OperationMetrics.current().increment(OperationMetrics.COUNTER_CACHE_HITS, 1);
+                return subtree;
+            }
+
+            OperationMetrics.current().increment(OperationMetrics.COUNTER_CACHE_MISSES, 1);
+            long generation = getGeneration(provider);
+            subtree = TagExportUtilities.exportTagsToJson(tagManager, provider, tagPath, true, localPropsOnly);
+            synchronized (changes) {
+                if (generation >= 0 && getGeneration(provider) == generation) {
+                    subtrees.put(key, subtree);
+                }
+            }
+            return subtree;
+        }
+
+        /**
+         * Returns a number that changes whenever a step starts or finishes
+         * changing the provider's tags, or -1 while one is changing them.
+         */
+        private long getGeneration(String provider) {
+            synchronized (changes) {
+                long[] change = changes.get(provider.toLowerCase(Locale.ROOT));
+                if (change == null) {
+                    return 0;
+                }
+                return change[1] > 0 ? -1 : change[0];
+            }
+        }
+
+        void beginChange(String provider) {
+            synchronized (changes) {
+                long[] change = changes.computeIfAbsent(provider.toLowerCase(Locale.ROOT), key -> new long[2]);
+                change[0]++;
+                change[1]++;
+                subtrees.keySet().removeIf(key -> key.startsWith(provider.toLowerCase(Locale.ROOT) + "|"));
+            }
+        }
+
+        void endChange(String provider) {
+            synchronized (changes) {
+                long[] change = changes.get(provider.toLowerCase(Locale.ROOT));
+                change[0]++;
+                change[1]--;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Operation {
+        JsonObject run(TagConfigEntry entry) throws Exception;
+    }
+}
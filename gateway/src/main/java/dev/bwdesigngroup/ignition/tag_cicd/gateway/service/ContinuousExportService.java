@@ -0,0 +1,319 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+
+/**
+ * Exports tag configuration changes for every configuration entry with
+ * {@code exportOnChange} enabled.
+ *
+ * Changes reported by the {@link TagChangeMonitor} are coalesced per entry:
+ * the entry is exported once no change has arrived for the debounce window, or
+ * once the maximum delay since its first pending change has passed. Only the
+ * files holding the changed tags are rewritten, and files whose content is
+ * unchanged are not touched.
+ */
+public class ContinuousExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ContinuousExportService.class.getName());
+
+    private final GatewayContext context;
+    private final TagConfigStore configStore;
+    private final TagChangeMonitor changeMonitor;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final Consumer<TagConfigStore.Snapshot> configListener = snapshot -> submit(this::refresh);
+    private final List<ExportedEntry> exportedEntries = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public ContinuousExportService(GatewayContext context, TagConfigStore configStore,
+            TagChangeMonitor changeMonitor) {
+        this.context = context;
+        this.configStore = configStore;
+        this.changeMonitor = changeMonitor;
+        this.debounceMillis = Long.getLong(TagCICDConstants.EXPORT_DEBOUNCE_PROPERTY,
+                TagCICDConstants.DEFAULT_EXPORT_DEBOUNCE_MILLIS);
+        this.maxDelayMillis = Long.getLong(TagCICDConstants.EXPORT_MAX_DELAY_PROPERTY,
+                TagCICDConstants.DEFAULT_EXPORT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Starts listening for tag changes, and re-registers the listeners whenever
+     * the configuration changes.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tag-cicd-continuous-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        configStore.addChangeListener(configListener);
+        submit(this::refresh);
+    }
+
+    /**
+     * Stops listening and discards any pending changes.
+     */
+    public synchronized void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+
+        configStore.removeChangeListener(configListener);
+        scheduler.shutdownNow();
+        scheduler = null;
+        synchronized (exportedEntries) {
+            for (ExportedEntry entry : exportedEntries) {
+                entry.registration.close();
+            }
+            exportedEntries.clear();
+        }
+    }
+
+    /**
+     * Returns the exported entries with their pending changes and the outcome
+     * of their last export.
+     */
+    public JsonObject getStatus() {
+        JsonObject status = new JsonObject();
+        status.addProperty("debounceMillis", debounceMillis);
+        status.addProperty("maxDelayMillis", maxDelayMillis);
+
+        JsonArray entriesArray = new JsonArray();
+        synchronized (exportedEntries) {
+            for (ExportedEntry entry : exportedEntries) {
+                entriesArray.add(entry.toJson());
+            }
+        }
+        status.add("entries", entriesArray);
+        return status;
+    }
+
+    /**
+     * Returns the number of changed tags waiting to be exported.
+     */
+    public int getQueueDepth() {
+        int pending = 0;
+        synchronized (exportedEntries) {
+            for (ExportedEntry entry : exportedEntries) {
+                pending += entry.pending.size();
+            }
+        }
+        return pending;
+    }
+
+    private synchronized void submit(Runnable task) {
+        if (scheduler != null) {
+            scheduler.execute(task);
+        }
+    }
+
+    /**
+     * Rebuilds every registration from the current configuration. Runs on the
+     * scheduler.
+     */
+    private void refresh() {
+        synchronized (exportedEntries) {
+            for (ExportedEntry entry : exportedEntries) {
+                entry.cancelFlush();
+                entry.registration.close();
+            }
+            exportedEntries.clear();
+        }
+
+        for (TagConfigEntry config : configStore.getSnapshot().getEntries()) {
+            if (!config.isExportOnChange()) {
+                continue;
+            }
+
+            ExportedEntry entry = new ExportedEntry(config);
+            try {
+                entry.registration = changeMonitor.watch(config.getProvider(), config.getBaseTagPath(),
+                        tagPath -> submit(() -> enqueue(entry, tagPath)));
+            } catch (Exception e) {
+                logger.error("Unable to listen for tag changes below [{}]{}: {}", config.getProvider(),
+                        config.getBaseTagPath(), e.getMessage(), e);
+                continue;
+            }
+
+            synchronized (exportedEntries) {
+                exportedEntries.add(entry);
+            }
+            logger.info("Exporting changes below [{}]{} to {}", config.getProvider(), config.getBaseTagPath(),
+                    config.getSourcePath());
+        }
+    }
+
+    private void enqueue(ExportedEntry entry, TagPath tagPath) {
+        String relativePath = entry.relativize(tagPath);
+        if (relativePath == null) {
+            return;
+        }
+
+        synchronized (exportedEntries) {
+            if (!exportedEntries.contains(entry)) {
+                return;
+            }
+            entry.pending.add(relativePath);
+
+            long now = System.currentTimeMillis();
+            if (entry.firstPendingAt == 0) {
+                entry.firstPendingAt = now;
+            }
+            entry.cancelFlush();
+
+            long delay = Math.min(debounceMillis, Math.max(0, entry.firstPendingAt + maxDelayMillis - now));
+            entry.flush = scheduler.schedule(() -> flush(entry), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Exports the pending changes of an entry. Runs on the scheduler.
+     */
+    private void flush(ExportedEntry entry) {
+        try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_CONTINUOUS_EXPORT)) {
+            exportPending(entry);
+        }
+    }
+
+    private void exportPending(ExportedEntry entry) {
+        List<String> changedTagPaths;
+        synchronized (exportedEntries) {
+            if (!exportedEntries.contains(entry) || entry.pending.isEmpty()) {
+                return;
+            }
+            changedTagPaths = new ArrayList<>(entry.pending);
+            entry.pending.clear();
+            entry.firstPendingAt = 0;
+            entry.flush = null;
+        }
+
+        TagConfigEntry config = entry.config;
+        long start = System.currentTimeMillis();
+        try {
+            TagExportUtilities.exportChangedTags(context.getTagManager(), config.getProvider(),
+                    config.getBaseTagPath(), config.getSourcePath(), config.getExportMode(), changedTagPaths,
+                    config.isExcludeUdtDefinitions(), config.getPathFilter());
+            entry.recordExport(changedTagPaths.size(), null);
+            entry.failures = 0;
+            logger.info("Exported {} changed tags to {} in {} ms", changedTagPaths.size(), config.getSourcePath(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Keep the changes and retry them, backing off after each failure in a row, unless a
+            // change that arrived during the export has already scheduled a flush
+            long retryDelay = Math.min(maxDelayMillis,
+                    Math.max(1, debounceMillis) << Math.min(entry.failures, 16));
+            synchronized (exportedEntries) {
+                entry.pending.addAll(changedTagPaths);
+                entry.failures++;
+                if (exportedEntries.contains(entry) && entry.flush == null) {
+                    entry.firstPendingAt = System.currentTimeMillis();
+                    entry.flush = scheduler.schedule(() -> flush(entry), retryDelay, TimeUnit.MILLISECONDS);
+                }
+            }
+            entry.recordExport(changedTagPaths.size(), e.getMessage());
+            logger.error("Failed to export changed tags to {}, retrying in {} ms: {}", config.getSourcePath(),
+                    retryDelay, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A configuration entry being exported, along with its pending changes.
+     */
+    private static class ExportedEntry {
+        private final TagConfigEntry config;
+        private final List<String> baseComponents = new ArrayList<>();
+        private final Set<String> pending = new LinkedHashSet<>();
+        private TagChangeMonitor.Registration registration;
+        private long firstPendingAt;
+        private ScheduledFuture<?> flush;
+        // Failed exports in a row, which set how long to wait before retrying
+        private int failures;
+        private volatile long lastExportAt;
+        private volatile int lastExportTags;
+        private volatile String lastError;
+
+        ExportedEntry(TagConfigEntry config) {
+            this.config = config;
+            for (String component : config.getBaseTagPath().split("/")) {
+                if (!component.isEmpty()) {
+                    baseComponents.add(component);
+                }
+            }
+        }
+
+        /**
+         * Returns a tag path relative to the entry's base tag path, or null if
+         * the tag is outside of it.
+         */
+        String relativize(TagPath tagPath) {
+            if (tagPath.getPathLength() < baseComponents.size()) {
+                return null;
+            }
+            for (int i = 0; i < baseComponents.size(); i++) {
+                if (!baseComponents.get(i).equalsIgnoreCase(tagPath.getPathComponent(i))) {
+                    return null;
+                }
+            }
+
+            List<String> relativeComponents = new ArrayList<>();
+            for (int i = baseComponents.size(); i < tagPath.getPathLength(); i++) {
+                relativeComponents.add(tagPath.getPathComponent(i));
+            }
+            return String.join("/", relativeComponents);
+        }
+
+        void cancelFlush() {
+            if (flush != null) {
+                flush.cancel(false);
+                flush = null;
+            }
+        }
+
+        void recordExport(int tags, String error) {
+            lastExportAt = System.currentTimeMillis();
+            lastExportTags = tags;
+            lastError = error;
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("provider", config.getProvider());
+            json.addProperty("baseTagPath", config.getBaseTagPath());
+            json.addProperty("sourcePath", config.getSourcePath());
+            json.addProperty("exportMode", config.getExportMode());
+            json.addProperty("pendingTags", pending.size());
+            if (lastExportAt > 0) {
+                json.addProperty("lastExportAt", lastExportAt);
+                json.addProperty("lastExportTags", lastExportTags);
+            }
+            if (lastError != null) {
+                json.addProperty("lastError", lastError);
+            }
+            return json;
+        }
+    }
+}
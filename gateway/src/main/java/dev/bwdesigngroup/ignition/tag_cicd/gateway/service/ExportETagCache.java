@@ -0,0 +1,253 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+
+/**
+ * Caches the ETag of each JSON export requested over HTTP, so that a client
+ * polling for changes can be answered with 304 Not Modified without running
+ * the export again.
+ *
+ * The ETag is the SHA-256 hash of the export's JSON. An entry is dropped as
+ * soon as the {@link TagChangeMonitor} reports a change at or below its base
+ * tag path, and the hash of an export that ran while a change came in is
+ * never cached. Entries subscribe to their provider's shared watch, so the
+ * hashes of exports that begin before the provider is watched are not cached
+ * either. The least recently used entries are dropped once more than
+ * {@value #MAX_ENTRIES} exports are cached.
+ */
+public class ExportETagCache {
+    private static final Logger logger = LoggerFactory.getLogger(ExportETagCache.class.getName());
+    private static final int MAX_ENTRIES = 64;
+
+    private final TagChangeMonitor tagChangeMonitor;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() <= MAX_ENTRIES) {
+                return false;
+            }
+            eldest.getValue().subscription.close();
+            return true;
+        }
+    };
+
+    public ExportETagCache(TagChangeMonitor tagChangeMonitor) {
+        this.tagChangeMonitor = tagChangeMonitor;
+    }
+
+    /**
+     * Returns the ETag of an export, if it is cached and no tag has changed
+     * since it was computed.
+     *
+     * @return the quoted ETag, or null
+     */
+    public String getETag(String provider, String baseTagPath, boolean recursive, boolean localPropsOnly) {
+        synchronized (entries) {
+            Entry entry = entries.get(getKey(provider, baseTagPath, recursive, localPropsOnly));
+            return entry != null ? entry.getETag() : null;
+        }
+    }
+
+    /**
+     * Starts watching for changes before an export runs, so that a change made
+     * while it runs keeps its hash from being cached.
+     *
+     * @return the computation to complete with the hash of the export
+     */
+    public Computation begin(String provider, String baseTagPath, boolean recursive, boolean localPropsOnly) {
+        provider = provider != null ? provider : TagConfigUtilities.DEFAULT_PROVIDER;
+        baseTagPath = normalize(baseTagPath);
+        String key = getKey(provider, baseTagPath, recursive, localPropsOnly);
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            Entry newEntry = new Entry();
+            newEntry.subscription = tagChangeMonitor.subscribe(provider, baseTagPath,
+                    tagPath -> newEntry.invalidate());
+            synchronized (entries) {
+                entry = entries.putIfAbsent(key, newEntry);
+                if (entry == null) {
+                    entry = newEntry;
+                }
+            }
+            if (entry != newEntry) {
+                newEntry.subscription.close();
+            }
+        }
+        // A change is only reported once the provider is watched, so the version is read after checking
+        boolean watched = entry.subscription.isReady();
+        return new Computation(key, entry, watched, entry.getVersion());
+    }
+
+    /**
+     * Stops watching for changes and drops every cached ETag.
+     */
+    public void shutdown() {
+        List<Entry> closed;
+        synchronized (entries) {
+            closed = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        for (Entry entry : closed) {
+            entry.subscription.close();
+        }
+    }
+
+    /**
+     * Checks an If-None-Match header against an ETag, using the weak
+     * comparison that RFC 7232 requires for it.
+     *
+     * @param ifNoneMatch the If-None-Match header, or null
+     * @param etag        the quoted ETag, or null
+     * @return whether the client already has the current export
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if ("*".equals(candidate) || etag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the digest an export's JSON is hashed with.
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String getKey(String provider, String baseTagPath, boolean recursive, boolean localPropsOnly) {
+        provider = provider != null ? provider : TagConfigUtilities.DEFAULT_PROVIDER;
+        return provider + "|" + normalize(baseTagPath) + "|" + recursive + "|" + localPropsOnly;
+    }
+
+    private static String normalize(String baseTagPath) {
+        if (baseTagPath == null) {
+            return "";
+        }
+        String normalized = baseTagPath.replaceAll("/+", "/");
+        if (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        if (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    /**
+     * An export whose hash is being computed.
+     */
+    public class Computation {
+        private final String key;
+        private final Entry entry;
+        private final boolean watched;
+        private final long version;
+
+        private Computation(String key, Entry entry, boolean watched, long version) {
+            this.key = key;
+            this.entry = entry;
+            this.watched = watched;
+            this.version = version;
+        }
+
+        /**
+         * Caches the hash of the export's JSON, unless a tag changed while the
+         * export ran.
+         *
+         * @param json the JSON of the export
+         * @return the quoted ETag of the export
+         */
+        public String complete(String json) {
+            MessageDigest digest = newDigest();
+            digest.update(json.getBytes(StandardCharsets.UTF_8));
+            return complete(digest);
+        }
+
+        /**
+         * Caches the hash of the export's JSON, unless a tag changed while the
+         * export ran.
+         *
+         * @param digest a digest from {@link #newDigest()} updated with the JSON of the export
+         * @return the quoted ETag of the export
+         */
+        public String complete(MessageDigest digest) {
+            StringBuilder etag = new StringBuilder("\"");
+            for (byte b : digest.digest()) {
+                etag.append(String.format("%02x", b));
+            }
+            etag.append('"');
+            if (!watched) {
+                logger.debug("Not caching the ETag of {} since its provider was not yet watched", key);
+            } else if (!entry.setETag(version, etag.toString())) {
+                logger.debug("Not caching the ETag of {} since its tags changed during the export", key);
+            }
+            return etag.toString();
+        }
+
+        /**
+         * Stops watching for changes if the export failed and nothing has been
+         * cached for it.
+         */
+        public void cancel() {
+            synchronized (entries) {
+                if (entry.getETag() == null && entries.remove(key, entry)) {
+                    entry.subscription.close();
+                }
+            }
+        }
+    }
+
+    private static class Entry {
+        private TagChangeMonitor.Subscription subscription;
+        private long version;
+        private String etag;
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized String getETag() {
+            return etag;
+        }
+
+        synchronized boolean setETag(long expectedVersion, String etag) {
+            if (version != expectedVersion) {
+                return false;
+            }
+            this.etag = etag;
+            return true;
+        }
+
+        synchronized void invalidate() {
+            version++;
+            etag = null;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.MetricsRegistry;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+
+/**
+ * Appends every completed operation to a JSON lines history, so that a slow
+ * or failed sync can be analyzed after the fact.
+ *
+ * Each line holds the operation's metrics as reported by
+ * {@link OperationMetrics#toJson()}, along with the time it completed. The
+ * active file is rotated once it reaches the maximum size, and the oldest
+ * rotated files are deleted so that at most the configured number of files
+ * are kept. Lines are written on a background thread so that operations never
+ * wait on the history.
+ */
+public class OperationHistoryService {
+    private static final Logger logger = LoggerFactory.getLogger(OperationHistoryService.class.getName());
+    private static final String ACTIVE_FILE_NAME = "history.jsonl";
+    private static final String ROTATED_FILE_PREFIX = "history-";
+    private static final String FILE_EXTENSION = ".jsonl";
+
+    private final Path historyDirectory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final Consumer<OperationMetrics> listener = this::record;
+
+    private ExecutorService writer;
+
+    public OperationHistoryService() {
+        this(Paths.get(TagCICDConstants.HISTORY_DIRECTORY_PATH));
+    }
+
+    public OperationHistoryService(Path historyDirectory) {
+        this.historyDirectory = historyDirectory;
+        this.maxFileBytes = Long.getLong(TagCICDConstants.HISTORY_MAX_FILE_BYTES_PROPERTY,
+                TagCICDConstants.DEFAULT_HISTORY_MAX_FILE_BYTES);
+        this.maxFiles = Math.max(1, Integer.getInteger(TagCICDConstants.HISTORY_MAX_FILES_PROPERTY,
+                TagCICDConstants.DEFAULT_HISTORY_MAX_FILES));
+    }
+
+    /**
+     * Starts recording completed operations.
+     */
+    public synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tag-cicd-operation-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MetricsRegistry.getInstance().addListener(listener);
+    }
+
+    /**
+     * Stops recording, after writing the operations already completed.
+     */
+    public synchronized void shutdown() {
+        if (writer == null) {
+            return;
+        }
+
+        MetricsRegistry.getInstance().removeListener(listener);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Timed out writing the operation history on shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    private synchronized void record(OperationMetrics metrics) {
+        if (writer == null) {
+            return;
+        }
+
+        JsonObject entry = metrics.toJson();
+        entry.addProperty("completedAt", System.currentTimeMillis());
+        String line = entry.toString();
+        writer.execute(() -> append(line));
+    }
+
+    /**
+     * Appends a line to the active file, rotating it first if it is full.
+     * Runs on the writer thread.
+     */
+    private void append(String line) {
+        Path activeFile = historyDirectory.resolve(ACTIVE_FILE_NAME);
+        try {
+            Files.createDirectories(historyDirectory);
+            if (Files.exists(activeFile) && Files.size(activeFile) >= maxFileBytes) {
+                rotate(activeFile);
+            }
+            try (BufferedWriter bufferedWriter = Files.newBufferedWriter(activeFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                bufferedWriter.write(line);
+                bufferedWriter.newLine();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write operation history to {}: {}", activeFile.toAbsolutePath(), e.getMessage(),
+                    e);
+        }
+    }
+
+    private void rotate(Path activeFile) throws IOException {
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        Path rotatedFile = historyDirectory.resolve(ROTATED_FILE_PREFIX + timestamp + FILE_EXTENSION);
+        for (int i = 1; Files.exists(rotatedFile); i++) {
+            rotatedFile = historyDirectory.resolve(ROTATED_FILE_PREFIX + timestamp + "-" + i + FILE_EXTENSION);
+        }
+        Files.move(activeFile, rotatedFile);
+
+        List<Path> rotatedFiles = listRotatedFiles();
+        for (int i = maxFiles - 1; i < rotatedFiles.size(); i++) {
+            logger.debug("Deleting old operation history file {}", rotatedFiles.get(i));
+            Files.deleteIfExists(rotatedFiles.get(i));
+        }
+    }
+
+    /**
+     * Returns the rotated history files, newest first.
+     */
+    private List<Path> listRotatedFiles() throws IOException {
+        try (Stream<Path> paths = Files.list(historyDirectory)) {
+            return paths
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(ROTATED_FILE_PREFIX) && name.endsWith(FILE_EXTENSION);
+                    })
+                    .sorted(Collections.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns the recorded operations matching the given filters, newest first.
+     *
+     * @param since     the earliest completion time to include, in milliseconds since the epoch, or null
+     * @param until     the latest completion time to include, in milliseconds since the epoch, or null
+     * @param provider  the provider to include, or null for all
+     * @param operation the operation to include, such as {@code import}, or null for all
+     * @param limit     the most operations to return
+     * @return the matching operations
+     * @throws IOException if the history cannot be read
+     */
+    public JsonArray query(Long since, Long until, String provider, String operation, int limit)
+            throws IOException {
+        JsonArray results = new JsonArray();
+        if (!Files.isDirectory(historyDirectory)) {
+            return results;
+        }
+
+        List<Path> files = new ArrayList<>();
+        files.add(historyDirectory.resolve(ACTIVE_FILE_NAME));
+        files.addAll(listRotatedFiles());
+
+        for (Path file : files) {
+            if (!Files.exists(file)) {
+                continue;
+            }
+            // A file last written before the start of the range holds nothing newer
+            if (since != null && Files.getLastModifiedTime(file).toMillis() < since) {
+                break;
+            }
+
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (int i = lines.size() - 1; i >= 0 && results.size() < limit; i--) {
+                JsonObject entry = parseEntry(lines.get(i));
+                if (entry != null && matches(entry, since, until, provider, operation)) {
+                    results.add(entry);
+                }
+            }
+            if (results.size() >= limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private static JsonObject parseEntry(String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonElement element = new JsonParser().parse(line);
+            return element.isJsonObject() ? element.getAsJsonObject() : null;
+        } catch (Exception e) {
+            // A line cut short by a crash is skipped
+            logger.debug("Skipping unreadable operation history line: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean matches(JsonObject entry, Long since, Long until, String provider, String operation) {
+        long completedAt = entry.has("completedAt") ? entry.get("completedAt").getAsLong() : 0;
+        if (since != null && completedAt < since) {
+            return false;
+        }
+        if (until != null && completedAt > until) {
+            return false;
+        }
+        if (provider != null && !(entry.has("provider") && provider.equals(entry.get("provider").getAsString()))) {
+            return false;
+        }
+        return operation == null || operation.equals(entry.get("operation").getAsString());
+    }
+}
@@ -0,0 +1,117 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.common.gson.Gson;
+import com.inductiveautomation.ignition.common.gson.GsonBuilder;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+
+/**
+ * Persists the fingerprint of each configuration entry's source tree as of its
+ * last successful import, so that unchanged sources can be skipped at startup.
+ */
+public class SourceFingerprintStore {
+    private static final Logger logger = LoggerFactory.getLogger(SourceFingerprintStore.class.getName());
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final Path storePath;
+    private JsonObject fingerprints;
+
+    public SourceFingerprintStore() {
+        this(Paths.get(TagCICDConstants.FINGERPRINT_FILE_PATH));
+    }
+
+    public SourceFingerprintStore(Path storePath) {
+        this.storePath = storePath;
+    }
+
+    /**
+     * Builds the key a configuration entry is stored under. Any change to the
+     * entry's target or import semantics produces a new key, forcing a re-import.
+     */
+    public static String getEntryKey(String provider, String baseTagPath, String sourcePath, String exportMode,
+            String collisionPolicy) {
+        return String.join("|", provider, baseTagPath, sourcePath, exportMode, collisionPolicy);
+    }
+
+    /**
+     * Returns the fingerprint recorded for the given entry's last successful
+     * import.
+     *
+     * @param entryKey the key from {@link #getEntryKey}
+     * @return the fingerprint, or null if none has been recorded
+     */
+    public synchronized String getFingerprint(String entryKey) {
+        JsonObject entry = load().getAsJsonObject(entryKey);
+        return entry != null && entry.has("fingerprint") ? entry.get("fingerprint").getAsString() : null;
+    }
+
+    /**
+     * Records the fingerprint of a successfully imported entry and persists the
+     * store to disk.
+     *
+     * @param entryKey    the key from {@link #getEntryKey}
+     * @param fingerprint the fingerprint of the source tree that was imported
+     */
+    public synchronized void putFingerprint(String entryKey, String fingerprint) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("fingerprint", fingerprint);
+        entry.addProperty("importedAt", System.currentTimeMillis());
+        load().add(entryKey, entry);
+        save();
+    }
+
+    /**
+     * Forgets the fingerprint of the given entry, so that its next startup
+     * import runs in full.
+     *
+     * @param entryKey the key from {@link #getEntryKey}
+     */
+    public synchronized void removeFingerprint(String entryKey) {
+        if (load().remove(entryKey) != null) {
+            save();
+        }
+    }
+
+    private JsonObject load() {
+        if (fingerprints != null) {
+            return fingerprints;
+        }
+
+        fingerprints = new JsonObject();
+        if (Files.exists(storePath)) {
+            try {
+                String content = new String(Files.readAllBytes(storePath), StandardCharsets.UTF_8);
+                JsonElement element = new JsonParser().parse(content);
+                if (element.isJsonObject()) {
+                    fingerprints = element.getAsJsonObject();
+                }
+            } catch (Exception e) {
+                logger.warn("Unable to read source fingerprints from {}, all entries will be imported: {}",
+                        storePath.toAbsolutePath(), e.getMessage());
+            }
+        }
+        return fingerprints;
+    }
+
+    private void save() {
+        try {
+            Files.createDirectories(storePath.toAbsolutePath().getParent());
+            Path tempPath = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+            Files.write(tempPath, gson.toJson(fingerprints).getBytes(StandardCharsets.UTF_8));
+            Files.move(tempPath, storePath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.error("Failed to save source fingerprints to {}", storePath.toAbsolutePath(), e);
+        }
+    }
+}
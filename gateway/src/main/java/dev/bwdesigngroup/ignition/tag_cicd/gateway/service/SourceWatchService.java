@@ -0,0 +1,498 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ImportResultCollector;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.SourceFingerprintUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+
+/**
+ * Watches the source path of every configuration entry with
+ * {@code watchSource} enabled and imports the files that change.
+ *
+ * Bursts of file events, such as a git checkout, are coalesced: an entry is
+ * imported once no new event has arrived for the debounce window, or once the
+ * maximum delay since its first pending change has passed. Only files whose
+ * content differs from what was last imported are handed to the entry's
+ * export mode strategy. All bookkeeping runs on a single scheduler thread.
+ */
+public class SourceWatchService {
+    private static final Logger logger = LoggerFactory.getLogger(SourceWatchService.class.getName());
+
+    private final GatewayContext context;
+    private final TagConfigStore configStore;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final Consumer<TagConfigStore.Snapshot> configListener = snapshot -> scheduleRefresh();
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final List<WatchedEntry> watchedEntries = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+    private WatchService watchService;
+
+    public SourceWatchService(GatewayContext context, TagConfigStore configStore) {
+        this.context = context;
+        this.configStore = configStore;
+        this.debounceMillis = Long.getLong(TagCICDConstants.WATCH_DEBOUNCE_PROPERTY,
+                TagCICDConstants.DEFAULT_WATCH_DEBOUNCE_MILLIS);
+        this.maxDelayMillis = Long.getLong(TagCICDConstants.WATCH_MAX_DELAY_PROPERTY,
+                TagCICDConstants.DEFAULT_WATCH_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Starts watching the configured sources, and re-registers the watches
+     * whenever the configuration changes.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tag-cicd-source-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        configStore.addChangeListener(configListener);
+        scheduleRefresh();
+    }
+
+    /**
+     * Stops watching and discards any pending changes.
+     */
+    public synchronized void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+
+        configStore.removeChangeListener(configListener);
+        scheduler.shutdownNow();
+        scheduler = null;
+        closeWatchService();
+    }
+
+    /**
+     * Returns the watched entries with their pending changes and the outcome of
+     * their last sync.
+     */
+    public JsonObject getStatus() {
+        JsonObject status = new JsonObject();
+        status.addProperty("debounceMillis", debounceMillis);
+        status.addProperty("maxDelayMillis", maxDelayMillis);
+
+        JsonArray entriesArray = new JsonArray();
+        synchronized (watchedEntries) {
+            for (WatchedEntry entry : watchedEntries) {
+                entriesArray.add(entry.toJson());
+            }
+        }
+        status.add("entries", entriesArray);
+        return status;
+    }
+
+    /**
+     * Returns the number of changed files waiting to be imported.
+     */
+    public int getQueueDepth() {
+        int pending = 0;
+        synchronized (watchedEntries) {
+            for (WatchedEntry entry : watchedEntries) {
+                pending += entry.pending.size();
+            }
+        }
+        return pending;
+    }
+
+    private synchronized void scheduleRefresh() {
+        if (scheduler != null) {
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    /**
+     * Rebuilds every watch from the current configuration. Runs on the scheduler.
+     */
+    private void refresh() {
+        closeWatchService();
+        synchronized (watchedEntries) {
+            for (WatchedEntry entry : watchedEntries) {
+                entry.cancelFlush();
+            }
+            watchedEntries.clear();
+        }
+
+        List<WatchedEntry> entries = new ArrayList<>();
+        for (TagConfigEntry config : configStore.getSnapshot().getEntries()) {
+            if (config.isWatchSource()) {
+                entries.add(new WatchedEntry(config));
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            logger.error("Unable to create a watch service, source changes will not be imported", e);
+            return;
+        }
+
+        for (WatchedEntry entry : entries) {
+            try {
+                if (entry.singleFile) {
+                    register(entry.root.getParent());
+                } else if (Files.isDirectory(entry.root)) {
+                    registerTree(entry.root);
+                } else {
+                    logger.warn("Source path {} is not a directory, it will not be watched", entry.root);
+                    continue;
+                }
+                synchronized (watchedEntries) {
+                    watchedEntries.add(entry);
+                }
+                logger.info("Watching {} for changes to import into [{}]{}", entry.root, entry.config.getProvider(),
+                        entry.config.getBaseTagPath());
+            } catch (IOException e) {
+                logger.error("Unable to watch source path {}: {}", entry.root, e.getMessage(), e);
+            }
+        }
+
+        WatchService service = watchService;
+        Thread watchThread = new Thread(() -> poll(service), "tag-cicd-source-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Error closing source watch service: {}", e.getMessage());
+            }
+            watchService = null;
+        }
+        watchedDirectories.clear();
+    }
+
+    private void register(Path directory) throws IOException {
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirectories.put(key, directory);
+    }
+
+    private void registerTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes)
+                    throws IOException {
+                if (isIgnored(directory)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                register(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Hands file events to the scheduler. Runs on its own thread until the
+     * watch service is closed by a refresh or shutdown.
+     */
+    private void poll(WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path directory = watchedDirectories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                WatchEvent.Kind<?> kind = event.kind();
+                Path changed = kind == StandardWatchEventKinds.OVERFLOW || directory == null ? null
+                        : directory.resolve((Path) event.context());
+                submit(() -> handleEvent(directory, kind, changed));
+            }
+
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+            }
+        }
+    }
+
+    private synchronized void submit(Runnable task) {
+        if (scheduler != null) {
+            scheduler.execute(task);
+        }
+    }
+
+    private void handleEvent(Path directory, WatchEvent.Kind<?> kind, Path changed) {
+        if (changed == null) {
+            // Events were lost, so re-import every entry under the directory in full
+            synchronized (watchedEntries) {
+                for (WatchedEntry entry : watchedEntries) {
+                    if (directory == null || entry.root.startsWith(directory) || directory.startsWith(entry.root)) {
+                        entry.fullImport = true;
+                        schedule(entry);
+                    }
+                }
+            }
+            return;
+        }
+        if (isIgnored(changed)) {
+            return;
+        }
+
+        List<Path> changedFiles = new ArrayList<>();
+        changedFiles.add(changed);
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+            // Files written into a new directory before it was registered produce no events of their own
+            try {
+                registerTree(changed);
+                try (Stream<Path> paths = Files.walk(changed)) {
+                    paths.filter(Files::isRegularFile).filter(path -> !isIgnored(path)).forEach(changedFiles::add);
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to watch new directory {}: {}", changed, e.getMessage());
+            }
+        }
+
+        synchronized (watchedEntries) {
+            for (WatchedEntry entry : watchedEntries) {
+                for (Path file : changedFiles) {
+                    String relativePath = entry.relativize(file);
+                    if (relativePath != null) {
+                        entry.pending.add(relativePath);
+                        schedule(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private void schedule(WatchedEntry entry) {
+        long now = System.currentTimeMillis();
+        if (entry.firstPendingAt == 0) {
+            entry.firstPendingAt = now;
+        }
+        entry.cancelFlush();
+
+        long delay = Math.min(debounceMillis, Math.max(0, entry.firstPendingAt + maxDelayMillis - now));
+        entry.flush = scheduler.schedule(() -> flush(entry), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Imports the pending changes of an entry. Runs on the scheduler.
+     */
+    private void flush(WatchedEntry entry) {
+        try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_WATCH)) {
+            importPending(entry);
+        }
+    }
+
+    private void importPending(WatchedEntry entry) {
+        List<String> changedFiles = new ArrayList<>();
+        boolean fullImport;
+        synchronized (watchedEntries) {
+            if (!watchedEntries.contains(entry)) {
+                return;
+            }
+            fullImport = entry.fullImport;
+            OperationMetrics diffCheck = OperationMetrics.begin("diffCheck", entry.config.getProvider(),
+                    entry.config.getExportMode());
+            try {
+                for (String relativePath : entry.pending) {
+                    if (fullImport || entry.hasChanged(relativePath)) {
+                        changedFiles.add(relativePath);
+                    }
+                }
+                diffCheck.increment(OperationMetrics.COUNTER_SOURCES_CHECKED, entry.pending.size());
+                diffCheck.increment(OperationMetrics.COUNTER_SOURCES_CHANGED, changedFiles.size());
+            } finally {
+                diffCheck.end();
+            }
+            entry.pending.clear();
+            entry.fullImport = false;
+            entry.firstPendingAt = 0;
+            entry.flush = null;
+        }
+
+        if (!fullImport && changedFiles.isEmpty()) {
+            logger.debug("Ignoring changes to {} with unchanged content", entry.root);
+            return;
+        }
+
+        TagConfigEntry config = entry.config;
+        long start = System.currentTimeMillis();
+        try {
+            JsonObject result;
+            if (fullImport) {
+                logger.info("Re-importing {} in full after file events were lost", entry.root);
+                result = TagImportUtilities.importTagsFromSource(context.getTagManager(), config.getProvider(),
+                        config.getBaseTagPath(), config.getSourcePath(), config.getCollisionPolicy(),
+                        config.getExportMode(), ResultMode.SUMMARY, config.getPathFilter());
+            } else {
+                result = TagImportUtilities.importChangedFiles(context.getTagManager(), config.getProvider(),
+                        config.getBaseTagPath(), config.getSourcePath(), changedFiles, config.getCollisionPolicy(),
+                        config.getExportMode(), ResultMode.SUMMARY, config.getPathFilter());
+            }
+            entry.recordSync(changedFiles.size(), (int) ImportResultCollector.countQualityCodes(result,
+                    ImportResultCollector.CREATED_TAGS, false), null);
+            logger.info("Imported {} changed files from {} in {} ms", changedFiles.size(), entry.root,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Forget the hashes so that the next change to these files is retried
+            synchronized (watchedEntries) {
+                entry.fileHashes.keySet().removeAll(changedFiles);
+            }
+            entry.recordSync(changedFiles.size(), 0, e.getMessage());
+            logger.error("Failed to import changes from {}: {}", entry.root, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Editor swap files and version control metadata are never imported.
+     */
+    private static boolean isIgnored(Path path) {
+        for (Path component : path) {
+            if (".git".equals(component.toString())) {
+                return true;
+            }
+        }
+        String name = path.getFileName().toString();
+        return name.endsWith(".tmp") || name.endsWith(".swp") || name.endsWith("~");
+    }
+
+    /**
+     * A configuration entry being watched, along with its pending changes and
+     * the content hash of each file as of its last import.
+     */
+    private class WatchedEntry {
+        private final TagConfigEntry config;
+        private final Path root;
+        private final boolean singleFile;
+        private final Set<String> pending = new LinkedHashSet<>();
+        private final Map<String, String> fileHashes = new HashMap<>();
+        private boolean fullImport;
+        private long firstPendingAt;
+        private ScheduledFuture<?> flush;
+        private volatile long lastSyncAt;
+        private volatile int lastSyncFiles;
+        private volatile int lastSyncBadQualityCodes;
+        private volatile String lastError;
+
+        WatchedEntry(TagConfigEntry config) {
+            this.config = config;
+            this.root = Paths.get(config.getSourcePath()).toAbsolutePath().normalize();
+            this.singleFile = ExportMode.SINGLE_FILE.getCode().equals(config.getExportMode());
+        }
+
+        /**
+         * Returns the path of a file relative to the source path, using '/'
+         * separators, or null if the file does not belong to this entry.
+         */
+        String relativize(Path file) {
+            if (singleFile) {
+                return file.equals(root) ? "" : null;
+            }
+            if (!file.startsWith(root) || file.equals(root)) {
+                return null;
+            }
+            return root.relativize(file).toString().replace('\\', '/');
+        }
+
+        boolean hasChanged(String relativePath) {
+            Path file = relativePath.isEmpty() ? root : root.resolve(relativePath);
+            if (Files.isDirectory(file)) {
+                // Its files were queued individually when it was created
+                return false;
+            }
+
+            String hash;
+            try {
+                hash = SourceFingerprintUtilities.computeFingerprint(file.toString());
+            } catch (IOException e) {
+                logger.debug("Unable to hash {}, treating it as changed: {}", file, e.getMessage());
+                fileHashes.remove(relativePath);
+                return true;
+            }
+
+            if (hash == null) {
+                fileHashes.keySet().removeIf(path -> path.equals(relativePath) || path.startsWith(relativePath + "/"));
+                return true;
+            }
+            return !hash.equals(fileHashes.put(relativePath, hash));
+        }
+
+        void cancelFlush() {
+            if (flush != null) {
+                flush.cancel(false);
+                flush = null;
+            }
+        }
+
+        void recordSync(int files, int badQualityCodes, String error) {
+            lastSyncAt = System.currentTimeMillis();
+            lastSyncFiles = files;
+            lastSyncBadQualityCodes = badQualityCodes;
+            lastError = error;
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("provider", config.getProvider());
+            json.addProperty("baseTagPath", config.getBaseTagPath());
+            json.addProperty("sourcePath", config.getSourcePath());
+            json.addProperty("exportMode", config.getExportMode());
+            json.addProperty("pendingFiles", pending.size());
+            if (lastSyncAt > 0) {
+                json.addProperty("lastSyncAt", lastSyncAt);
+                json.addProperty("lastSyncFiles", lastSyncFiles);
+                json.addProperty("lastSyncBadQualityCodes", lastSyncBadQualityCodes);
+            }
+            if (lastError != null) {
+                json.addProperty("lastError", lastError);
+            }
+            return json;
+        }
+    }
+}
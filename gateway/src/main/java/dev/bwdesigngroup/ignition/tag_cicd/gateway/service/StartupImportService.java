@@ -0,0 +1,451 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ImportResultCollector;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.SourceFingerprintUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+
+/**
+ * Runs the configured startup import on a background thread so that module
+ * startup, and with it gateway readiness, does not wait on the tag system.
+ * Progress for each configuration entry is tracked and exposed through
+ * {@link #getStatus()}. Entries whose source tree is byte-identical to the
+ * last successful import are skipped.
+ */
+public class StartupImportService {
+    private static final Logger logger = LoggerFactory.getLogger(StartupImportService.class.getName());
+    private static final long PROVIDER_POLL_INTERVAL_MS = 1000;
+    // How long a timed-out import has to stop after its deadline is cancelled
+    private static final long STOP_GRACE_MS = 30000;
+
+    public enum State {
+        IDLE, WAITING_FOR_PROVIDERS, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    public enum EntryState {
+        PENDING, RUNNING, SUCCEEDED, SKIPPED, FAILED, TIMED_OUT, CANCELLED
+    }
+
+    private final GatewayContext context;
+    private final TagConfigStore configStore;
+    private final SourceFingerprintStore fingerprintStore;
+    private final long entryTimeoutSeconds;
+    private final boolean waitForProviders;
+    private final long providerWaitSeconds;
+    private final boolean skipUnchanged;
+
+    private ExecutorService jobExecutor;
+    private ExecutorService importExecutor;
+
+    private State state = State.IDLE;
+    private long startedAt;
+    private long finishedAt;
+    private String error;
+    private final List<EntryStatus> entries = new ArrayList<>();
+    // Providers with a timed-out import that did not stop, whose later entries are skipped to keep their order
+    private final Set<String> stuckProviders = new LinkedHashSet<>();
+
+    public StartupImportService(GatewayContext context, TagConfigStore configStore,
+            SourceFingerprintStore fingerprintStore) {
+        this.context = context;
+        this.configStore = configStore;
+        this.fingerprintStore = fingerprintStore;
+        this.entryTimeoutSeconds = Long.getLong(TagCICDConstants.STARTUP_ENTRY_TIMEOUT_PROPERTY,
+                TagCICDConstants.DEFAULT_STARTUP_ENTRY_TIMEOUT_SECONDS);
+        this.waitForProviders = Boolean.getBoolean(TagCICDConstants.STARTUP_WAIT_FOR_PROVIDERS_PROPERTY);
+        this.providerWaitSeconds = Long.getLong(TagCICDConstants.STARTUP_PROVIDER_WAIT_PROPERTY,
+                TagCICDConstants.DEFAULT_STARTUP_PROVIDER_WAIT_SECONDS);
+        this.skipUnchanged = Boolean.parseBoolean(
+                System.getProperty(TagCICDConstants.STARTUP_SKIP_UNCHANGED_PROPERTY, "true"));
+    }
+
+    /**
+     * Starts the startup import in the background and returns immediately.
+     */
+    public synchronized void start() {
+        if (jobExecutor != null) {
+            logger.warn("Startup import has already been started");
+            return;
+        }
+
+        jobExecutor = Executors.newSingleThreadExecutor(namedThreadFactory("tag-cicd-startup-import"));
+        importExecutor = Executors.newCachedThreadPool(namedThreadFactory("tag-cicd-startup-import-worker"));
+        startedAt = System.currentTimeMillis();
+        jobExecutor.submit(this::run);
+    }
+
+    /**
+     * Stops the startup import, interrupting the entry currently being imported.
+     */
+    public synchronized void shutdown() {
+        if (jobExecutor == null) {
+            return;
+        }
+
+        if (state == State.RUNNING || state == State.WAITING_FOR_PROVIDERS) {
+            logger.info("Cancelling startup import on shutdown");
+            finish(State.CANCELLED, null);
+        }
+        jobExecutor.shutdownNow();
+        importExecutor.shutdownNow();
+    }
+
+    private void run() {
+        String loadError = configStore.getLoadError();
+        if (loadError != null) {
+            logger.error("Skipping initial import: {}", loadError);
+            finish(State.FAILED, loadError);
+            return;
+        }
+
+        TagConfigStore.Snapshot snapshot = configStore.getSnapshot();
+        if (!snapshot.exists()) {
+            logger.info(
+                    "No export-config.json found at " + configStore.getConfigPath() + ", skipping initial import.");
+            finish(State.COMPLETED, null);
+            return;
+        }
+
+        synchronized (this) {
+            for (TagConfigEntry config : snapshot.getEntries()) {
+                entries.add(new EntryStatus(config));
+            }
+        }
+
+        try {
+            if (waitForProviders && !awaitProviders()) {
+                return;
+            }
+
+            setState(State.RUNNING);
+            for (EntryStatus entry : entries) {
+                if (Thread.currentThread().isInterrupted() || isCancelled()) {
+                    entry.finish(EntryState.CANCELLED, null);
+                    continue;
+                }
+                if (stuckProviders.contains(entry.provider)) {
+                    logger.warn("Skipping import of {}, an earlier import to provider {} is still running",
+                            entry.sourcePath, entry.provider);
+                    entry.finish(EntryState.SKIPPED, "An earlier import to provider " + entry.provider
+                            + " timed out and is still running");
+                    continue;
+                }
+                importEntry(entry);
+            }
+            finish(State.COMPLETED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(State.CANCELLED, null);
+        } catch (Exception e) {
+            logger.error("Failed to perform initial tag import from " + configStore.getConfigPath(), e);
+            finish(State.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Blocks until every provider referenced by the configuration is registered
+     * with the tag manager, or the provider wait time elapses.
+     *
+     * @return true if the import should proceed
+     */
+    private boolean awaitProviders() throws InterruptedException {
+        setState(State.WAITING_FOR_PROVIDERS);
+        Set<String> pending = new LinkedHashSet<>();
+        for (EntryStatus entry : entries) {
+            pending.add(entry.provider);
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(providerWaitSeconds);
+        while (!pending.isEmpty()) {
+            pending.removeIf(provider -> context.getTagManager().getTagProvider(provider) != null);
+            if (pending.isEmpty()) {
+                break;
+            }
+            if (isCancelled()) {
+                return false;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                logger.warn("Tag providers {} were not ready after {} seconds, continuing with startup import",
+                        pending, providerWaitSeconds);
+                break;
+            }
+            Thread.sleep(PROVIDER_POLL_INTERVAL_MS);
+        }
+        return true;
+    }
+
+    private void importEntry(EntryStatus entry) throws InterruptedException {
+        entry.start();
+
+        String entryKey = SourceFingerprintStore.getEntryKey(entry.provider, entry.baseTagPath, entry.sourcePath,
+                entry.exportMode, entry.collisionPolicy);
+        if (!entry.pathFilter.isEmpty()) {
+            // A changed path filter imports different tags from the same source
+            entryKey += "|" + entry.pathFilter;
+        }
+        String fingerprint = null;
+        boolean unchanged;
+        OperationMetrics diffCheck = OperationMetrics.begin("diffCheck", entry.provider, entry.exportMode);
+        try {
+            // Fingerprint before importing, so that edits made during the import are picked up next time
+            fingerprint = SourceFingerprintUtilities.computeFingerprint(entry.sourcePath);
+        } catch (IOException e) {
+            logger.warn("Unable to fingerprint {}, importing it in full: {}", entry.sourcePath, e.getMessage());
+        } finally {
+            unchanged = fingerprint != null && fingerprint.equals(fingerprintStore.getFingerprint(entryKey));
+            diffCheck.increment(OperationMetrics.COUNTER_SOURCES_CHECKED, 1);
+            diffCheck.increment(OperationMetrics.COUNTER_SOURCES_CHANGED, unchanged ? 0 : 1);
+            diffCheck.end();
+        }
+
+        if (skipUnchanged && unchanged) {
+            logger.info("Skipping import of {} to provider {}, source is unchanged since the last import",
+                    entry.sourcePath, entry.provider);
+            entry.finish(EntryState.SKIPPED, null);
+            return;
+        }
+
+        logger.info("Importing tags from " + entry.sourcePath + " to provider " + entry.provider);
+        String operationId = "startup-" + UUID.randomUUID();
+        Future<JsonObject> future = importExecutor.submit(() -> {
+            try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_STARTUP);
+                    OperationMetrics.Scope deadline = OperationDeadline.start(operationId,
+                            TimeUnit.SECONDS.toMillis(entryTimeoutSeconds))) {
+                OperationMetrics metrics = OperationMetrics.begin("startupImport", entry.provider,
+                        entry.exportMode);
+                try {
+                    return TagImportUtilities.importTagsFromSource(context.getTagManager(), entry.provider,
+                            entry.baseTagPath, entry.sourcePath, entry.collisionPolicy, entry.exportMode,
+                            ResultMode.SUMMARY, entry.pathFilter);
+                } finally {
+                    metrics.end();
+                }
+            }
+        });
+        try {
+            JsonObject result = future.get(entryTimeoutSeconds, TimeUnit.SECONDS);
+            long badQualityCodes = ImportResultCollector.countQualityCodes(result,
+                    ImportResultCollector.CREATED_TAGS, false);
+            logger.info("Imported {} tags from {} ({} not Good)",
+                    ImportResultCollector.countQualityCodes(result, ImportResultCollector.CREATED_TAGS, true)
+                            + badQualityCodes,
+                    entry.sourcePath, badQualityCodes);
+            logger.debug("Import result: {}", result);
+            if (fingerprint != null && badQualityCodes == 0) {
+                fingerprintStore.putFingerprint(entryKey, fingerprint);
+            } else {
+                // A partially applied import must be retried on the next startup
+                fingerprintStore.removeFingerprint(entryKey);
+            }
+            entry.finish(EntryState.SUCCEEDED, null);
+        } catch (TimeoutException e) {
+            // Stop the import at its next call to the tag system, so that it gives up its scheduler slot and
+            // path lock, rather than leaving it running in the background
+            OperationDeadline.cancel(operationId);
+            if (!awaitStopped(future)) {
+                future.cancel(true);
+                stuckProviders.add(entry.provider);
+                logger.error("Startup import of {} did not stop within {} ms of timing out, skipping the later "
+                        + "entries for provider {}", entry.sourcePath, STOP_GRACE_MS, entry.provider);
+            }
+            fingerprintStore.removeFingerprint(entryKey);
+            logger.error("Startup import of {} timed out after {} seconds", entry.sourcePath, entryTimeoutSeconds);
+            entry.finish(EntryState.TIMED_OUT, "Timed out after " + entryTimeoutSeconds + " seconds");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            fingerprintStore.removeFingerprint(entryKey);
+            OperationDeadline.CancelledException cancelled = OperationDeadline.findCancellation(cause);
+            if (cancelled != null && cancelled.isTimedOut()) {
+                logger.error("Startup import of {} timed out after {} seconds", entry.sourcePath,
+                        entryTimeoutSeconds);
+                entry.finish(EntryState.TIMED_OUT, "Timed out after " + entryTimeoutSeconds + " seconds");
+                return;
+            }
+            logger.error("Startup import of " + entry.sourcePath + " failed", cause);
+            entry.finish(EntryState.FAILED, cause.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a cancelled import to stop, so that the next entry for its
+     * provider does not run alongside it.
+     *
+     * @return whether the import stopped within the grace period
+     */
+    private boolean awaitStopped(Future<JsonObject> future) throws InterruptedException {
+        try {
+            future.get(STOP_GRACE_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            // The import stopped by failing, as it does when cancelled
+        }
+        return true;
+    }
+
+    private synchronized boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    private synchronized void setState(State state) {
+        if (this.state != State.CANCELLED) {
+            this.state = state;
+        }
+    }
+
+    private synchronized void finish(State state, String error) {
+        if (this.state == State.CANCELLED) {
+            return;
+        }
+        this.state = state;
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        logger.info("Startup import finished with state {}", state);
+    }
+
+    /**
+     * Returns the current progress of the startup import.
+     *
+     * @return a JsonObject describing the job state and the state of each entry
+     */
+    public synchronized JsonObject getStatus() {
+        JsonObject status = new JsonObject();
+        status.addProperty("state", state.name());
+        status.addProperty("waitForProviders", waitForProviders);
+        status.addProperty("skipUnchanged", skipUnchanged);
+        status.addProperty("entryTimeoutSeconds", entryTimeoutSeconds);
+        if (startedAt > 0) {
+            status.addProperty("startedAt", startedAt);
+        }
+        if (finishedAt > 0) {
+            status.addProperty("finishedAt", finishedAt);
+        }
+        if (error != null) {
+            status.addProperty("error", error);
+        }
+
+        JsonArray entriesArray = new JsonArray();
+        int completed = 0;
+        for (EntryStatus entry : entries) {
+            if (entry.state != EntryState.PENDING && entry.state != EntryState.RUNNING) {
+                completed++;
+            }
+            if (entry.state == EntryState.RUNNING) {
+                status.addProperty("currentEntry", entry.sourcePath);
+            }
+            entriesArray.add(entry.toJson());
+        }
+        status.addProperty("totalEntries", entries.size());
+        status.addProperty("completedEntries", completed);
+        status.add("entries", entriesArray);
+        return status;
+    }
+
+    /**
+     * Returns the number of entries waiting to be imported.
+     */
+    public synchronized int getQueueDepth() {
+        int pending = 0;
+        for (EntryStatus entry : entries) {
+            if (entry.state == EntryState.PENDING) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    private static ThreadFactory namedThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Progress of a single configuration entry.
+     */
+    private class EntryStatus {
+        private final String sourcePath;
+        private final String provider;
+        private final String baseTagPath;
+        private final String collisionPolicy;
+        private final String exportMode;
+        private final TagPathFilter pathFilter;
+        private volatile EntryState state = EntryState.PENDING;
+        private volatile long startedAt;
+        private volatile long durationMs;
+        private volatile String error;
+
+        EntryStatus(TagConfigEntry config) {
+            this.sourcePath = config.getSourcePath();
+            this.provider = config.getProvider();
+            this.baseTagPath = config.getBaseTagPath();
+            this.collisionPolicy = config.getCollisionPolicy();
+            this.exportMode = config.getExportMode();
+            this.pathFilter = config.getPathFilter();
+        }
+
+        void start() {
+            synchronized (StartupImportService.this) {
+                state = EntryState.RUNNING;
+                startedAt = System.currentTimeMillis();
+            }
+        }
+
+        void finish(EntryState state, String error) {
+            synchronized (StartupImportService.this) {
+                this.state = state;
+                this.error = error;
+                if (startedAt > 0) {
+                    this.durationMs = System.currentTimeMillis() - startedAt;
+                }
+            }
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("sourcePath", sourcePath);
+            json.addProperty("provider", provider);
+            json.addProperty("baseTagPath", baseTagPath);
+            json.addProperty("exportMode", exportMode);
+            json.addProperty("state", state.name());
+            if (state != EntryState.PENDING) {
+                json.addProperty("durationMs", state == EntryState.RUNNING
+                        ? System.currentTimeMillis() - startedAt
+                        : durationMs);
+            }
+            if (error != null) {
+                json.addProperty("error", error);
+            }
+            return json;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.model.event.TagStructureEvent;
+import com.inductiveautomation.ignition.common.tags.model.event.TagStructureListener;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+/**
+ * Reports tag configuration changes below a base tag path.
+ *
+ * Structure listeners only report the direct children of the folder they are
+ * registered on, so a listener is kept on every folder of the watched subtree
+ * and folders are added and dropped as they are created and deleted. Folders
+ * are listed one level at a time, so the members of UDTs are never fetched.
+ *
+ * Added and removed tags are reported straight away, while the listeners of
+ * added and removed folders are updated on a thread of the monitor, in the
+ * order the changes were reported, rather than on the thread that delivered
+ * the change.
+ *
+ * Caches that watch a provider for as long as the gateway runs subscribe to
+ * it instead, sharing a single registration on the provider root that is
+ * made on a thread of the monitor when the first of them subscribes, so that
+ * no request waits for the provider to be listed.
+ */
+public class TagChangeMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(TagChangeMonitor.class.getName());
+
+    private final GatewayTagManager tagManager;
+    private final List<Registration> registrations = new ArrayList<>();
+    private final Map<String, ProviderWatch> providerWatches = new HashMap<>();
+    private final ExecutorService executor;
+
+    public TagChangeMonitor(GatewayTagManager tagManager) {
+        this.tagManager = tagManager;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tag-cicd-tag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts reporting changes at or below a base tag path.
+     *
+     * @param provider    the tag provider
+     * @param baseTagPath the base tag path, empty for the provider root
+     * @param listener    called with the path of each added, removed or changed tag
+     * @return a registration that stops the reports when closed
+     */
+    public Registration watch(String provider, String baseTagPath, Consumer<TagPath> listener) {
+        Registration registration = new Registration(provider, listener);
+        registration.addFolderTree(toTagPath(provider, baseTagPath));
+        synchronized (registrations) {
+            registrations.add(registration);
+        }
+        return registration;
+    }
+
+    /**
+     * Starts reporting changes at or below a base tag path through the shared
+     * registration of its provider, which is made in the background on the
+     * first subscription and closed with the last. Nothing is reported until
+     * the subscription is ready, so a cache may only keep what it computed
+     * after {@link Subscription#isReady()} was true.
+     *
+     * @param provider    the tag provider
+     * @param baseTagPath the base tag path, empty for the provider root
+     * @param listener    called with the path of each added, removed or changed tag
+     * @return a subscription that stops the reports when closed
+     */
+    public Subscription subscribe(String provider, String baseTagPath, Consumer<TagPath> listener) {
+        String providerKey = provider.toLowerCase(Locale.ROOT);
+        ProviderWatch providerWatch;
+        Subscription subscription;
+        boolean created = false;
+        synchronized (providerWatches) {
+            providerWatch = providerWatches.get(providerKey);
+            if (providerWatch == null) {
+                providerWatch = new ProviderWatch(provider, providerKey);
+                providerWatches.put(providerKey, providerWatch);
+                created = true;
+            }
+            subscription = new Subscription(providerWatch, baseTagPath, listener);
+            providerWatch.subscriptions.add(subscription);
+        }
+        if (created) {
+            ProviderWatch newWatch = providerWatch;
+            try {
+                executor.execute(newWatch::register);
+            } catch (RejectedExecutionException e) {
+                // The monitor is shutting down, so the subscription is never ready
+            }
+        }
+        return subscription;
+    }
+
+    /**
+     * Closes every open registration, and stops updating their listeners.
+     */
+    public void shutdown() {
+        synchronized (providerWatches) {
+            for (ProviderWatch providerWatch : providerWatches.values()) {
+                providerWatch.ready = false;
+            }
+            providerWatches.clear();
+        }
+        List<Registration> open;
+        synchronized (registrations) {
+            open = new ArrayList<>(registrations);
+        }
+        for (Registration registration : open) {
+            registration.close();
+        }
+        executor.shutdownNow();
+    }
+
+    private static TagPath toTagPath(String provider, String tagPath) {
+        List<String> pathComponents = new ArrayList<>();
+        if (tagPath != null && !tagPath.isEmpty()) {
+            pathComponents.addAll(List.of(tagPath.split("/")));
+        }
+        return new BasicTagPath(provider, pathComponents);
+    }
+
+    private static boolean isAtOrBelow(String tagPath, String basePath) {
+        return basePath.isEmpty() || tagPath.equals(basePath) || tagPath.startsWith(basePath + "/");
+    }
+
+    private static boolean isFolder(JsonObject tagJson) {
+        return tagJson.has("tagType") && "Folder".equals(tagJson.get("tagType").getAsString());
+    }
+
+    private static String toPathString(TagPath tagPath) {
+        List<String> pathComponents = new ArrayList<>();
+        for (int i = 0; i < tagPath.getPathLength(); i++) {
+            pathComponents.add(tagPath.getPathComponent(i));
+        }
+        return String.join("/", pathComponents);
+    }
+
+    /**
+     * The structure listeners registered for one watched subtree.
+     */
+    public final class Registration implements AutoCloseable {
+        private final String provider;
+        private final Consumer<TagPath> listener;
+        private final Map<String, FolderListener> folderListeners = new HashMap<>();
+        private boolean closed;
+
+        private Registration(String provider, Consumer<TagPath> listener) {
+            this.provider = provider;
+            this.listener = listener;
+        }
+
+        /**
+         * Registers listeners on a folder and every folder below it, listing
+         * each folder after its listener is registered so that no tag added
+         * in between is missed.
+         */
+        private void addFolderTree(TagPath folderPath) {
+            Deque<TagPath> folders = new ArrayDeque<>();
+            folders.add(folderPath);
+            while (!folders.isEmpty()) {
+                TagPath folder = folders.remove();
+                if (!register(folder)) {
+                    return;
+                }
+
+                JsonObject folderJson;
+                try {
+                    folderJson = listFolder(folder);
+                } catch (Exception e) {
+                    logger.warn("Unable to list the folders in {}, the folders below it are not watched: {}", folder,
+                            e.getMessage());
+                    continue;
+                }
+                JsonArray tags = folderJson.getAsJsonArray("tags");
+                if (tags == null) {
+                    continue;
+                }
+                for (JsonElement tagElement : tags) {
+                    JsonObject tagObject = tagElement.getAsJsonObject();
+                    if (isFolder(tagObject)) {
+                        folders.add(folder.getChildPath(tagObject.get("name").getAsString()));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Watches an added tag and the folders below it if it is a folder.
+         * The structure event only names the tag, so it is read without its
+         * children to find its type.
+         */
+        private void addIfFolder(TagPath tagPath) {
+            try {
+                if (!isFolder(listFolder(tagPath))) {
+                    return;
+                }
+            } catch (Exception e) {
+                logger.warn("Unable to read the added tag {}, the folders below it are not watched: {}", tagPath,
+                        e.getMessage());
+                return;
+            }
+            addFolderTree(tagPath);
+        }
+
+        /**
+         * Registers a listener on a folder, unless it has one.
+         *
+         * @return false if the registration is closed
+         */
+        private synchronized boolean register(TagPath folder) {
+            if (closed) {
+                return false;
+            }
+            String key = toPathString(folder);
+            if (!folderListeners.containsKey(key)) {
+                FolderListener folderListener = new FolderListener(folder);
+                tagManager.addTagStructureListener(folder, folderListener);
+                folderListeners.put(key, folderListener);
+            }
+            return true;
+        }
+
+        /**
+         * Reads a tag with its direct children, without the levels below them.
+         */
+        private JsonObject listFolder(TagPath folder) throws Exception {
+            return TagExportUtilities.convertToJsonObject(TagConfigUtilities.getTagConfigurationModel(tagManager,
+                    provider, toPathString(folder), false, false));
+        }
+
+        private synchronized void removeFolderTree(TagPath folderPath) {
+            String prefix = toPathString(folderPath);
+            Iterator<Map.Entry<String, FolderListener>> iterator = folderListeners.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, FolderListener> entry = iterator.next();
+                if (entry.getKey().equals(prefix) || entry.getKey().startsWith(prefix + "/")) {
+                    tagManager.removeTagStructureListener(entry.getValue().folderPath, entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+
+        private void notifyChanged(TagPath tagPath) {
+            try {
+                listener.accept(tagPath);
+            } catch (Exception e) {
+                logger.error("Tag change listener failed for {}", tagPath, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                for (FolderListener folderListener : folderListeners.values()) {
+                    tagManager.removeTagStructureListener(folderListener.folderPath, folderListener);
+                }
+                folderListeners.clear();
+            }
+            synchronized (registrations) {
+                registrations.remove(this);
+            }
+        }
+
+        private class FolderListener implements TagStructureListener {
+            private final TagPath folderPath;
+
+            FolderListener(TagPath folderPath) {
+                this.folderPath = folderPath;
+            }
+
+            @Override
+            public void tagStructureChanged(TagStructureEvent event) {
+                for (TagPath added : event.getAddedTags()) {
+                    update(() -> addIfFolder(added));
+                    notifyChanged(added);
+                }
+                for (TagPath removed : event.getRemovedTags()) {
+                    update(() -> removeFolderTree(removed));
+                    notifyChanged(removed);
+                }
+                for (TagPath changed : event.getChangedTags()) {
+                    notifyChanged(changed);
+                }
+            }
+
+            private void update(Runnable update) {
+                try {
+                    executor.execute(update);
+                } catch (RejectedExecutionException e) {
+                    // The monitor is shutting down
+                }
+            }
+        }
+    }
+
+    /**
+     * The registration on a provider root that its subscriptions share.
+     */
+    private final class ProviderWatch {
+        private final String provider;
+        private final String providerKey;
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private Registration registration;
+        private volatile boolean ready;
+
+        private ProviderWatch(String provider, String providerKey) {
+            this.provider = provider;
+            this.providerKey = providerKey;
+        }
+
+        /**
+         * Lists the provider and registers its listeners, unless every
+         * subscription was closed while the task waited.
+         */
+        private void register() {
+            Registration newRegistration = watch(provider, "", this::dispatch);
+            synchronized (providerWatches) {
+                if (providerWatches.get(providerKey) == this) {
+                    registration = newRegistration;
+                    ready = true;
+                    logger.debug("Watching provider {} for its subscribers", provider);
+                    return;
+                }
+            }
+            newRegistration.close();
+        }
+
+        private void dispatch(TagPath tagPath) {
+            String path = toPathString(tagPath).toLowerCase(Locale.ROOT);
+            for (Subscription subscription : subscriptions) {
+                if (!isAtOrBelow(path, subscription.basePath)) {
+                    continue;
+                }
+                try {
+                    subscription.listener.accept(tagPath);
+                } catch (Exception e) {
+                    logger.error("Tag change subscriber failed for {}", tagPath, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A listener on the changes below a base tag path, reported through the
+     * shared registration of its provider.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final ProviderWatch providerWatch;
+        private final String basePath;
+        private final Consumer<TagPath> listener;
+
+        private Subscription(ProviderWatch providerWatch, String baseTagPath, Consumer<TagPath> listener) {
+            this.providerWatch = providerWatch;
+            this.basePath = baseTagPath != null ? baseTagPath.toLowerCase(Locale.ROOT) : "";
+            this.listener = listener;
+        }
+
+        /**
+         * Returns whether every folder of the provider is being watched, so
+         * that any change from now on is reported.
+         */
+        public boolean isReady() {
+            return providerWatch.ready;
+        }
+
+        @Override
+        public void close() {
+            Registration closed = null;
+            synchronized (providerWatches) {
+                if (!providerWatch.subscriptions.remove(this) || !providerWatch.subscriptions.isEmpty()) {
+                    return;
+                }
+                providerWatches.remove(providerWatch.providerKey, providerWatch);
+                closed = providerWatch.registration;
+                providerWatch.ready = false;
+            }
+            if (closed != null) {
+                closed.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+
+/**
+ * Holds the parsed contents of export-config.json in memory.
+ *
+ * Readers share an immutable {@link Snapshot} without locking. The snapshot is
+ * replaced when the file changes on disk, as reported by a {@link WatchService},
+ * or when it is saved through {@link #save(String)}, which writes atomically.
+ * Listeners registered with {@link #addChangeListener(Consumer)} are told about
+ * each new snapshot whose contents differ from the last.
+ */
+public class TagConfigStore {
+    private static final Logger logger = LoggerFactory.getLogger(TagConfigStore.class.getName());
+
+    private final Path configPath;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.missing());
+    private final List<Consumer<Snapshot>> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile String loadError;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public TagConfigStore() {
+        this(Paths.get(TagCICDConstants.CONFIG_FILE_PATH));
+    }
+
+    public TagConfigStore(Path configPath) {
+        this.configPath = configPath.toAbsolutePath();
+    }
+
+    /**
+     * Loads the configuration and starts watching it for changes.
+     */
+    public synchronized void start() {
+        reload();
+
+        try {
+            Path directory = configPath.getParent();
+            Files.createDirectories(directory);
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            logger.error("Unable to watch {} for changes, edits made outside the module will not be picked up",
+                    configPath, e);
+            return;
+        }
+
+        watchThread = new Thread(this::watch, "tag-cicd-config-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Stops watching the configuration file.
+     */
+    public synchronized void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Error closing config watch service: {}", e.getMessage());
+            }
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+    }
+
+    /**
+     * Returns the current configuration snapshot. Never null.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Returns why the configuration file could not be parsed the last time it
+     * was read, or null if it was read successfully or does not exist. While
+     * this is set, {@link #getSnapshot()} holds the last configuration that
+     * could be read, or none at all if the file has not been read yet.
+     */
+    public String getLoadError() {
+        return loadError;
+    }
+
+    /**
+     * Registers a listener that is called with the new snapshot whenever the
+     * configuration changes. Listeners run on the thread that observed the
+     * change and should return quickly.
+     */
+    public void addChangeListener(Consumer<Snapshot> listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<Snapshot> listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Validates and atomically writes a new configuration, then publishes it to
+     * readers.
+     *
+     * @param configJson the configuration as a JSON array
+     * @throws IllegalArgumentException if the configuration is not a valid array of entries
+     * @throws IOException              if the file cannot be written
+     */
+    public synchronized void save(String configJson) throws IOException {
+        Snapshot updated = Snapshot.parse(configJson);
+
+        Files.createDirectories(configPath.getParent());
+        Path tempPath = configPath.resolveSibling(configPath.getFileName() + ".tmp");
+        Files.write(tempPath, configJson.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(tempPath, configPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, configPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        loadError = null;
+        publish(updated);
+        logger.info("Saved tag configuration with {} entries to {}", updated.getEntries().size(), configPath);
+    }
+
+    /**
+     * Re-reads the configuration file from disk. A file that cannot be parsed
+     * leaves the previous snapshot in place, and sets {@link #getLoadError()}.
+     */
+    public synchronized void reload() {
+        if (!Files.exists(configPath)) {
+            loadError = null;
+            publish(Snapshot.missing());
+            return;
+        }
+
+        try {
+            String content = new String(Files.readAllBytes(configPath), StandardCharsets.UTF_8);
+            Snapshot updated = Snapshot.parse(content);
+            loadError = null;
+            publish(updated);
+            logger.debug("Loaded tag configuration with {} entries from {}", updated.getEntries().size(),
+                    configPath);
+        } catch (Exception e) {
+            loadError = "Failed to load tag configuration from " + configPath + ": " + e.getMessage();
+            logger.error("Failed to load tag configuration from {}, keeping the previous configuration: {}",
+                    configPath, e.getMessage());
+        }
+    }
+
+    public Path getConfigPath() {
+        return configPath;
+    }
+
+    private void publish(Snapshot updated) {
+        Snapshot previous = snapshot.getAndSet(updated);
+        if (previous.exists() == updated.exists() && previous.getJson().equals(updated.getJson())) {
+            return;
+        }
+
+        for (Consumer<Snapshot> listener : changeListeners) {
+            try {
+                listener.accept(updated);
+            } catch (Exception e) {
+                logger.error("Tag configuration change listener failed", e);
+            }
+        }
+    }
+
+    private void watch() {
+        WatchService service = watchService;
+        Path fileName = configPath.getFileName();
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                    changed = true;
+                }
+            }
+            if (changed) {
+                logger.debug("Detected change to {}", configPath);
+                reload();
+            }
+
+            if (!key.reset()) {
+                logger.warn("Config directory {} is no longer accessible, stopped watching for changes",
+                        configPath.getParent());
+                return;
+            }
+        }
+    }
+
+    /**
+     * An immutable view of export-config.json at a point in time.
+     */
+    public static final class Snapshot {
+        private final boolean exists;
+        private final String json;
+        private final List<TagConfigEntry> entries;
+
+        private Snapshot(boolean exists, String json, List<TagConfigEntry> entries) {
+            this.exists = exists;
+            this.json = json;
+            this.entries = entries;
+        }
+
+        static Snapshot missing() {
+            return new Snapshot(false, "[]", Collections.emptyList());
+        }
+
+        static Snapshot parse(String content) {
+            JsonElement element = new JsonParser().parse(content);
+            if (!element.isJsonArray()) {
+                throw new IllegalArgumentException("Tag configuration must be a JSON array");
+            }
+
+            List<TagConfigEntry> entries = new ArrayList<>();
+            for (JsonElement entry : element.getAsJsonArray()) {
+                entries.add(TagConfigEntry.fromJson(entry.getAsJsonObject()));
+            }
+            return new Snapshot(true, element.toString(), Collections.unmodifiableList(entries));
+        }
+
+        /**
+         * Whether export-config.json existed when the snapshot was taken.
+         */
+        public boolean exists() {
+            return exists;
+        }
+
+        /**
+         * The configuration as a compact JSON array string.
+         */
+        public String getJson() {
+            return json;
+        }
+
+        /**
+         * Returns a fresh copy of the configuration that the caller may modify.
+         */
+        public JsonArray toJsonArray() {
+            return new JsonParser().parse(json).getAsJsonArray();
+        }
+
+        public List<TagConfigEntry> getEntries() {
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+
+/**
+ * A job of export, import and delete steps, run together by the
+ * {@link BatchOperationService}. Each step runs once the steps it depends on
+ * have succeeded, and steps that do not depend on each other run at the same
+ * time.
+ *
+ * A step depends on the step before it unless it lists its dependencies in
+ * {@code dependsOn}, so a plain list of steps runs in order and an empty
+ * {@code dependsOn} lets a step start straight away.
+ */
+public final class TagJob {
+    public enum Operation {
+        EXPORT, IMPORT, DELETE
+    }
+
+    private final List<Step> steps;
+
+    private TagJob(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Parses a job from either an object with a {@code steps} array or the
+     * array alone.
+     *
+     * Export and import steps take the properties of an entry of
+     * export-config.json, with {@code filePath} accepted in place of
+     * {@code sourcePath}. A step's {@code entry} names the source path of an
+     * entry of the configuration to take the properties from, which the step
+     * may override.
+     *
+     * @param json   the job as JSON
+     * @param config the configuration that {@code entry} refers to
+     * @return the job
+     * @throws IllegalArgumentException if the job is invalid or its
+     *                                  dependencies form a cycle
+     */
+    public static TagJob parse(String json, TagConfigStore.Snapshot config) {
+        if (json == null || json.trim().isEmpty()) {
+            throw new IllegalArgumentException("Request body must contain the steps of the job");
+        }
+        JsonElement element = new JsonParser().parse(json);
+        if (element.isJsonObject() && element.getAsJsonObject().has("steps")) {
+            element = element.getAsJsonObject().get("steps");
+        }
+        if (!element.isJsonArray() || element.getAsJsonArray().size() == 0) {
+            throw new IllegalArgumentException("A job must contain a non-empty array of steps");
+        }
+
+        JsonArray configEntries = null;
+        List<Step> steps = new ArrayList<>();
+        Set<String> ids = new LinkedHashSet<>();
+        String previousId = null;
+        for (JsonElement stepElement : element.getAsJsonArray()) {
+            if (!stepElement.isJsonObject()) {
+                throw new IllegalArgumentException("Each step of a job must be a JSON object");
+            }
+            JsonObject stepJson = stepElement.getAsJsonObject().deepCopy();
+
+            String id = stepJson.has("id") ? stepJson.get("id").getAsString() : String.valueOf(steps.size() + 1);
+            if (!ids.add(id)) {
+                throw new IllegalArgumentException("Duplicate step id '" + id + "'");
+            }
+
+            if (stepJson.has("entry")) {
+                if (configEntries == null) {
+                    configEntries = config.toJsonArray();
+                }
+                stepJson = withConfigEntry(stepJson, configEntries);
+            }
+
+            List<String> dependsOn = new ArrayList<>();
+            JsonElement dependsOnElement = stepJson.get("dependsOn");
+            if (dependsOnElement == null || dependsOnElement.isJsonNull()) {
+                if (previousId != null) {
+                    dependsOn.add(previousId);
+                }
+            } else if (dependsOnElement.isJsonArray()) {
+                for (JsonElement dependency : dependsOnElement.getAsJsonArray()) {
+                    dependsOn.add(dependency.getAsString());
+                }
+            } else {
+                dependsOn.add(dependsOnElement.getAsString());
+            }
+
+            steps.add(parseStep(id, stepJson, dependsOn));
+            previousId = id;
+        }
+
+        for (Step step : steps) {
+            for (String dependency : step.dependsOn) {
+                if (!ids.contains(dependency) || dependency.equals(step.id)) {
+                    throw new IllegalArgumentException(
+                            "Step '" + step.id + "' depends on unknown step '" + dependency + "'");
+                }
+            }
+        }
+        checkForCycles(steps);
+        return new TagJob(Collections.unmodifiableList(steps));
+    }
+
+    private static JsonObject withConfigEntry(JsonObject stepJson, JsonArray configEntries) {
+        String sourcePath = stepJson.get("entry").getAsString();
+        for (JsonElement configEntry : configEntries) {
+            JsonObject entryJson = configEntry.getAsJsonObject();
+            if (entryJson.has("sourcePath") && sourcePath.equals(entryJson.get("sourcePath").getAsString())) {
+                JsonObject merged = entryJson.deepCopy();
+                for (Map.Entry<String, JsonElement> property : stepJson.entrySet()) {
+                    merged.add(property.getKey(), property.getValue());
+                }
+                return merged;
+            }
+        }
+        throw new IllegalArgumentException("No configuration entry has the source path '" + sourcePath + "'");
+    }
+
+    private static Step parseStep(String id, JsonObject stepJson, List<String> dependsOn) {
+        JsonElement operationElement = stepJson.get("operation");
+        if (operationElement == null || operationElement.isJsonNull()) {
+            throw new IllegalArgumentException("Step '" + id + "' is missing required property 'operation'");
+        }
+        Operation operation;
+        try {
+            operation = Operation.valueOf(operationElement.getAsString().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Step '" + id + "' has unknown operation '"
+                    + operationElement.getAsString() + "', expected export, import or delete");
+        }
+
+        if (operation == Operation.DELETE) {
+            String provider = stepJson.has("provider") ? stepJson.get("provider").getAsString()
+                    : TagConfigUtilities.DEFAULT_PROVIDER;
+            String tagPath = stepJson.has("tagPath") ? stepJson.get("tagPath").getAsString()
+                    : stepJson.has("baseTagPath") ? stepJson.get("baseTagPath").getAsString() : "";
+            return new Step(id, operation, dependsOn, null, provider, tagPath,
+                    getBoolean(stepJson, "recursive", false), false, false);
+        }
+
+        if (!stepJson.has("sourcePath") && stepJson.has("filePath")) {
+            stepJson.add("sourcePath", stepJson.get("filePath"));
+        }
+        TagConfigEntry entry;
+        try {
+            entry = TagConfigEntry.fromJson(stepJson);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Step '" + id + "': " + e.getMessage(), e);
+        }
+        return new Step(id, operation, dependsOn, entry, entry.getProvider(), entry.getBaseTagPath(),
+                getBoolean(stepJson, "recursive", true), getBoolean(stepJson, "localPropsOnly", false),
+                getBoolean(stepJson, "deleteExisting", false));
+    }
+
+    private static boolean getBoolean(JsonObject json, String property, boolean defaultValue) {
+        JsonElement element = json.get(property);
+        return element == null || element.isJsonNull() ? defaultValue : element.getAsBoolean();
+    }
+
+    private static void checkForCycles(List<Step> steps) {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        for (Step step : steps) {
+            pending.put(step.id, step.dependsOn.size());
+            for (String dependency : step.dependsOn) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(step.id);
+            }
+            if (step.dependsOn.isEmpty()) {
+                ready.add(step.id);
+            }
+        }
+
+        int ordered = 0;
+        while (!ready.isEmpty()) {
+            String id = ready.poll();
+            ordered++;
+            for (String dependent : dependents.getOrDefault(id, Collections.emptyList())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (ordered < steps.size()) {
+            throw new IllegalArgumentException("The dependencies of the job's steps form a cycle");
+        }
+    }
+
+    /**
+     * Checks that every provider the job uses exists, once for the whole job,
+     * so that a job with a mistyped provider fails before any step changes
+     * anything.
+     *
+     * @throws IllegalArgumentException if a provider does not exist
+     */
+    public void validateProviders(GatewayTagManager tagManager) {
+        Set<String> providers = new LinkedHashSet<>();
+        for (Step step : steps) {
+            providers.add(step.provider);
+        }
+        for (String provider : providers) {
+            if (tagManager.getTagProvider(provider) == null) {
+                throw new IllegalArgumentException("Tag provider '" + provider + "' does not exist");
+            }
+        }
+    }
+
+    /**
+     * The steps of the job, in the order given.
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the source paths read by more than one import step, which are
+     * worth parsing once for the whole job.
+     */
+    public Set<String> getSharedSourcePaths() {
+        Map<String, Integer> reads = new LinkedHashMap<>();
+        for (Step step : steps) {
+            if (step.operation == Operation.IMPORT) {
+                reads.merge(step.entry.getSourcePath(), 1, Integer::sum);
+            }
+        }
+        Set<String> shared = new LinkedHashSet<>();
+        reads.forEach((sourcePath, count) -> {
+            if (count > 1) {
+                shared.add(sourcePath);
+            }
+        });
+        return shared;
+    }
+
+    /**
+     * A single step of a job.
+     */
+    public static final class Step {
+        private final String id;
+        private final Operation operation;
+        private final List<String> dependsOn;
+        private final TagConfigEntry entry;
+        private final String provider;
+        private final String tagPath;
+        private final boolean recursive;
+        private final boolean localPropsOnly;
+        private final boolean deleteExisting;
+
+        private Step(String id, Operation operation, List<String> dependsOn, TagConfigEntry entry, String provider,
+                String tagPath, boolean recursive, boolean localPropsOnly, boolean deleteExisting) {
+            this.id = id;
+            this.operation = operation;
+            this.dependsOn = Collections.unmodifiableList(dependsOn);
+            this.entry = entry;
+            this.provider = provider;
+            this.tagPath = tagPath;
+            this.recursive = recursive;
+            this.localPropsOnly = localPropsOnly;
+            this.deleteExisting = deleteExisting;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public List<String> getDependsOn() {
+            return dependsOn;
+        }
+
+        /**
+         * The export or import to run, or null for a delete step.
+         */
+        public TagConfigEntry getEntry() {
+            return entry;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        /**
+         * The base tag path of an export or import, or the tag path to delete.
+         */
+        public String getTagPath() {
+            return tagPath;
+        }
+
+        public boolean isRecursive() {
+            return recursive;
+        }
+
+        public boolean isLocalPropsOnly() {
+            return localPropsOnly;
+        }
+
+        public boolean isDeleteExisting() {
+            return deleteExisting;
+        }
+    }
+}
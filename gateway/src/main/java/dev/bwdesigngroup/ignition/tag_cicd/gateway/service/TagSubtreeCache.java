@@ -0,0 +1,403 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.CanonicalJsonWriter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagSubtreeSource;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+/**
+ * Caches the JSON of every folder a recursive export over HTTP has fetched,
+ * so that exporting a mostly unchanged provider again only fetches and sorts
+ * the folders that changed since.
+ *
+ * A folder is cached both as fetched and sorted, since arrays are ordered by
+ * the form of their elements before sorting. Each provider is subscribed to
+ * with the {@link TagChangeMonitor} from its first export, and a change drops
+ * the folders holding the changed tag along with everything cached below it.
+ * Exports that begin before the provider is watched are fetched without the
+ * cache, since a change made during them might not be reported. The
+ * least recently used folders are dropped once they hold more tags than
+ * {@link TagCICDConstants#EXPORT_CACHE_MAX_TAGS_PROPERTY} allows, counting a
+ * tag once for each cached folder it is in.
+ */
+public class TagSubtreeCache implements TagSubtreeSource {
+    private static final Logger logger = LoggerFactory.getLogger(TagSubtreeCache.class.getName());
+    // A folder with more UDTs than this is fetched whole rather than one UDT at a time
+    private static final int MAX_UDT_FETCHES = 8;
+
+    private final TagChangeMonitor tagChangeMonitor;
+    private final long maxTags;
+    private final Map<String, TagChangeMonitor.Subscription> subscriptions = new HashMap<>();
+    private final Map<String, Long> versions = new HashMap<>();
+    private final Map<String, Subtree> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // The same entries by key, to find those below a tag path
+    private final TreeMap<String, Subtree> index = new TreeMap<>();
+    private long cachedTags;
+
+    public TagSubtreeCache(TagChangeMonitor tagChangeMonitor) {
+        this.tagChangeMonitor = tagChangeMonitor;
+        this.maxTags = Long.getLong(TagCICDConstants.EXPORT_CACHE_MAX_TAGS_PROPERTY,
+                TagCICDConstants.DEFAULT_EXPORT_CACHE_MAX_TAGS);
+    }
+
+    @Override
+    public JsonObject getSubtree(GatewayTagManager tagManager, String provider, String tagPath,
+            boolean localPropsOnly) throws Exception {
+        if (maxTags <= 0 || !watch(provider).isReady()) {
+            return (JsonObject) FileUtilities.sortJsonElementRecursively(
+                    fetch(tagManager, provider, tagPath, true, localPropsOnly));
+        }
+
+        long version;
+        synchronized (this) {
+            version = versions.getOrDefault(getProviderKey(provider), 0L);
+        }
+        return load(tagManager, provider, tagPath, localPropsOnly, version).sorted;
+    }
+
+    @Override
+    public synchronized JsonObject getCachedSubtree(String provider, String tagPath, boolean localPropsOnly) {
+        Subtree cached = entries.get(getKey(provider, localPropsOnly, tagPath));
+        if (cached == null) {
+            return null;
+        }
+        OperationMetrics.current().increment(OperationMetrics.COUNTER_CACHE_HITS, 1);
+        return cached.sorted;
+    }
+
+    /**
+     * Stops watching for changes and drops every cached folder.
+     */
+    public void shutdown() {
+        List<TagChangeMonitor.Subscription> closed;
+        synchronized (this) {
+            closed = new ArrayList<>(subscriptions.values());
+            subscriptions.clear();
+            entries.clear();
+            index.clear();
+            cachedTags = 0;
+        }
+        for (TagChangeMonitor.Subscription subscription : closed) {
+            subscription.close();
+        }
+    }
+
+    private synchronized TagChangeMonitor.Subscription watch(String provider) {
+        String providerKey = getProviderKey(provider);
+        TagChangeMonitor.Subscription subscription = subscriptions.get(providerKey);
+        if (subscription == null) {
+            // Subscribing only queues the listing of the provider, so it is cheap to do under the lock
+            subscription = tagChangeMonitor.subscribe(provider, "",
+                    tagPath -> invalidate(providerKey, toPathString(tagPath)));
+            subscriptions.put(providerKey, subscription);
+            logger.debug("Caching exported folders of provider {}", provider);
+        }
+        return subscription;
+    }
+
+    /**
+     * Returns a cached folder, or builds it from its cached subfolders and
+     * fetches of what changed. A folder with nothing cached below it is
+     * fetched whole, as is one holding more than {@value #MAX_UDT_FETCHES}
+     * UDTs, with its cached subfolders taking the place of those fetched.
+     */
+    private Subtree load(GatewayTagManager tagManager, String provider, String tagPath, boolean localPropsOnly,
+            long version) throws Exception {
+        String key = getKey(provider, localPropsOnly, tagPath);
+        boolean cachedBelow;
+        synchronized (this) {
+            Subtree cached = entries.get(key);
+            if (cached != null) {
+                OperationMetrics.current().increment(OperationMetrics.COUNTER_CACHE_HITS, 1);
+                return cached;
+            }
+            cachedBelow = !below(key).isEmpty();
+        }
+        OperationMetrics.current().increment(OperationMetrics.COUNTER_CACHE_MISSES, 1);
+
+        if (!cachedBelow) {
+            JsonObject original = fetch(tagManager, provider, tagPath, true, localPropsOnly);
+            Subtree subtree = new Subtree(original,
+                    (JsonObject) FileUtilities.sortJsonElementRecursively(original));
+            putTree(provider, localPropsOnly, tagPath, subtree, version);
+            return subtree;
+        }
+
+        JsonObject original = fetch(tagManager, provider, tagPath, false, localPropsOnly);
+        JsonArray children = original.has("tags") && original.get("tags").isJsonArray()
+                ? original.getAsJsonArray("tags")
+                : null;
+        if (children == null) {
+            Subtree subtree = new Subtree(original,
+                    (JsonObject) FileUtilities.sortJsonElementRecursively(original));
+            put(provider, key, subtree, version);
+            return subtree;
+        }
+
+        boolean fetchedWhole = countUdts(children) > MAX_UDT_FETCHES;
+        if (fetchedWhole) {
+            // Fetching each UDT for its members would take a call apiece, so the folder is fetched whole once
+            original = fetch(tagManager, provider, tagPath, true, localPropsOnly);
+            children = getTags(original);
+            if (children == null) {
+                children = new JsonArray();
+            }
+        }
+
+        List<JsonElement> originalChildren = new ArrayList<>(children.size());
+        List<JsonElement> sortedChildren = new ArrayList<>(children.size());
+        for (JsonElement child : children) {
+            Subtree childSubtree = fetchedWhole
+                    ? loadFetchedChild(provider, tagPath, child, localPropsOnly, version)
+                    : loadChild(tagManager, provider, tagPath, child, localPropsOnly, version);
+            originalChildren.add(childSubtree.original);
+            sortedChildren.add(childSubtree.sorted);
+        }
+
+        // Sort the folder's own properties, then put its children back in the place of the tags
+        JsonArray originalTags = new JsonArray();
+        originalChildren.forEach(originalTags::add);
+        original.add("tags", new JsonArray());
+        JsonObject sorted = (JsonObject) FileUtilities.sortJsonElementRecursively(original);
+        original.add("tags", originalTags);
+        sorted.add("tags", CanonicalJsonWriter.toSortedArray(originalChildren, sortedChildren));
+
+        Subtree subtree = new Subtree(original, sorted);
+        put(provider, key, subtree, version);
+        return subtree;
+    }
+
+    private Subtree loadChild(GatewayTagManager tagManager, String provider, String parentPath, JsonElement child,
+            boolean localPropsOnly, long version) throws Exception {
+        String name = getString(child, "name");
+        String tagType = getString(child, "tagType");
+        if (name == null || "AtomicTag".equals(tagType)) {
+            return new Subtree(child.getAsJsonObject(),
+                    (JsonObject) FileUtilities.sortJsonElementRecursively(child));
+        }
+
+        String childPath = parentPath.isEmpty() ? name : parentPath + "/" + name;
+        if ("Folder".equals(tagType)) {
+            return load(tagManager, provider, childPath, localPropsOnly, version);
+        }
+
+        // UDT definitions and instances hold their members, which the fetch of their folder leaves out
+        JsonObject original = fetch(tagManager, provider, childPath, true, localPropsOnly);
+        return new Subtree(original, (JsonObject) FileUtilities.sortJsonElementRecursively(original));
+    }
+
+    /**
+     * Returns a child of a folder that was fetched whole, taking a subfolder
+     * from the cache where it is cached and caching it otherwise.
+     */
+    private Subtree loadFetchedChild(String provider, String parentPath, JsonElement child, boolean localPropsOnly,
+            long version) {
+        String name = getString(child, "name");
+        if (!"Folder".equals(getString(child, "tagType")) || name == null) {
+            return new Subtree(child.getAsJsonObject(),
+                    (JsonObject) FileUtilities.sortJsonElementRecursively(child));
+        }
+
+        String childPath = parentPath.isEmpty() ? name : parentPath + "/" + name;
+        synchronized (this) {
+            Subtree cached = entries.get(getKey(provider, localPropsOnly, childPath));
+            if (cached != null) {
+                OperationMetrics.current().increment(OperationMetrics.COUNTER_CACHE_HITS, 1);
+                return cached;
+            }
+        }
+        Subtree subtree = new Subtree(child.getAsJsonObject(),
+                (JsonObject) FileUtilities.sortJsonElementRecursively(child));
+        putTree(provider, localPropsOnly, childPath, subtree, version);
+        return subtree;
+    }
+
+    /**
+     * Caches a folder fetched whole, along with every folder below it.
+     */
+    private void putTree(String provider, boolean localPropsOnly, String tagPath, Subtree subtree, long version) {
+        put(provider, getKey(provider, localPropsOnly, tagPath), subtree, version);
+
+        JsonArray originalChildren = getTags(subtree.original);
+        JsonArray sortedChildren = getTags(subtree.sorted);
+        if (originalChildren == null || sortedChildren == null) {
+            return;
+        }
+
+        Map<String, JsonObject> sortedFolders = new HashMap<>();
+        for (JsonElement child : sortedChildren) {
+            if ("Folder".equals(getString(child, "tagType")) && getString(child, "name") != null) {
+                sortedFolders.put(getString(child, "name"), child.getAsJsonObject());
+            }
+        }
+        for (JsonElement child : originalChildren) {
+            String name = getString(child, "name");
+            if (!"Folder".equals(getString(child, "tagType")) || !sortedFolders.containsKey(name)) {
+                continue;
+            }
+            String childPath = tagPath.isEmpty() ? name : tagPath + "/" + name;
+            putTree(provider, localPropsOnly, childPath, new Subtree(child.getAsJsonObject(), sortedFolders.get(name)),
+                    version);
+        }
+    }
+
+    /**
+     * Caches a folder, unless a tag of its provider changed since the export
+     * began or the folder alone holds more tags than the cache may.
+     */
+    private synchronized void put(String provider, String key, Subtree subtree, long version) {
+        if (versions.getOrDefault(getProviderKey(provider), 0L) != version) {
+            return;
+        }
+        subtree.tags = countTags(subtree.sorted);
+        if (subtree.tags > maxTags) {
+            return;
+        }
+
+        remove(key);
+        entries.put(key, subtree);
+        index.put(key, subtree);
+        cachedTags += subtree.tags;
+
+        Iterator<Map.Entry<String, Subtree>> eldest = entries.entrySet().iterator();
+        while (cachedTags > maxTags && eldest.hasNext()) {
+            Map.Entry<String, Subtree> entry = eldest.next();
+            eldest.remove();
+            index.remove(entry.getKey());
+            cachedTags -= entry.getValue().tags;
+        }
+    }
+
+    /**
+     * Drops the folders holding a changed tag, and everything cached below it.
+     */
+    private synchronized void invalidate(String providerKey, String tagPath) {
+        versions.merge(providerKey, 1L, Long::sum);
+        for (boolean localPropsOnly : new boolean[] { false, true }) {
+            String key = getKey(providerKey, localPropsOnly, tagPath);
+            for (String belowKey : new ArrayList<>(below(key).keySet())) {
+                remove(belowKey);
+            }
+
+            String path = tagPath;
+            while (true) {
+                remove(getKey(providerKey, localPropsOnly, path));
+                if (path.isEmpty()) {
+                    break;
+                }
+                int separator = path.lastIndexOf('/');
+                path = separator < 0 ? "" : path.substring(0, separator);
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Subtree removed = entries.remove(key);
+        if (removed != null) {
+            index.remove(key);
+            cachedTags -= removed.tags;
+        }
+    }
+
+    private NavigableMap<String, Subtree> below(String key) {
+        // The key of a provider root ends with the separator, and so starts the keys of its folders
+        String prefix = key.endsWith("|") ? key : key + "/";
+        return index.subMap(prefix, false, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static JsonObject fetch(GatewayTagManager tagManager, String provider, String tagPath,
+            boolean recursive, boolean localPropsOnly) throws Exception {
+        return TagExportUtilities.convertToJsonObject(
+                TagConfigUtilities.getTagConfigurationModel(tagManager, provider, tagPath, recursive, localPropsOnly));
+    }
+
+    /**
+     * Counts the children that are neither folders nor atomic tags, and so
+     * are UDT definitions or instances whose members a folder's fetch leaves
+     * out.
+     */
+    private static int countUdts(JsonArray children) {
+        int count = 0;
+        for (JsonElement child : children) {
+            String tagType = getString(child, "tagType");
+            if (getString(child, "name") != null && !"Folder".equals(tagType) && !"AtomicTag".equals(tagType)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long countTags(JsonObject tagsJson) {
+        long count = 1;
+        JsonArray tags = getTags(tagsJson);
+        if (tags != null) {
+            for (JsonElement tag : tags) {
+                count += tag.isJsonObject() ? countTags(tag.getAsJsonObject()) : 1;
+            }
+        }
+        return count;
+    }
+
+    private static JsonArray getTags(JsonObject tagsJson) {
+        return tagsJson.has("tags") && tagsJson.get("tags").isJsonArray() ? tagsJson.getAsJsonArray("tags") : null;
+    }
+
+    private static String getString(JsonElement element, String property) {
+        if (!element.isJsonObject() || !element.getAsJsonObject().has(property)) {
+            return null;
+        }
+        return element.getAsJsonObject().get(property).getAsString();
+    }
+
+    // Tag paths are case insensitive
+    private static String getProviderKey(String provider) {
+        return provider.toLowerCase(Locale.ROOT);
+    }
+
+    private static String getKey(String provider, boolean localPropsOnly, String tagPath) {
+        return getProviderKey(provider) + "|" + localPropsOnly + "|" + tagPath.toLowerCase(Locale.ROOT);
+    }
+
+    private static String toPathString(TagPath tagPath) {
+        List<String> pathComponents = new ArrayList<>();
+        for (int i = 0; i < tagPath.getPathLength(); i++) {
+            pathComponents.add(tagPath.getPathComponent(i));
+        }
+        return String.join("/", pathComponents);
+    }
+
+    /**
+     * A folder as fetched and sorted.
+     */
+    private static class Subtree {
+        private final JsonObject original;
+        private final JsonObject sorted;
+        private long tags;
+
+        Subtree(JsonObject original, JsonObject sorted) {
+            this.original = original;
+            this.sorted = sorted;
+        }
+    }
+}
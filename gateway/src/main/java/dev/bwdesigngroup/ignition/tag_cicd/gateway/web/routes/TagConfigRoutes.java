@@ -8,26 +8,23 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.TagConfigStore;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
-import com.inductiveautomation.ignition.common.gson.JsonParser;
 import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
 import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
 import com.inductiveautomation.ignition.gateway.model.GatewayContext;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 /**
  * Routes for accessing tag configuration data.
  */
 public class TagConfigRoutes {
     private static final Logger logger = LoggerFactory.getLogger(TagConfigRoutes.class.getName());
     private final RouteGroup routes;
+    private final TagConfigStore configStore;
 
-    public TagConfigRoutes(GatewayContext context, RouteGroup group) {
+    public TagConfigRoutes(GatewayContext context, RouteGroup group, TagConfigStore configStore) {
         this.routes = group;
+        this.configStore = configStore;
     }
 
     public void mountRoutes() {
@@ -40,15 +37,19 @@ public class TagConfigRoutes {
 
     public JsonArray getTagConfig(RequestContext requestContext, HttpServletResponse httpServletResponse) {
         try {
-            Path configPath = Paths.get(TagCICDConstants.CONFIG_FILE_PATH);
-            if (!Files.exists(configPath)) {
-                logger.warn("No export-config.json found at {}", configPath.toAbsolutePath());
+            TagConfigStore.Snapshot snapshot = configStore.getSnapshot();
+            if (!snapshot.exists() && configStore.getLoadError() != null) {
+                logger.warn(configStore.getLoadError());
+                httpServletResponse.setStatus(500);
+                return new JsonArray();
+            }
+            if (!snapshot.exists()) {
+                logger.warn("No export-config.json found at {}", configStore.getConfigPath());
                 httpServletResponse.setStatus(404);
                 return new JsonArray();
             }
 
-            String configContent = new String(Files.readAllBytes(configPath));
-            return new JsonParser().parse(configContent).getAsJsonArray();
+            return snapshot.toJsonArray();
         } catch (Exception e) {
             logger.error("Error retrieving tag config: {}", e.getMessage(), e);
             httpServletResponse.setStatus(500);
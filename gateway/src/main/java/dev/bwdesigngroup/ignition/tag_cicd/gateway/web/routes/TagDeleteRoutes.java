@@ -8,7 +8,10 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDeleteUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathLockManager;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
@@ -44,7 +47,17 @@ public class TagDeleteRoutes {
 			String baseTagPath = requestContext.getParameter("tagPath");
 			boolean recursive = Boolean.parseBoolean(requestContext.getParameter("recursive"));
 
-			responseObject = TagDeleteUtilities.deleteTags(tagManager, provider, baseTagPath, recursive);
+			try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_ROUTE);
+					OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+					OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+				responseObject = TagDeleteUtilities.deleteTags(tagManager, provider, baseTagPath, recursive);
+			}
+		} catch (TagPathLockManager.LockTimeoutException e) {
+			logger.warn("Error deleting tags: " + e.getMessage());
+			responseObject = WebUtilities.getConflictError(httpServletResponse, e.getMessage());
+		} catch (OperationDeadline.CancelledException e) {
+			logger.warn("Error deleting tags: " + e.getMessage());
+			responseObject = WebUtilities.getCancelledError(httpServletResponse, e);
 		} catch (Exception e) {
 			logger.error("Error deleting tags: " + e.getMessage(), e);
 			responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
@@ -3,14 +3,32 @@ package dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes;
 import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.POST;
 import static com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup.TYPE_JSON;
 
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
 import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportPager;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagFilter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathLockManager;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.BatchOperationService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.ContinuousExportService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.ExportETagCache;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.TagSubtreeCache;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
 import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
@@ -19,12 +37,26 @@ import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 
 public class TagExportRoutes {
 	private static final Logger logger = LoggerFactory.getLogger(TagExportRoutes.class.getName());
+	private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+	private static final int DEFAULT_PAGE_SIZE = 1000;
+	private static final int MAX_PAGE_SIZE = 10000;
+	private static final String[] PAGE_PARAMETERS = { "pageSize", "cursor", "tagType", "name", "hasProperty" };
 	private final RouteGroup routes;
 	private final GatewayTagManager tagManager;
+	private final ContinuousExportService continuousExportService;
+	private final ExportETagCache exportETagCache;
+	private final TagSubtreeCache tagSubtreeCache;
+	private final BatchOperationService batchOperationService;
 
-	public TagExportRoutes(GatewayContext context, RouteGroup group) {
+	public TagExportRoutes(GatewayContext context, RouteGroup group,
+			ContinuousExportService continuousExportService, ExportETagCache exportETagCache,
+			TagSubtreeCache tagSubtreeCache, BatchOperationService batchOperationService) {
 		this.routes = group;
 		this.tagManager = context.getTagManager();
+		this.continuousExportService = continuousExportService;
+		this.exportETagCache = exportETagCache;
+		this.tagSubtreeCache = tagSubtreeCache;
+		this.batchOperationService = batchOperationService;
 	}
 
 	public void mountRoutes() {
@@ -33,35 +65,262 @@ public class TagExportRoutes {
 				.type(TYPE_JSON)
 				.mount();
 
+		this.routes.newRoute("/tags/export/stream")
+				.handler(this::streamTagsToJson)
+				.type(TYPE_JSON)
+				.mount();
+
 		this.routes.newRoute("/tags/export")
 				.handler(this::exportTagsToDisk)
 				.type(TYPE_JSON)
 				.method(POST)
 				.mount();
 
+		this.routes.newRoute("/tags/export/batch")
+				.handler(this::exportTagsBatch)
+				.type(TYPE_JSON)
+				.method(POST)
+				.mount();
+
 		this.routes.newRoute("/tags/export/modes")
 				.handler(this::getExportModes)
 				.type(TYPE_JSON)
 				.mount();
+
+		this.routes.newRoute("/tags/export/continuous")
+				.handler(this::getContinuousExportStatus)
+				.type(TYPE_JSON)
+				.mount();
 	}
 
+	/**
+	 * Exports tags as JSON, with an ETag so that a client polling for changes
+	 * gets a 304 response instead of the same export again. A page of the
+	 * export is returned instead if any paging or filter parameter is given.
+	 */
 	public JsonObject exportTagsToJson(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+		if (isPageRequest(requestContext)) {
+			return exportTagPage(requestContext, httpServletResponse);
+		}
+
 		JsonObject responseObject = new JsonObject();
+		ExportETagCache.Computation computation = null;
 		try {
 			String provider = requestContext.getParameter("provider");
 			String baseTagPath = requestContext.getParameter("baseTagPath");
 			boolean recursive = Boolean.parseBoolean(requestContext.getParameter("recursive"));
 			boolean localPropsOnly = Boolean.parseBoolean(requestContext.getParameter("localPropsOnly"));
+			String ifNoneMatch = requestContext.getRequest().getHeader("If-None-Match");
+
+			String etag = exportETagCache.getETag(provider, baseTagPath, recursive, localPropsOnly);
+			if (ExportETagCache.matches(ifNoneMatch, etag)) {
+				return notModified(httpServletResponse, etag);
+			}
+
+			computation = exportETagCache.begin(provider, baseTagPath, recursive, localPropsOnly);
+			try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_ROUTE);
+					OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+					OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+				responseObject = TagExportUtilities.exportTagsToJson(tagManager, provider, baseTagPath, recursive,
+						localPropsOnly, tagSubtreeCache);
+			}
 
-			responseObject = TagExportUtilities.exportTagsToJson(tagManager, provider, baseTagPath, recursive,
-					localPropsOnly);
+			etag = computation.complete(responseObject.toString());
+			if (ExportETagCache.matches(ifNoneMatch, etag)) {
+				return notModified(httpServletResponse, etag);
+			}
+			httpServletResponse.setHeader("ETag", etag);
+		} catch (TagPathLockManager.LockTimeoutException e) {
+			if (computation != null) {
+				computation.cancel();
+			}
+			logger.warn("Error exporting tags to JSON: " + e.getMessage());
+			responseObject = WebUtilities.getConflictError(httpServletResponse, e.getMessage());
+		} catch (OperationDeadline.CancelledException e) {
+			if (computation != null) {
+				computation.cancel();
+			}
+			logger.warn("Error exporting tags to JSON: " + e.getMessage());
+			responseObject = WebUtilities.getCancelledError(httpServletResponse, e);
 		} catch (Exception e) {
+			if (computation != null) {
+				computation.cancel();
+			}
 			logger.error("Error exporting tags to JSON: " + e.getMessage(), e);
 			responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
 		}
 		return responseObject;
 	}
 
+	private static boolean isPageRequest(RequestContext requestContext) {
+		for (String parameter : PAGE_PARAMETERS) {
+			if (requestContext.getParameter(parameter) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Lists a page of the tags of an export in depth-first order, keeping only
+	 * the tags that match the tagType, name and hasProperty filters.
+	 */
+	public JsonObject exportTagPage(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+		JsonObject responseObject = new JsonObject();
+		try {
+			String provider = requestContext.getParameter("provider");
+			String baseTagPath = requestContext.getParameter("baseTagPath");
+			boolean recursive = Boolean.parseBoolean(requestContext.getParameter("recursive"));
+			boolean localPropsOnly = Boolean.parseBoolean(requestContext.getParameter("localPropsOnly"));
+
+			int pageSize = DEFAULT_PAGE_SIZE;
+			String pageSizeParameter = requestContext.getParameter("pageSize");
+			if (pageSizeParameter != null) {
+				try {
+					pageSize = Integer.parseInt(pageSizeParameter);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("pageSize must be a number: " + pageSizeParameter);
+				}
+				if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+					throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE);
+				}
+			}
+			TagFilter filter = TagFilter.of(requestContext.getParameter("tagType"),
+					requestContext.getParameter("name"), requestContext.getParameter("hasProperty"));
+
+			JsonObject tagsJson;
+			try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_ROUTE);
+					OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+					OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+				tagsJson = TagExportUtilities.exportTagsToJson(tagManager, provider, baseTagPath, recursive,
+						localPropsOnly, tagSubtreeCache);
+			}
+			responseObject = new TagExportPager(TagExportUtilities.normalizeTagPath(baseTagPath), filter, pageSize)
+					.getPage(tagsJson, requestContext.getParameter("cursor"));
+		} catch (TagPathLockManager.LockTimeoutException e) {
+			logger.warn("Error exporting a page of tags: " + e.getMessage());
+			responseObject = WebUtilities.getConflictError(httpServletResponse, e.getMessage());
+		} catch (OperationDeadline.CancelledException e) {
+			logger.warn("Error exporting a page of tags: " + e.getMessage());
+			responseObject = WebUtilities.getCancelledError(httpServletResponse, e);
+		} catch (Exception e) {
+			logger.error("Error exporting a page of tags: " + e.getMessage(), e);
+			responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+		}
+		return responseObject;
+	}
+
+	/**
+	 * Streams the same JSON as {@link #exportTagsToJson} straight to the
+	 * response, gzip compressed if the client accepts it. A recursive export is
+	 * fetched and written a folder at a time, rather than held in memory as a
+	 * whole. Errors found before the response starts
+	 * return a 500 response. A failure after that ends the response early, so
+	 * the client is left with incomplete JSON.
+	 *
+	 * The ETag of the export is sent once it is cached, since the headers go
+	 * out before the JSON has been hashed.
+	 */
+	public JsonObject streamTagsToJson(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+		AtomicReference<OutputStream> responseStream = new AtomicReference<>();
+		ExportETagCache.Computation computation = null;
+		try {
+			String provider = requestContext.getParameter("provider");
+			String baseTagPath = requestContext.getParameter("baseTagPath");
+			boolean recursive = Boolean.parseBoolean(requestContext.getParameter("recursive"));
+			boolean localPropsOnly = Boolean.parseBoolean(requestContext.getParameter("localPropsOnly"));
+			boolean gzip = acceptsGzip(requestContext.getRequest().getHeader("Accept-Encoding"));
+
+			String etag = exportETagCache.getETag(provider, baseTagPath, recursive, localPropsOnly);
+			if (ExportETagCache.matches(requestContext.getRequest().getHeader("If-None-Match"), etag)) {
+				return notModified(httpServletResponse, etag);
+			}
+
+			computation = exportETagCache.begin(provider, baseTagPath, recursive, localPropsOnly);
+			MessageDigest digest = ExportETagCache.newDigest();
+			try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_ROUTE);
+					OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+					OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+				TagExportUtilities.exportTagsToStream(tagManager, provider, baseTagPath, recursive, localPropsOnly,
+						tagSubtreeCache,
+						() -> {
+							httpServletResponse.setStatus(HttpServletResponse.SC_OK);
+							httpServletResponse.setContentType("application/json");
+							httpServletResponse.setCharacterEncoding("UTF-8");
+							httpServletResponse.setHeader("Vary", "Accept-Encoding");
+							if (gzip) {
+								httpServletResponse.setHeader("Content-Encoding", "gzip");
+							}
+							if (etag != null) {
+								httpServletResponse.setHeader("ETag", etag);
+							}
+							// Without a content length the body is sent chunked. Send the headers now,
+							// rather than once the tags have been fetched.
+							httpServletResponse.flushBuffer();
+							OutputStream outputStream = httpServletResponse.getOutputStream();
+							responseStream.set(gzip ? new GZIPOutputStream(outputStream, STREAM_BUFFER_SIZE)
+									: outputStream);
+							return new DigestOutputStream(responseStream.get(), digest);
+						});
+			}
+			if (responseStream.get() instanceof GZIPOutputStream) {
+				((GZIPOutputStream) responseStream.get()).finish();
+			}
+			responseStream.get().flush();
+			computation.complete(digest);
+			return null;
+		} catch (TagPathLockManager.LockTimeoutException e) {
+			if (computation != null) {
+				computation.cancel();
+			}
+			logger.warn("Error streaming tags as JSON: " + e.getMessage());
+			return WebUtilities.getConflictError(httpServletResponse, e.getMessage());
+		} catch (OperationDeadline.CancelledException e) {
+			if (computation != null) {
+				computation.cancel();
+			}
+			logger.warn("Error streaming tags as JSON: " + e.getMessage());
+			if (responseStream.get() != null) {
+				// The response has already started, so it can only be ended early
+				return null;
+			}
+			return WebUtilities.getCancelledError(httpServletResponse, e);
+		} catch (Exception e) {
+			if (computation != null) {
+				computation.cancel();
+			}
+			logger.error("Error streaming tags as JSON: " + e.getMessage(), e);
+			if (responseStream.get() != null) {
+				// The response has already started, so it can only be ended early
+				return null;
+			}
+			return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+		}
+	}
+
+	private static JsonObject notModified(HttpServletResponse httpServletResponse, String etag) {
+		httpServletResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+		httpServletResponse.setHeader("ETag", etag);
+		return null;
+	}
+
+	/**
+	 * Checks an Accept-Encoding header for gzip, unless it is refused with a
+	 * quality of zero.
+	 */
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parameters = coding.split(";");
+			if ("gzip".equalsIgnoreCase(parameters[0].trim())) {
+				return parameters.length < 2 || !parameters[1].replace(" ", "").matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
+	}
+
 	public JsonObject exportTagsToDisk(RequestContext requestContext, HttpServletResponse httpServletResponse) {
 		JsonObject responseObject = new JsonObject();
 		try {
@@ -81,9 +340,16 @@ public class TagExportRoutes {
 
 			boolean deleteExisting = Boolean.parseBoolean(requestContext.getParameter("deleteExisting"));
 			boolean excludeUdtDefinitions = Boolean.parseBoolean(requestContext.getParameter("excludeUdtDefinitions"));
+			TagPathFilter pathFilter = TagPathFilter.parse(requestContext.getParameter("includePaths"),
+					requestContext.getParameter("excludePaths"));
 
-			TagExportUtilities.exportTagsToDisk(tagManager, provider, baseTagPath, recursive, localPropsOnly, filePath,
-					exportMode, deleteExisting, excludeUdtDefinitions);
+			JsonObject metrics;
+			try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_ROUTE);
+					OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+					OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+				metrics = TagExportUtilities.exportTagsToDisk(tagManager, provider, baseTagPath, recursive,
+						localPropsOnly, filePath, exportMode, deleteExisting, excludeUdtDefinitions, pathFilter);
+			}
 
 			responseObject.addProperty("status", "success");
 			responseObject.addProperty("filePath", filePath);
@@ -91,6 +357,13 @@ public class TagExportRoutes {
 			if (excludeUdtDefinitions) {
 				responseObject.addProperty("excludedUdtDefinitions", true);
 			}
+			responseObject.add("metrics", metrics);
+		} catch (TagPathLockManager.LockTimeoutException e) {
+			logger.warn("Error exporting tags to disk: " + e.getMessage());
+			responseObject = WebUtilities.getConflictError(httpServletResponse, e.getMessage());
+		} catch (OperationDeadline.CancelledException e) {
+			logger.warn("Error exporting tags to disk: " + e.getMessage());
+			responseObject = WebUtilities.getCancelledError(httpServletResponse, e);
 		} catch (Exception e) {
 			logger.error("Error exporting tags to disk: " + e.getMessage(), e);
 			responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
@@ -98,6 +371,33 @@ public class TagExportRoutes {
 		return responseObject;
 	}
 
+	/**
+	 * Exports a JSON array of operations, each in the form of an entry of
+	 * export-config.json, with operations on different providers running at
+	 * the same time. The response holds the result of every operation, and has
+	 * a 500 status if any of them failed.
+	 */
+	public JsonObject exportTagsBatch(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+		JsonObject responseObject = new JsonObject();
+		try {
+			List<TagConfigEntry> operations = BatchOperationService.parseOperations(requestContext.readBody());
+			boolean deleteExisting = Boolean.parseBoolean(requestContext.getParameter("deleteExisting"));
+
+			try (OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+					OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+				responseObject = batchOperationService.exportTags(operations, deleteExisting,
+						OperationMetrics.CALLER_ROUTE);
+			}
+			if (!responseObject.get("success").getAsBoolean()) {
+				httpServletResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+			}
+		} catch (Exception e) {
+			logger.error("Error exporting batch of tags to disk: " + e.getMessage(), e);
+			responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+		}
+		return responseObject;
+	}
+
 	public JsonObject getExportModes(RequestContext requestContext, HttpServletResponse httpServletResponse) {
 		JsonObject responseObject = new JsonObject();
 		try {
@@ -118,4 +418,14 @@ public class TagExportRoutes {
 		}
 		return responseObject;
 	}
-}
\ No newline at end of file
+
+	public JsonObject getContinuousExportStatus(RequestContext requestContext,
+			HttpServletResponse httpServletResponse) {
+		try {
+			return continuousExportService.getStatus();
+		} catch (Exception e) {
+			logger.error("Error getting continuous export status: " + e.getMessage(), e);
+			return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+		}
+	}
+}
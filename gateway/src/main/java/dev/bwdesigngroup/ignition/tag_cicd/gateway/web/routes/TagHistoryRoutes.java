@@ -0,0 +1,95 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes;
+
+import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.GET;
+import static com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup.TYPE_JSON;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.OperationHistoryService;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
+import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+
+/**
+ * Routes for querying the history of completed operations.
+ */
+public class TagHistoryRoutes {
+    private static final Logger logger = LoggerFactory.getLogger(TagHistoryRoutes.class.getName());
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private final RouteGroup routes;
+    private final OperationHistoryService historyService;
+
+    public TagHistoryRoutes(GatewayContext context, RouteGroup group, OperationHistoryService historyService) {
+        this.routes = group;
+        this.historyService = historyService;
+    }
+
+    public void mountRoutes() {
+        this.routes.newRoute("/tags/history")
+                .handler(this::getHistory)
+                .type(TYPE_JSON)
+                .method(GET)
+                .mount();
+    }
+
+    public JsonObject getHistory(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        JsonObject responseObject = new JsonObject();
+        try {
+            Long since = parseTime(requestContext.getParameter("since"), "since");
+            Long until = parseTime(requestContext.getParameter("until"), "until");
+            String provider = requestContext.getParameter("provider");
+            String operation = requestContext.getParameter("operation");
+
+            int limit = DEFAULT_LIMIT;
+            String limitParameter = requestContext.getParameter("limit");
+            if (limitParameter != null) {
+                try {
+                    limit = Integer.parseInt(limitParameter);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("limit must be a number: " + limitParameter);
+                }
+                if (limit < 1 || limit > MAX_LIMIT) {
+                    throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+                }
+            }
+
+            JsonArray operations = historyService.query(since, until, provider, operation, limit);
+            responseObject.addProperty("count", operations.size());
+            responseObject.add("operations", operations);
+        } catch (Exception e) {
+            logger.error("Error retrieving operation history: " + e.getMessage(), e);
+            responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+        return responseObject;
+    }
+
+    /**
+     * Parses a time given as milliseconds since the epoch or as an ISO-8601
+     * instant, such as {@code 2024-05-01T12:00:00Z}.
+     */
+    private static Long parseTime(String value, String name) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return Instant.parse(value).toEpochMilli();
+            } catch (DateTimeParseException parseException) {
+                throw new IllegalArgumentException(
+                        name + " must be milliseconds since the epoch or an ISO-8601 instant: " + value);
+            }
+        }
+    }
+}
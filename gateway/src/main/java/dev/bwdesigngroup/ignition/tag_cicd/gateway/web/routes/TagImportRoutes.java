@@ -1,5 +1,6 @@
 package dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes;
 
+import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.GET;
 import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.POST;
 import static com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup.TYPE_JSON;
 
@@ -8,11 +9,20 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathFilter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagPathLockManager;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.BatchOperationService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.SourceWatchService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.StartupImportService;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
@@ -22,15 +32,23 @@ import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 public class TagImportRoutes {
     private static final Logger logger = LoggerFactory.getLogger(TagImportRoutes.class.getName());
     private final RouteGroup routes;
     private final GatewayTagManager tagManager;
+    private final StartupImportService startupImportService;
+    private final SourceWatchService sourceWatchService;
+    private final BatchOperationService batchOperationService;
 
-    public TagImportRoutes(GatewayContext context, RouteGroup group) {
+    public TagImportRoutes(GatewayContext context, RouteGroup group, StartupImportService startupImportService,
+            SourceWatchService sourceWatchService, BatchOperationService batchOperationService) {
         this.routes = group;
         this.tagManager = context.getTagManager();
+        this.startupImportService = startupImportService;
+        this.sourceWatchService = sourceWatchService;
+        this.batchOperationService = batchOperationService;
     }
 
     public void mountRoutes() {
@@ -39,6 +57,24 @@ public class TagImportRoutes {
                 .type(TYPE_JSON)
                 .method(POST)
                 .mount();
+
+        this.routes.newRoute("/tags/import/batch")
+                .handler(this::importTagsBatch)
+                .type(TYPE_JSON)
+                .method(POST)
+                .mount();
+
+        this.routes.newRoute("/tags/import/startup")
+                .handler(this::getStartupImportStatus)
+                .type(TYPE_JSON)
+                .method(GET)
+                .mount();
+
+        this.routes.newRoute("/tags/import/watch")
+                .handler(this::getWatchStatus)
+                .type(TYPE_JSON)
+                .method(GET)
+                .mount();
     }
 
     public JsonObject importTagConfiguration(RequestContext requestContext, HttpServletResponse httpServletResponse) {
@@ -64,6 +100,10 @@ public class TagImportRoutes {
                 throw new IllegalArgumentException("exportMode parameter is required");
             }
 
+            ResultMode resultMode = ResultMode.fromCode(requestContext.getParameter("resultMode"));
+            TagPathFilter pathFilter = TagPathFilter.parse(requestContext.getParameter("includePaths"),
+                    requestContext.getParameter("excludePaths"));
+
             String sourcePath = requestContext.getParameter("filePath");
 
             if (sourcePath == null && !ExportMode.SINGLE_FILE.getCode().equals(exportMode)) {
@@ -79,13 +119,24 @@ public class TagImportRoutes {
                 sourcePath = writeTempFile(jsonBody);
             }
 
-            responseObject = TagImportUtilities.importTagsFromSource(
-                    tagManager, provider, baseTagPath, sourcePath, collisionPolicy, exportMode);
+            try (OperationMetrics.Scope caller = OperationMetrics.caller(OperationMetrics.CALLER_ROUTE);
+                    OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+                    OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+                responseObject = TagImportUtilities.importTagsFromSource(
+                        tagManager, provider, baseTagPath, sourcePath, collisionPolicy, exportMode, resultMode,
+                        pathFilter);
+            }
 
             if (ExportMode.SINGLE_FILE.getCode().equals(exportMode)
                     && !sourcePath.equals(requestContext.getParameter("filePath"))) {
                 new File(sourcePath).delete();
             }
+        } catch (TagPathLockManager.LockTimeoutException e) {
+            logger.warn("Error importing tag configuration: " + e.getMessage());
+            responseObject = WebUtilities.getConflictError(httpServletResponse, e.getMessage());
+        } catch (OperationDeadline.CancelledException e) {
+            logger.warn("Error importing tag configuration: " + e.getMessage());
+            responseObject = WebUtilities.getCancelledError(httpServletResponse, e);
         } catch (Exception e) {
             logger.error("Error importing tag configuration: " + e.getMessage(), e);
             responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
@@ -93,6 +144,51 @@ public class TagImportRoutes {
         return responseObject;
     }
 
+    /**
+     * Imports a JSON array of operations, each in the form of an entry of
+     * export-config.json, with operations on different providers running at
+     * the same time. The response holds the result of every operation, and has
+     * a 500 status if any of them failed.
+     */
+    public JsonObject importTagsBatch(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        JsonObject responseObject = new JsonObject();
+        try {
+            List<TagConfigEntry> operations = BatchOperationService.parseOperations(requestContext.readBody());
+            ResultMode resultMode = ResultMode.fromCode(requestContext.getParameter("resultMode"));
+
+            try (OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+                    OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+                responseObject = batchOperationService.importTags(operations, resultMode,
+                        OperationMetrics.CALLER_ROUTE);
+            }
+            if (!responseObject.get("success").getAsBoolean()) {
+                httpServletResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        } catch (Exception e) {
+            logger.error("Error importing batch of tag configurations: " + e.getMessage(), e);
+            responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+        return responseObject;
+    }
+
+    public JsonObject getStartupImportStatus(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        try {
+            return startupImportService.getStatus();
+        } catch (Exception e) {
+            logger.error("Error getting startup import status: " + e.getMessage(), e);
+            return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+    }
+
+    public JsonObject getWatchStatus(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        try {
+            return sourceWatchService.getStatus();
+        } catch (Exception e) {
+            logger.error("Error getting watch status: " + e.getMessage(), e);
+            return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+    }
+
     private String writeTempFile(String jsonContent) throws IOException {
         File tempFile = File.createTempFile("tag_import_", ".json");
         FileUtilities.saveJsonToFile(TagUtilities.stringToJson(jsonContent).getAsJsonObject(),
@@ -0,0 +1,67 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes;
+
+import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.POST;
+import static com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup.TYPE_JSON;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.OperationMetrics;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.BatchOperationService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.TagConfigStore;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.TagJob;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
+import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+
+public class TagJobRoutes {
+    private static final Logger logger = LoggerFactory.getLogger(TagJobRoutes.class.getName());
+    private final RouteGroup routes;
+    private final TagConfigStore configStore;
+    private final BatchOperationService batchOperationService;
+
+    public TagJobRoutes(GatewayContext context, RouteGroup group, TagConfigStore configStore,
+            BatchOperationService batchOperationService) {
+        this.routes = group;
+        this.configStore = configStore;
+        this.batchOperationService = batchOperationService;
+    }
+
+    public void mountRoutes() {
+        this.routes.newRoute("/tags/jobs")
+                .handler(this::runJob)
+                .type(TYPE_JSON)
+                .method(POST)
+                .mount();
+    }
+
+    /**
+     * Runs the export, import and delete steps of a job in one request. The
+     * response holds the result of every step, and has a 500 status if any of
+     * them failed or was skipped.
+     */
+    public JsonObject runJob(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        JsonObject responseObject = new JsonObject();
+        try {
+            TagJob job = TagJob.parse(requestContext.readBody(), configStore.getSnapshot());
+            ResultMode resultMode = ResultMode.fromCode(requestContext.getParameter("resultMode"));
+
+            try (OperationMetrics.Scope lockTimeout = WebUtilities.applyLockTimeout(requestContext);
+                    OperationMetrics.Scope deadline = WebUtilities.applyDeadline(requestContext)) {
+                responseObject = batchOperationService.runJob(job, resultMode, OperationMetrics.CALLER_ROUTE);
+            }
+            if (!responseObject.get("success").getAsBoolean()) {
+                httpServletResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        } catch (Exception e) {
+            logger.error("Error running tag job: " + e.getMessage(), e);
+            responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+        return responseObject;
+    }
+}
@@ -0,0 +1,94 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes;
+
+import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.GET;
+import static com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup.TYPE_JSON;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.MetricsRegistry;
+import dev.bwdesigngroup.ignition.tag_cicd.common.metrics.PrometheusFormat;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationScheduler;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.ContinuousExportService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.SourceWatchService;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.service.StartupImportService;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
+import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+
+/**
+ * Routes exposing the running totals of every export and import operation,
+ * as JSON and in the Prometheus text format.
+ */
+public class TagMetricsRoutes {
+    private static final Logger logger = LoggerFactory.getLogger(TagMetricsRoutes.class.getName());
+    private final RouteGroup routes;
+    private final StartupImportService startupImportService;
+    private final SourceWatchService sourceWatchService;
+    private final ContinuousExportService continuousExportService;
+
+    public TagMetricsRoutes(GatewayContext context, RouteGroup group, StartupImportService startupImportService,
+            SourceWatchService sourceWatchService, ContinuousExportService continuousExportService) {
+        this.routes = group;
+        this.startupImportService = startupImportService;
+        this.sourceWatchService = sourceWatchService;
+        this.continuousExportService = continuousExportService;
+    }
+
+    public void mountRoutes() {
+        this.routes.newRoute("/tags/metrics")
+                .handler(this::getMetrics)
+                .type(TYPE_JSON)
+                .method(GET)
+                .mount();
+
+        this.routes.newRoute("/tags/metrics/prometheus")
+                .handler(this::getPrometheusMetrics)
+                .type(PrometheusFormat.CONTENT_TYPE)
+                .method(GET)
+                .mount();
+    }
+
+    public JsonObject getMetrics(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        try {
+            JsonObject responseObject = MetricsRegistry.getInstance().toJson();
+            JsonObject queuesObject = new JsonObject();
+            for (Map.Entry<String, Integer> queue : getQueueDepths().entrySet()) {
+                queuesObject.addProperty(queue.getKey(), queue.getValue());
+            }
+            responseObject.add("queues", queuesObject);
+            return responseObject;
+        } catch (Exception e) {
+            logger.error("Error retrieving metrics: {}", e.getMessage(), e);
+            return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+    }
+
+    public String getPrometheusMetrics(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        try {
+            return PrometheusFormat.format(MetricsRegistry.getInstance(), getQueueDepths());
+        } catch (Exception e) {
+            logger.error("Error retrieving metrics: {}", e.getMessage(), e);
+            httpServletResponse.setStatus(500);
+            return "";
+        }
+    }
+
+    private Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> queueDepths = new LinkedHashMap<>();
+        queueDepths.put("startupImport", startupImportService.getQueueDepth());
+        queueDepths.put("sourceWatch", sourceWatchService.getQueueDepth());
+        queueDepths.put("continuousExport", continuousExportService.getQueueDepth());
+        for (OperationScheduler.Lane lane : OperationScheduler.Lane.values()) {
+            queueDepths.put(lane.getName() + "Lane", OperationScheduler.getInstance().getQueueDepth(lane));
+        }
+        return queueDepths;
+    }
+}
@@ -0,0 +1,89 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes;
+
+import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.GET;
+import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.POST;
+import static com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup.TYPE_JSON;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationDeadline;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
+import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+
+/**
+ * Routes listing the exports, imports and deletes running for HTTP requests
+ * and Designer calls, and cancelling them.
+ */
+public class TagOperationRoutes {
+    private static final Logger logger = LoggerFactory.getLogger(TagOperationRoutes.class.getName());
+    private final RouteGroup routes;
+
+    public TagOperationRoutes(GatewayContext context, RouteGroup group) {
+        this.routes = group;
+    }
+
+    public void mountRoutes() {
+        this.routes.newRoute("/tags/operations")
+                .handler(this::getOperations)
+                .type(TYPE_JSON)
+                .method(GET)
+                .mount();
+
+        this.routes.newRoute("/tags/operations/cancel")
+                .handler(this::cancelOperation)
+                .type(TYPE_JSON)
+                .method(POST)
+                .mount();
+    }
+
+    public JsonObject getOperations(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        try {
+            JsonArray operationsArray = new JsonArray();
+            for (OperationDeadline operation : OperationDeadline.getRunning()) {
+                operationsArray.add(operation.toJson());
+            }
+            JsonObject responseObject = new JsonObject();
+            responseObject.add("operations", operationsArray);
+            return responseObject;
+        } catch (Exception e) {
+            logger.error("Error listing running operations: {}", e.getMessage(), e);
+            return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+    }
+
+    /**
+     * Cancels the running operation with the id in the operationId parameter.
+     * The operation stops before its next call to the tag system, and its
+     * own request fails with the result of what it finished. The response has
+     * a 404 status if no operation with the id is running.
+     */
+    public JsonObject cancelOperation(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        try {
+            String operationId = requestContext.getParameter("operationId");
+            if (operationId == null || operationId.trim().isEmpty()) {
+                return WebUtilities.getBadRequestError(httpServletResponse, "operationId parameter is required");
+            }
+
+            JsonObject responseObject = new JsonObject();
+            responseObject.addProperty("operationId", operationId.trim());
+            if (!OperationDeadline.cancel(operationId.trim())) {
+                httpServletResponse.setStatus(404);
+                responseObject.addProperty("error", "No operation with id '" + operationId.trim() + "' is running");
+                return responseObject;
+            }
+            logger.info("Cancelled operation {}", operationId.trim());
+            responseObject.addProperty("cancelled", true);
+            return responseObject;
+        } catch (Exception e) {
+            logger.error("Error cancelling operation: {}", e.getMessage(), e);
+            return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ResultMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.TagConfigEntry;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.InMemoryTagManager;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.SyntheticTagTreeGenerator;
+
+public class BatchOperationServiceTest {
+    private static final String PROVIDER = "Test";
+
+    private InMemoryTagManager tagManager;
+    private BatchOperationService service;
+
+    @BeforeEach
+    public void setUp() {
+        JsonObject tags = new SyntheticTagTreeGenerator().setSeed(45).setTagCount(200).setUdtTypes(2).generate();
+        tagManager = new InMemoryTagManager().addProvider(PROVIDER).loadTags(PROVIDER, tags);
+        service = new BatchOperationService(createContext(tagManager));
+        service.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void operationsOfAProviderRunInTheOrderGiven() throws Exception {
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        List<TagConfigEntry> operations = parse("A:1", "B:1", "A:2", "B:2", "a:3", "B:3");
+
+        JsonObject response = service.run(operations, "test", true, entry -> {
+            ran.add(entry.getSourcePath());
+            Thread.sleep(5);
+            return new JsonObject();
+        });
+
+        assertTrue(response.get("success").getAsBoolean());
+        assertEquals(2, response.get("providers").getAsInt());
+        // Provider names are compared ignoring case
+        assertEquals(List.of("A:1", "A:2", "a:3"), filter(ran, "a:"));
+        assertEquals(List.of("B:1", "B:2", "B:3"), filter(ran, "b:"));
+        assertEquals(List.of("A:1", "B:1", "A:2", "B:2", "a:3", "B:3"), getSourcePaths(response));
+    }
+
+    @Test
+    public void providersRunAtTheSameTime() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+
+        JsonObject response = service.run(parse("A:1", "B:1"), "test", true, entry -> {
+            started.countDown();
+            // Each operation waits for the other, so they only finish if they run at once
+            if (!started.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("The other provider did not start");
+            }
+            return new JsonObject();
+        });
+
+        assertTrue(response.get("success").getAsBoolean());
+    }
+
+    @Test
+    public void failedImportSkipsTheRestOfItsProvider() throws Exception {
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+        JsonObject response = service.run(parse("A:1", "A:2", "B:1", "A:3", "B:2"), "test", true, entry -> {
+            ran.add(entry.getSourcePath());
+            if ("A:2".equals(entry.getSourcePath())) {
+                throw new IllegalStateException("Failed");
+            }
+            return new JsonObject();
+        });
+
+        assertEquals(List.of("A:1", "A:2"), filter(ran, "a:"));
+        assertEquals(List.of("B:1", "B:2"), filter(ran, "b:"));
+        assertFalse(response.get("success").getAsBoolean());
+        assertEquals(3, response.get("succeeded").getAsInt());
+        assertEquals(1, response.get("failed").getAsInt());
+        assertEquals(1, response.get("skipped").getAsInt());
+
+        JsonObject skipped = response.getAsJsonArray("results").get(3).getAsJsonObject();
+        assertEquals("A:3", skipped.get("sourcePath").getAsString());
+        assertFalse(skipped.get("success").getAsBoolean());
+        assertTrue(skipped.get("skipped").getAsBoolean());
+    }
+
+    @Test
+    public void failedExportDoesNotStopItsProvider() throws Exception {
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+        JsonObject response = service.run(parse("A:1", "A:2", "A:3"), "test", false, entry -> {
+            ran.add(entry.getSourcePath());
+            if ("A:1".equals(entry.getSourcePath())) {
+                throw new IllegalStateException("Failed");
+            }
+            return new JsonObject();
+        });
+
+        assertEquals(List.of("A:1", "A:2", "A:3"), ran);
+        assertEquals(2, response.get("succeeded").getAsInt());
+        assertEquals(1, response.get("failed").getAsInt());
+        assertEquals(0, response.get("skipped").getAsInt());
+    }
+
+    @Test
+    public void jobSkipsEveryStepDownstreamOfAFailedStep() throws Exception {
+        // 2 fails, which skips 3, and 4 through 3, and 6 despite 1 succeeding
+        TagJob job = TagJob.parse("["
+                + "{\"id\": \"1\", \"operation\": \"delete\", \"provider\": \"Test\", \"tagPath\": \"Site1\","
+                + " \"recursive\": true},"
+                + "{\"id\": \"2\", \"operation\": \"import\", \"provider\": \"Test\", \"sourcePath\": \"missing\","
+                + " \"dependsOn\": []},"
+                + "{\"id\": \"3\", \"operation\": \"delete\", \"provider\": \"Test\", \"tagPath\": \"Site2\","
+                + " \"recursive\": true},"
+                + "{\"id\": \"4\", \"operation\": \"delete\", \"provider\": \"Test\", \"tagPath\": \"Site3\","
+                + " \"recursive\": true},"
+                + "{\"id\": \"5\", \"operation\": \"delete\", \"provider\": \"Test\", \"tagPath\": \"_types_\","
+                + " \"recursive\": true, \"dependsOn\": \"1\"},"
+                + "{\"id\": \"6\", \"operation\": \"delete\", \"provider\": \"Test\", \"tagPath\": \"Site2\","
+                + " \"recursive\": true, \"dependsOn\": [\"1\", \"2\"]}"
+                + "]", null);
+        long removesBefore = tagManager.getCallCount(InMemoryTagManager.Operation.REMOVE);
+
+        JsonObject response = service.runJob(job, ResultMode.SUMMARY, "test");
+
+        Map<String, String> states = new HashMap<>();
+        for (JsonElement step : response.getAsJsonArray("steps")) {
+            states.put(step.getAsJsonObject().get("id").getAsString(),
+                    step.getAsJsonObject().get("state").getAsString());
+        }
+        assertEquals(Map.of("1", "SUCCEEDED", "2", "FAILED", "3", "SKIPPED", "4", "SKIPPED", "5", "SUCCEEDED",
+                "6", "SKIPPED"), states);
+        assertFalse(response.get("success").getAsBoolean());
+        assertEquals(2, response.get("succeeded").getAsInt());
+        assertEquals(1, response.get("failed").getAsInt());
+        assertEquals(3, response.get("skipped").getAsInt());
+        // Only the two steps that succeeded removed tags
+        assertEquals(removesBefore + 2, tagManager.getCallCount(InMemoryTagManager.Operation.REMOVE));
+    }
+
+    /**
+     * Parses operations written as provider:name, with the whole of each as
+     * its source path.
+     */
+    private static List<TagConfigEntry> parse(String... operations) {
+        JsonArray json = new JsonArray();
+        for (String operation : operations) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("provider", operation.substring(0, operation.indexOf(':')));
+            entry.addProperty("sourcePath", operation);
+            json.add(entry);
+        }
+        return BatchOperationService.parseOperations(json.toString());
+    }
+
+    private static GatewayContext createContext(InMemoryTagManager tagManager) {
+        return (GatewayContext) Proxy.newProxyInstance(BatchOperationServiceTest.class.getClassLoader(),
+                new Class<?>[] { GatewayContext.class }, (proxy, method, args) -> {
+                    if ("getTagManager".equals(method.getName())) {
+                        return tagManager.getTagManager();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static List<String> filter(List<String> sourcePaths, String prefix) {
+        List<String> filtered = new ArrayList<>();
+        for (String sourcePath : sourcePaths) {
+            if (sourcePath.toLowerCase().startsWith(prefix)) {
+                filtered.add(sourcePath);
+            }
+        }
+        return filtered;
+    }
+
+    private static List<String> getSourcePaths(JsonObject response) {
+        List<String> sourcePaths = new ArrayList<>();
+        response.getAsJsonArray("results")
+                .forEach(result -> sourcePaths.add(result.getAsJsonObject().get("sourcePath").getAsString()));
+        return sourcePaths;
+    }
+}
@@ -0,0 +1,203 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.InMemoryTagManager;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.SyntheticTagTreeGenerator;
+
+public class TagChangeMonitorTest {
+    private static final String PROVIDER = "Test";
+
+    private InMemoryTagManager tagManager;
+    private TagChangeMonitor monitor;
+    private final List<String> reported = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setUp() {
+        tagManager = new InMemoryTagManager().addProvider(PROVIDER);
+        tagManager.loadTags(PROVIDER, folder("", folder("Area", folder("Line", atomicTag("Speed", 1)))));
+        monitor = new TagChangeMonitor(tagManager.getTagManager());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        monitor.shutdown();
+    }
+
+    @Test
+    public void propertyEditOfAnExistingTagIsReported() {
+        monitor.watch(PROVIDER, "", this::report);
+
+        importTag("Area/Line", atomicTag("Speed", 2));
+
+        assertEquals(List.of("Area/Line/Speed"), reported);
+    }
+
+    @Test
+    public void changesOutsideTheBaseTagPathAreNotReported() {
+        tagManager.loadTags(PROVIDER, folder("", folder("Other", atomicTag("Level", 1))));
+        monitor.watch(PROVIDER, "Area", this::report);
+
+        importTag("Other", atomicTag("Level", 2));
+        importTag("Area/Line", atomicTag("Speed", 2));
+
+        assertEquals(List.of("Area/Line/Speed"), reported);
+    }
+
+    @Test
+    public void addedFolderIsWatched() throws Exception {
+        monitor.watch(PROVIDER, "", this::report);
+        int listeners = tagManager.getStructureListenerCount();
+
+        importTag("Area", folder("Cell", folder("Unit")));
+        // Added folders are listed on the monitor's thread
+        waitFor(() -> tagManager.getStructureListenerCount() == listeners + 2);
+        importTag("Area/Cell/Unit", atomicTag("Level", 1));
+
+        assertEquals(List.of("Area/Cell", "Area/Cell/Unit/Level"), reported);
+    }
+
+    @Test
+    public void addedTagIsNotWatched() throws Exception {
+        monitor.watch(PROVIDER, "", this::report);
+        int listeners = tagManager.getStructureListenerCount();
+        long reads = tagManager.getCallCount(InMemoryTagManager.Operation.READ);
+
+        importTag("Area", atomicTag("Level", 1));
+        // The tag is read once to find its type
+        waitFor(() -> tagManager.getCallCount(InMemoryTagManager.Operation.READ) == reads + 1);
+
+        assertEquals(listeners, tagManager.getStructureListenerCount());
+        assertEquals(List.of("Area/Level"), reported);
+    }
+
+    @Test
+    public void removedFolderIsNoLongerWatched() throws Exception {
+        monitor.watch(PROVIDER, "", this::report);
+        assertEquals(3, tagManager.getStructureListenerCount());
+
+        TagConfigUtilities.removeTagConfigs(tagManager.getTagManager(), PROVIDER, List.of(toTagPath("Area")));
+
+        waitFor(() -> tagManager.getStructureListenerCount() == 1);
+        assertEquals(List.of("Area"), reported);
+    }
+
+    @Test
+    public void onlyFoldersAreListed() {
+        JsonObject tags = new SyntheticTagTreeGenerator().setSeed(30).setTagCount(2000).setUdtTypes(5).generate();
+        tagManager.loadTags(PROVIDER, tags);
+        long reads = tagManager.getCallCount(InMemoryTagManager.Operation.READ);
+
+        try (TagChangeMonitor.Registration registration = monitor.watch(PROVIDER, "", this::report)) {
+            // One listing for each folder, and none for UDT definitions or instances
+            int folders = 1 + countFolders(tagManager.getTags(PROVIDER));
+            assertEquals(folders, tagManager.getCallCount(InMemoryTagManager.Operation.READ) - reads);
+            assertEquals(folders, tagManager.getStructureListenerCount());
+        }
+        assertEquals(0, tagManager.getStructureListenerCount());
+    }
+
+    @Test
+    public void subscriptionsShareOneRegistrationOfTheirProvider() throws Exception {
+        tagManager.loadTags(PROVIDER, folder("", folder("Other", atomicTag("Level", 1))));
+        long reads = tagManager.getCallCount(InMemoryTagManager.Operation.READ);
+        List<String> other = Collections.synchronizedList(new ArrayList<>());
+
+        TagChangeMonitor.Subscription area = monitor.subscribe(PROVIDER, "Area", this::report);
+        TagChangeMonitor.Subscription root = monitor.subscribe(PROVIDER, "", tagPath -> other.add(tagPath.toString()));
+        // The provider is listed once, on the monitor's thread
+        waitFor(() -> area.isReady() && root.isReady());
+        assertEquals(4, tagManager.getCallCount(InMemoryTagManager.Operation.READ) - reads);
+        assertEquals(4, tagManager.getStructureListenerCount());
+
+        importTag("Other", atomicTag("Level", 2));
+        importTag("Area/Line", atomicTag("Speed", 2));
+        assertEquals(List.of("Area/Line/Speed"), reported);
+        assertEquals(2, other.size());
+
+        area.close();
+        assertEquals(4, tagManager.getStructureListenerCount());
+        root.close();
+        assertEquals(0, tagManager.getStructureListenerCount());
+        assertFalse(root.isReady());
+    }
+
+    private void report(TagPath tagPath) {
+        List<String> pathComponents = new ArrayList<>();
+        for (int i = 0; i < tagPath.getPathLength(); i++) {
+            pathComponents.add(tagPath.getPathComponent(i));
+        }
+        reported.add(String.join("/", pathComponents));
+    }
+
+    private void importTag(String basePath, JsonObject tag) {
+        TagConfigUtilities.importTags(tagManager.getTagManager(), toTagPath(basePath), tag,
+                CollisionPolicy.Overwrite);
+    }
+
+    private static TagPath toTagPath(String tagPath) {
+        return new BasicTagPath(PROVIDER, List.of(tagPath.split("/")));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the monitor");
+            Thread.sleep(5);
+        }
+    }
+
+    private static int countFolders(JsonObject folder) {
+        int count = 0;
+        if (!folder.has("tags")) {
+            return count;
+        }
+        for (JsonElement child : folder.getAsJsonArray("tags")) {
+            if ("Folder".equals(child.getAsJsonObject().get("tagType").getAsString())) {
+                count += 1 + countFolders(child.getAsJsonObject());
+            }
+        }
+        return count;
+    }
+
+    private static JsonObject folder(String name, JsonObject... children) {
+        JsonObject folder = new JsonObject();
+        folder.addProperty("name", name);
+        folder.addProperty("tagType", name.isEmpty() ? "Provider" : "Folder");
+        JsonArray tags = new JsonArray();
+        for (JsonObject child : children) {
+            tags.add(child);
+        }
+        folder.add("tags", tags);
+        return folder;
+    }
+
+    private static JsonObject atomicTag(String name, int value) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("name", name);
+        tag.addProperty("tagType", "AtomicTag");
+        tag.addProperty("valueSource", "memory");
+        tag.addProperty("value", value);
+        return tag;
+    }
+}
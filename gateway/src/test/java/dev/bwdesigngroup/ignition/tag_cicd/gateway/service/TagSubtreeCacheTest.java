@@ -0,0 +1,115 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.fixtures.InMemoryTagManager;
+
+public class TagSubtreeCacheTest {
+    private static final String PROVIDER = "Test";
+    private static final int INSTANCES = 10;
+
+    private InMemoryTagManager tagManager;
+    private TagChangeMonitor monitor;
+    private TagSubtreeCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        JsonObject area = folder("Area", folder("Line", atomicTag("Speed", 1)));
+        for (int i = 0; i < INSTANCES; i++) {
+            area.getAsJsonArray("tags").add(udtInstance("Motor" + i, 1));
+        }
+        tagManager = new InMemoryTagManager().addProvider(PROVIDER);
+        tagManager.loadTags(PROVIDER, folder("", area));
+        monitor = new TagChangeMonitor(tagManager.getTagManager());
+        cache = new TagSubtreeCache(monitor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.shutdown();
+        monitor.shutdown();
+    }
+
+    @Test
+    public void folderOfManyUdtsIsFetchedOnceWithItsCachedSubfoldersSpliced() throws Exception {
+        exportUntilCached();
+
+        // Editing an instance drops its folder and the root, but leaves the folder beside it
+        TagConfigUtilities.importTags(tagManager.getTagManager(), new BasicTagPath(PROVIDER, List.of("Area")),
+                udtInstance("Motor0", 2), CollisionPolicy.Overwrite);
+        assertNull(cache.getCachedSubtree(PROVIDER, "Area", false));
+        assertNotNull(cache.getCachedSubtree(PROVIDER, "Area/Line", false));
+        long reads = tagManager.getCallCount(InMemoryTagManager.Operation.READ);
+
+        JsonObject subtree = cache.getSubtree(tagManager.getTagManager(), PROVIDER, "", false);
+
+        // The root and the folder are listed, and the folder is then fetched whole, rather than once per instance
+        assertEquals(3, tagManager.getCallCount(InMemoryTagManager.Operation.READ) - reads);
+        assertEquals(fetchSorted(), subtree);
+    }
+
+    private void exportUntilCached() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        // Exports are only cached once the provider's watch is ready
+        while (cache.getCachedSubtree(PROVIDER, "", false) == null) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the cache");
+            cache.getSubtree(tagManager.getTagManager(), PROVIDER, "", false);
+            Thread.sleep(5);
+        }
+    }
+
+    private JsonObject fetchSorted() throws Exception {
+        return (JsonObject) FileUtilities.sortJsonElementRecursively(TagExportUtilities.convertToJsonObject(
+                TagConfigUtilities.getTagConfigurationModel(tagManager.getTagManager(), PROVIDER, "", true, false)));
+    }
+
+    private static JsonObject folder(String name, JsonObject... children) {
+        JsonObject folder = new JsonObject();
+        folder.addProperty("name", name);
+        folder.addProperty("tagType", name.isEmpty() ? "Provider" : "Folder");
+        JsonArray tags = new JsonArray();
+        for (JsonObject child : children) {
+            tags.add(child);
+        }
+        folder.add("tags", tags);
+        return folder;
+    }
+
+    private static JsonObject udtInstance(String name, int speed) {
+        JsonObject instance = new JsonObject();
+        instance.addProperty("name", name);
+        instance.addProperty("tagType", "UdtInstance");
+        instance.addProperty("typeId", "Motor");
+        JsonArray members = new JsonArray();
+        members.add(atomicTag("Speed", speed));
+        instance.add("tags", members);
+        return instance;
+    }
+
+    private static JsonObject atomicTag(String name, int value) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("name", name);
+        tag.addProperty("tagType", "AtomicTag");
+        tag.addProperty("valueSource", "memory");
+        tag.addProperty("value", value);
+        return tag;
+    }
+}
@@ -19,6 +19,7 @@ dependencyResolutionManagement {
 
     repositories {
         mavenLocal()  // Check local Maven repository first
+        mavenCentral()  // Third party libraries used outside the module itself, such as JMH
         // IA's repository for SDK dependencies
         maven {
             url = uri("https://nexus.inductiveautomation.com/repository/public/")
@@ -31,4 +32,4 @@ enableFeaturePreview("TYPESAFE_PROJECT_ACCESSORS")
 
 rootProject.name = "tag-cicd"
 
-include(":common", ":gateway", ":designer")
\ No newline at end of file
+include(":common", ":gateway", ":designer", ":benchmarks", ":fixtures")
\ No newline at end of file
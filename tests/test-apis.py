@@ -6,6 +6,14 @@ It will test the following:
 - Export a native Ignition tag export file and compare it to the original
 - Export a native Ignition tag export multiple times and confirm the files are the same
 - Export the tags in the multi-folder format and compare it to the original
+- Page through an export
+- Get a 304 response for an unchanged export's ETag
+- Stream an export, plain and gzip compressed, and compare it to the JSON export
+- Run batches of exports and imports
+- Run a job of dependent steps
+- List and cancel running operations
+- Read the metrics
+- Read the operation history
 """
 
 import os
@@ -13,6 +21,8 @@ import pytest
 import requests
 import json
 import filecmp
+import gzip
+import time
 
 BASE_URL = "https://tag-cicd.localtest.me/data/tag-cicd"
 HOST_BASE_PATH = "docker/temp/ignition-data/tags"
@@ -85,5 +95,171 @@ def test_export_multi_folder_format():
     response = requests.post(f"{BASE_URL}/tags/export?provider=Example&baseTagPath=&recursive=true&individualFilesPerObject=true&localPropsOnly=true&filePath={CONTAINER_BASE_PATH}/{EXPORT_MULTI_FILE_DIR}", verify=False)
     assert response.status_code == 200
 
+def import_full_tag_file():
+    with open(FULL_TAG_FILE, "r") as file:
+        tags_data = file.read()
+
+    response = requests.post(f"{BASE_URL}/tags/import?provider=Example&baseTagPath=&collisionPolicy=o&importType=json", data=tags_data, verify=False)
+    assert response.status_code == 200
+
+def test_export_pages():
+    import_full_tag_file()
+
+    # Page through the export and compare the tags with an unpaged listing
+    paths = []
+    cursor = None
+    while True:
+        url = f"{BASE_URL}/tags/export?provider=Example&baseTagPath=&recursive=true&pageSize=5"
+        if cursor:
+            url += f"&cursor={cursor}"
+        response = requests.get(url, verify=False)
+        assert response.status_code == 200
+        page = response.json()
+        assert page["count"] == len(page["tags"]) <= 5
+        paths.extend(tag["path"] for tag in page["tags"])
+        cursor = page.get("nextCursor")
+        if not cursor:
+            break
+
+    response = requests.get(f"{BASE_URL}/tags/export?provider=Example&baseTagPath=&recursive=true&pageSize=10000", verify=False)
+    assert response.status_code == 200
+    assert paths == [tag["path"] for tag in response.json()["tags"]]
+    assert len(paths) == len(set(paths))
+
+    # Filters only decide which tags are listed
+    response = requests.get(f"{BASE_URL}/tags/export?provider=Example&baseTagPath=&recursive=true&tagType=AtomicTag&pageSize=10000", verify=False)
+    assert response.status_code == 200
+    assert all(tag["tag"]["tagType"] == "AtomicTag" for tag in response.json()["tags"])
+
+    response = requests.get(f"{BASE_URL}/tags/export?provider=Example&recursive=true&cursor=not-a-cursor", verify=False)
+    assert response.status_code == 500
+
+def test_export_etag():
+    import_full_tag_file()
+
+    url = f"{BASE_URL}/tags/export?provider=Example&baseTagPath=&recursive=true&localPropsOnly=true"
+    response = requests.get(url, verify=False)
+    assert response.status_code == 200
+    etag = response.headers["ETag"]
+
+    response = requests.get(url, headers={"If-None-Match": etag}, verify=False)
+    assert response.status_code == 304
+    assert response.content == b""
+
+    # A changed tag invalidates the ETag
+    response = requests.delete(f"{BASE_URL}/tags/delete?provider=Example&tagPath=Exchange/NPEDemo&recursive=true", verify=False)
+    assert response.status_code == 200
+    response = requests.get(url, headers={"If-None-Match": etag}, verify=False)
+    assert response.status_code == 200
+    assert response.headers["ETag"] != etag
+
+def test_export_stream():
+    import_full_tag_file()
+
+    query = "provider=Example&baseTagPath=&recursive=true&localPropsOnly=true"
+    response = requests.get(f"{BASE_URL}/tags/export?{query}", verify=False)
+    assert response.status_code == 200
+    expected = response.json()
+
+    response = requests.get(f"{BASE_URL}/tags/export/stream?{query}", headers={"Accept-Encoding": "identity"}, verify=False)
+    assert response.status_code == 200
+    assert "Content-Encoding" not in response.headers
+    assert json.loads(response.content) == expected
+
+    response = requests.get(f"{BASE_URL}/tags/export/stream?{query}", headers={"Accept-Encoding": "gzip"}, stream=True, verify=False)
+    assert response.status_code == 200
+    assert response.headers["Content-Encoding"] == "gzip"
+    assert json.loads(gzip.decompress(response.raw.read())) == expected
+
+def test_batch_export_and_import():
+    import_full_tag_file()
+
+    operations = [
+        {"provider": "Example", "filePath": f"{CONTAINER_BASE_PATH}/batch-single", "exportMode": "singleFile"},
+        {"provider": "Example", "filePath": f"{CONTAINER_BASE_PATH}/batch-structured", "exportMode": "structuredByType"},
+    ]
+    response = requests.post(f"{BASE_URL}/tags/export/batch?deleteExisting=true", json=operations, verify=False)
+    assert response.status_code == 200
+    result = response.json()
+    assert result["success"] is True
+    assert result["succeeded"] == 2
+    assert [operation["success"] for operation in result["results"]] == [True, True]
+
+    response = requests.post(f"{BASE_URL}/tags/import/batch?resultMode=summary", json=[
+        {"provider": "Example", "filePath": f"{CONTAINER_BASE_PATH}/batch-structured", "exportMode": "structuredByType", "collisionPolicy": "o"},
+        {"provider": "Example", "filePath": f"{CONTAINER_BASE_PATH}/missing", "exportMode": "structuredByType", "collisionPolicy": "o"},
+        {"provider": "Example", "filePath": f"{CONTAINER_BASE_PATH}/batch-single", "exportMode": "singleFile", "collisionPolicy": "o"},
+    ], verify=False)
+    # A failed import skips the imports after it on the same provider
+    assert response.status_code == 500
+    result = response.json()
+    assert result["succeeded"] == 1
+    assert result["failed"] == 1
+    assert result["skipped"] == 1
+    assert [operation["success"] for operation in result["results"]] == [True, False, False]
+    assert result["results"][2]["skipped"] is True
+
+def test_job():
+    import_full_tag_file()
+
+    job = {"steps": [
+        {"id": "export", "operation": "export", "provider": "Example", "filePath": f"{CONTAINER_BASE_PATH}/job.json", "exportMode": "singleFile"},
+        {"id": "import", "operation": "import", "provider": "Example", "filePath": f"{CONTAINER_BASE_PATH}/job.json", "exportMode": "singleFile", "collisionPolicy": "o", "dependsOn": ["export"]},
+        {"id": "missing", "operation": "import", "provider": "Example", "filePath": f"{CONTAINER_BASE_PATH}/missing.json", "exportMode": "singleFile", "collisionPolicy": "o", "dependsOn": []},
+        {"id": "after-missing", "operation": "delete", "provider": "Example", "tagPath": "Nothing", "dependsOn": ["missing"]},
+    ]}
+    response = requests.post(f"{BASE_URL}/tags/jobs", json=job, verify=False)
+    assert response.status_code == 500
+    result = response.json()
+    states = {step["id"]: step["state"] for step in result["steps"]}
+    assert states == {"export": "SUCCEEDED", "import": "SUCCEEDED", "missing": "FAILED", "after-missing": "SKIPPED"}
+    assert result["succeeded"] == 2
+    assert result["failed"] == 1
+    assert result["skipped"] == 1
+
+def test_operations():
+    response = requests.get(f"{BASE_URL}/tags/operations", verify=False)
+    assert response.status_code == 200
+    assert isinstance(response.json()["operations"], list)
+
+    response = requests.post(f"{BASE_URL}/tags/operations/cancel?operationId=not-running", verify=False)
+    assert response.status_code == 404
+
+    response = requests.post(f"{BASE_URL}/tags/operations/cancel", verify=False)
+    assert response.status_code == 400
+
+def test_metrics():
+    import_full_tag_file()
+
+    response = requests.get(f"{BASE_URL}/tags/metrics", verify=False)
+    assert response.status_code == 200
+    metrics = response.json()
+    assert "queues" in metrics
+    assert "continuousExport" in metrics["queues"]
+
+    response = requests.get(f"{BASE_URL}/tags/metrics/prometheus", verify=False)
+    assert response.status_code == 200
+    assert response.headers["Content-Type"].startswith("text/plain")
+    assert "tagcicd_" in response.text
+
+def test_history():
+    started = int(time.time() * 1000)
+    import_full_tag_file()
+
+    # The history is written in the background
+    operations = []
+    for _ in range(20):
+        response = requests.get(f"{BASE_URL}/tags/history?since={started}&provider=Example&limit=10", verify=False)
+        assert response.status_code == 200
+        operations = response.json()["operations"]
+        if operations:
+            break
+        time.sleep(0.5)
+    assert operations
+    assert all(operation["provider"] == "Example" and operation["startedAt"] >= started for operation in operations)
+
+    response = requests.get(f"{BASE_URL}/tags/history?since=yesterday", verify=False)
+    assert response.status_code == 500
+
 if __name__ == "__main__":
 	pytest.main(["-s", __file__])